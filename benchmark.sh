@@ -0,0 +1,2 @@
+javac -classpath jar/jmathplot.jar:jar/xmlrpc-helma-1.0.jar:jar/xerces-2.9.0.jar:src src/benchmarks/*.java
+java -classpath jar/jmathplot.jar:jar/xmlrpc-helma-1.0.jar:jar/xerces-2.9.0.jar:src benchmarks.BenchmarkRunner "$@"
@@ -0,0 +1,65 @@
+/*
+ * Benchmark.java
+ *
+ * Created on 17 October 2026
+ */
+package benchmarks;
+
+/**
+ * A single benchmark case for BenchmarkRunner: one operation which is
+ * repeated for a fixed time and measured for throughput and allocation.
+ * The value returned by operation() is consumed by the runner so that the
+ * JIT cannot remove the work.
+ */
+public abstract class Benchmark
+{
+    private final String name;
+    private final String parameters;
+
+    /**
+     * @param name The name of the benchmark, e.g. "IT2_Rulebase.evaluate".
+     * @param parameters A short description of the parameters of this case,
+     * e.g. "typeReduction=1 discretisation=100".
+     */
+    protected Benchmark(String name, String parameters)
+    {
+        this.name = name;
+        this.parameters = parameters;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getParameters()
+    {
+        return parameters;
+    }
+
+    /**
+     * Called once before the warmup iterations; builds the system under test.
+     */
+    public void setUp()
+    {
+    }
+
+    /**
+     * Performs one operation.
+     * @return Any value depending on the result of the operation.
+     */
+    public abstract double operation();
+
+    /**
+     * Called once after the measurement iterations; releases threads etc.
+     */
+    public void tearDown()
+    {
+    }
+
+    @Override
+    public String toString()
+    {
+        return parameters.length()==0 ? name : name+" ["+parameters+"]";
+    }
+}
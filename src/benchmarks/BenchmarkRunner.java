@@ -0,0 +1,319 @@
+/*
+ * BenchmarkRunner.java
+ *
+ * Created on 17 October 2026
+ */
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmark suites of this package and prints one line per case:
+ * throughput (operations per second, mean and standard deviation over the
+ * measurement iterations), time per operation, bytes allocated per operation,
+ * allocation rate and the garbage collections during measurement.
+ * <p>
+ * Each case is run in its own JVM (a fork started with the same java
+ * executable, class path and JVM options), so the JIT profile of one case
+ * does not affect the next. In the fork, a number of timed warmup iterations
+ * is followed by timed measurement iterations. The operation is repeated in
+ * batches and the clock is only read after each batch; the batch size is
+ * doubled during the first warmup iteration until a batch takes at least
+ * 100 us, so reading the clock does not distort short operations.
+ * Allocation is read from the per-thread allocation counters of the JVM
+ * (com.sun.management.ThreadMXBean) and summed over all live threads, so work
+ * handed to thread pools is included; it is reported as n/a if the JVM does
+ * not provide the counters.
+ * <p>
+ * Usage: java benchmarks.BenchmarkRunner [-wi warmupIterations] [-i iterations]
+ * [-t iterationTimeMs] [-f forks] [-l] [regex] - only cases whose name and
+ * parameters match the regular expression are run, -l lists the cases without
+ * running them. Each case is run in the given number of forks (default 1), one
+ * result line per fork; -f 0 runs all cases in the current JVM.
+ */
+public class BenchmarkRunner
+{
+    private static volatile double sink;    //consumes the results of the operations
+
+    private static final long MIN_BATCH_TIME = 100000;     //ns
+
+    private int warmupIterations = 5;
+    private int measurementIterations = 5;
+    private long iterationTime = 1000;      //ms
+    private int forks = 1;
+    private long batchSize;                 //operations between two readings of the clock
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean allocationSupported;
+
+    public BenchmarkRunner()
+    {
+        boolean supported = false;
+        if(threads instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean)threads;
+            if(t.isThreadAllocatedMemorySupported())
+            {
+                if(!t.isThreadAllocatedMemoryEnabled())
+                    t.setThreadAllocatedMemoryEnabled(true);
+                supported = true;
+            }
+        }
+        allocationSupported = supported;
+    }
+
+    public void setWarmupIterations(int warmupIterations)
+    {
+        this.warmupIterations = warmupIterations;
+    }
+
+    public void setMeasurementIterations(int measurementIterations)
+    {
+        if(measurementIterations<1)
+            throw new IllegalArgumentException("At least one measurement iteration is required.");
+        this.measurementIterations = measurementIterations;
+    }
+
+    /**
+     * @param iterationTime The duration of each warmup and measurement iteration in ms.
+     */
+    public void setIterationTime(long iterationTime)
+    {
+        this.iterationTime = iterationTime;
+    }
+
+    /**
+     * @param forks The number of JVMs each case is run in by runForked(), 0 to
+     * run it in the current JVM.
+     */
+    public void setForks(int forks)
+    {
+        if(forks<0)
+            throw new IllegalArgumentException("The number of forks cannot be negative.");
+        this.forks = forks;
+    }
+
+    /**
+     * Returns all benchmark cases of this package.
+     */
+    public static List<Benchmark> getAllBenchmarks()
+    {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        benchmarks.addAll(InferenceBenchmarks.create());
+        benchmarks.addAll(CentroidBenchmarks.create());
+        benchmarks.addAll(SimilarityBenchmarks.create());
+        benchmarks.addAll(PromotionBenchmarks.create());
+        return benchmarks;
+    }
+
+    /**
+     * Runs the case with the given index in getAllBenchmarks() in as many new
+     * JVMs as set by setForks() (or in this JVM if it is 0), one after the
+     * other. Each fork prints its own result line.
+     */
+    public void runForked(int index) throws IOException, InterruptedException
+    {
+        if(forks==0)
+        {
+            run(getAllBenchmarks().get(index));
+            return;
+        }
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home")+File.separator+"bin"+File.separator+"java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BenchmarkRunner.class.getName());
+        command.add("-wi");
+        command.add(String.valueOf(warmupIterations));
+        command.add("-i");
+        command.add(String.valueOf(measurementIterations));
+        command.add("-t");
+        command.add(String.valueOf(iterationTime));
+        command.add("-case");
+        command.add(String.valueOf(index));
+        for(int f=0;f<forks;f++)
+        {
+            Process fork = new ProcessBuilder(command).inheritIO().start();
+            int status = fork.waitFor();
+            if(status!=0)
+                System.out.println("The fork for case "+index+" ended with status "+status+".");
+        }
+    }
+
+    /**
+     * Runs the given case in this JVM and prints its results.
+     */
+    public void run(Benchmark benchmark)
+    {
+        benchmark.setUp();
+        try
+        {
+            batchSize = 0;
+            for(int i=0;i<warmupIterations;i++)
+                iteration(benchmark);
+            if(batchSize==0)        //no warmup
+                iteration(benchmark);
+
+            double[] throughput = new double[measurementIterations];
+            long operations = 0, allocated = 0, time = 0;
+            long gcCount = -getGarbageCollections(), gcTime = -getGarbageCollectionTime();
+            for(int i=0;i<measurementIterations;i++)
+            {
+                long allocatedBefore = allocationSupported ? getAllocatedBytes() : 0;
+                long[] result = iteration(benchmark);
+                if(allocationSupported)
+                    allocated += getAllocatedBytes()-allocatedBefore;
+                operations += result[0];
+                time += result[1];
+                throughput[i] = result[0]*1e9/result[1];
+            }
+            gcCount += getGarbageCollections();
+            gcTime += getGarbageCollectionTime();
+
+            double mean = 0, deviation = 0;
+            for(int i=0;i<throughput.length;i++)
+                mean += throughput[i];
+            mean /= throughput.length;
+            for(int i=0;i<throughput.length;i++)
+                deviation += (throughput[i]-mean)*(throughput[i]-mean);
+            deviation = throughput.length>1 ? Math.sqrt(deviation/(throughput.length-1)) : 0.0;
+
+            String allocation = allocationSupported
+                    ? String.format(Locale.US, "%12.1f B/op %10.1f MB/s", allocated/(double)operations, allocated*1e9/time/(1024*1024))
+                    : String.format(Locale.US, "%12s B/op %10s MB/s", "n/a", "n/a");
+            System.out.println(String.format(Locale.US, "%-100s %14.1f +- %10.1f ops/s %12.1f ns/op %s %5d GCs %6d ms",
+                    benchmark, mean, deviation, time/(double)operations, allocation, gcCount, gcTime));
+        }
+        finally
+        {
+            benchmark.tearDown();
+        }
+    }
+
+    /**
+     * Repeats the operation in batches for iterationTime ms. In the first call
+     * the batch size is calibrated, see the class description.
+     * @return The number of operations and the elapsed time in ns.
+     */
+    private long[] iteration(Benchmark benchmark)
+    {
+        double result = 0.0;
+        long operations = 0, batch, b;
+        long start = System.nanoTime(), end = start + iterationTime*1000000L, now, batchStart = start;
+        boolean calibrate = batchSize==0;
+        batch = calibrate ? 1 : batchSize;
+        do
+        {
+            for(b=0;b<batch;b++)
+                result += benchmark.operation();
+            operations += batch;
+            now = System.nanoTime();
+            if(calibrate && now-batchStart<MIN_BATCH_TIME)
+                batch *= 2;
+            batchStart = now;
+        }
+        while(now<end);
+        if(calibrate)
+            batchSize = batch;
+        sink += result;
+        return new long[]{operations, now-start};
+    }
+
+    private final Map<Long, Long> allocatedPerThread = new HashMap<Long, Long>();
+
+    /**
+     * Returns the bytes allocated so far by all threads which were alive at
+     * any call of this method, including threads which have since terminated
+     * (with their last known count).
+     */
+    private long getAllocatedBytes()
+    {
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = ((com.sun.management.ThreadMXBean)threads).getThreadAllocatedBytes(ids);
+        for(int i=0;i<ids.length;i++)
+            if(bytes[i]>=0)
+                allocatedPerThread.put(ids[i], bytes[i]);
+        long total = 0;
+        for(Long b : allocatedPerThread.values())
+            total += b;
+        return total;
+    }
+
+    private static long getGarbageCollections()
+    {
+        long count = 0;
+        for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(gc.getCollectionCount(), 0);
+        return count;
+    }
+
+    private static long getGarbageCollectionTime()
+    {
+        long time = 0;
+        for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(gc.getCollectionTime(), 0);
+        return time;
+    }
+
+    public static void main(String[] args)
+    {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        Pattern filter = null;
+        boolean list = false;
+        int forkedCase = -1;
+        for(int i=0;i<args.length;i++)
+        {
+            if(args[i].equals("-wi"))
+                runner.setWarmupIterations(Integer.parseInt(args[++i]));
+            else if(args[i].equals("-i"))
+                runner.setMeasurementIterations(Integer.parseInt(args[++i]));
+            else if(args[i].equals("-t"))
+                runner.setIterationTime(Long.parseLong(args[++i]));
+            else if(args[i].equals("-f"))
+                runner.setForks(Integer.parseInt(args[++i]));
+            else if(args[i].equals("-case"))    //internal: run a single case in this JVM (a fork)
+                forkedCase = Integer.parseInt(args[++i]);
+            else if(args[i].equals("-l"))
+                list = true;
+            else
+                filter = Pattern.compile(args[i]);
+        }
+
+        if(forkedCase>=0)
+        {
+            runner.run(getAllBenchmarks().get(forkedCase));
+            System.exit(0);
+        }
+        List<Benchmark> benchmarks = getAllBenchmarks();
+        for(int i=0;i<benchmarks.size();i++)
+        {
+            if(filter!=null && !filter.matcher(benchmarks.get(i).toString()).find())
+                continue;
+            if(list)
+                System.out.println(benchmarks.get(i));
+            else
+            {
+                try
+                {
+                    runner.runForked(i);
+                }
+                catch(Exception e)
+                {
+                    System.out.println("Could not run "+benchmarks.get(i)+": "+e);
+                }
+            }
+        }
+        System.exit(0);     //the workers of FLCPoolFactory are not daemon threads
+    }
+}
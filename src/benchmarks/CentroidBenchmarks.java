@@ -0,0 +1,103 @@
+/*
+ * CentroidBenchmarks.java
+ *
+ * Created on 17 October 2026
+ */
+package benchmarks;
+
+import intervalType2.sets.IntervalT2Engine_Centroid;
+import intervalType2.sets.IntervalT2MF_Gaussian;
+import java.util.ArrayList;
+import java.util.List;
+import type1.sets.T1MF_Gaussian;
+
+/**
+ * Benchmarks of IntervalT2Engine_Centroid: the centroid of an interval type-2
+ * set for each algorithm and discretisation level, and KM on a sequence of
+ * slowly changing sampled sets with and without warm start.
+ */
+class CentroidBenchmarks
+{
+    private static final int SETS = 64;     //power of two
+
+    static List<Benchmark> create()
+    {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for(short algorithm=IntervalT2Engine_Centroid.KARNIKMENDEL;algorithm<=IntervalT2Engine_Centroid.WUMENDEL;algorithm++)
+            for(int discretisation : new int[]{100, 1000})
+                benchmarks.add(centroid(algorithm, discretisation));
+        for(short algorithm : new short[]{IntervalT2Engine_Centroid.KARNIKMENDEL, IntervalT2Engine_Centroid.ENHANCEDKARNIKMENDEL})
+            for(int warmStart=0;warmStart<2;warmStart++)
+                benchmarks.add(sampledCentroid(algorithm, 1000, warmStart==1));
+        return benchmarks;
+    }
+
+    private static Benchmark centroid(final short algorithm, final int discretisation)
+    {
+        return new Benchmark("IntervalT2Engine_Centroid.getCentroid(mf)",
+                "algorithm="+IntervalT2Engine_Centroid.getCentroidAlgorithmName(algorithm)+" discretisation="+discretisation)
+        {
+            IntervalT2Engine_Centroid engine;
+            IntervalT2MF_Gaussian set;
+
+            @Override
+            public void setUp()
+            {
+                engine = new IntervalT2Engine_Centroid(discretisation, algorithm);
+                set = new IntervalT2MF_Gaussian("IT2MF for Medium tip",
+                        new T1MF_Gaussian("Upper MF Medium tip", 15.0, 6.0), new T1MF_Gaussian("Lower MF Medium tip", 15.0, 4.0));
+            }
+
+            @Override
+            public double operation()
+            {
+                return engine.getCentroid(set).getAverage();
+            }
+        };
+    }
+
+    /**
+     * The sets are asymmetric blends of two Gaussians whose weights drift
+     * from one set to the next, as the aggregated output sets of consecutive
+     * evaluations with similar inputs do.
+     */
+    private static Benchmark sampledCentroid(final short algorithm, final int discretisation, final boolean warmStart)
+    {
+        return new Benchmark("IntervalT2Engine_Centroid.getCentroid(x,lower,upper)",
+                "algorithm="+IntervalT2Engine_Centroid.getCentroidAlgorithmName(algorithm)+" discretisation="+discretisation+" warmStart="+warmStart)
+        {
+            IntervalT2Engine_Centroid engine;
+            double[] x;
+            double[][] lower, upper;
+            int next;
+
+            @Override
+            public void setUp()
+            {
+                engine = new IntervalT2Engine_Centroid(discretisation, algorithm);
+                engine.setWarmStart(warmStart);
+                x = new double[discretisation];
+                lower = new double[SETS][discretisation];
+                upper = new double[SETS][discretisation];
+                for(int i=0;i<discretisation;i++)
+                    x[i] = 30.0*i/(discretisation-1);
+                for(int s=0;s<SETS;s++)
+                {
+                    double w = 0.5+0.4*Math.sin(2*Math.PI*s/SETS);
+                    for(int i=0;i<discretisation;i++)
+                    {
+                        upper[s][i] = Math.max(w*Math.exp(-0.5*Math.pow((x[i]-10)/6, 2)), (1-w)*Math.exp(-0.5*Math.pow((x[i]-20)/6, 2)));
+                        lower[s][i] = Math.max(w*Math.exp(-0.5*Math.pow((x[i]-10)/4, 2)), (1-w)*Math.exp(-0.5*Math.pow((x[i]-20)/4, 2)));
+                    }
+                }
+            }
+
+            @Override
+            public double operation()
+            {
+                int s = next++ & (SETS-1);
+                return engine.getCentroid(x, lower[s], upper[s]).getAverage();
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * InferenceBenchmarks.java
+ *
+ * Created on 17 October 2026
+ */
+package benchmarks;
+
+import generalType2zSlices.system.multicore.FLCFactory;
+import generalType2zSlices.system.multicore.FLCPoolFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks of the complete inference of the tipping systems: the type-1,
+ * interval type-2 and zSlices based general type-2 rulebases and the
+ * multicore factories which run the zSlices in parallel. Each operation
+ * evaluates the system for the next of a fixed sequence of random inputs.
+ */
+class InferenceBenchmarks
+{
+    private static final int INPUTS = 1024;     //power of two
+
+    static List<Benchmark> create()
+    {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for(int defuzzification=0;defuzzification<2;defuzzification++)
+            benchmarks.add(t1Evaluate(defuzzification, 100));
+        for(int typeReduction=0;typeReduction<2;typeReduction++)
+            for(int discretisation : new int[]{100, 1000})
+                benchmarks.add(it2Evaluate(typeReduction, discretisation));
+        for(int typeReduction=0;typeReduction<2;typeReduction++)
+        {
+            for(int zLevels : new int[]{2, 4, 8})
+            {
+                benchmarks.add(gt2Evaluate(typeReduction, zLevels));
+                benchmarks.add(gt2Factory(typeReduction, zLevels));
+                benchmarks.add(gt2PoolFactory(typeReduction, zLevels));
+            }
+        }
+        return benchmarks;
+    }
+
+    private static Benchmark t1Evaluate(final int defuzzification, final int discretisation)
+    {
+        return new Benchmark("T1_Rulebase.evaluate", "defuzzification="+defuzzification+" discretisation="+discretisation)
+        {
+            TippingSystems system;
+            double[][] inputs;
+            int next;
+
+            @Override
+            public void setUp()
+            {
+                system = TippingSystems.createT1(discretisation);
+                inputs = TippingSystems.randomInputs(INPUTS);
+            }
+
+            @Override
+            public double operation()
+            {
+                system.setInputs(inputs[next++ & (INPUTS-1)]);
+                return system.t1Rulebase.evaluate(defuzzification).get(system.tip);
+            }
+        };
+    }
+
+    private static Benchmark it2Evaluate(final int typeReduction, final int discretisation)
+    {
+        return new Benchmark("IT2_Rulebase.evaluate", "typeReduction="+typeReduction+" discretisation="+discretisation)
+        {
+            TippingSystems system;
+            double[][] inputs;
+            int next;
+
+            @Override
+            public void setUp()
+            {
+                system = TippingSystems.createIT2(discretisation);
+                inputs = TippingSystems.randomInputs(INPUTS);
+            }
+
+            @Override
+            public double operation()
+            {
+                system.setInputs(inputs[next++ & (INPUTS-1)]);
+                return system.it2Rulebase.evaluate(typeReduction).get(system.tip);
+            }
+        };
+    }
+
+    private static Benchmark gt2Evaluate(final int typeReduction, final int zLevels)
+    {
+        return new Benchmark("GenT2z_Rulebase.evaluate", "typeReduction="+typeReduction+" zLevels="+zLevels)
+        {
+            TippingSystems system;
+            double[][] inputs;
+            int next;
+
+            @Override
+            public void setUp()
+            {
+                system = TippingSystems.createGT2(zLevels);
+                inputs = TippingSystems.randomInputs(INPUTS);
+            }
+
+            @Override
+            public double operation()
+            {
+                system.setInputs(inputs[next++ & (INPUTS-1)]);
+                return system.gt2Rulebase.evaluate(typeReduction).get(system.tip);
+            }
+        };
+    }
+
+    private static Benchmark gt2Factory(final int typeReduction, final int zLevels)
+    {
+        return new Benchmark("FLCFactory.runFactory", "typeReduction="+typeReduction+" zLevels="+zLevels)
+        {
+            TippingSystems system;
+            FLCFactory factory;
+            double[][] inputs;
+            int next;
+
+            @Override
+            public void setUp()
+            {
+                system = TippingSystems.createGT2(zLevels);
+                factory = new FLCFactory(system.gt2Rulebase.getIT2Rulebases());
+                inputs = TippingSystems.randomInputs(INPUTS);
+            }
+
+            @Override
+            public double operation()
+            {
+                system.setInputs(inputs[next++ & (INPUTS-1)]);
+                return factory.runFactory(typeReduction).get(system.tip);
+            }
+        };
+    }
+
+    private static Benchmark gt2PoolFactory(final int typeReduction, final int zLevels)
+    {
+        return new Benchmark("FLCPoolFactory.runFactory", "typeReduction="+typeReduction+" zLevels="+zLevels)
+        {
+            TippingSystems system;
+            FLCPoolFactory factory;
+            double[][] inputs;
+            int next;
+
+            @Override
+            public void setUp()
+            {
+                system = TippingSystems.createGT2(zLevels);
+                factory = new FLCPoolFactory(system.gt2Rulebase.getIT2Rulebases());
+                inputs = TippingSystems.randomInputs(INPUTS);
+            }
+
+            @Override
+            public double operation()
+            {
+                system.setInputs(inputs[next++ & (INPUTS-1)]);
+                return factory.runFactory(typeReduction).get(system.tip);
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * PromotionBenchmarks.java
+ *
+ * Created on 17 October 2026
+ */
+package benchmarks;
+
+import fHybridFuzzyModule.JavaServer;
+import fHybridFuzzyModule.PageBatch;
+import fHybridFuzzyModule.PromotionCache;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * End to end benchmarks of the promotion server: each operation scores one
+ * synthetic batch of pages through JavaServer, either as the text request of
+ * promote(String,int,int), as the packed request of promoteBatch() or as a
+ * PageBatch, or as a packed request of which only the TOP_K best pages are
+ * returned. The pages have uniformly distributed recency, read and write
+ * counts. The PromotionCache is measured on batches whose pages repeat a
+ * small number of distinct (recency, reads, writes) triples, with and without
+ * the cache.
+ */
+class PromotionBenchmarks
+{
+    private static final int MAX_SIZE = 1000;
+    private static final int MAX_RECENCY = 100000;
+    private static final int DISTINCT_PAGES = 4096;
+    private static final int TOP_K = 256;
+
+    static List<Benchmark> create()
+    {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for(String system : new String[]{"t1", "t2", "t1lut", "t2lut"})
+        {
+            for(int pages : new int[]{64, 4096, 65536})
+            {
+                benchmarks.add(promote(system, pages, 0));
+                benchmarks.add(promote(system, pages, 1));
+                benchmarks.add(promote(system, pages, 2));
+                benchmarks.add(promote(system, pages, 3));
+            }
+        }
+        for(String system : new String[]{"t1", "t2"})
+        {
+            benchmarks.add(promoteCached(system, 65536, false));
+            benchmarks.add(promoteCached(system, 65536, true));
+        }
+        return benchmarks;
+    }
+
+    private static PageBatch createBatch(int pages)
+    {
+        Random random = new Random(42);
+        PageBatch batch = new PageBatch(pages);
+        for(int p=0;p<pages;p++)
+        {
+            batch.getAddresses()[p] = p;
+            batch.getRecency()[p] = random.nextInt(MAX_RECENCY+1);
+            batch.getReads()[p] = random.nextInt(MAX_SIZE+1);
+            batch.getWrites()[p] = random.nextInt(MAX_SIZE+1);
+        }
+        return batch;
+    }
+
+    /**
+     * Creates a batch whose pages are drawn from DISTINCT_PAGES random triples.
+     */
+    private static PageBatch createRepeatingBatch(int pages)
+    {
+        PageBatch distinct = createBatch(DISTINCT_PAGES);
+        Random random = new Random(7);
+        PageBatch batch = new PageBatch(pages);
+        for(int p=0;p<pages;p++)
+        {
+            int d = random.nextInt(DISTINCT_PAGES);
+            batch.getAddresses()[p] = p;
+            batch.getRecency()[p] = distinct.getRecency()[d];
+            batch.getReads()[p] = distinct.getReads()[d];
+            batch.getWrites()[p] = distinct.getWrites()[d];
+        }
+        return batch;
+    }
+
+    private static Benchmark promoteCached(final String system, final int pages, final boolean cache)
+    {
+        return new Benchmark("JavaServer.promote", "system="+system+" pages="+pages+" distinct="+DISTINCT_PAGES+" cache="+(cache ? "on" : "off"))
+        {
+            JavaServer server;
+            PageBatch batch;
+
+            @Override
+            public void setUp()
+            {
+                server = new JavaServer();
+                server.reload(system);
+                if(cache)
+                    server.setPromotionCache(new PromotionCache());
+                batch = createRepeatingBatch(pages);
+            }
+
+            @Override
+            public double operation()
+            {
+                server.promote(batch, MAX_SIZE, MAX_RECENCY);
+                return batch.getScores()[0];
+            }
+        };
+    }
+
+    /**
+     * @param request 0: text request, 1: packed request, 2: PageBatch, 3: packed top-k request.
+     */
+    private static Benchmark promote(final String system, final int pages, final int request)
+    {
+        String[] requests = {"text", "packed", "PageBatch", "packed top-"+TOP_K};
+        return new Benchmark("JavaServer.promote", "system="+system+" pages="+pages+" request="+requests[request])
+        {
+            JavaServer server;
+            PageBatch batch;
+            byte[] packed;
+            String text;
+
+            @Override
+            public void setUp()
+            {
+                server = new JavaServer();
+                server.reload(system);
+                batch = createBatch(pages);
+                packed = batch.encode();
+                StringBuilder sb = new StringBuilder();
+                for(int p=0;p<pages;p++)
+                {
+                    if(p>0) sb.append('\n');
+                    sb.append((int)batch.getRecency()[p]).append(';').append(p).append(';')
+                            .append((int)batch.getReads()[p]).append(';').append((int)batch.getWrites()[p]).append(";R");
+                }
+                text = sb.toString();
+            }
+
+            @Override
+            public double operation()
+            {
+                switch(request)
+                {
+                    case 0:
+                        try
+                        {
+                            return server.promote(text, MAX_SIZE, MAX_RECENCY).size();
+                        }
+                        catch(IOException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    case 1:
+                        return server.promoteBatch(packed, MAX_SIZE, MAX_RECENCY).length;
+                    case 3:
+                        return server.promoteBatchTopK(packed, MAX_SIZE, MAX_RECENCY, TOP_K).length;
+                    default:
+                        server.promote(batch, MAX_SIZE, MAX_RECENCY);
+                        return batch.getScores()[0];
+                }
+            }
+        };
+    }
+}
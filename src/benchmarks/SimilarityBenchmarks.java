@@ -0,0 +1,65 @@
+/*
+ * SimilarityBenchmarks.java
+ *
+ * Created on 17 October 2026
+ */
+package benchmarks;
+
+import generalType2zSlices.sets.GenT2zMF_Gaussian;
+import intervalType2.sets.IntervalT2MF_Gaussian;
+import java.util.ArrayList;
+import java.util.List;
+import similarity.JaccardSimilarityEngine;
+import type1.sets.T1MF_Gaussian;
+
+/**
+ * Benchmarks of the Jaccard similarity of two overlapping sets of each type.
+ */
+class SimilarityBenchmarks
+{
+    static List<Benchmark> create()
+    {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for(int type=1;type<=3;type++)
+            for(int discretisation : new int[]{100, 1000})
+                benchmarks.add(jaccard(type, discretisation));
+        return benchmarks;
+    }
+
+    /**
+     * @param type 1: type-1, 2: interval type-2, 3: zSlices based general type-2 (4 zLevels).
+     */
+    private static Benchmark jaccard(final int type, final int discretisation)
+    {
+        return new Benchmark("JaccardSimilarityEngine.getSimilarity", "type="+(type==1 ? "T1" : type==2 ? "IT2" : "zGT2")+" discretisation="+discretisation)
+        {
+            JaccardSimilarityEngine engine;
+            T1MF_Gaussian t1A, t1B;
+            IntervalT2MF_Gaussian it2A, it2B;
+            GenT2zMF_Gaussian gt2A, gt2B;
+
+            @Override
+            public void setUp()
+            {
+                engine = new JaccardSimilarityEngine();
+                t1A = new T1MF_Gaussian("Medium tip", 15.0, 6.0);
+                t1B = new T1MF_Gaussian("High tip", 20.0, 6.0);
+                it2A = new IntervalT2MF_Gaussian("IT2MF for Medium tip", t1A, new T1MF_Gaussian("Lower MF Medium tip", 15.0, 4.0));
+                it2B = new IntervalT2MF_Gaussian("IT2MF for High tip", t1B, new T1MF_Gaussian("Lower MF High tip", 20.0, 4.0));
+                gt2A = new GenT2zMF_Gaussian("zGT2MF for Medium tip", it2A, 4);
+                gt2B = new GenT2zMF_Gaussian("zGT2MF for High tip", it2B, 4);
+            }
+
+            @Override
+            public double operation()
+            {
+                switch(type)
+                {
+                    case 1: return engine.getSimilarity(t1A, t1B, discretisation);
+                    case 2: return engine.getSimilarity(it2A, it2B, discretisation);
+                    default: return engine.getSimilarity(gt2A, gt2B, discretisation);
+                }
+            }
+        };
+    }
+}
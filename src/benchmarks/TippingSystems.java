@@ -0,0 +1,192 @@
+/*
+ * TippingSystems.java
+ *
+ * Created on 17 October 2026
+ */
+package benchmarks;
+
+import generalType2zSlices.sets.GenT2zMF_Gaussian;
+import generalType2zSlices.sets.GenT2zMF_Triangular;
+import generalType2zSlices.system.GenT2zEngine_Defuzzification;
+import generalType2zSlices.system.GenT2z_Antecedent;
+import generalType2zSlices.system.GenT2z_Consequent;
+import generalType2zSlices.system.GenT2z_Rule;
+import generalType2zSlices.system.GenT2z_Rulebase;
+import generic.Input;
+import generic.Output;
+import generic.Tuple;
+import intervalType2.sets.IntervalT2MF_Gauangle;
+import intervalType2.sets.IntervalT2MF_Gaussian;
+import intervalType2.sets.IntervalT2MF_Triangular;
+import intervalType2.system.IT2_Antecedent;
+import intervalType2.system.IT2_Consequent;
+import intervalType2.system.IT2_Rule;
+import intervalType2.system.IT2_Rulebase;
+import java.util.Random;
+import type1.sets.T1MF_Gauangle;
+import type1.sets.T1MF_Gaussian;
+import type1.sets.T1MF_Triangular;
+import type1.system.T1_Antecedent;
+import type1.system.T1_Consequent;
+import type1.system.T1_Rule;
+import type1.system.T1_Rulebase;
+
+/**
+ * The "How much to tip the waiter" systems of the examples package (see
+ * SimpleT1FLS, SimpleIT2FLS and SimplezGT2FLS), built without plotting or
+ * printing so that they can be used by the benchmarks.
+ */
+class TippingSystems
+{
+    final Input food, service;
+    final Output tip;
+    T1_Rulebase t1Rulebase;
+    IT2_Rulebase it2Rulebase;
+    GenT2z_Rulebase gt2Rulebase;
+
+    private TippingSystems()
+    {
+        food = new Input("Food Quality", new Tuple(0,10));
+        service = new Input("Service Level", new Tuple(0,10));
+        tip = new Output("Tip", new Tuple(0,30));
+    }
+
+    /**
+     * Builds the type-1 system of SimpleT1FLS.
+     * @param discretisationLevel The discretisation level of the output.
+     */
+    static TippingSystems createT1(int discretisationLevel)
+    {
+        TippingSystems s = new TippingSystems();
+        T1MF_Triangular badFoodMF = new T1MF_Triangular("MF for bad food",0.0, 0.0, 10.0);
+        T1MF_Triangular greatFoodMF = new T1MF_Triangular("MF for great food",0.0, 10.0, 10.0);
+        T1MF_Gauangle unfriendlyServiceMF = new T1MF_Gauangle("MF for unfriendly service",0.0, 0.0, 6.0);
+        T1MF_Gauangle okServiceMF = new T1MF_Gauangle("MF for ok service",2.5, 5.0, 7.5);
+        T1MF_Gauangle friendlyServiceMF = new T1MF_Gauangle("MF for friendly service",4.0, 10.0, 10.0);
+        T1MF_Gaussian lowTipMF = new T1MF_Gaussian("Low tip", 0.0, 6.0);
+        T1MF_Gaussian mediumTipMF = new T1MF_Gaussian("Medium tip", 15.0, 6.0);
+        T1MF_Gaussian highTipMF = new T1MF_Gaussian("High tip", 30.0, 6.0);
+
+        T1_Antecedent badFood = new T1_Antecedent("BadFood",badFoodMF, s.food);
+        T1_Antecedent greatFood = new T1_Antecedent("GreatFood",greatFoodMF, s.food);
+        T1_Antecedent unfriendlyService = new T1_Antecedent("UnfriendlyService",unfriendlyServiceMF, s.service);
+        T1_Antecedent okService = new T1_Antecedent("OkService",okServiceMF, s.service);
+        T1_Antecedent friendlyService = new T1_Antecedent("FriendlyService",friendlyServiceMF, s.service);
+        T1_Consequent lowTip = new T1_Consequent("LowTip", lowTipMF, s.tip);
+        T1_Consequent mediumTip = new T1_Consequent("MediumTip", mediumTipMF, s.tip);
+        T1_Consequent highTip = new T1_Consequent("HighTip", highTipMF, s.tip);
+
+        s.t1Rulebase = new T1_Rulebase(6);
+        s.t1Rulebase.addRule(new T1_Rule(new T1_Antecedent[]{badFood, unfriendlyService}, lowTip));
+        s.t1Rulebase.addRule(new T1_Rule(new T1_Antecedent[]{badFood, okService}, lowTip));
+        s.t1Rulebase.addRule(new T1_Rule(new T1_Antecedent[]{badFood, friendlyService}, mediumTip));
+        s.t1Rulebase.addRule(new T1_Rule(new T1_Antecedent[]{greatFood, unfriendlyService}, lowTip));
+        s.t1Rulebase.addRule(new T1_Rule(new T1_Antecedent[]{greatFood, okService}, mediumTip));
+        s.t1Rulebase.addRule(new T1_Rule(new T1_Antecedent[]{greatFood, friendlyService}, highTip));
+        s.tip.setDiscretisationLevel(discretisationLevel);
+        return s;
+    }
+
+    /**
+     * Builds the interval type-2 system of SimpleIT2FLS.
+     * @param discretisationLevel The discretisation level of the output.
+     */
+    static TippingSystems createIT2(int discretisationLevel)
+    {
+        TippingSystems s = new TippingSystems();
+        IntervalT2MF_Triangular badFoodMF = new IntervalT2MF_Triangular("IT2MF for bad food",
+                new T1MF_Triangular("Upper MF for bad food",0.0, 0.0, 10.0), new T1MF_Triangular("Lower MF for bad food",0.0, 0.0, 8.0));
+        IntervalT2MF_Triangular greatFoodMF = new IntervalT2MF_Triangular("IT2MF for great food",
+                new T1MF_Triangular("Upper MF for great food",0.0, 10.0, 10.0), new T1MF_Triangular("Lower MF for great food",2.0, 10.0, 10.0));
+        IntervalT2MF_Gauangle unfriendlyServiceMF = new IntervalT2MF_Gauangle("IT2MF for unfriendly service",
+                new T1MF_Gauangle("Upper MF for unfriendly service",0.0, 0.0, 8.0), new T1MF_Gauangle("Lower MF for unfriendly service",0.0, 0.0, 6.0));
+        IntervalT2MF_Gauangle friendlyServiceMF = new IntervalT2MF_Gauangle("IT2MF for friendly service",
+                new T1MF_Gauangle("Upper MF for friendly service",2.0, 10.0, 10.0), new T1MF_Gauangle("Lower MF for friendly service",4.0, 10.0, 10.0));
+        IntervalT2MF_Gaussian lowTipMF = new IntervalT2MF_Gaussian("IT2MF for Low tip",
+                new T1MF_Gaussian("Upper MF Low tip", 0.0, 6.0), new T1MF_Gaussian("Lower MF Low tip", 0.0, 4.0));
+        IntervalT2MF_Gaussian mediumTipMF = new IntervalT2MF_Gaussian("IT2MF for Medium tip",
+                new T1MF_Gaussian("Upper MF Medium tip", 15.0, 6.0), new T1MF_Gaussian("Lower MF Medium tip", 15.0, 4.0));
+        IntervalT2MF_Gaussian highTipMF = new IntervalT2MF_Gaussian("IT2MF for High tip",
+                new T1MF_Gaussian("Upper MF High tip", 30.0, 6.0), new T1MF_Gaussian("Lower MF High tip", 30.0, 4.0));
+
+        IT2_Antecedent badFood = new IT2_Antecedent("BadFood", badFoodMF, s.food);
+        IT2_Antecedent greatFood = new IT2_Antecedent("GreatFood", greatFoodMF, s.food);
+        IT2_Antecedent unfriendlyService = new IT2_Antecedent("UnfriendlyService", unfriendlyServiceMF, s.service);
+        IT2_Antecedent friendlyService = new IT2_Antecedent("FriendlyService", friendlyServiceMF, s.service);
+        IT2_Consequent lowTip = new IT2_Consequent("LowTip", lowTipMF, s.tip);
+        IT2_Consequent mediumTip = new IT2_Consequent("MediumTip", mediumTipMF, s.tip);
+        IT2_Consequent highTip = new IT2_Consequent("HighTip", highTipMF, s.tip);
+
+        s.it2Rulebase = new IT2_Rulebase(4);
+        s.it2Rulebase.addRule(new IT2_Rule(new IT2_Antecedent[]{badFood, unfriendlyService}, lowTip));
+        s.it2Rulebase.addRule(new IT2_Rule(new IT2_Antecedent[]{badFood, friendlyService}, mediumTip));
+        s.it2Rulebase.addRule(new IT2_Rule(new IT2_Antecedent[]{greatFood, unfriendlyService}, lowTip));
+        s.it2Rulebase.addRule(new IT2_Rule(new IT2_Antecedent[]{greatFood, friendlyService}, highTip));
+        s.tip.setDiscretisationLevel(discretisationLevel);
+        return s;
+    }
+
+    /**
+     * Builds the zSlices based general type-2 system of SimplezGT2FLS.
+     * @param numberOfzLevels The number of zSlices of each set.
+     */
+    static TippingSystems createGT2(int numberOfzLevels)
+    {
+        TippingSystems s = new TippingSystems();
+        GenT2zMF_Triangular badFoodMF = new GenT2zMF_Triangular("zGT2MF for bad food", new IntervalT2MF_Triangular("IT2MF for bad food",
+                new T1MF_Triangular("Upper MF for bad food",0.0, 0.0, 10.0), new T1MF_Triangular("Lower MF for bad food",0.0, 0.0, 8.0)), numberOfzLevels);
+        GenT2zMF_Triangular greatFoodMF = new GenT2zMF_Triangular("zGT2MF for great food", new IntervalT2MF_Triangular("IT2MF for great food",
+                new T1MF_Triangular("Upper MF for great food",0.0, 10.0, 10.0), new T1MF_Triangular("Lower MF for great food",2.0, 10.0, 10.0)), numberOfzLevels);
+        GenT2zMF_Triangular unfriendlyServiceMF = new GenT2zMF_Triangular("zGT2MF for unfriendly service", new IntervalT2MF_Triangular("IT2MF for unfriendly service",
+                new T1MF_Triangular("Upper MF for unfriendly service",0.0, 0.0, 8.0), new T1MF_Triangular("Lower MF for unfriendly service",0.0, 0.0, 6.0)), numberOfzLevels);
+        GenT2zMF_Triangular friendlyServiceMF = new GenT2zMF_Triangular("zGT2MF for friendly service", new IntervalT2MF_Triangular("IT2MF for friendly service",
+                new T1MF_Triangular("Upper MF for friendly service",2.0, 10.0, 10.0), new T1MF_Triangular("Lower MF for friendly service",4.0, 10.0, 10.0)), numberOfzLevels);
+        GenT2zMF_Gaussian lowTipMF = new GenT2zMF_Gaussian("zGT2MF for Low tip", new IntervalT2MF_Gaussian("IT2MF for Low tip",
+                new T1MF_Gaussian("Upper MF Low tip", 0.0, 6.0), new T1MF_Gaussian("Lower MF Low tip", 0.0, 4.0)), numberOfzLevels);
+        GenT2zMF_Gaussian mediumTipMF = new GenT2zMF_Gaussian("zGT2MF for Medium tip", new IntervalT2MF_Gaussian("IT2MF for Medium tip",
+                new T1MF_Gaussian("Upper MF Medium tip", 15.0, 6.0), new T1MF_Gaussian("Lower MF Medium tip", 15.0, 4.0)), numberOfzLevels);
+        GenT2zMF_Gaussian highTipMF = new GenT2zMF_Gaussian("zGT2MF for High tip", new IntervalT2MF_Gaussian("IT2MF for High tip",
+                new T1MF_Gaussian("Upper MF High tip", 30.0, 6.0), new T1MF_Gaussian("Lower MF High tip", 30.0, 4.0)), numberOfzLevels);
+
+        GenT2z_Antecedent badFood = new GenT2z_Antecedent("BadFood", badFoodMF, s.food);
+        GenT2z_Antecedent greatFood = new GenT2z_Antecedent("GreatFood", greatFoodMF, s.food);
+        GenT2z_Antecedent unfriendlyService = new GenT2z_Antecedent("UnfriendlyService", unfriendlyServiceMF, s.service);
+        GenT2z_Antecedent friendlyService = new GenT2z_Antecedent("FriendlyService", friendlyServiceMF, s.service);
+        GenT2zEngine_Defuzzification gT2zED = new GenT2zEngine_Defuzzification(100);
+        GenT2z_Consequent lowTip = new GenT2z_Consequent("LowTip", lowTipMF, s.tip, gT2zED);
+        GenT2z_Consequent mediumTip = new GenT2z_Consequent("MediumTip", mediumTipMF, s.tip, gT2zED);
+        GenT2z_Consequent highTip = new GenT2z_Consequent("HighTip", highTipMF, s.tip, gT2zED);
+
+        s.gt2Rulebase = new GenT2z_Rulebase(4);
+        s.gt2Rulebase.addRule(new GenT2z_Rule(new GenT2z_Antecedent[]{badFood, unfriendlyService}, lowTip));
+        s.gt2Rulebase.addRule(new GenT2z_Rule(new GenT2z_Antecedent[]{badFood, friendlyService}, mediumTip));
+        s.gt2Rulebase.addRule(new GenT2z_Rule(new GenT2z_Antecedent[]{greatFood, unfriendlyService}, lowTip));
+        s.gt2Rulebase.addRule(new GenT2z_Rule(new GenT2z_Antecedent[]{greatFood, friendlyService}, highTip));
+        return s;
+    }
+
+    /**
+     * Returns n pseudo-random (food, service) pairs in [0,10], always the same
+     * for the same n.
+     */
+    static double[][] randomInputs(int n)
+    {
+        Random random = new Random(42);
+        double[][] inputs = new double[n][2];
+        for(int i=0;i<n;i++)
+        {
+            inputs[i][0] = random.nextDouble()*10;
+            inputs[i][1] = random.nextDouble()*10;
+        }
+        return inputs;
+    }
+
+    /**
+     * Sets the inputs to the given pair.
+     */
+    void setInputs(double[] pair)
+    {
+        food.setInput(pair[0]);
+        service.setInput(pair[1]);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * BatchScorer.java
+ *
+ * Created on 17 October 2026
+ */
+package fHybridFuzzyModule;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scores a batch of pages with a promotion system, splitting large batches
+ * into chunks which are scored in parallel on a ForkJoinPool. The scores are
+ * written into the batch's pre-sized score array at the position of their
+ * page, so the order of the input is preserved. Batches smaller than the
+ * parallelism threshold are scored on the calling thread.
+ * <p>
+ * The promotion systems keep their inference scratch state per thread
+ * (see FHybridMemT1FLS and FHybridMemT2FLS), so each worker evaluates with
+ * its own buffers.
+ */
+public class BatchScorer
+{
+    public static final int DEFAULT_PARALLELISM_THRESHOLD = 4096;
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final ForkJoinPool pool;
+    private volatile int parallelismThreshold;
+    private volatile int chunkSize;
+
+    /**
+     * Creates a scorer with its own pool (one worker per available processor)
+     * and the default threshold and chunk size.
+     */
+    public BatchScorer()
+    {
+        this(new ForkJoinPool(), DEFAULT_PARALLELISM_THRESHOLD, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool The pool used for parallel scoring.
+     * @param parallelismThreshold Batches with fewer pages are scored on the caller thread.
+     * @param chunkSize Number of pages a worker scores without splitting further.
+     */
+    public BatchScorer(ForkJoinPool pool, int parallelismThreshold, int chunkSize)
+    {
+        if(chunkSize<1)
+            throw new IllegalArgumentException("The chunk size must be at least 1.");
+        this.pool = pool;
+        this.parallelismThreshold = parallelismThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelismThreshold()
+    {
+        return parallelismThreshold;
+    }
+
+    /**
+     * @param parallelismThreshold Batches with fewer pages are scored on the
+     * caller thread; Integer.MAX_VALUE disables parallel scoring.
+     */
+    public void setParallelismThreshold(int parallelismThreshold)
+    {
+        this.parallelismThreshold = parallelismThreshold;
+    }
+
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize)
+    {
+        if(chunkSize<1)
+            throw new IllegalArgumentException("The chunk size must be at least 1.");
+        this.chunkSize = chunkSize;
+    }
+
+    public ForkJoinPool getPool()
+    {
+        return pool;
+    }
+
+    /**
+     * Scores all pages of the batch, writing the results into batch.getScores().
+     * The features are normalised to [0,10] as in JavaServer.promote().
+     * @param system The promotion system.
+     * @param batch The pages to be scored.
+     * @param max_size Normalisation factor of the read and write counts.
+     * @param max_recency Normalisation factor of the recency of access.
+     */
+    public void score(FHybridMemFLS system, PageBatch batch, int max_size, int max_recency)
+    {
+        if(batch.size()<parallelismThreshold)
+            new ScoreTask(system, batch, max_size, max_recency, 0, batch.size(), Integer.MAX_VALUE).compute();   //one chunk, no forking
+        else
+            pool.invoke(new ScoreTask(system, batch, max_size, max_recency, 0, batch.size(), chunkSize));
+    }
+
+    private static class ScoreTask extends RecursiveAction
+    {
+        private final FHybridMemFLS system;
+        private final PageBatch batch;
+        private final int max_size, max_recency;
+        private final int from, to, chunkSize;
+
+        ScoreTask(FHybridMemFLS system, PageBatch batch, int max_size, int max_recency, int from, int to, int chunkSize)
+        {
+            this.system = system;
+            this.batch = batch;
+            this.max_size = max_size;
+            this.max_recency = max_recency;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(to-from<=chunkSize)
+            {
+                double[] recency = batch.getRecency();
+                double[] reads = batch.getReads();
+                double[] writes = batch.getWrites();
+                double[] scores = batch.getScores();
+                for(int i=from;i<to;i++)
+                    scores[i] = system.getPromotionValue(recency[i]/max_recency*10,
+                            reads[i]/max_size*10, writes[i]/max_size*10);
+            }
+            else
+            {
+                int middle = (from+to)>>>1;
+                invokeAll(new ScoreTask(system, batch, max_size, max_recency, from, middle, chunkSize),
+                        new ScoreTask(system, batch, max_size, max_recency, middle, to, chunkSize));
+            }
+        }
+    }
+}
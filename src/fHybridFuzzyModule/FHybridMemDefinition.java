@@ -0,0 +1,377 @@
+/*
+ * FHybridMemDefinition.java
+ *
+ * Created on 17 October 2026
+ */
+package fHybridFuzzyModule;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import generic.Input;
+import generic.Output;
+import generic.Tuple;
+import intervalType2.sets.IntervalT2MF_Interface;
+import intervalType2.sets.IntervalT2MF_Trapezoidal;
+import intervalType2.sets.IntervalT2MF_Triangular;
+import intervalType2.system.IT2_Antecedent;
+import intervalType2.system.IT2_Consequent;
+import intervalType2.system.IT2_Rule;
+import intervalType2.system.IT2_Rulebase;
+import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_Trapezoidal;
+import type1.sets.T1MF_Triangular;
+import type1.system.T1_Antecedent;
+import type1.system.T1_Consequent;
+import type1.system.T1_Rule;
+import type1.system.T1_Rulebase;
+
+/**
+ * Builds a promotion system from a text definition, so that its rules and
+ * membership functions can be changed without recompiling or restarting the
+ * server (see JavaServer.reloadDefinition()). One statement per line, '#'
+ * starts a comment:
+ * <pre>
+ * type t1|t2
+ * domain &lt;variable&gt; &lt;min&gt; &lt;max&gt;        (default 0 10)
+ * discretisation &lt;points&gt;                (of the promotion output, default 100)
+ * set &lt;variable&gt; &lt;term&gt; trapezoidal a b c d [/ a b c d [height]]
+ * set &lt;variable&gt; &lt;term&gt; triangular a b c [/ a b c]
+ * rule &lt;recency term&gt; &lt;reads term&gt; &lt;writes term&gt; &lt;promotion term&gt;
+ * </pre>
+ * The variables are recency, reads, writes and promotion. Type-2 sets give the
+ * upper MF, then the lower MF after the '/' (a lower trapezoid may be
+ * followed by its height); type-1 sets give a single MF. Rules are added in
+ * file order. definitions/FHybridMemT1.txt and definitions/FHybridMemT2.txt
+ * reproduce FHybridMemT1FLS and FHybridMemT2FLS.
+ */
+public final class FHybridMemDefinition
+{
+    private static final String[] VARIABLES = {"recency", "reads", "writes", "promotion"};
+    private static final String[] NAMES = {"Recency of Access Level", "Read Frequency Level", "Write Frequency Level", "Promotion"};
+    private static final int PROMOTION = 3;
+
+    private FHybridMemDefinition()
+    {
+    }
+
+    /**
+     * Reads the definition file and builds the system it describes.
+     * @param fileName The path of the definition file.
+     * @return The new, ready to use promotion system.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the definition is invalid; the message names the line.
+     */
+    public static FHybridMemFLS load(String fileName) throws IOException
+    {
+        Reader reader = new FileReader(fileName);
+        try
+        {
+            return read(reader);
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads a definition and builds the system it describes.
+     * @param reader The source of the definition, left open.
+     * @return The new, ready to use promotion system.
+     * @throws IOException If the definition cannot be read.
+     * @throws IllegalArgumentException If the definition is invalid; the message names the line.
+     */
+    public static FHybridMemFLS read(Reader reader) throws IOException
+    {
+        String type = null;
+        Tuple[] domains = new Tuple[VARIABLES.length];
+        for(int v=0;v<domains.length;v++)
+            domains[v] = new Tuple(0,10);
+        int discretisation = 100;
+        List<Statement> sets = new ArrayList<Statement>();
+        List<Statement> rules = new ArrayList<Statement>();
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while((line = lines.readLine())!=null)
+        {
+            number++;
+            int comment = line.indexOf('#');
+            if(comment>=0)
+                line = line.substring(0, comment);
+            line = line.trim();
+            if(line.length()==0)
+                continue;
+            Statement statement = new Statement(number, line.split("\\s+"));
+            String keyword = statement.tokens[0].toLowerCase();
+
+            if(keyword.equals("type"))
+            {
+                statement.expectLength(2, 2);
+                type = statement.tokens[1].toLowerCase();
+                if(!type.equals("t1") && !type.equals("t2"))
+                    throw statement.error("unknown system type "+statement.tokens[1]+" (expected t1 or t2)");
+            }
+            else if(keyword.equals("domain"))
+            {
+                statement.expectLength(4, 4);
+                double min = statement.number(2), max = statement.number(3);
+                if(!(min<max))
+                    throw statement.error("the domain needs min < max");
+                domains[statement.variable(1)] = new Tuple(min, max);
+            }
+            else if(keyword.equals("discretisation"))
+            {
+                statement.expectLength(2, 2);
+                try
+                {
+                    discretisation = Integer.parseInt(statement.tokens[1]);
+                }
+                catch(NumberFormatException e)
+                {
+                    throw statement.error("not an integer: "+statement.tokens[1]);
+                }
+                if(discretisation<2)
+                    throw statement.error("the discretisation level needs to be at least 2");
+            }
+            else if(keyword.equals("set"))
+            {
+                statement.expectLength(7, 14);
+                statement.variable(1);
+                sets.add(statement);
+            }
+            else if(keyword.equals("rule"))
+            {
+                statement.expectLength(5, 5);
+                rules.add(statement);
+            }
+            else
+                throw statement.error("unknown statement "+statement.tokens[0]);
+        }
+
+        if(type==null)
+            throw new IllegalArgumentException("The definition does not give the system type (type t1 or type t2).");
+
+        Input recencyOfAccess = new Input(NAMES[0], domains[0]);
+        Input readFrequency = new Input(NAMES[1], domains[1]);
+        Input writeFrequency = new Input(NAMES[2], domains[2]);
+        Output promotion = new Output(NAMES[PROMOTION], domains[PROMOTION]);
+        Input[] inputs = {recencyOfAccess, readFrequency, writeFrequency};
+
+        FHybridMemFLS system;
+        if(type.equals("t1"))
+        {
+            T1_Rulebase rulebase = buildT1(sets, rules, inputs, promotion);
+            promotion.setDiscretisationLevel(discretisation);
+            system = new FHybridMemT1FLS(recencyOfAccess, readFrequency, writeFrequency, promotion, rulebase);
+        }
+        else
+        {
+            IT2_Rulebase rulebase = buildIT2(sets, rules, inputs, promotion);
+            promotion.setDiscretisationLevel(discretisation);
+            system = new FHybridMemT2FLS(recencyOfAccess, readFrequency, writeFrequency, promotion, rulebase);
+        }
+        return system;
+    }
+
+    private static T1_Rulebase buildT1(List<Statement> sets, List<Statement> rules, Input[] inputs, Output promotion)
+    {
+        List<Map<String, T1_Antecedent>> antecedents = new ArrayList<Map<String, T1_Antecedent>>();
+        for(int v=0;v<inputs.length;v++)
+            antecedents.add(new HashMap<String, T1_Antecedent>());
+        Map<String, T1_Consequent> consequents = new HashMap<String, T1_Consequent>();
+
+        for(Statement set : sets)
+        {
+            int variable = set.variable(1);
+            String term = set.tokens[2];
+            if(set.indexOf("/")>=0)
+                throw set.error("a type-1 set has a single membership function");
+            T1MF_Interface mF = t1MF(set, "MF for "+term+" "+VARIABLES[variable], 4, set.tokens.length, false);
+            if(variable==PROMOTION)
+            {
+                if(consequents.put(term, new T1_Consequent(term, mF, promotion))!=null)
+                    throw set.error("the set "+term+" of "+VARIABLES[variable]+" is defined twice");
+            }
+            else if(antecedents.get(variable).put(term, new T1_Antecedent(term, mF, inputs[variable]))!=null)
+                throw set.error("the set "+term+" of "+VARIABLES[variable]+" is defined twice");
+        }
+
+        if(rules.isEmpty())
+            throw new IllegalArgumentException("The definition does not contain any rules.");
+        T1_Rulebase rulebase = new T1_Rulebase(rules.size());
+        for(Statement rule : rules)
+        {
+            T1_Antecedent[] ruleAntecedents = new T1_Antecedent[inputs.length];
+            for(int v=0;v<inputs.length;v++)
+                ruleAntecedents[v] = rule.term(antecedents.get(v), v);
+            rulebase.addRule(new T1_Rule(ruleAntecedents, rule.term(consequents, PROMOTION)));
+        }
+        return rulebase;
+    }
+
+    private static IT2_Rulebase buildIT2(List<Statement> sets, List<Statement> rules, Input[] inputs, Output promotion)
+    {
+        List<Map<String, IT2_Antecedent>> antecedents = new ArrayList<Map<String, IT2_Antecedent>>();
+        for(int v=0;v<inputs.length;v++)
+            antecedents.add(new HashMap<String, IT2_Antecedent>());
+        Map<String, IT2_Consequent> consequents = new HashMap<String, IT2_Consequent>();
+
+        for(Statement set : sets)
+        {
+            int variable = set.variable(1);
+            String term = set.tokens[2];
+            int slash = set.indexOf("/");
+            if(slash<0)
+                throw set.error("a type-2 set needs an upper and a lower membership function, separated by /");
+            String name = term+" "+VARIABLES[variable];
+            T1MF_Interface upper = t1MF(set, "Upper MF for "+name, 4, slash, false);
+            T1MF_Interface lower = t1MF(set, "Lower MF for "+name, slash+1, set.tokens.length, true);
+            IntervalT2MF_Interface mF;
+            if(upper instanceof T1MF_Trapezoidal)
+                mF = new IntervalT2MF_Trapezoidal("IT2MF for "+name, (T1MF_Trapezoidal)upper, (T1MF_Trapezoidal)lower);
+            else
+                mF = new IntervalT2MF_Triangular("IT2MF for "+name, (T1MF_Triangular)upper, (T1MF_Triangular)lower);
+            if(variable==PROMOTION)
+            {
+                if(consequents.put(term, new IT2_Consequent(term, mF, promotion))!=null)
+                    throw set.error("the set "+term+" of "+VARIABLES[variable]+" is defined twice");
+            }
+            else if(antecedents.get(variable).put(term, new IT2_Antecedent(term, mF, inputs[variable]))!=null)
+                throw set.error("the set "+term+" of "+VARIABLES[variable]+" is defined twice");
+        }
+
+        if(rules.isEmpty())
+            throw new IllegalArgumentException("The definition does not contain any rules.");
+        IT2_Rulebase rulebase = new IT2_Rulebase(rules.size());
+        for(Statement rule : rules)
+        {
+            IT2_Antecedent[] ruleAntecedents = new IT2_Antecedent[inputs.length];
+            for(int v=0;v<inputs.length;v++)
+                ruleAntecedents[v] = rule.term(antecedents.get(v), v);
+            rulebase.addRule(new IT2_Rule(ruleAntecedents, rule.term(consequents, PROMOTION)));
+        }
+        return rulebase;
+    }
+
+    /**
+     * Creates the type-1 MF with the shape of the set statement (its fourth token)
+     * and the parameters given by the tokens [from,to), from left to right.
+     * @param allowHeight Whether a trapezoid may be followed by its height (lower MFs only).
+     */
+    private static T1MF_Interface t1MF(Statement set, String name, int from, int to, boolean allowHeight)
+    {
+        String shape = set.tokens[3].toLowerCase();
+        int count = to-from;
+        if(shape.equals("trapezoidal"))
+        {
+            if(count!=4 && !(allowHeight && count==5))
+                throw set.error("a trapezoid needs 4 parameters"+(allowHeight ? " and an optional height" : ""));
+            double[] parameters = set.parameters(from, from+4);
+            if(count==5)
+            {
+                double height = set.number(from+4);
+                if(!(height>0 && height<=1))
+                    throw set.error("the height needs to be in (0,1]");
+                return new T1MF_Trapezoidal(name, parameters, new double[]{height, height});
+            }
+            return new T1MF_Trapezoidal(name, parameters);
+        }
+        else if(shape.equals("triangular"))
+        {
+            if(count!=3)
+                throw set.error("a triangle needs 3 parameters");
+            double[] parameters = set.parameters(from, from+3);
+            return new T1MF_Triangular(name, parameters[0], parameters[1], parameters[2]);
+        }
+        throw set.error("unknown shape "+set.tokens[3]+" (expected trapezoidal or triangular)");
+    }
+
+    /**
+     * One non-empty line of the definition.
+     */
+    private static final class Statement
+    {
+        final int number;
+        final String[] tokens;
+
+        Statement(int number, String[] tokens)
+        {
+            this.number = number;
+            this.tokens = tokens;
+        }
+
+        IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException("Line "+number+": "+message+".");
+        }
+
+        void expectLength(int min, int max)
+        {
+            if(tokens.length<min || tokens.length>max)
+                throw error("wrong number of values for "+tokens[0]);
+        }
+
+        int indexOf(String token)
+        {
+            for(int i=0;i<tokens.length;i++)
+                if(tokens[i].equals(token))
+                    return i;
+            return -1;
+        }
+
+        int variable(int index)
+        {
+            for(int v=0;v<VARIABLES.length;v++)
+                if(VARIABLES[v].equalsIgnoreCase(tokens[index]))
+                    return v;
+            throw error("unknown variable "+tokens[index]+" (expected recency, reads, writes or promotion)");
+        }
+
+        double number(int index)
+        {
+            try
+            {
+                return Double.parseDouble(tokens[index]);
+            }
+            catch(NumberFormatException e)
+            {
+                throw error("not a number: "+tokens[index]);
+            }
+        }
+
+        /**
+         * Parses the parameters [from,to), which need to be non-decreasing.
+         */
+        double[] parameters(int from, int to)
+        {
+            double[] parameters = new double[to-from];
+            for(int i=0;i<parameters.length;i++)
+            {
+                parameters[i] = number(from+i);
+                if(i>0 && parameters[i]<parameters[i-1])
+                    throw error("the parameters need to be given from left to right");
+            }
+            return parameters;
+        }
+
+        /**
+         * Looks up the set named by the token of the given variable (rules only).
+         */
+        <T> T term(Map<String, T> sets, int variable)
+        {
+            T set = sets.get(tokens[1+variable]);
+            if(set==null)
+                throw error("unknown set "+tokens[1+variable]+" of "+VARIABLES[variable]);
+            return set;
+        }
+    }
+}
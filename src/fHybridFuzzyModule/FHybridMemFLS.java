@@ -0,0 +1,24 @@
+/*
+ * FHybridMemFLS.java
+ *
+ * Created on 17 October 2026
+ */
+package fHybridFuzzyModule;
+
+/**
+ * Common view on the page promotion systems (type-1 and interval type-2) so
+ * that the XML-RPC handler can be given one long-lived, pre-built system
+ * instead of constructing a new one for every call.
+ * Implementations must be safe to call from several server threads at once.
+ */
+public interface FHybridMemFLS
+{
+    /**
+     * Returns the promotion value for a page.
+     * @param recencyOfAccessLevel Recency of access, normalised to [0,10].
+     * @param readFrequencyLevel Read frequency, normalised to [0,10].
+     * @param writeFrequencyLevel Write frequency, normalised to [0,10].
+     * @return The defuzzified promotion value.
+     */
+    public double getPromotionValue(double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel);
+}
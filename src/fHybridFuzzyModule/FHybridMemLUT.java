@@ -0,0 +1,47 @@
+/*
+ * FHybridMemLUT.java
+ *
+ * Created on 17 October 2026
+ */
+package fHybridFuzzyModule;
+
+import generic.LookupTable3D;
+
+/**
+ * Promotion system backed by a precompiled lookup table: scoring a page is a
+ * trilinear interpolation instead of a full inference. Build it through
+ * FHybridMemT1FLS.compileLookupTable() or FHybridMemT2FLS.compileLookupTable().
+ * The table is immutable, so no synchronization is needed.
+ */
+public class FHybridMemLUT implements FHybridMemFLS
+{
+    //default number of grid points along each input, i.e. a step of 0.5 on [0,10]
+    public static final int DEFAULT_GRID_POINTS = 21;
+
+    private final LookupTable3D table;
+
+    public FHybridMemLUT(LookupTable3D table)
+    {
+        this.table = table;
+    }
+
+    public double getPromotionValue(double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel)
+    {
+        return table.getValue(recencyOfAccessLevel, readFrequencyLevel, writeFrequencyLevel);
+    }
+
+    public LookupTable3D getTable()
+    {
+        return table;
+    }
+
+    /**
+     * Returns the largest interpolation error against exact inference found at
+     * the cell midpoints of the table (an estimate, not a bound), NaN if it was
+     * not computed when the table was compiled.
+     */
+    public double getSampledMaxError()
+    {
+        return table.getSampledMaxError();
+    }
+}
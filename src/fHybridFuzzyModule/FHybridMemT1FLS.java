@@ -19,6 +19,7 @@ import type1.sets.T1MF_Interface;
 import type1.sets.T1MF_Trapezoidal;
 import type1.sets.T1MF_Triangular;
 import type1.system.T1_Antecedent;
+import type1.system.T1_CompiledRulebase;
 import type1.system.T1_Consequent;
 import type1.system.T1_Rule;
 import type1.system.T1_Rulebase;
@@ -35,15 +36,54 @@ import helma.xmlrpc.*;
  * like to generate the applicable tip.
  * @author Christian Wagner
  */
-public class FHybridMemT1FLS
+public class FHybridMemT1FLS implements FHybridMemFLS
 {
     Input recencyOfAccess, readFrequency, writeFrequency;    //the inputs to the FLS
     Output promotion;             //the output of the FLS
     T1_Rulebase rulebase;   //the rulebase captures the entire FLS
+    //allocation-free form of the rulebase used for scoring; it keeps scratch buffers,
+    //so each scoring thread gets its own copy
+    private final ThreadLocal<Scorer> scorers = new ThreadLocal<Scorer>()
+    {
+        @Override
+        protected Scorer initialValue()
+        {
+            return new Scorer(rulebase.compile());
+        }
+    };
+
+    private static final class Scorer
+    {
+        final T1_CompiledRulebase compiledRulebase;
+        final double[] inputValues = new double[3];
+        final double[] outputValues = new double[1];
+
+        Scorer(T1_CompiledRulebase compiledRulebase)
+        {
+            this.compiledRulebase = compiledRulebase;
+        }
+    }
     
     StringBuffer sbf;//String Buffer to select all the text that will be printed on a file
     BufferedWriter bwr;
     
+    /**
+     * Creates a system from inputs, output and rules defined elsewhere (see
+     * FHybridMemDefinition). The antecedents of each rule need to be given in
+     * the order recency of access, read frequency, write frequency.
+     */
+    FHybridMemT1FLS(Input recencyOfAccess, Input readFrequency, Input writeFrequency, Output promotion, T1_Rulebase rulebase)
+    {
+        this.recencyOfAccess = recencyOfAccess;
+        this.readFrequency = readFrequency;
+        this.writeFrequency = writeFrequency;
+        this.promotion = promotion;
+        this.rulebase = rulebase;
+
+        //build the evaluation state of this thread (this also validates the rulebase)
+        scorers.get();
+    }
+
     public FHybridMemT1FLS()
     {
         //Define the inputs
@@ -126,6 +166,10 @@ public class FHybridMemT1FLS
         
         //just an example of setting the discretisation level of an output - the usual level is 100
         promotion.setDiscretisationLevel(100);        
+        
+        //flatten the rulebase for this thread (this also samples the consequents once, before
+        //any scoring thread compiles its copy); inputs are passed as recency, read frequency, write frequency
+        scorers.get();
                 
         //plot some sets, discretizing each input into 100 steps.
         //plotMFs("Recency of Acess Membership Functions", new T1MF_Interface[]{lowROAMF, mediumROAMF, highROAMF}, recencyOfAccess.getDomain(), 100); 
@@ -146,34 +190,30 @@ public class FHybridMemT1FLS
      * @param foodQuality
      * @param serviceLevel 
      */
-    public Double getPromotionValue(double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel)
+    //not synchronized: every thread evaluates its own compiled copy of the rulebase
+    public double getPromotionValue(double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel)
     {
-    	String outputString;
-       //first, set the inputs
-       recencyOfAccess.setInput(recencyOfAccessLevel);
-	   readFrequency.setInput(readFrequencyLevel);
-	   writeFrequency.setInput(writeFrequencyLevel);
-	   //now execute the FLS
-	   //Using height defuzzification:
-	   //rulebase.evaluate(0).get(promotion); 
-	   //Using centroid defuzzification
-	   //rulebase.evaluate(1).get(promotion)
-       /*System.out.println("ROA: "+ recencyOfAccess.getInput()
-       + " | RF: " + readFrequency.getInput()
-       + " | WF: " + writeFrequency.getInput() 
-       + " | Promotion: " + rulebase.evaluate(1).get(promotion)
-    		   ); */
-        
-      
-        //outputString = String.format("ROA: %f | RF: %f | WF: %f  | Promotion: %f \n",
-        //recencyOfAccess.getInput(), readFrequency.getInput(), writeFrequency.getInput(), rulebase.evaluate(1).get(promotion));
-       
-        
-       //return outputString;
-       return rulebase.evaluate(1).get(promotion);
-    		   
+       Scorer scorer = scorers.get();
+       scorer.inputValues[0] = recencyOfAccessLevel;
+       scorer.inputValues[1] = readFrequencyLevel;
+       scorer.inputValues[2] = writeFrequencyLevel;
+       //Using centroid defuzzification (same result as rulebase.evaluate(1).get(promotion))
+       scorer.compiledRulebase.evaluate(scorer.inputValues, 1, scorer.outputValues);
+       return scorer.outputValues[0];
     }
     
+    /**
+     * Compiles this system into a lookup table (centroid defuzzification/type reduction).
+     * @param gridPoints Number of grid points along each input.
+     * @param computeErrorEstimate Whether to sample the interpolation error
+     * against exact inference at the cell midpoints (see FHybridMemLUT.getSampledMaxError()).
+     */
+    public synchronized FHybridMemLUT compileLookupTable(int gridPoints, boolean computeErrorEstimate)
+    {
+        return new FHybridMemLUT(rulebase.compileLookupTable(new Input[]{recencyOfAccess, readFrequency, writeFrequency},
+                promotion, 1, new int[]{gridPoints, gridPoints, gridPoints}, computeErrorEstimate));
+    }
+
     private void plotMFs(String name, T1MF_Interface[] sets, Tuple xAxisRange, int discretizationLevel)
     {
         JMathPlotter plotter = new JMathPlotter(17,17,15);
@@ -201,8 +241,10 @@ public class FHybridMemT1FLS
 
      
         try {
+            //build the promotion system once, before the server accepts calls
+            FHybridMemFLS fHybridSystem = new FHybridMemT2FLS();
             WebServer server = new WebServer(8080);
-            server.addHandler("fhm", new JavaServer());
+            server.addHandler("fhm", new JavaServer(fHybridSystem));
 
         } catch (Exception exception) {
             System.err.println("JavaServer: " + exception.toString());
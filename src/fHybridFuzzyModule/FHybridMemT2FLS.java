@@ -19,6 +19,7 @@ import intervalType2.sets.IntervalT2MF_Trapezoidal;
 import intervalType2.sets.IntervalT2MF_Triangular;
 import intervalType2.system.IT2_Antecedent;
 import intervalType2.system.IT2_Consequent;
+import intervalType2.system.IT2_EvaluationContext;
 import intervalType2.system.IT2_Rule;
 import intervalType2.system.IT2_Rulebase;
 import tools.JMathPlotter;
@@ -34,15 +35,53 @@ import type1.system.T1_Consequent;
  * like to generate the applicable tip.
  * @author Christian Wagner
  */
-public class FHybridMemT2FLS
+public class FHybridMemT2FLS implements FHybridMemFLS
 {
     Input recencyOfAccess, readFrequency, writeFrequency;    //the inputs to the FLS
     Output promotion;             //the output of the FLS
     IT2_Rulebase rulebase;   //the rulebase captures the entire FLS
+    //reentrant evaluation state, one per scoring thread
+    private final ThreadLocal<Scorer> scorers = new ThreadLocal<Scorer>()
+    {
+        @Override
+        protected Scorer initialValue()
+        {
+            return new Scorer(rulebase.createEvaluationContext());
+        }
+    };
+
+    private static final class Scorer
+    {
+        final IT2_EvaluationContext context;
+        final double[] inputValues = new double[3];
+        final double[] outputValues = new double[1];
+
+        Scorer(IT2_EvaluationContext context)
+        {
+            this.context = context;
+        }
+    }
     
     StringBuffer sbf;//String Buffer to select all the text that will be printed on a file
     BufferedWriter bwr;
     
+    /**
+     * Creates a system from inputs, output and rules defined elsewhere (see
+     * FHybridMemDefinition). The antecedents of each rule need to be given in
+     * the order recency of access, read frequency, write frequency.
+     */
+    FHybridMemT2FLS(Input recencyOfAccess, Input readFrequency, Input writeFrequency, Output promotion, IT2_Rulebase rulebase)
+    {
+        this.recencyOfAccess = recencyOfAccess;
+        this.readFrequency = readFrequency;
+        this.writeFrequency = writeFrequency;
+        this.promotion = promotion;
+        this.rulebase = rulebase;
+
+        //build the evaluation state of this thread (this also validates the rulebase)
+        scorers.get();
+    }
+
     public FHybridMemT2FLS()
     {
         //Define the inputs
@@ -181,6 +220,9 @@ public class FHybridMemT2FLS
         
         //just an example of setting the discretisation level of an output - the usual level is 100
         promotion.setDiscretisationLevel(1000);        
+
+        //build the evaluation context of this thread (this also validates the rulebase)
+        scorers.get();
             
         //plot some sets, discretizing each input into 100 steps.
         //plotMFs("Recency of Access Membership Functions", new IntervalT2MF_Interface[]{highROAMF, mediumROAMF, lowROAMF}, 1000);        
@@ -202,31 +244,30 @@ public class FHybridMemT2FLS
      * @param foodQuality
      * @param serviceLevel 
      */
-    public Double getPromotionValue(double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel)
+    //not synchronized: the inputs are passed by value and each thread uses its own evaluation context
+    public double getPromotionValue(double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel)
     {
-    	String outputString;
-       //first, set the inputs
-       recencyOfAccess.setInput(recencyOfAccessLevel);
-	   readFrequency.setInput(readFrequencyLevel);
-	   writeFrequency.setInput(writeFrequencyLevel);
-	   //now execute the FLS
-	   //Using height defuzzification:
-	   //rulebase.evaluate(0).get(promotion); 
-	   //Using centroid defuzzification
-	   //rulebase.evaluate(1).get(promotion)
-       /*System.out.println("ROA: "+ recencyOfAccess.getInput()
-       + " | RF: " + readFrequency.getInput()
-       + " | WF: " + writeFrequency.getInput() 
-       + " | Promotion: " + rulebase.evaluate(1).get(promotion)
-    		   ); 
-        */
-	  // outputString = String.format("ROA: %f | RF: %f | WF: %f  | Promotion: %f \n",
-      //  recencyOfAccess.getInput(), readFrequency.getInput(), writeFrequency.getInput(), rulebase.evaluate(1).get(promotion));
-	   
-	   return rulebase.evaluate(1).get(promotion);
-    		   
+       Scorer scorer = scorers.get();
+       scorer.inputValues[0] = recencyOfAccessLevel;
+       scorer.inputValues[1] = readFrequencyLevel;
+       scorer.inputValues[2] = writeFrequencyLevel;
+       //Using centroid type reduction (computed as in rulebase.evaluate(1).get(promotion))
+       rulebase.evaluate(scorer.inputValues, 1, scorer.context, scorer.outputValues);
+       return scorer.outputValues[0];
     }
        
+    /**
+     * Compiles this system into a lookup table (centroid defuzzification/type reduction).
+     * @param gridPoints Number of grid points along each input.
+     * @param computeErrorEstimate Whether to sample the interpolation error
+     * against exact inference at the cell midpoints (see FHybridMemLUT.getSampledMaxError()).
+     */
+    public synchronized FHybridMemLUT compileLookupTable(int gridPoints, boolean computeErrorEstimate)
+    {
+        return new FHybridMemLUT(rulebase.compileLookupTable(new Input[]{recencyOfAccess, readFrequency, writeFrequency},
+                promotion, 1, new int[]{gridPoints, gridPoints, gridPoints}, computeErrorEstimate));
+    }
+
     private void plotMFs(String name, IntervalT2MF_Interface[] sets, int discretizationLevel)
     {
         JMathPlotter plotter = new JMathPlotter();
@@ -9,7 +9,154 @@ import helma.xmlrpc.*;
 
 public class JavaServer {
 
-    public JavaServer () {}
+    //the promotion system is built once and shared by all calls; a reload swaps
+    //the reference so that calls in flight finish on the system they started with.
+    private volatile FHybridMemFLS fHybridSystem;
+    private final BatchScorer batchScorer = new BatchScorer();    //scores large page lists in parallel
+    private volatile PromotionCache promotionCache;    //null if every page is scored by the system
+
+    public JavaServer ()
+    {
+        this(new FHybridMemT2FLS());
+    }
+
+    /**
+     * Creates a handler which serves all calls from the given, pre-built system.
+     * @param fHybridSystem The promotion system to be used.
+     */
+    public JavaServer (FHybridMemFLS fHybridSystem)
+    {
+        this.fHybridSystem = fHybridSystem;
+    }
+
+    public FHybridMemFLS getSystem()
+    {
+        return fHybridSystem;
+    }
+
+    /**
+     * Replaces the promotion system used by subsequent calls.
+     * @param fHybridSystem The new (already built) promotion system.
+     */
+    public void setSystem(FHybridMemFLS fHybridSystem)
+    {
+        this.fHybridSystem = fHybridSystem;
+    }
+
+    /**
+     * Switches to one of the built-in promotion systems without restarting the
+     * server; their rules and membership functions are fixed at compile time
+     * (use reloadDefinition() to change them). The new system is fully built
+     * before it replaces the current one.
+     * @param systemType "t1" for the type-1 system or "t2" for the interval type-2 system;
+     * "t1lut"/"t2lut" compile the respective system into a lookup table and
+     * estimate its interpolation error (see getLookupTableError()).
+     * @return true once the new system is in place.
+     */
+    public boolean reload(String systemType)
+    {
+        if(systemType.equalsIgnoreCase("t1"))
+            setSystem(new FHybridMemT1FLS());
+        else if(systemType.equalsIgnoreCase("t2"))
+            setSystem(new FHybridMemT2FLS());
+        else if(systemType.equalsIgnoreCase("t1lut"))
+            setSystem(new FHybridMemT1FLS().compileLookupTable(FHybridMemLUT.DEFAULT_GRID_POINTS, true));
+        else if(systemType.equalsIgnoreCase("t2lut"))
+            setSystem(new FHybridMemT2FLS().compileLookupTable(FHybridMemLUT.DEFAULT_GRID_POINTS, true));
+        else
+            throw new IllegalArgumentException("Unknown promotion system type: "+systemType+" (expected t1, t2, t1lut or t2lut).");
+        return true;
+    }
+
+    /**
+     * Rebuilds the promotion system from a definition file (see
+     * FHybridMemDefinition), so that rules and membership functions can be
+     * changed without restarting the server. The new system is fully built
+     * before it replaces the current one; an invalid file leaves the current
+     * system in place.
+     * @param fileName The path of the definition file on the server.
+     * @return true once the new system is in place.
+     * @throws IOException If the file cannot be read.
+     */
+    public boolean reloadDefinition(String fileName) throws IOException
+    {
+        return reloadDefinition(fileName, false);
+    }
+
+    /**
+     * Like reloadDefinition(String), optionally compiling the new system into a
+     * lookup table with an estimate of its interpolation error (see getLookupTableError()).
+     * @param lookupTable Whether the system is compiled into a lookup table.
+     */
+    public boolean reloadDefinition(String fileName, boolean lookupTable) throws IOException
+    {
+        FHybridMemFLS system = FHybridMemDefinition.load(fileName);
+        if(lookupTable && system instanceof FHybridMemT1FLS)
+            system = ((FHybridMemT1FLS)system).compileLookupTable(FHybridMemLUT.DEFAULT_GRID_POINTS, true);
+        else if(lookupTable)
+            system = ((FHybridMemT2FLS)system).compileLookupTable(FHybridMemLUT.DEFAULT_GRID_POINTS, true);
+        setSystem(system);
+        return true;
+    }
+
+    /**
+     * Returns the largest interpolation error of the lookup table in use against
+     * exact inference, sampled at the cell midpoints when it was compiled.
+     * @return The error estimate, NaN if the system is not a lookup table or
+     * the error was not computed.
+     */
+    public double getLookupTableError()
+    {
+        FHybridMemFLS system = fHybridSystem;
+        if(system instanceof FHybridMemLUT)
+            return ((FHybridMemLUT)system).getSampledMaxError();
+        return Double.NaN;
+    }
+
+    public PromotionCache getPromotionCache()
+    {
+        return promotionCache;
+    }
+
+    /**
+     * Sets the cache consulted before the promotion system is asked for a score.
+     * Cached values are dropped automatically when the system is replaced.
+     * @param promotionCache The cache, null to score every page with the system.
+     */
+    public void setPromotionCache(PromotionCache promotionCache)
+    {
+        this.promotionCache = promotionCache;
+    }
+
+    /**
+     * Puts a new, empty cache in front of the promotion system (see PromotionCache).
+     * @param step The quantisation step of the normalised features.
+     * @param capacity The maximum number of scores cached per scoring thread.
+     * @return true once the cache is in place.
+     */
+    public boolean enableCache(double step, int capacity)
+    {
+        setPromotionCache(new PromotionCache(step, capacity));
+        return true;
+    }
+
+    /**
+     * Removes the cache, so that every page is scored by the promotion system.
+     * @return true once the cache is removed.
+     */
+    public boolean disableCache()
+    {
+        setPromotionCache(null);
+        return true;
+    }
+
+    /**
+     * Returns the scorer used for page lists, e.g. to change its parallelism threshold.
+     */
+    public BatchScorer getBatchScorer()
+    {
+        return batchScorer;
+    }
 
     public Hashtable sumAndDifference (int x, int y) {
         Hashtable result = new Hashtable();
@@ -21,43 +168,183 @@ public class JavaServer {
 
     public Hashtable promote(String s, int max_size, int max_recency)throws IOException
     {
-        double recommendation_value=0;
-        int recommendation_address=0;
         Hashtable result = new Hashtable();
-        //FHybridMemT1FLS fHybridSystem = new FHybridMemT1FLS();
-        FHybridMemT2FLS fHybridSystem = new FHybridMemT2FLS();
 
         String[] pages = s.split("\n");
-        String[] values;
-        int i=0;
+        int[] addresses = new int[pages.length];
+        PageBatch batch = parse(pages, addresses);
+        promote(batch, max_size, max_recency);
 
-        //System.out.println("Promotion Values");
-        for(String p : pages)
+        double[] scores = batch.getScores();
+        for(int p=0;p<pages.length;p++)
         {
-            values = p.split(";");
-           
-            double recency = Double.valueOf(values[0])/max_recency*10;//recency 
-            // int address = values[1];//address
-            double reads = Double.valueOf(values[2])/max_size*10;//reads
-            double writes = Double.valueOf(values[3])/max_size*10;//writes
-            //char type = values[4];//type
+            result.put("" + 2*p, addresses[p]);
+            result.put("" + (2*p+1), scores[p]);
+        }
+        return result;
+    }
 
-            //if (fHybridSystem.getPromotionValue(recency,reads,writes)>1)
-            //{
-                recommendation_value = fHybridSystem.getPromotionValue(recency,reads,writes);
-                recommendation_address = Integer.valueOf(values[1]);
+    /**
+     * Like promote(String,int,int), but only returns the k pages with the highest
+     * scores, best first.
+     * @param k The maximum number of pages returned.
+     */
+    public Hashtable promoteTopK(String s, int max_size, int max_recency, int k)
+    {
+        return promoteWithinBudget(s, max_size, max_recency, k, Double.NEGATIVE_INFINITY);
+    }
 
-                result.put("" + i, recommendation_address);
-                result.put("" + (i+1), recommendation_value);
+    /**
+     * Like promote(String,int,int), but only returns the pages scoring above the
+     * threshold, in request order.
+     * @param threshold The score a page needs to exceed.
+     */
+    public Hashtable promoteAboveThreshold(String s, int max_size, int max_recency, double threshold)
+    {
+        String[] pages = s.split("\n");
+        int[] addresses = new int[pages.length];
+        PageBatch batch = parse(pages, addresses);
+        promote(batch, max_size, max_recency);
+        int[] selected = new int[pages.length];
+        int count = PageSelector.selectAboveThreshold(batch.getScores(), threshold, selected);
+        return toHashtable(addresses, batch.getScores(), selected, count);
+    }
+
+    /**
+     * Like promote(String,int,int), but only returns the pages which fill a DRAM
+     * budget: the (at most) budget pages with the highest scores above the
+     * threshold, best first.
+     * @param budget The number of pages which can be promoted.
+     * @param threshold The score a page needs to exceed.
+     */
+    public Hashtable promoteWithinBudget(String s, int max_size, int max_recency, int budget, double threshold)
+    {
+        String[] pages = s.split("\n");
+        int[] addresses = new int[pages.length];
+        PageBatch batch = parse(pages, addresses);
+        promote(batch, max_size, max_recency);
+        int[] selected = new int[Math.max(0, Math.min(budget, pages.length))];
+        int count = PageSelector.selectTop(batch.getScores(), budget, threshold, selected);
+        return toHashtable(addresses, batch.getScores(), selected, count);
+    }
 
-                //System.out.println(recency + " " + reads + " " + writes + " " + recommendation_value);
-                i+=2;
-            //}
-            //else
-            //System.out.println(Integer.valueOf(values[1]) + " " + fHybridSystem.getPromotionValue(recency,reads,writes));
+    /**
+     * Parses the text request of promote(String,int,int).
+     * @param pages The page lines.
+     * @param addresses Receives the address of each page.
+     */
+    private static PageBatch parse(String[] pages, int[] addresses)
+    {
+        String[] values;
+        PageBatch batch = new PageBatch(pages.length);
+        double[] recency = batch.getRecency();
+        double[] reads = batch.getReads();
+        double[] writes = batch.getWrites();
+
+        //parse all pages first, then score them as one batch
+        for(int p=0;p<pages.length;p++)
+        {
+            values = pages[p].split(";");
+
+            recency[p] = Double.valueOf(values[0]);//recency
+            addresses[p] = Integer.valueOf(values[1]);//address
+            reads[p] = Double.valueOf(values[2]);//reads
+            writes[p] = Double.valueOf(values[3]);//writes
+            //char type = values[4];//type
+        }
+        return batch;
+    }
+
+    /**
+     * Returns the selected pages in the format of promote(String,int,int).
+     */
+    private static Hashtable toHashtable(int[] addresses, double[] scores, int[] selected, int count)
+    {
+        Hashtable result = new Hashtable();
+        for(int i=0;i<count;i++)
+        {
+            result.put("" + 2*i, addresses[selected[i]]);
+            result.put("" + (2*i+1), scores[selected[i]]);
         }
-        //System.out.print("-");
         return result;
     }
 
+    /**
+     * Binary counterpart of promote(String,int,int): takes packed little-endian
+     * page records and returns packed (address, score) records in the same order.
+     * See PageBatch for the wire format.
+     * @param pages The packed page records.
+     * @param max_size Normalisation factor of the read and write counts.
+     * @param max_recency Normalisation factor of the recency of access.
+     * @return The packed score records.
+     */
+    public byte[] promoteBatch(byte[] pages, int max_size, int max_recency)
+    {
+        PageBatch batch = PageBatch.decode(pages);
+        promote(batch, max_size, max_recency);
+        return batch.encodeScores();
+    }
+
+    /**
+     * Binary counterpart of promoteTopK().
+     * @return The packed score records of the selected pages, best first.
+     */
+    public byte[] promoteBatchTopK(byte[] pages, int max_size, int max_recency, int k)
+    {
+        return promoteBatchWithinBudget(pages, max_size, max_recency, k, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Binary counterpart of promoteAboveThreshold().
+     * @return The packed score records of the selected pages, in request order.
+     */
+    public byte[] promoteBatchAboveThreshold(byte[] pages, int max_size, int max_recency, double threshold)
+    {
+        PageBatch batch = PageBatch.decode(pages);
+        promote(batch, max_size, max_recency);
+        int[] selected = new int[batch.size()];
+        int count = PageSelector.selectAboveThreshold(batch.getScores(), threshold, selected);
+        return batch.encodeScores(selected, count);
+    }
+
+    /**
+     * Binary counterpart of promoteWithinBudget().
+     * @return The packed score records of the selected pages, best first.
+     */
+    public byte[] promoteBatchWithinBudget(byte[] pages, int max_size, int max_recency, int budget, double threshold)
+    {
+        PageBatch batch = PageBatch.decode(pages);
+        promote(batch, max_size, max_recency);
+        int[] selected = new int[Math.max(0, Math.min(budget, batch.size()))];
+        int count = PageSelector.selectTop(batch.getScores(), budget, threshold, selected);
+        return batch.encodeScores(selected, count);
+    }
+
+    /**
+     * Scores all pages of the batch, writing the results into batch.getScores().
+     * @param batch The pages to be scored.
+     * @param max_size Normalisation factor of the read and write counts.
+     * @param max_recency Normalisation factor of the recency of access.
+     */
+    public void promote(PageBatch batch, int max_size, int max_recency)
+    {
+        FHybridMemFLS system = fHybridSystem;
+        PromotionCache cache = promotionCache;
+        if(cache!=null)
+            system = cache.cached(system);
+        //large batches are split across the scorer's pool (see BatchScorer), in input order
+        batchScorer.score(system, batch, max_size, max_recency);
+    }
+
+    /**
+     * Scores pages given as parallel primitive arrays.
+     * @return The scores, parallel to the input arrays.
+     */
+    public double[] promote(double[] recency, double[] reads, double[] writes, int max_size, int max_recency)
+    {
+        PageBatch batch = new PageBatch(new long[recency.length], recency, reads, writes);
+        promote(batch, max_size, max_recency);
+        return batch.getScores();
+    }
+
 }
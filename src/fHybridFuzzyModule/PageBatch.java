@@ -0,0 +1,191 @@
+/*
+ * PageBatch.java
+ *
+ * Created on 17 October 2026
+ */
+package fHybridFuzzyModule;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A batch of pages to be scored, held as parallel primitive arrays, together
+ * with the compact little-endian wire format used by JavaServer.promoteBatch.
+ * <p>
+ * Request record (32 bytes per page):
+ * <pre>
+ *   double recency | long address | double reads | double writes
+ * </pre>
+ * Response record (16 bytes per page, in request order, or in the order of
+ * the selection for the selecting calls of JavaServer):
+ * <pre>
+ *   long address | double score
+ * </pre>
+ * Recency, reads and writes are the raw counters sent by the simulator, they
+ * are normalised by the server exactly as in JavaServer.promote(String,int,int).
+ */
+public class PageBatch
+{
+    public static final int PAGE_RECORD_SIZE = 32;
+    public static final int SCORE_RECORD_SIZE = 16;
+
+    private final int size;
+    private final long[] addresses;
+    private final double[] recency, reads, writes;
+    private final double[] scores;
+
+    /**
+     * Creates an empty batch of the given size; the arrays are to be filled
+     * through the getters.
+     * @param size Number of pages in the batch.
+     */
+    public PageBatch(int size)
+    {
+        this(new long[size], new double[size], new double[size], new double[size]);
+    }
+
+    /**
+     * Wraps the given arrays (no copy is made).
+     * @param addresses Page addresses.
+     * @param recency Raw recency of access of each page.
+     * @param reads Raw read counts of each page.
+     * @param writes Raw write counts of each page.
+     */
+    public PageBatch(long[] addresses, double[] recency, double[] reads, double[] writes)
+    {
+        if(recency.length!=addresses.length || reads.length!=addresses.length || writes.length!=addresses.length)
+            throw new IllegalArgumentException("All page arrays must have the same length.");
+        this.size = addresses.length;
+        this.addresses = addresses;
+        this.recency = recency;
+        this.reads = reads;
+        this.writes = writes;
+        this.scores = new double[size];
+    }
+
+    /**
+     * Decodes a packed request buffer (see class description).
+     * @param buffer The little-endian page records.
+     * @return The decoded batch.
+     */
+    public static PageBatch decode(byte[] buffer)
+    {
+        if(buffer.length%PAGE_RECORD_SIZE!=0)
+            throw new IllegalArgumentException("The page buffer length ("+buffer.length
+                    +") is not a multiple of the record size ("+PAGE_RECORD_SIZE+").");
+        PageBatch batch = new PageBatch(buffer.length/PAGE_RECORD_SIZE);
+        ByteBuffer in = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i=0;i<batch.size;i++)
+        {
+            batch.recency[i] = in.getDouble();
+            batch.addresses[i] = in.getLong();
+            batch.reads[i] = in.getDouble();
+            batch.writes[i] = in.getDouble();
+        }
+        return batch;
+    }
+
+    /**
+     * Encodes the pages of this batch as a request buffer (see class description).
+     * @return The little-endian page records.
+     */
+    public byte[] encode()
+    {
+        ByteBuffer out = ByteBuffer.allocate(size*PAGE_RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i=0;i<size;i++)
+        {
+            out.putDouble(recency[i]);
+            out.putLong(addresses[i]);
+            out.putDouble(reads[i]);
+            out.putDouble(writes[i]);
+        }
+        return out.array();
+    }
+
+    /**
+     * Encodes the addresses and scores of this batch as a response buffer
+     * (see class description).
+     * @return The little-endian score records.
+     */
+    public byte[] encodeScores()
+    {
+        ByteBuffer out = ByteBuffer.allocate(size*SCORE_RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i=0;i<size;i++)
+        {
+            out.putLong(addresses[i]);
+            out.putDouble(scores[i]);
+        }
+        return out.array();
+    }
+
+    /**
+     * Encodes the addresses and scores of the given pages of this batch as a
+     * response buffer (see class description), e.g. the pages chosen by
+     * PageSelector.
+     * @param pages Indices of the pages to be encoded, in response order.
+     * @param count Number of entries of pages to be encoded.
+     * @return The little-endian score records.
+     */
+    public byte[] encodeScores(int[] pages, int count)
+    {
+        ByteBuffer out = ByteBuffer.allocate(count*SCORE_RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i=0;i<count;i++)
+        {
+            out.putLong(addresses[pages[i]]);
+            out.putDouble(scores[pages[i]]);
+        }
+        return out.array();
+    }
+
+    /**
+     * Decodes a response buffer into its addresses and scores.
+     * @param buffer The little-endian score records.
+     * @param addresses Receives the page addresses, must hold buffer.length/16 entries.
+     * @param scores Receives the scores, must hold buffer.length/16 entries.
+     */
+    public static void decodeScores(byte[] buffer, long[] addresses, double[] scores)
+    {
+        if(buffer.length%SCORE_RECORD_SIZE!=0)
+            throw new IllegalArgumentException("The score buffer length ("+buffer.length
+                    +") is not a multiple of the record size ("+SCORE_RECORD_SIZE+").");
+        ByteBuffer in = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i=0;i<buffer.length/SCORE_RECORD_SIZE;i++)
+        {
+            addresses[i] = in.getLong();
+            scores[i] = in.getDouble();
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public long[] getAddresses()
+    {
+        return addresses;
+    }
+
+    public double[] getRecency()
+    {
+        return recency;
+    }
+
+    public double[] getReads()
+    {
+        return reads;
+    }
+
+    public double[] getWrites()
+    {
+        return writes;
+    }
+
+    /**
+     * Returns the scores, parallel to getAddresses(); filled by JavaServer.promote(PageBatch,int,int).
+     */
+    public double[] getScores()
+    {
+        return scores;
+    }
+}
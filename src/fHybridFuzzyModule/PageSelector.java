@@ -0,0 +1,127 @@
+/*
+ * PageSelector.java
+ *
+ * Created on 17 October 2026
+ */
+package fHybridFuzzyModule;
+
+/**
+ * Selection of the pages worth promoting from the scores of a batch, so that
+ * only those are sent back to the simulator. The selections write page
+ * indices into an array given by the caller and return how many were
+ * selected; nothing else is allocated.
+ * <p>
+ * The highest scores are found with a bounded binary min-heap of page indices
+ * held in the first entries of that array: the root is the weakest selected
+ * page and is replaced whenever a better page is found. At the end the heap is
+ * sorted in place, so the pages come out best first. Of two pages with equal
+ * scores the one earlier in the batch is preferred.
+ */
+public final class PageSelector
+{
+    private PageSelector(){}
+
+    /**
+     * Selects the (at most) k pages with the highest scores above the threshold.
+     * @param scores The scores of the batch.
+     * @param k The maximum number of pages selected, e.g. the free DRAM pages.
+     * @param threshold Only pages scoring strictly above it are selected;
+     * Double.NEGATIVE_INFINITY selects the top k pages regardless of their score.
+     * @param selected Receives the indices of the selected pages, best first;
+     * needs to hold min(k, scores.length) entries.
+     * @return The number of pages selected.
+     */
+    public static int selectTop(double[] scores, int k, double threshold, int[] selected)
+    {
+        k = Math.min(k, scores.length);
+        if(k<=0)
+            return 0;
+        if(selected.length<k)
+            throw new IllegalArgumentException("The selection array needs to hold "+k+" pages.");
+        int size = 0;
+        for(int p=0;p<scores.length;p++)
+        {
+            if(!(scores[p]>threshold))      //also skips NaN scores
+                continue;
+            if(size<k)
+            {
+                selected[size] = p;
+                siftUp(scores, selected, size);
+                size++;
+            }
+            else if(isWorse(scores, selected[0], p))
+            {
+                selected[0] = p;
+                siftDown(scores, selected, 0, size);
+            }
+        }
+        //heap sort: moving the weakest page to the end leaves the best one first
+        for(int end=size-1;end>0;end--)
+        {
+            int temp = selected[0];
+            selected[0] = selected[end];
+            selected[end] = temp;
+            siftDown(scores, selected, 0, end);
+        }
+        return size;
+    }
+
+    /**
+     * Selects all pages scoring strictly above the threshold.
+     * @param scores The scores of the batch.
+     * @param threshold The score a page needs to exceed.
+     * @param selected Receives the indices of the selected pages in batch
+     * order; needs to hold scores.length entries.
+     * @return The number of pages selected.
+     */
+    public static int selectAboveThreshold(double[] scores, double threshold, int[] selected)
+    {
+        if(selected.length<scores.length)
+            throw new IllegalArgumentException("The selection array needs to hold "+scores.length+" pages.");
+        int size = 0;
+        for(int p=0;p<scores.length;p++)
+        {
+            if(scores[p]>threshold)
+                selected[size++] = p;
+        }
+        return size;
+    }
+
+    /**
+     * Returns true if page a ranks below page b.
+     */
+    private static boolean isWorse(double[] scores, int a, int b)
+    {
+        return scores[a]<scores[b] || (scores[a]==scores[b] && a>b);
+    }
+
+    private static void siftUp(double[] scores, int[] heap, int i)
+    {
+        int page = heap[i];
+        while(i>0)
+        {
+            int parent = (i-1)>>>1;
+            if(!isWorse(scores, page, heap[parent]))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = page;
+    }
+
+    private static void siftDown(double[] scores, int[] heap, int i, int size)
+    {
+        int page = heap[i];
+        int child;
+        while((child = 2*i+1)<size)
+        {
+            if(child+1<size && isWorse(scores, heap[child+1], heap[child]))
+                child++;
+            if(!isWorse(scores, heap[child], page))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = page;
+    }
+}
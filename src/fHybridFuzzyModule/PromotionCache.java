@@ -0,0 +1,363 @@
+/*
+ * PromotionCache.java
+ *
+ * Created on 17 October 2026
+ */
+package fHybridFuzzyModule;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cache of promotion values in front of a promotion system. The three
+ * normalised features of a page are quantised with a fixed step and the score
+ * is kept per quantised (recency, reads, writes) triple, so pages which only
+ * differ below the step share one inference. A missing value is computed at
+ * the quantised point itself, which makes the cached scores independent of
+ * the order in which pages arrive.
+ * <p>
+ * Each thread keeps its own open-addressing table of primitive keys and values
+ * (see FHybridMemT1FLS for the same arrangement of the inference scratch
+ * state), so the parallel workers of BatchScorer never wait for each other.
+ * A table holds up to the capacity given; when it is full the least recently
+ * used entries are approximated with the clock algorithm: a hand sweeps the
+ * table, clears the reference bit of entries hit since its last pass and
+ * evicts the first entry without one.
+ * <p>
+ * The capacity bounds the memory per live thread. The cache only refers to
+ * the tables weakly: once a thread has ended its table is garbage collected,
+ * and the next new thread or statistics read adds its hit and miss counts to
+ * the totals of the cache.
+ * <p>
+ * The promotion systems are not changed once built - a reload replaces the
+ * whole system - so a table is filled for one system and is cleared when it
+ * is used with another one, or after clear().
+ */
+public class PromotionCache
+{
+    public static final double DEFAULT_STEP = 0.01;
+    public static final int DEFAULT_CAPACITY = 1<<14;
+
+    private static final double MAX_LEVEL = 10.0;     //features are normalised to [0,MAX_LEVEL]
+    private static final int KEY_BITS = 21;           //bits per quantised feature in a key
+    private static final long EMPTY = -1L;
+
+    private final double step;
+    private final int capacity;
+    private volatile int generation;    //incremented by clear()
+
+    //the tables of all threads, for the statistics; guarded by tables
+    private final Set<TableReference> tables = new HashSet<TableReference>();
+    private final ReferenceQueue<Table> collectedTables = new ReferenceQueue<Table>();
+    private long retiredHits, retiredMisses;    //counts of the collected tables
+
+    private final ThreadLocal<Table> table = new ThreadLocal<Table>()
+    {
+        @Override
+        protected Table initialValue()
+        {
+            Table t = new Table(capacity);
+            synchronized(tables)
+            {
+                retireCollectedTables();
+                tables.add(new TableReference(t, collectedTables));
+            }
+            return t;
+        }
+    };
+
+    /**
+     * Creates a cache with the default step and capacity.
+     */
+    public PromotionCache()
+    {
+        this(DEFAULT_STEP, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param step The quantisation step of the normalised features.
+     * @param capacity The maximum number of values kept per thread.
+     */
+    public PromotionCache(double step, int capacity)
+    {
+        if(!(step>0.0) || MAX_LEVEL/step+0.5>=(1<<KEY_BITS))
+            throw new IllegalArgumentException("The quantisation step needs to be larger than "+MAX_LEVEL/((1<<KEY_BITS)-1)+".");
+        if(capacity<1 || capacity>(1<<28))
+            throw new IllegalArgumentException("The capacity needs to be between 1 and "+(1<<28)+".");
+        this.step = step;
+        this.capacity = capacity;
+    }
+
+    public double getStep()
+    {
+        return step;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Returns a view of the given system which looks its promotion values up
+     * in this cache.
+     * @param system The promotion system computing missing values.
+     */
+    public FHybridMemFLS cached(final FHybridMemFLS system)
+    {
+        return new FHybridMemFLS()
+        {
+            public double getPromotionValue(double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel)
+            {
+                return PromotionCache.this.getPromotionValue(system, recencyOfAccessLevel, readFrequencyLevel, writeFrequencyLevel);
+            }
+        };
+    }
+
+    /**
+     * Returns the promotion value of the given system at the quantised
+     * features, computing it only if it is not cached yet. Features outside
+     * [0,10] are passed to the system unchanged and are not cached.
+     * @param system The promotion system.
+     * @param recencyOfAccessLevel Recency of access, normalised to [0,10].
+     * @param readFrequencyLevel Read frequency, normalised to [0,10].
+     * @param writeFrequencyLevel Write frequency, normalised to [0,10].
+     * @return The promotion value.
+     */
+    public double getPromotionValue(FHybridMemFLS system, double recencyOfAccessLevel, double readFrequencyLevel, double writeFrequencyLevel)
+    {
+        Table t = table.get();
+        long r = quantise(recencyOfAccessLevel);
+        long rd = quantise(readFrequencyLevel);
+        long w = quantise(writeFrequencyLevel);
+        if(r<0 || rd<0 || w<0)
+        {
+            t.counts.misses++;
+            return system.getPromotionValue(recencyOfAccessLevel, readFrequencyLevel, writeFrequencyLevel);
+        }
+        int currentGeneration = generation;
+        if(t.system!=system || t.generation!=currentGeneration)
+            t.clear(system, currentGeneration);
+
+        long key = (r<<(2*KEY_BITS)) | (rd<<KEY_BITS) | w;
+        int slot = t.find(key);
+        if(t.keys[slot]==key)
+        {
+            t.referenced[slot] = true;
+            t.counts.hits++;
+            return t.values[slot];
+        }
+        t.counts.misses++;
+        double value = system.getPromotionValue(level(r), level(rd), level(w));
+        t.put(slot, key, value);
+        return value;
+    }
+
+    /**
+     * Drops all cached values. Each thread clears its table the next time it
+     * uses the cache.
+     */
+    public void clear()
+    {
+        generation++;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache, summed over all
+     * threads. The counters are read without synchronization, so they are
+     * exact once the scoring calls have returned.
+     */
+    public long getHits()
+    {
+        synchronized(tables)
+        {
+            retireCollectedTables();
+            long hits = retiredHits;
+            for(TableReference t : tables)
+                hits += t.counts.hits;
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the number of lookups which needed an inference, summed over all
+     * threads (see getHits()).
+     */
+    public long getMisses()
+    {
+        synchronized(tables)
+        {
+            retireCollectedTables();
+            long misses = retiredMisses;
+            for(TableReference t : tables)
+                misses += t.counts.misses;
+            return misses;
+        }
+    }
+
+    /**
+     * Adds the counts of the tables collected since the last call to the
+     * totals and forgets them. The caller holds the lock of tables.
+     */
+    private void retireCollectedTables()
+    {
+        TableReference t;
+        while((t = (TableReference)collectedTables.poll())!=null)
+        {
+            retiredHits += t.counts.hits;
+            retiredMisses += t.counts.misses;
+            tables.remove(t);
+        }
+    }
+
+    /**
+     * Returns the quantised feature, -1 if it lies outside [0,10].
+     */
+    private long quantise(double level)
+    {
+        if(!(level>=0.0 && level<=MAX_LEVEL))     //also rejects NaN
+            return -1;
+        return (long)(level/step+0.5);
+    }
+
+    private double level(long quantised)
+    {
+        return Math.min(quantised*step, MAX_LEVEL);
+    }
+
+    /**
+     * The hit and miss counts of one table, kept apart from it so that they
+     * outlive it.
+     */
+    private static final class Counts
+    {
+        long hits, misses;
+    }
+
+    /**
+     * Weak reference to the table of one thread, holding its counts.
+     */
+    private static final class TableReference extends WeakReference<Table>
+    {
+        final Counts counts;
+
+        TableReference(Table table, ReferenceQueue<Table> queue)
+        {
+            super(table, queue);
+            counts = table.counts;
+        }
+    }
+
+    /**
+     * Open-addressing table (linear probing) of one thread. It has at least
+     * twice as many slots as entries, so probe sequences stay short.
+     */
+    private static final class Table
+    {
+        final long[] keys;
+        final double[] values;
+        final boolean[] referenced;     //clock bits
+        final int capacity, mask;
+        int size, hand;
+        final Counts counts = new Counts();
+        FHybridMemFLS system;           //the system the values were computed with
+        int generation;
+
+        Table(int capacity)
+        {
+            int slots = Integer.highestOneBit(capacity)<<2;   //a power of two larger than twice the capacity
+            this.capacity = capacity;
+            this.mask = slots-1;
+            keys = new long[slots];
+            values = new double[slots];
+            referenced = new boolean[slots];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        void clear(FHybridMemFLS system, int generation)
+        {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            hand = 0;
+            this.system = system;
+            this.generation = generation;
+        }
+
+        private int home(long key)
+        {
+            return (int)((key*0x9E3779B97F4A7C15L)>>>32) & mask;
+        }
+
+        /**
+         * Returns the slot holding the key, or the empty slot ending its probe sequence.
+         */
+        int find(long key)
+        {
+            int slot = home(key);
+            while(keys[slot]!=EMPTY && keys[slot]!=key)
+                slot = (slot+1) & mask;
+            return slot;
+        }
+
+        /**
+         * Stores a key which is not in the table; slot is the result of find(key).
+         */
+        void put(int slot, long key, double value)
+        {
+            if(size==capacity)
+            {
+                evict();
+                slot = find(key);    //the eviction may have moved entries
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            referenced[slot] = false;
+            size++;
+        }
+
+        private void evict()
+        {
+            while(true)
+            {
+                int slot = hand;
+                hand = (hand+1) & mask;
+                if(keys[slot]==EMPTY)
+                    continue;
+                if(referenced[slot])
+                {
+                    referenced[slot] = false;    //second chance
+                    continue;
+                }
+                remove(slot);
+                return;
+            }
+        }
+
+        /**
+         * Removes the entry in the slot, moving later entries of the same probe
+         * sequences back so that no lookup stops early at the new hole.
+         */
+        private void remove(int slot)
+        {
+            int hole = slot;
+            int next = (slot+1) & mask;
+            while(keys[next]!=EMPTY)
+            {
+                //the entry may fill the hole if its home slot is not between the hole and its slot
+                if(((next-home(keys[next])) & mask)>=((next-hole) & mask))
+                {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    referenced[hole] = referenced[next];
+                    hole = next;
+                }
+                next = (next+1) & mask;
+            }
+            keys[hole] = EMPTY;
+            size--;
+        }
+    }
+}
@@ -69,24 +69,22 @@ public class GenT2zMF_Discretized extends GenT2zMF_Prototype
         double primStepsize = (this.getSupport().getRight()-this.getSupport().getLeft())/(primaryDiscretizationLevel-1);
         double secStepsize = 1.0/(secondaryDiscretizationLevel-1);
         double xStep=getSupport().getLeft(),yStep=0; //the discretization values
-        T1MF_Interface t1set_temp;
+        T1MF_Discretized t1set_temp;
         
-
+        for(int j=0; j<secondaryDiscretizationLevel; j++)
+        {
+            yDiscretizationValues[j] = yStep;
+            yStep += secStepsize;
+        }
         
         for(int i=0;i<primaryDiscretizationLevel;i++)
         {
-            yStep = 0;
             xDiscretizationValues[i] = xStep;
             if(DEBUG)System.out.println("In iteration "+i+" xStep = "+xStep);
             t1set_temp = gt2set.getFS(xStep);
             //System.out.println(t1set_temp);
             if(t1set_temp!=null)
-            for(int j=0; j<secondaryDiscretizationLevel; j++)
-            {
-                yDiscretizationValues[j] = yStep;
-                set[i][j] = t1set_temp.getFS(yStep);
-                yStep += secStepsize;
-            }
+                t1set_temp.getFS(yDiscretizationValues, set[i]);    //the whole vertical slice in one pass
             xStep += primStepsize;
         }
          
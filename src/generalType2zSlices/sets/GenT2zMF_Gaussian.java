@@ -10,6 +10,7 @@
 package generalType2zSlices.sets;
 
 import generic.BadParameterException;
+import generic.MF_Shiftable;
 import generic.Tuple;
 import intervalType2.sets.IntervalT2MF_Gaussian;
 import type1.sets.T1MF_Gaussian;
@@ -19,7 +20,7 @@ import type1.sets.T1MF_Gaussian;
  * zSlices based General Type-2 MF implementation for Gaussian Membership Functions.
  * @author Christian Wagner
  */
-public class GenT2zMF_Gaussian extends GenT2zMF_Prototype
+public class GenT2zMF_Gaussian extends GenT2zMF_Prototype implements MF_Shiftable
 {
     private IntervalT2MF_Gaussian primer;
     
@@ -118,6 +119,15 @@ public class GenT2zMF_Gaussian extends GenT2zMF_Prototype
             if(DEBUG)System.out.println(zSlices[i].toString()+"  Z-Value = "+slices_zValues[i]);
         }        
     }        
+    /**
+     * Moves all zSlices so that their peaks lie on x.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        shiftZSlicesTo(x);
+    }
+
     @Override
     public Object clone()
     {
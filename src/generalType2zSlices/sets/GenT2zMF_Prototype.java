@@ -8,6 +8,7 @@
 package generalType2zSlices.sets;
 
 import generic.BadParameterException;
+import generic.MF_Shiftable;
 import generic.Tuple;
 import intervalType2.sets.IntervalT2MF_Interface;
 import type1.sets.T1MF_Discretized;
@@ -94,6 +95,25 @@ abstract public class GenT2zMF_Prototype implements GenT2zMF_Interface
         //simple replacement for now:
         this.zSlices[zLevel] = zSlice;
     }    
+    /**
+     * Moves all zSlices so that their peaks lie on x. The slices are moved from
+     * the last to the first as constructors may give all zSlices the support of
+     * the first one, which therefore has to be set last. The support of this
+     * set follows the support of the first zSlice. All zSlices need to
+     * implement MF_Shiftable.
+     * @param x The new peak of the zSlices.
+     */
+    protected void shiftZSlicesTo(double x)
+    {
+        for(int i=numberOfzLevels-1;i>=0;i--)
+            ((MF_Shiftable)zSlices[i]).shiftTo(x);
+        if(support!=null && support!=zSlices[0].getSupport())
+        {
+            support.setLeft(zSlices[0].getSupport().getLeft());
+            support.setRight(zSlices[0].getSupport().getRight());
+        }
+    }
+
     public double getZValue(int slice_number)
     {
         if(slice_number>=this.getNumberOfSlices())
@@ -8,6 +8,7 @@
 
 package generalType2zSlices.sets;
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 import intervalType2.sets.IntervalT2MF_Trapezoidal;
 import type1.sets.T1MF_Trapezoidal;
@@ -17,7 +18,7 @@ import type1.sets.T1MF_Trapezoidal;
  *
  * @author Christian Wagner
  */
-public class GenT2zMF_Trapezoidal extends GenT2zMF_Prototype
+public class GenT2zMF_Trapezoidal extends GenT2zMF_Prototype implements MF_Shiftable
 {
     private IntervalT2MF_Trapezoidal primer;   
     
@@ -191,4 +192,13 @@ public class GenT2zMF_Trapezoidal extends GenT2zMF_Prototype
         System.out.println("Shoulder methods not implemented!");
         return Double.NaN;         
     }    
-}
\ No newline at end of file
+
+    /**
+     * Moves all zSlices so that their peaks lie on x.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        shiftZSlicesTo(x);
+    }
+}
@@ -9,6 +9,7 @@
 
 package generalType2zSlices.sets;
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 import intervalType2.sets.IntervalT2MF_Triangular;
 import type1.sets.T1MF_Discretized;
@@ -19,7 +20,7 @@ import type1.sets.T1MF_Triangular;
  * zSlices based General Type-2 MF implementation for Triangular Membership Functions.
  * @author Christian Wagner
  */
-public class GenT2zMF_Triangular extends GenT2zMF_Prototype
+public class GenT2zMF_Triangular extends GenT2zMF_Prototype implements MF_Shiftable
 {
     private IntervalT2MF_Triangular primer;
     
@@ -163,4 +164,12 @@ public class GenT2zMF_Triangular extends GenT2zMF_Prototype
         }        
     }    
 
+    /**
+     * Moves all zSlices so that their peaks lie on x.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        shiftZSlicesTo(x);
+    }
 }
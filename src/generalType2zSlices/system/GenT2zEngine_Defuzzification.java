@@ -9,8 +9,11 @@ package generalType2zSlices.system;
 
 import generalType2zSlices.sets.GenT2zMF_Discretized;
 import generalType2zSlices.sets.GenT2zMF_Interface;
+import generic.BadParameterException;
 import generic.Tuple;
 import intervalType2.sets.IntervalT2Engine_Centroid;
+import java.util.Arrays;
+import java.util.Comparator;
 import type1.sets.T1MF_Discretized;
 
 
@@ -20,10 +23,12 @@ import type1.sets.T1MF_Discretized;
  */
 public class GenT2zEngine_Defuzzification
 {
+    /** The largest number of wavy slices per period typeReduce_wavySlices() evaluates. */
+    public static final long MAX_WAVY_SLICES = 1<<20;
+
     private T1MF_Discretized tRSet;
     private GenT2zMF_Discretized dset;    
     private double[][] dPoints;    //points of the dscretized set
-    private Object[] dPoints_real;  //only the points which actually belong to the set for every vertical slice are included here, one array of doubles per vertical slice.
     private double crisp_output;    
 
     //testing switchable tnorms
@@ -42,7 +47,40 @@ public class GenT2zEngine_Defuzzification
         IEC = new IntervalT2Engine_Centroid(primaryDiscretizationLevel);
         //IEC = new IntervalT2Engine_Centroid();
     }
+
+    /**
+     * Creates a new instance using the given algorithm for the centroids of the zSlices.
+     * @param primaryDiscretizationLevel The discretization level of the zSlices.
+     * @param centroidAlgorithm One of the algorithm constants of IntervalT2Engine_Centroid.
+     */
+    public GenT2zEngine_Defuzzification(int primaryDiscretizationLevel, short centroidAlgorithm)
+    {
+        IEC = new IntervalT2Engine_Centroid(primaryDiscretizationLevel, centroidAlgorithm);
+    }
+
+    public short getCentroidAlgorithm()
+    {
+        return IEC.getCentroidAlgorithm();
+    }
+
+    /**
+     * Selects the algorithm used for the centroid of each zSlice in typeReduce().
+     * @param centroidAlgorithm One of the algorithm constants of IntervalT2Engine_Centroid.
+     */
+    public void setCentroidAlgorithm(short centroidAlgorithm)
+    {
+        IEC.setCentroidAlgorithm(centroidAlgorithm);
+    }
     
+    /**
+     * Returns the type-reduced set of the last call of typeReduce_standard()
+     * or typeReduce_wavySlices(), null before the first.
+     */
+    public T1MF_Discretized getTypeReducedSet()
+    {
+        return tRSet;
+    }
+
     public Tuple typeReduce(GenT2zMF_Interface set)
     {
         if(set==null) 
@@ -86,214 +124,212 @@ public class GenT2zEngine_Defuzzification
 
     
     /**
-     *Returns a typereduced and defuzzified set using the standard general type-2 wavy slice centroid method.
+     *Returns a typereduced and defuzzified set using the standard general type-2 type reduction,
+     *computed by alpha-plane decomposition of the discretised set: for every distinct secondary grade
+     *alpha, the alpha-plane (at each x, the primary grades whose secondary grade is at least alpha) is
+     *an interval type-2 set whose centroid [c_l, c_r] bounds the centroids of all embedded sets with a
+     *membership of at least alpha. The type-reduced set (see getTypeReducedSet()) holds both end points
+     *of each of these intervals at the height alpha; the crisp output is the alpha-weighted average of
+     *their centres.
+     *Its memory is linear and its time polynomial in xResolution*yResolution, so realistic resolutions
+     *can be used. Earlier versions of this method enumerated wavy slices instead, which takes exponential
+     *time; that aggregate gives (slightly) different outputs and is still available as
+     *typeReduce_wavySlices() for small resolutions.
      *@param set The Type 2 set to type reduce.
      *@param xResolution Determines how fine the type 2 set should be discretised along the x-axis.
      *@param yResolution Determines how fine the type 2 set should be discretised along the y-axis.
+     *@return The crisp output, NaN if the discretised set is empty.
      */
     public double typeReduce_standard(GenT2zMF_Interface set, int xResolution, int yResolution)
     {
         //get discretized version of set
         dset = new GenT2zMF_Discretized(set, xResolution,yResolution);
+        final double[] x = dset.getPrimaryDiscretizationValues();
 
-        
-        dPoints_real = new Object[xResolution];
-//        double[] yDiscretizationLevels = dset.getSecondaryDiscretizationValues();
-        
-        int counter;
-
-        
-        //find out how many yvalues belong to each vertical slice and sift them out.
+        //sort the points of each vertical slice by their secondary grade, highest first, and
+        //find the highest alpha for which every non-empty vertical slice still has a point
         int i,j;
-        Tuple[] temp = new Tuple[yResolution];
-        int[] yScliceCount = new int[xResolution];
+        Integer[][] order = new Integer[xResolution][];
+        int[] pointCount = new int[xResolution];
+        double[] alphas = new double[xResolution*yResolution];
+        int numberOfAlphas = 0;
+        double alphaMax = 1.0;
         for(i=0;i<xResolution;i++)
         {
-            counter = 0;
-            for(j = 0;j<yResolution;j++)
+            final int column = i;
+            double sliceMax = 0.0;
+            order[i] = new Integer[yResolution];
+            for(j=0;j<yResolution;j++)
             {
                 if(dset.getSetDataAt(i,j)>0) //if the third dimension > 0
                 {
-                    //fill into dPoints_real;
-                    //temp[counter] = new Tuple(dset.getSetDataAt(i,j),dset.getSecondaryDiscretizationValues()[j]);
-                    temp[counter] = new Tuple(dset.getSetDataAt(i,j),dset.getDiscY(j));
-                    //if(i==3)System.out.println("temp[counter] = "+temp[counter].toString());
-                    counter++;
+                    order[i][pointCount[i]++] = j;
+                    alphas[numberOfAlphas++] = dset.getSetDataAt(i,j);
+                    sliceMax = Math.max(sliceMax, dset.getSetDataAt(i,j));
                 }
             }
-            //dPoints_real[i] = new double[counter+1];
-            dPoints_real[i] = new Tuple[counter];       //+1
-            System.arraycopy(temp,0,dPoints_real[i],0,counter);
-        }
-        
-        if(DEBUG_S)
-        {
-            System.out.println("Number of vertical slices: " +dPoints_real.length);
-            System.out.println("Vertical Slice Positions on x-Axis: ");
-            for(i=0;i<xResolution;i++)
-            {
-                System.out.println("Slice "+i+" is at x = "+dset.getPrimaryDiscretizationValues()[i]);
-            }
-
-            System.out.println("Actual Slices:");
-            printSlices(dPoints_real);
-        }
-        
-        
-        //get two-dimensional superarray containing all permutations...
-        //how many rows?
-        long number_of_rows=0;
-        for(i=0;i<dPoints_real.length;i++)  //for every x disc
-        {
-            if(((Tuple[])dPoints_real[i]).length!=0)    //number of points on vertical slice
-            {
-                if(number_of_rows==0) number_of_rows = ((Tuple[])dPoints_real[i]).length;
-                else number_of_rows*=((Tuple[])dPoints_real[i]).length;
-            }
-        }
-        
-//        long number_of_rows=((Tuple[])dPoints_real[0]).length;
-//        for(i=1;i<dPoints_real.length;i++)
-//        {
-//            number_of_rows*=((Tuple[])dPoints_real[i]).length;
-//        }        
-        
-        
-        if(DEBUG_S)
-        {
-            if(DEBUG_S)System.out.println("Final array contains (long) "+ number_of_rows+" rows!");
-            if(DEBUG_S)System.out.println("Final array contains (int) "+ (int)number_of_rows+" rows!");            
-        }
-        
-        if(number_of_rows!=(int)number_of_rows) System.out.println("precision too great, integer overflow - array length not supported!");
-        
-        Tuple[][] wavySlices = new Tuple[(int)number_of_rows][xResolution];
-        
-        //retrieve permutations and put them in wavyslices array
-        for(i=0;i<xResolution;i++)
-        {
-            counter=0;
-            for(int k=0; k<wavySlices.length;k++)
+            Arrays.sort(order[i], 0, pointCount[i], new Comparator<Integer>()
             {
-                if (((Tuple[])dPoints_real[i]).length!=0)       //if some vertical slices are empty (resolution too low...)
-                    wavySlices[k][i] = ((Tuple[])dPoints_real[i])[counter];
-                else 
+                public int compare(Integer a, Integer b)
                 {
-                    System.out.println("Setting wavy slice to null!");
-                    wavySlices[k][i] = null;
+                    return Double.compare(dset.getSetDataAt(column,b), dset.getSetDataAt(column,a));
                 }
-                
-                counter++;
-                if(counter==(((Tuple[])dPoints_real[i]).length)) 
-                    counter=0;
-            }
-        }
-        
-        if(DEBUG_S)
-        {
-            System.out.println("Wavy Slices:");
-            printSlices(wavySlices);
+            });
+            if(pointCount[i]>0)
+                alphaMax = Math.min(alphaMax, sliceMax);
+            else if(DEBUG_S)
+                System.out.println("Vertical slice "+i+" at x = "+x[i]+" is empty and is skipped.");
         }
-        
-        //now compute centroids of wavy slices using x and y
-        double[] wavycentroids = new double[(int)number_of_rows];
-        double dividend, divisor;
-        for(i=0;i<number_of_rows;i++)
+        Arrays.sort(alphas, 0, numberOfAlphas);
+
+        //process the alpha-planes from the highest alpha down, widening the envelope of each vertical slice
+        int[] next = new int[xResolution];
+        int[] lowest = new int[xResolution], highest = new int[xResolution];
+        Arrays.fill(lowest, Integer.MAX_VALUE);
+        Arrays.fill(highest, -1);
+        double[] lower = new double[xResolution], upper = new double[xResolution];
+        Tuple[] reduced = new Tuple[2*numberOfAlphas];
+        int numberOfPoints = 0;
+        double dividend = 0, divisor = 0, alpha;
+        Tuple centroid;
+        for(int a=numberOfAlphas-1;a>=0;a--)
         {
-            dividend = 0;
-            divisor = 0;
-            for(j=0;j<xResolution;j++)
+            alpha = alphas[a];
+            if(alpha>alphaMax || (a<numberOfAlphas-1 && alpha==alphas[a+1]))
+                continue;   //no wavy slice reaches alpha / already processed
+            for(i=0;i<xResolution;i++)
             {
-                if(wavySlices[i][j]==null) 
+                while(next[i]<pointCount[i] && dset.getSetDataAt(i,order[i][next[i]])>=alpha)
                 {
-                    if(DEBUG_S)
-                    System.out.println("Skipping wavy slice "+i+" as its not defined at "+j);
-                }
-                else
-                {
-                    dividend += (dset.getPrimaryDiscretizationValues()[j]*wavySlices[i][j].getRight());
-                    divisor += wavySlices[i][j].getRight();
+                    j = order[i][next[i]++];
+                    lowest[i] = Math.min(lowest[i], j);
+                    highest[i] = Math.max(highest[i], j);
                 }
+                lower[i] = highest[i]<0 ? 0.0 : dset.getDiscY(lowest[i]);
+                upper[i] = highest[i]<0 ? 0.0 : dset.getDiscY(highest[i]);
             }
-            if(DEBUG_S)System.out.println("wavySlices - Dividend: "+dividend+"  Divisior: "+divisor);
-            wavycentroids[i] = dividend/divisor;
-            if(DEBUG_S) System.out.println("Centroid of wavyslice "+i+" is: "+wavycentroids[i]);
+            centroid = IEC.getCentroid(x, lower, upper);
+            if(DEBUG_S) System.out.println("Alpha-plane "+alpha+" has the centroid "+centroid);
+            if(Double.isNaN(centroid.getLeft()) || Double.isNaN(centroid.getRight()))
+                continue;
+            reduced[numberOfPoints++] = new Tuple(alpha,centroid.getLeft());
+            reduced[numberOfPoints++] = new Tuple(alpha,centroid.getRight());
+            dividend += alpha*centroid.getAverage();
+            divisor += alpha;
         }
-        
-        //get type reduced set
-        if(DEBUG_S) System.out.println("Final type-reduced tuples:");
-        double min = 1.0;
-        Tuple[] reduced = new Tuple[(int)number_of_rows];
-        
 
-        for(i=0;i<number_of_rows;i++)
+        //add to output set
+        tRSet = new T1MF_Discretized("output",numberOfPoints);
+        for(i=0;i<numberOfPoints;i++)
+            tRSet.addPoint(reduced[i]);
+
+        //get crisp output:
+        if(DEBUG_S)System.out.println("Dividend: "+dividend+"  Divisior: "+divisor);
+        crisp_output = dividend/divisor;
+        return crisp_output;
+    }
+    /**
+     *Returns a typereduced and defuzzified set using the wavy slice centroid method, the standard
+     *type reduction of earlier versions. The set is discretised and each embedded (wavy) slice k,
+     *k = 0..n_0*n_1*...*n_m-1, takes the point k mod n_i of vertical slice i, where n_i is the number of
+     *points of that slice (empty vertical slices are skipped). The crisp output is the average of the
+     *wavy slice centroids, weighted by their membership (minimum of their secondary grades). When the
+     *n_i are pairwise coprime these are all embedded sets of the discretised set.
+     *The sequence of wavy slices repeats after the least common multiple of the n_i, so only one
+     *period is evaluated, which gives the same weighted average; the type-reduced set (see
+     *getTypeReducedSet()) holds the membership and centroid of each wavy slice of that period.
+     *The period grows exponentially with yResolution: a set with more than MAX_WAVY_SLICES wavy slices
+     *per period is rejected before any is evaluated - use typeReduce_standard() for those.
+     *@param set The Type 2 set to type reduce.
+     *@param xResolution Determines how fine the type 2 set should be discretised along the x-axis.
+     *@param yResolution Determines how fine the type 2 set should be discretised along the y-axis.
+     *@return The crisp output, NaN if the discretised set is empty.
+     *@throws BadParameterException If the period exceeds MAX_WAVY_SLICES.
+     */
+    public double typeReduce_wavySlices(GenT2zMF_Interface set, int xResolution, int yResolution)
+    {
+        //get discretized version of set
+        dset = new GenT2zMF_Discretized(set, xResolution,yResolution);
+
+        //find out which points belong to each vertical slice and sift them out, skipping empty slices
+        int i,j,counter;
+        int numberOfSlices = 0;
+        double[] x = new double[xResolution];
+        double[][] grades = new double[xResolution][], ys = new double[xResolution][];
+        double[] tempGrades = new double[yResolution], tempYs = new double[yResolution];
+        long period = 1;
+        for(i=0;i<xResolution;i++)
         {
-            if(tnorm==MINIMUM)
+            counter = 0;
+            for(j = 0;j<yResolution;j++)
             {
-                min = 1.0;
-                for(j=0;j<xResolution;j++)
-                { 
-                    if(wavySlices[i][j]!=null)
-                    {//System.out.println("At "+i+" "+j+"  = "+wavySlices[i][j].getLeft());
-                        min = Math.min(min,wavySlices[i][j].getLeft());
-                    }
+                if(dset.getSetDataAt(i,j)>0) //if the third dimension > 0
+                {
+                    tempGrades[counter] = dset.getSetDataAt(i,j);
+                    tempYs[counter] = dset.getDiscY(j);
+                    counter++;
                 }
             }
-            else if(tnorm==PRODUCT)
+            if(counter==0)
             {
-                min = 1.0;
-                for(j=0;j<xResolution;j++)
-                { 
-                    if(wavySlices[i][j]!=null)
-                    {//System.out.println("At "+i+" "+j+"  = "+wavySlices[i][j].getLeft());
-                        min *= wavySlices[i][j].getLeft();
-                    }
-                }                
+                if(DEBUG_S) System.out.println("Vertical slice "+i+" is empty and is skipped.");
+                continue;
             }
-            //tRSet.addPoint(new Tuple(min,wavycentroids[i]));
-            reduced[i] = new Tuple(min,wavycentroids[i]);
-            if(DEBUG_S) System.out.println(reduced[i]);
-            System.out.println(reduced[i].getRight()+","+reduced[i].getLeft());
+            x[numberOfSlices] = dset.getPrimaryDiscretizationValues()[i];
+            grades[numberOfSlices] = Arrays.copyOf(tempGrades, counter);
+            ys[numberOfSlices] = Arrays.copyOf(tempYs, counter);
+            numberOfSlices++;
+            long gcd = gcd(period, counter);
+            if(period/gcd > MAX_WAVY_SLICES/counter)
+                throw new BadParameterException("The discretised set has more than "+MAX_WAVY_SLICES+" wavy slices per period, use a lower resolution or typeReduce_standard().");
+            period = period/gcd*counter;
         }
-        
-        //add to output set
-        tRSet = new T1MF_Discretized("output",reduced.length);
-        tRSet.addPoints(reduced);
-        
-        //get crisp output:
-        dividend = 0; divisor = 0;
-        for(i=0;i<reduced.length;i++)
+        if(numberOfSlices==0)
+        {
+            tRSet = new T1MF_Discretized("output");
+            return crisp_output = Double.NaN;
+        }
+        if(DEBUG_S) System.out.println("The wavy slices repeat after "+period+" slices.");
+
+        //compute the centroid and membership of each wavy slice and get crisp output
+        int[] point = new int[numberOfSlices];      //k mod n_i
+        tRSet = new T1MF_Discretized("output",(int)period);
+        double dividend = 0, divisor = 0;
+        double sliceDividend, sliceDivisor, min, centroid;
+        for(int k=0;k<period;k++)
         {
-            //if(reduced[i].getRight()==Double.NaN) System.out.println("************");
-            //System.out.println("reduced[i].getRight() = "+reduced[i].getRight());
-            dividend += reduced[i].getLeft()*reduced[i].getRight();
-            divisor += reduced[i].getLeft();
+            sliceDividend = 0;
+            sliceDivisor = 0;
+            min = 1.0;
+            for(i=0;i<numberOfSlices;i++)
+            {
+                sliceDividend += x[i]*ys[i][point[i]];
+                sliceDivisor += ys[i][point[i]];
+                if(tnorm==MINIMUM)
+                    min = Math.min(min, grades[i][point[i]]);
+                else if(tnorm==PRODUCT)
+                    min *= grades[i][point[i]];
+                if(++point[i]==ys[i].length)
+                    point[i] = 0;
+            }
+            centroid = sliceDividend/sliceDivisor;
+            tRSet.addPoint(centroid, min);
+            dividend += min*centroid;
+            divisor += min;
         }
         if(DEBUG_S)System.out.println("Dividend: "+dividend+"  Divisior: "+divisor);
         crisp_output = dividend/divisor;
-        
-        //System.out.println("Crisp output = "+crisp_output);
-
-        
-        
-        
         return crisp_output;
-       // return tRSet;
-    }    
-    
-    private void printSlices(Object[] o)
+    }
+
+    private static long gcd(long a, long b)
     {
-        for(int i = 0;i<o.length;i++)
+        while(b!=0)
         {
-            /*if(DEBUG)*/System.out.println("Slice "+i+" , with a length of: "+((Tuple[])o[i]).length);
-            for(int j = 0;j<((Tuple[])o[i]).length;j++)
-            {
-                //System.out.println("((Tuple[])o[i]).length = "+((Tuple[])o[i]).length);
-                //System.out.println(((Tuple[])o[i])[0].toString());
-                if(((Tuple[])o[i])[j]!=null)System.out.print("Point "+j+": "+((Tuple[])o[i])[j].getLeft()+"/"+((Tuple[])o[i])[j].getRight()+" ");
-                else System.out.print("NULL ");
-            }
-            System.out.println("");
+            long t = a%b;
+            a = b;
+            b = t;
         }
-    }    
+        return a;
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * GenT2z_EvaluationContext.java
+ *
+ * Created on 17 October 2026
+ */
+package generalType2zSlices.system;
+
+import generic.BadParameterException;
+import generic.Input;
+import generic.Output;
+import intervalType2.system.IT2_EvaluationContext;
+import intervalType2.system.IT2_Rulebase;
+import java.util.List;
+import type1.sets.T1MF_Singleton;
+
+/**
+ * Per-thread state for GenT2z_Rulebase.evaluate(double[], int, GenT2z_EvaluationContext, double[]).
+ * A context holds the interval type-2 rulebase of each zLevel (as produced by
+ * GenT2z_Rulebase.getIT2Rulebases() when the context was created), an
+ * IT2_EvaluationContext for each of them and the buffers used to combine the
+ * zLevels. Any number of threads can evaluate the same rulebase concurrently
+ * as long as each uses its own context.
+ * <p>
+ * Changes made to the rulebase after the context has been created are not
+ * reflected - create a new context. Only singleton (crisp) inputs are supported.
+ */
+public class GenT2z_EvaluationContext
+{
+    final GenT2z_Rulebase rulebase;
+    private final Input[] inputs;
+    private final Output[] outputs;
+    private final double[] zValues;
+
+    private final IT2_Rulebase[] zLevelRulebases;
+    private final IT2_EvaluationContext[] zLevelContexts;
+    private final int[][] zLevelInput;      //per zLevel, the position in inputs of each of its inputs
+    private final int[][] zLevelOutput;     //per zLevel, the position in outputs of each of its outputs
+
+    //scratch buffers
+    private final double[][] zLevelInputValues, zLevelResults;
+    private final double[] numerators;
+
+    GenT2z_EvaluationContext(GenT2z_Rulebase rulebase, List<GenT2z_Rule> rules, List<Output> outputs, IT2_Rulebase[] zLevelRulebases)
+    {
+        if(rules.isEmpty())
+            throw new BadParameterException("Cannot create an evaluation context for a rulebase without rules.");
+        this.rulebase = rulebase;
+        this.outputs = outputs.toArray(new Output[outputs.size()]);
+        this.zLevelRulebases = zLevelRulebases;
+        this.zValues = rules.get(0).getAntecedents()[0].getSet().getZValues();
+
+        inputs = rules.get(0).getInputs();
+        for(int i=0;i<inputs.length;i++)
+            if(!(inputs[i].getInputMF() instanceof T1MF_Singleton))
+                throw new BadParameterException("Evaluation contexts only support singleton inputs, input "+inputs[i].getName()+" is non-singleton.");
+
+        zLevelContexts = new IT2_EvaluationContext[zLevelRulebases.length];
+        zLevelInput = new int[zLevelRulebases.length][];
+        zLevelOutput = new int[zLevelRulebases.length][];
+        zLevelInputValues = new double[zLevelRulebases.length][];
+        zLevelResults = new double[zLevelRulebases.length][];
+        for(int z=0;z<zLevelRulebases.length;z++)
+        {
+            zLevelContexts[z] = zLevelRulebases[z].createEvaluationContext();
+            zLevelInput[z] = positions(zLevelContexts[z].getInputs(), inputs);
+            zLevelOutput[z] = positions(zLevelContexts[z].getOutputs(), this.outputs);
+            zLevelInputValues[z] = new double[zLevelInput[z].length];
+            zLevelResults[z] = new double[zLevelOutput[z].length];
+        }
+        numerators = new double[this.outputs.length];
+    }
+
+    private static int[] positions(Object[] elements, Object[] array)
+    {
+        int[] positions = new int[elements.length];
+        for(int e=0;e<elements.length;e++)
+        {
+            positions[e] = -1;
+            for(int i=0;i<array.length;i++)
+                if(array[i]==elements[e]) positions[e] = i;
+            if(positions[e]<0)
+                throw new BadParameterException("The zLevel rulebases do not match the inputs/outputs of the zSlices rulebase.");
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the inputs in the order expected by evaluate().
+     */
+    public Input[] getInputs()
+    {
+        return inputs.clone();
+    }
+
+    /**
+     * Returns the outputs in the order in which evaluate() returns their values.
+     */
+    public Output[] getOutputs()
+    {
+        return outputs.clone();
+    }
+
+    void evaluate(double[] inputValues, int typeReductionType, double[] results)
+    {
+        //compute the outputs of each zLevel
+        for(int z=0;z<zLevelRulebases.length;z++)
+        {
+            for(int i=0;i<zLevelInput[z].length;i++)
+                zLevelInputValues[z][i] = inputValues[zLevelInput[z][i]];
+            zLevelRulebases[z].evaluate(zLevelInputValues[z], typeReductionType, zLevelContexts[z], zLevelResults[z]);
+        }
+
+        //apply the zLevel weights
+        double denominator = 0.0;
+        for(int o=0;o<outputs.length;o++)
+            numerators[o] = 0.0;
+        for(int z=0;z<zLevelRulebases.length;z++)
+        {
+            for(int o=0;o<zLevelOutput[z].length;o++)
+                numerators[zLevelOutput[z][o]] += zLevelResults[z][o] * zValues[z];
+            denominator += zValues[z];
+        }
+        for(int o=0;o<outputs.length;o++)
+            results[o] = numerators[o]/denominator;
+    }
+}
@@ -10,8 +10,14 @@ package generalType2zSlices.system;
 import generalType2zSlices.sets.GenT2zMF_Interface;
 import generalType2zSlices.sets.GenT2zMF_Intersection;
 import generic.BadParameterException;
+import generic.Input;
+import generic.MF_Interface;
 import generic.Output;
 import generic.Tuple;
+import intervalType2.sets.IntervalT2Engine_Centroid;
+import intervalType2.sets.IntervalT2MF_Interface;
+import intervalType2.system.IT2_Antecedent;
+import intervalType2.system.IT2_Rule;
 import intervalType2.system.IT2_Rulebase;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,6 +40,13 @@ public class GenT2z_Rulebase
     private final byte CENTROID = 1;
 //    private byte inferenceMethod = 0;   //nopt used ATM
     private byte implicationMethod = 1;    
+    private short centroidAlgorithm = IntervalT2Engine_Centroid.KARNIKMENDEL;   //used by the IT2 rulebase of each zLevel
+    //the zLevel decomposition of the rules, see getIT2Rulebases(); null until (re)built
+    private IT2_Rulebase[] it2Rulebases;
+    //antecedents of the IT2 rules whose input is a zSlice of a (non-singleton) zSlices input, with their zLevel and source
+    private IT2_Antecedent[] zSliceInputAntecedents;
+    private GenT2z_Antecedent[] zSliceInputSources;
+    private int[] zSliceInputLevels;
     private final byte PRODUCT = 0;
     private final byte MINIMUM = 1;        
     
@@ -53,6 +66,7 @@ public class GenT2z_Rulebase
     public void addRule(GenT2z_Rule rule)
     {
         rules.add(rule);
+        it2Rulebases = null;
         //check if any new outputs occur
         Iterator<GenT2z_Consequent> it = rule.getConsequentsIterator(); 
         Output o;
@@ -66,6 +80,7 @@ public class GenT2z_Rulebase
     
     public void addRules(GenT2z_Rule[] r)
     {
+        it2Rulebases = null;
         for(int i=0;i<r.length;i++)
         {
             rules.add(r[i]);
@@ -223,28 +238,112 @@ public class GenT2z_Rulebase
         return returnValue;
     }
     
+    /**
+     * Creates the per-thread state for evaluate(double[], int, GenT2z_EvaluationContext, double[]).
+     * The context is a snapshot of the current rules; create a new one after
+     * changing the rulebase.
+     * @return A new evaluation context for this rulebase.
+     */
+    public synchronized GenT2z_EvaluationContext createEvaluationContext()
+    {
+        return new GenT2z_EvaluationContext(this, rules, outputs, getIT2Rulebases());
+    }
+
+    /**
+     * Reentrant evaluation: the crisp inputs are passed positionally and all
+     * intermediate results are kept in the given context, so neither the Input
+     * objects nor any other shared state are modified. Several threads can
+     * evaluate one rulebase at the same time, each with its own context.
+     * @param inputValues The crisp inputs, in the order of context.getInputs() (the inputs of the first rule).
+     * @param typeReductionType 0: Center Of Sets, 1: Centroid
+     * @param context A context created by createEvaluationContext() of this rulebase.
+     * @param results Receives one value per output, in the order of context.getOutputs().
+     */
+    public void evaluate(double[] inputValues, int typeReductionType, GenT2z_EvaluationContext context, double[] results)
+    {
+        if(context.rulebase!=this)
+            throw new BadParameterException("The evaluation context was created for a different rulebase.");
+        context.evaluate(inputValues, typeReductionType, results);
+    }
+    
     /**
      * Returns the whole zSlices based rulebase as a series of interval type-2
      * rule bases (one per zLevel) which can then be computed in parallel.
-     * @param typeReductionMethod The type-reduction method to be used at the IT2 level 
-     * 0: Center Of Sets,  1: Centroid.
-     * @param discretizationLevelXAxis The number of discretizations to be used at the IT2 level.
+     * The decomposition (including the centroids of all IT2 consequents) only
+     * depends on the rules, so it is built once and reused until rules are
+     * added, changed or removed or the implication method or centroid algorithm
+     * is changed. Rules modified directly through getRules() are not detected.
+     * The IT2 rulebases are shared between calls and must not be modified.
      * @return 
      */
     public IT2_Rulebase[] getIT2Rulebases()
+    {
+        if(it2Rulebases==null)
+            buildIT2Rulebases();
+        else
+            refreshZSliceInputs();
+        return it2Rulebases.clone();
+    }
+
+    private void buildIT2Rulebases()
     {
         IT2_Rulebase[] rbs = new IT2_Rulebase[rules.get(0).getAntecedents()[0].getSet().getNumberOfSlices()];   //retrieve the number of zLevels.
         for(int i=0;i<rbs.length;i++)
-        {
             rbs[i] = new IT2_Rulebase(this.getNumberOfRules());
-            for(int currentRule=0;currentRule<this.getNumberOfRules();currentRule++)
+        ArrayList<IT2_Antecedent> sliceAntecedents = new ArrayList();
+        ArrayList<GenT2z_Antecedent> sliceSources = new ArrayList();
+        ArrayList<Integer> sliceLevels = new ArrayList();
+        IT2_Rule[] it2Rules;
+        GenT2z_Antecedent[] antecedents;
+        for(int currentRule=0;currentRule<this.getNumberOfRules();currentRule++)
+        {
+            it2Rules = rules.get(currentRule).getRuleasIT2Rules();  //all zLevels at once
+            antecedents = rules.get(currentRule).getAntecedents();
+            for(int i=0;i<rbs.length;i++)
             {
-                rbs[i].addRule(rules.get(currentRule).getRuleasIT2Rules()[i]);
+                rbs[i].addRule(it2Rules[i]);
+                for(int a=0;a<antecedents.length;a++)
+                {
+                    if(antecedents[a].getInput().getInputMF() instanceof GenT2zMF_Interface)
+                    {
+                        sliceAntecedents.add(it2Rules[i].getAntecedents()[a]);
+                        sliceSources.add(antecedents[a]);
+                        sliceLevels.add(i);
+                    }
+                }
             }
+        }
+        for(int i=0;i<rbs.length;i++)
+        {
             rbs[i].setImplicationMethod(implicationMethod);
+            rbs[i].setCentroidAlgorithm(centroidAlgorithm);
+        }
+        zSliceInputAntecedents = sliceAntecedents.toArray(new IT2_Antecedent[sliceAntecedents.size()]);
+        zSliceInputSources = sliceSources.toArray(new GenT2z_Antecedent[sliceSources.size()]);
+        zSliceInputLevels = new int[sliceLevels.size()];
+        for(int i=0;i<zSliceInputLevels.length;i++)
+            zSliceInputLevels[i] = sliceLevels.get(i);
+        it2Rulebases = rbs;
+    }
+
+    /**
+     * Setting a non-singleton zSlices input replaces or moves its MF, so the IT2
+     * inputs derived from its zSlices are brought up to date before the cached
+     * IT2 rulebases are used. Singleton and type-1/interval type-2 inputs are
+     * shared with the IT2 antecedents and need no update.
+     */
+    private void refreshZSliceInputs()
+    {
+        for(int s=0;s<zSliceInputAntecedents.length;s++)
+        {
+            MF_Interface inputMF = zSliceInputSources[s].getInput().getInputMF();
+            if(!(inputMF instanceof GenT2zMF_Interface))
+                continue;
+            IntervalT2MF_Interface slice = ((GenT2zMF_Interface)inputMF).getZSlice(zSliceInputLevels[s]);
+            Input derived = zSliceInputAntecedents[s].getInput();
+            if(derived.getInputMF()!=slice || derived.getInput()!=slice.getPeak())
+                derived.setInputMF(slice);
         }
-        
-        return rbs;
     }
 
     public GenT2z_Rule getRule(int number) 
@@ -255,10 +354,12 @@ public class GenT2z_Rulebase
     public void changeRule(int ruleToBeChanged, GenT2z_Rule newRule) 
     {
         rules.set(ruleToBeChanged, newRule);
+        it2Rulebases = null;
     }
 
     public void removeRule(int ruleNumber) {
         rules.remove(ruleNumber);
+        it2Rulebases = null;
     }
     
     public int getNumberOfRules()
@@ -287,6 +388,28 @@ public class GenT2z_Rulebase
         return matches;
     }
 
+    /**
+     * Returns the algorithm used for the centroid type reduction of each zLevel.
+     * @return One of the algorithm constants of IntervalT2Engine_Centroid.
+     */
+    public short getCentroidAlgorithm()
+    {
+        return centroidAlgorithm;
+    }
+
+    /**
+     * Selects the algorithm used for the centroid type reduction of each zLevel.
+     * @param centroidAlgorithm IntervalT2Engine_Centroid.KARNIKMENDEL (default),
+     * ENHANCEDKARNIKMENDEL, EIASC, NIETAN or WUMENDEL.
+     */
+    public void setCentroidAlgorithm(short centroidAlgorithm)
+    {
+        if(centroidAlgorithm<IntervalT2Engine_Centroid.KARNIKMENDEL || centroidAlgorithm>IntervalT2Engine_Centroid.WUMENDEL)
+            throw new BadParameterException("Unknown centroid algorithm: "+centroidAlgorithm+" - see the constants of IntervalT2Engine_Centroid.");
+        this.centroidAlgorithm = centroidAlgorithm;
+        it2Rulebases = null;
+    }
+
     /**
      * Returns the current Implication Method as used for all rules.
      * @return 0 (product) or 1 (minimum)
@@ -313,6 +436,7 @@ public class GenT2z_Rulebase
             this.implicationMethod = MINIMUM;
         else
             throw new BadParameterException("Only product (0) and minimum (1) implication is currentlyt supported.");
+        it2Rulebases = null;
     }       
     public String toString()
     {
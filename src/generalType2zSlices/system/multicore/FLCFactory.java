@@ -14,17 +14,28 @@ import generic.Tuple;
 import intervalType2.system.IT2_Rulebase;
 import java.util.Iterator;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 
 /**
  * FLCFactory is the top level structure for the execution of multi zSlice FLCs. An FLCFactory controls a series of FLCPlants each of
  * which is responsible for the processing of a single zSlice.
+ * The plants are created once and run on a long-lived executor (by default a
+ * pool of daemon threads, one per core, shared by all factories); the calling
+ * thread processes one zSlice itself and then waits on a CountDownLatch for
+ * the others. With a single available core all zSlices are processed on the
+ * calling thread.
  * @author Christian Wagner
  */
 public class FLCFactory {
 
+    private static ExecutorService sharedExecutor;
+
     private int numberOfThreads;
-    private Thread[] threads;
+    private ExecutorService executor;   //null: run all zSlices on the calling thread
     private FLCPlant[] plants;
     private TreeMap<Output, Object[]> rawResults;
     private double[] zLevels;
@@ -39,8 +50,19 @@ public class FLCFactory {
      *@param 
      */
     public FLCFactory(IT2_Rulebase[] rulebases)
+    {
+        this(rulebases, Runtime.getRuntime().availableProcessors()>1 ? getSharedExecutor() : null);
+    }
+
+    /**
+     * Creates a new instance of FLCFactory which runs its zSlices on the given executor.
+     * @param rulebases The IT2 rulebase of each zSlice.
+     * @param executor The executor, or null to process all zSlices on the calling thread.
+     */
+    public FLCFactory(IT2_Rulebase[] rulebases, ExecutorService executor)
     {
         this.rulebases = rulebases;
+        this.executor = executor;
         this.rawResults = new TreeMap();
         int numberOfCores = Runtime.getRuntime().availableProcessors();
         if(SHOWCONTEXT)System.out.println("The system has identified "+numberOfCores+" available processing cores.");        
@@ -52,7 +74,6 @@ public class FLCFactory {
 //        }
         numberOfThreads = rulebases.length;
         
-        threads = new Thread[numberOfThreads];
         plants = new FLCPlant[numberOfThreads];
         Iterator<Output> it = rulebases[0].getOutputIterator();
         while(it.hasNext())
@@ -66,34 +87,78 @@ public class FLCFactory {
         {            
             zLevels[i] = (i+1.0) / rulebases.length;
             weight += zLevels[i];    //for later weighted average calculation - suffices to calculate weight once...
+            plants[i] = new FLCPlant(rulebases[i], rawResults, i, 1);
         }
     }
-    
-    public TreeMap<Output, Double> runFactory(int typeReductionType)
-    {
-        TreeMap<Output, Double> returnValue = new TreeMap();
-        //timer = System.currentTimeMillis();
-        
-        for(int i=0;i<numberOfThreads;i++)
-        {            
-            plants[i] = new FLCPlant(rulebases[i], rawResults, i, typeReductionType); //this could be moved to constructor for efficiency / less flexibility
-            threads[i] = new Thread(plants[i], "Thread_"+i);
 
-            if(DEBUG)System.out.println("Running Factory (thread) number "+i);
-            threads[i].start();
+    /**
+     * Returns the executor shared by all factories created without an explicit
+     * executor: a fixed pool of daemon threads, one per available core.
+     */
+    private static synchronized ExecutorService getSharedExecutor()
+    {
+        if(sharedExecutor==null)
+        {
+            sharedExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+            {
+                private int count = 0;
 
+                public synchronized Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, "FLCFactory_"+(count++));
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
         }
-        
+        return sharedExecutor;
+    }
+
+    /**
+     * Runs the plants of all zSlices and returns once all of them have finished.
+     */
+    private void runPlants(int typeReductionType)
+    {
         for(int i=0;i<numberOfThreads;i++)
+            plants[i].setTypeReductionType(typeReductionType);
+
+        if(executor==null)
         {
-            try {
-                threads[i].join();
-            } catch (InterruptedException ex) 
+            //caller runs
+            for(int i=0;i<numberOfThreads;i++)
             {
-                if(DEBUG)System.out.println("Thread "+i+" finished before it was joined with the main thread.");
-                ex.printStackTrace();
-            } 
+                plants[i].setCompletion(null);
+                plants[i].run();
+            }
+            return;
         }
+
+        CountDownLatch completion = new CountDownLatch(numberOfThreads);
+        for(int i=0;i<numberOfThreads;i++)
+            plants[i].setCompletion(completion);
+        for(int i=1;i<numberOfThreads;i++)
+        {
+            if(DEBUG)System.out.println("Running Factory (plant) number "+i);
+            executor.execute(plants[i]);
+        }
+        plants[0].run();    //the calling thread processes the first zSlice itself
+
+        try {
+            completion.await();
+        } catch (InterruptedException ex) 
+        {
+            if(DEBUG)System.out.println("Interrupted while waiting for the zSlices to finish.");
+            Thread.currentThread().interrupt();
+            ex.printStackTrace();
+        }
+    }
+    
+    public TreeMap<Output, Double> runFactory(int typeReductionType)
+    {
+        TreeMap<Output, Double> returnValue = new TreeMap();
+        //timer = System.currentTimeMillis();
+        
+        runPlants(typeReductionType);
         
         Iterator<Output> it;
         //result = 0.0;
@@ -138,26 +203,7 @@ public class FLCFactory {
         TreeMap<Output, Object[]> returnValue = new TreeMap();
         //timer = System.currentTimeMillis();
         
-        for(int i=0;i<numberOfThreads;i++)
-        {            
-            plants[i] = new FLCPlant(rulebases[i], rawResults, i, typeReductionType);
-            threads[i] = new Thread(plants[i], "Thread_"+i);
-
-            if(DEBUG)System.out.println("Running Factory (thread) number "+i);
-            threads[i].start();
-
-        }
-        
-        for(int i=0;i<numberOfThreads;i++)
-        {
-            try {
-                threads[i].join();
-            } catch (InterruptedException ex) 
-            {
-                if(DEBUG)System.out.println("Thread "+i+" finished before it was joined with the main thread.");
-                ex.printStackTrace();
-            } 
-        }
+        runPlants(typeReductionType);
         
         Iterator<Output> it;
 
@@ -13,10 +13,14 @@ import generic.Tuple;
 import intervalType2.system.IT2_Rulebase;
 import java.util.Iterator;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
 
 
 /**
- *
+ * Evaluates the IT2 rulebase of one zSlice and stores the centroid of each
+ * output in slot positionPointer of the shared results. Each plant writes
+ * only its own slot, so no locking is needed; the factory waits for all
+ * plants of a run through the completion latch.
  * @author Christian Wagner
  */
 public class FLCPlant implements Runnable
@@ -25,6 +29,7 @@ public class FLCPlant implements Runnable
     private TreeMap<Output, Object[]> results;
     private int positionPointer, typeReductionType;
     private IT2_Rulebase rulebase;
+    private CountDownLatch completion;  //counted down when run() finishes, may be null
     
     /** Creates a new instance of FLCPlant */
     public FLCPlant(IT2_Rulebase rulebase, TreeMap<Output, Object[]> results, int positionPointer, int typeReductionType)
@@ -42,24 +47,39 @@ public class FLCPlant implements Runnable
     public void setTypeReductionType(int typeReductionType) {
         this.typeReductionType = typeReductionType;
     }
+
+    /**
+     * Sets the latch which is counted down once the next run() has finished
+     * (also if it failed).
+     */
+    public void setCompletion(CountDownLatch completion) {
+        this.completion = completion;
+    }
     
     
 
     public void run() 
     {//System.out.println("tr: "+typeReductionType);
         //results[positionPointer] = rulebase.evaluate();
-        Iterator<Output> it = rulebase.getOutputIterator();
-        Output o;
-        TreeMap<Output, Object[]> temp;
-        temp = rulebase.evaluateGetCentroid(typeReductionType);
-//            synchronized (rulebase) {temp = rulebase.evaluateGetCentroid(typeReductionType);}        
-        while(it.hasNext())
+        try
         {
-            o = it.next();
-            synchronized(results){
-            ((Tuple[])results.get(o)[0])[positionPointer] = (Tuple)temp.get(o)[0];
+            Iterator<Output> it = rulebase.getOutputIterator();
+            Output o;
+            TreeMap<Output, Object[]> temp;
+            temp = rulebase.evaluateGetCentroid(typeReductionType);
+//            synchronized (rulebase) {temp = rulebase.evaluateGetCentroid(typeReductionType);}        
+            while(it.hasNext())
+            {
+                o = it.next();
+                //slot positionPointer belongs to this plant only
+                ((Tuple[])results.get(o)[0])[positionPointer] = (Tuple)temp.get(o)[0];
             }
         }
+        finally
+        {
+            if(completion!=null)
+                completion.countDown();
+        }
     }
     
 }
@@ -13,6 +13,7 @@ import generic.Tuple;
 import intervalType2.system.IT2_Rulebase;
 import java.util.Iterator;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -58,6 +59,25 @@ public class FLCPoolFactory {
             plants[i] = new FLCPlant(rulebases[i], rawResults, i,defaultTypeReduction);    
     }
     
+    /**
+     * Hands all plants to the pool and waits until each of them has counted
+     * down the completion latch.
+     */
+    private void runPlants()
+    {
+        CountDownLatch completion = new CountDownLatch(numberOfThreads);
+        for(FLCPlant p : plants)
+            p.setCompletion(completion);
+        try {
+            for(int i=0;i<numberOfThreads;i++)
+                pool.execute(plants[i]);
+            completion.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            ex.printStackTrace();
+        }
+    }
+
     public TreeMap<Output, Double> runFactory(int typeReductionType)
     {
         TreeMap<Output, Double> returnValue = new TreeMap();
@@ -78,20 +98,8 @@ public class FLCPoolFactory {
             this.defaultTypeReduction = typeReductionType;
         }
         
-        for(int i=0;i<numberOfThreads;i++)
-        {            
-            try {
-                pool.execute(plants[i]);
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
-            }
-        }
+        runPlants();
         
-        while(pool.getNumberOfBusyThreads()>0)                
-        {
-            //System.out.println("waiting : "+ pool.getNumberOfBusyThreads());
-            Thread.currentThread().yield();
-        }
         
 
         
@@ -154,19 +162,7 @@ public class FLCPoolFactory {
             this.defaultTypeReduction = typeReductionType;
         }        
         
-        for(int i=0;i<numberOfThreads;i++)
-        {            
-            try {
-                pool.execute(plants[i]);
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
-            }
-        }
-        while(pool.getNumberOfBusyThreads()>0)                
-        {
-            //System.out.println("waiting : "+ pool.getNumberOfBusyThreads());
-            Thread.currentThread().yield();
-        }        
+        runPlants();
 
         //Iterator<Output> it;
         Output o;
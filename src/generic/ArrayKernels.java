@@ -0,0 +1,221 @@
+/*
+ * ArrayKernels.java
+ *
+ * Created on 17 October 2026
+ */
+package generic;
+
+/**
+ * Straight-line array kernels used by the defuzzification, type-reduction and
+ * similarity code. The element-wise kernels are plain counted loops without
+ * branches (Math.max/Math.min), which the JIT compiles to SIMD instructions.
+ * The reductions use four independent accumulators, combined as
+ * (s0+s1)+(s2+s3), which removes the loop-carried dependency of a single
+ * running sum; their results can therefore differ from a strictly sequential
+ * sum in the last bits.
+ * <p>
+ * If the JDK Vector API is available, the kernels are run by VectorArrayKernels
+ * instead. That class is only loaded by name, so the rest of the toolkit
+ * builds and runs without it: it has to be compiled and run with
+ * --add-modules jdk.incubator.vector (see vectorKernels.sh), otherwise, or
+ * if -Dgeneric.ArrayKernels.scalar=true is set, the scalar loops below are
+ * used. The vector reductions add the lanes in yet another order, so their
+ * results again differ in the last bits (see ArrayKernelsParityCheck).
+ */
+public final class ArrayKernels
+{
+    /**
+     * The kernels of an alternative implementation, see VectorArrayKernels.
+     */
+    interface Backend
+    {
+        public void maxProduct(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length);
+        public void maxMin(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length);
+        public double dot(double[] x, double[] w, int offset, int length);
+        public double sum(double[] w, int offset, int length);
+        public double sumOfMin(double[] a, double[] b);
+        public double sumOfMax(double[] a, double[] b);
+    }
+
+    private static final Backend VECTOR = loadVectorBackend();
+
+    private ArrayKernels(){}
+
+    /**
+     * Returns the Vector API kernels, or null if they are disabled or the
+     * jdk.incubator.vector module is not available.
+     */
+    static Backend loadVectorBackend()
+    {
+        if(Boolean.getBoolean("generic.ArrayKernels.scalar"))
+            return null;
+        try
+        {
+            return (Backend)Class.forName("generic.VectorArrayKernels").getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return null;        //not compiled
+        }
+        catch(LinkageError e)
+        {
+            return null;        //compiled, but the module is not present at run time
+        }
+    }
+
+    /**
+     * Returns true if the kernels are run by the Vector API implementation.
+     */
+    public static boolean isVectorised()
+    {
+        return VECTOR!=null;
+    }
+
+    /**
+     * buffer[offset+i] = max(buffer[offset+i], f*grades[i]) for i in [0,length)
+     */
+    public static void maxProduct(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length)
+    {
+        if(VECTOR!=null)
+            VECTOR.maxProduct(buffer, offset, grades, gradesOffset, f, length);
+        else
+            scalarMaxProduct(buffer, offset, grades, gradesOffset, f, length);
+    }
+
+    /**
+     * buffer[offset+i] = max(buffer[offset+i], min(f, grades[i])) for i in [0,length)
+     */
+    public static void maxMin(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length)
+    {
+        if(VECTOR!=null)
+            VECTOR.maxMin(buffer, offset, grades, gradesOffset, f, length);
+        else
+            scalarMaxMin(buffer, offset, grades, gradesOffset, f, length);
+    }
+
+    /**
+     * Returns the sum of x[offset+i]*w[offset+i] for i in [0,length).
+     */
+    public static double dot(double[] x, double[] w, int offset, int length)
+    {
+        return VECTOR!=null ? VECTOR.dot(x, w, offset, length) : scalarDot(x, w, offset, length);
+    }
+
+    /**
+     * Returns the sum of w[offset+i] for i in [0,length).
+     */
+    public static double sum(double[] w, int offset, int length)
+    {
+        return VECTOR!=null ? VECTOR.sum(w, offset, length) : scalarSum(w, offset, length);
+    }
+
+    /**
+     * Returns the sum of min(a[i],b[i]) for i in [0,a.length).
+     */
+    public static double sumOfMin(double[] a, double[] b)
+    {
+        return VECTOR!=null ? VECTOR.sumOfMin(a, b) : scalarSumOfMin(a, b);
+    }
+
+    /**
+     * Returns the sum of max(a[i],b[i]) for i in [0,a.length).
+     */
+    public static double sumOfMax(double[] a, double[] b)
+    {
+        return VECTOR!=null ? VECTOR.sumOfMax(a, b) : scalarSumOfMax(a, b);
+    }
+
+    /**
+     * buffer[offset+i] = max(buffer[offset+i], f*grades[i]) for i in [0,length)
+     */
+    static void scalarMaxProduct(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length)
+    {
+        for(int i=0;i<length;i++)
+            buffer[offset+i] = Math.max(buffer[offset+i], f*grades[gradesOffset+i]);
+    }
+
+    /**
+     * buffer[offset+i] = max(buffer[offset+i], min(f, grades[i])) for i in [0,length)
+     */
+    static void scalarMaxMin(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length)
+    {
+        for(int i=0;i<length;i++)
+            buffer[offset+i] = Math.max(buffer[offset+i], Math.min(f, grades[gradesOffset+i]));
+    }
+
+    /**
+     * Returns the sum of x[offset+i]*w[offset+i] for i in [0,length).
+     */
+    static double scalarDot(double[] x, double[] w, int offset, int length)
+    {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = offset, end = offset+length, end4 = offset+(length & ~3);
+        for(;i<end4;i+=4)
+        {
+            s0 += x[i]*w[i];
+            s1 += x[i+1]*w[i+1];
+            s2 += x[i+2]*w[i+2];
+            s3 += x[i+3]*w[i+3];
+        }
+        for(;i<end;i++)
+            s0 += x[i]*w[i];
+        return (s0+s1)+(s2+s3);
+    }
+
+    /**
+     * Returns the sum of w[offset+i] for i in [0,length).
+     */
+    static double scalarSum(double[] w, int offset, int length)
+    {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = offset, end = offset+length, end4 = offset+(length & ~3);
+        for(;i<end4;i+=4)
+        {
+            s0 += w[i];
+            s1 += w[i+1];
+            s2 += w[i+2];
+            s3 += w[i+3];
+        }
+        for(;i<end;i++)
+            s0 += w[i];
+        return (s0+s1)+(s2+s3);
+    }
+
+    /**
+     * Returns the sum of min(a[i],b[i]) for i in [0,a.length).
+     */
+    static double scalarSumOfMin(double[] a, double[] b)
+    {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0, end4 = a.length & ~3;
+        for(;i<end4;i+=4)
+        {
+            s0 += Math.min(a[i], b[i]);
+            s1 += Math.min(a[i+1], b[i+1]);
+            s2 += Math.min(a[i+2], b[i+2]);
+            s3 += Math.min(a[i+3], b[i+3]);
+        }
+        for(;i<a.length;i++)
+            s0 += Math.min(a[i], b[i]);
+        return (s0+s1)+(s2+s3);
+    }
+
+    /**
+     * Returns the sum of max(a[i],b[i]) for i in [0,a.length).
+     */
+    static double scalarSumOfMax(double[] a, double[] b)
+    {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0, end4 = a.length & ~3;
+        for(;i<end4;i+=4)
+        {
+            s0 += Math.max(a[i], b[i]);
+            s1 += Math.max(a[i+1], b[i+1]);
+            s2 += Math.max(a[i+2], b[i+2]);
+            s3 += Math.max(a[i+3], b[i+3]);
+        }
+        for(;i<a.length;i++)
+            s0 += Math.max(a[i], b[i]);
+        return (s0+s1)+(s2+s3);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * ArrayKernelsParityCheck.java
+ *
+ * Created on 17 October 2026
+ */
+package generic;
+
+import java.util.Random;
+
+/**
+ * Compares the Vector API kernels with the scalar kernels of ArrayKernels on
+ * random membership grades of many lengths and offsets, including lengths
+ * which are not a multiple of the vector length. The element-wise kernels
+ * have to agree exactly; the reductions only in the last bits, as they add
+ * in a different order. Run it with vectorKernels.sh; it exits with a non-zero
+ * status if the vector kernels are not available or a result differs.
+ */
+public class ArrayKernelsParityCheck
+{
+    private static final double TOLERANCE = 1e-12;     //relative, for the reductions
+
+    private final ArrayKernels.Backend vector;
+    private final Random random = new Random(17);
+    private int checks, failures;
+
+    public ArrayKernelsParityCheck(ArrayKernels.Backend vector)
+    {
+        this.vector = vector;
+    }
+
+    public static void main(String[] args)
+    {
+        ArrayKernels.Backend vector = ArrayKernels.loadVectorBackend();
+        if(vector==null)
+        {
+            System.out.println("The Vector API kernels are not available (compile and run with --add-modules jdk.incubator.vector).");
+            System.exit(2);
+        }
+        ArrayKernelsParityCheck check = new ArrayKernelsParityCheck(vector);
+        for(int length=0;length<=70;length++)
+            check.run(length);
+        check.run(100);
+        check.run(1000);
+        check.run(1023);
+        System.out.println(check.checks+" checks, "+check.failures+" failures");
+        if(check.failures>0)
+            System.exit(1);
+    }
+
+    /**
+     * Checks all kernels on arrays of the given length, with and without offsets.
+     */
+    public void run(int length)
+    {
+        for(int offset=0;offset<3;offset++)
+        {
+            double[] grades = grades(length+offset);
+            double[] buffer = grades(length+offset);
+            double[] x = new double[length+offset];
+            for(int i=0;i<x.length;i++)
+                x[i] = 10.0*random.nextDouble();
+            double f = random.nextDouble();
+
+            double[] expected = buffer.clone();
+            double[] actual = buffer.clone();
+            ArrayKernels.scalarMaxProduct(expected, offset, grades, offset, f, length);
+            vector.maxProduct(actual, offset, grades, offset, f, length);
+            checkEqual("maxProduct", length, expected, actual);
+
+            expected = buffer.clone();
+            actual = buffer.clone();
+            ArrayKernels.scalarMaxMin(expected, offset, grades, offset, f, length);
+            vector.maxMin(actual, offset, grades, offset, f, length);
+            checkEqual("maxMin", length, expected, actual);
+
+            checkClose("dot", length, ArrayKernels.scalarDot(x, grades, offset, length), vector.dot(x, grades, offset, length));
+            checkClose("sum", length, ArrayKernels.scalarSum(grades, offset, length), vector.sum(grades, offset, length));
+        }
+        double[] a = grades(length);
+        double[] b = grades(length);
+        checkClose("sumOfMin", length, ArrayKernels.scalarSumOfMin(a, b), vector.sumOfMin(a, b));
+        checkClose("sumOfMax", length, ArrayKernels.scalarSumOfMax(a, b), vector.sumOfMax(a, b));
+    }
+
+    /**
+     * Returns random grades in [0,1], about a quarter of them 0 as outside the
+     * support of a set.
+     */
+    private double[] grades(int length)
+    {
+        double[] grades = new double[length];
+        for(int i=0;i<length;i++)
+            grades[i] = random.nextInt(4)==0 ? 0.0 : random.nextDouble();
+        return grades;
+    }
+
+    private void checkEqual(String kernel, int length, double[] expected, double[] actual)
+    {
+        checks++;
+        for(int i=0;i<expected.length;i++)
+        {
+            if(Double.compare(expected[i], actual[i])!=0)
+            {
+                failures++;
+                System.out.println(kernel+" (length "+length+"): element "+i+" is "+actual[i]+", expected "+expected[i]);
+                return;
+            }
+        }
+    }
+
+    private void checkClose(String kernel, int length, double expected, double actual)
+    {
+        checks++;
+        if(!(Math.abs(expected-actual)<=TOLERANCE*Math.max(1.0, Math.abs(expected))))
+        {
+            failures++;
+            System.out.println(kernel+" (length "+length+"): "+actual+", expected "+expected);
+        }
+    }
+}
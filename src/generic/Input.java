@@ -41,6 +41,7 @@ public class Input implements Serializable
     private String name;
     private Tuple domain;
     private MF_Interface inputMF;
+    private boolean ownsInputMF;    //true if inputMF was created by this input and may be moved in place
     
 
     public Input(String name, Tuple domain)
@@ -49,6 +50,7 @@ public class Input implements Serializable
             this.domain = domain;
             this.x = 0;     
             this.inputMF = new T1MF_Singleton(x);
+            this.ownsInputMF = true;
     }	
     public Input(String name, Tuple domain, double x)
     {
@@ -56,6 +58,7 @@ public class Input implements Serializable
             this.domain = domain;        
             this.x=x;
             this.inputMF = new T1MF_Singleton(x); //If there is any precision in input the inputMF is by default a singleton
+            this.ownsInputMF = true;
     }
 
     public Input(String name, Tuple domain, T1MF_Interface inputMF)
@@ -109,13 +112,19 @@ public class Input implements Serializable
     }
 
     /**
-     * Set the numeric input value x for this input and change its membership function
+     * Set the numeric input value x for this input and change its membership function.
+     * The first call after a membership function was set creates a copy of it
+     * around x, later calls move that copy in place (see MF_Shiftable).
      * @param x The numeric value
      */
     public void setInput(double x)
     {
         if(domain.contains(x)) {
             this.x = x;
+            if (ownsInputMF && inputMF instanceof MF_Shiftable) {
+                ((MF_Shiftable) inputMF).shiftTo(x);
+                return;
+            }
             MF_Interface inMF = this.inputMF;
             String nameMF = inMF.getName();
             if (inMF instanceof T1MF_Interface) {
@@ -284,6 +293,7 @@ public class Input implements Serializable
                     + "as it is outside of the domain for this input: "
                     + "["+domain.getLeft()+", "+domain.getRight()+"].");
         }
+            this.ownsInputMF = this.inputMF != inMF;
         }
     }    
     
@@ -296,6 +306,7 @@ public class Input implements Serializable
 		if(domain.contains(inputMF.getPeak())) {
             this.x = inputMF.getPeak();
             this.inputMF = inputMF;
+            this.ownsInputMF = false;
         	
         } else {
             throw new BadParameterException("The inputMF was rejected "
@@ -308,6 +319,7 @@ public class Input implements Serializable
 		if(domain.contains(inputMF.getPeak())) {
             this.x = inputMF.getPeak();
             this.inputMF = inputMF;
+            this.ownsInputMF = false;
         	
         } else {
             throw new BadParameterException("The inputMF was rejected "
@@ -320,6 +332,7 @@ public class Input implements Serializable
 		if(domain.contains(inputMF.getPeak())) {
             this.x = inputMF.getPeak();
             this.inputMF = inputMF;
+            this.ownsInputMF = false;
         	
         } else {
             throw new BadParameterException("The inputMF was rejected "
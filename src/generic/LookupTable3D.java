@@ -0,0 +1,207 @@
+/*
+ * LookupTable3D.java
+ *
+ * Created on 17 October 2026
+ */
+package generic;
+
+/**
+ * A precompiled lookup table for a fixed three-input, single-output system.
+ * The system is sampled once over a regular grid spanning the input domains and
+ * stored in a flat array; evaluation is then a trilinear interpolation between
+ * the eight surrounding grid points, without any inference.
+ * Inputs outside the domains are clamped to the domain bounds.
+ * The table is immutable once compiled and can be shared between threads.
+ * <p>
+ * The interpolation error can be estimated by comparing the table with the
+ * function at the midpoint of every cell. This is a sample of the error, not a
+ * bound: the function is only known at the points where it is evaluated.
+ */
+public class LookupTable3D
+{
+    /**
+     * The function which is sampled to build the table, usually the crisp
+     * output of a rulebase for the given three inputs.
+     */
+    public interface Sampler
+    {
+        public double sample(double x, double y, double z);
+    }
+
+    /**
+     * The crisp output of a system for the current values of its inputs, see
+     * compile(Input[], Evaluator, int[], boolean).
+     */
+    public interface Evaluator
+    {
+        public double evaluate();
+    }
+
+    private final int nx, ny, nz;       //number of grid points along each axis
+    private final double minX, minY, minZ;
+    private final double stepX, stepY, stepZ;
+    private final double maxX, maxY, maxZ;
+    private final double[] table;       //index: (i*ny+j)*nz+k
+    private double sampledMaxError = Double.NaN;
+
+    private LookupTable3D(Tuple domainX, Tuple domainY, Tuple domainZ, int nx, int ny, int nz)
+    {
+        if(nx<2 || ny<2 || nz<2)
+            throw new BadParameterException("A lookup table needs at least 2 grid points along each axis.");
+        this.nx = nx; this.ny = ny; this.nz = nz;
+        minX = domainX.getLeft(); maxX = domainX.getRight(); stepX = (maxX-minX)/(nx-1);
+        minY = domainY.getLeft(); maxY = domainY.getRight(); stepY = (maxY-minY)/(ny-1);
+        minZ = domainZ.getLeft(); maxZ = domainZ.getRight(); stepZ = (maxZ-minZ)/(nz-1);
+        table = new double[nx*ny*nz];
+    }
+
+    /**
+     * Samples the given function over a regular grid.
+     * @param f The function to be tabulated.
+     * @param domainX Domain of the first input.
+     * @param domainY Domain of the second input.
+     * @param domainZ Domain of the third input.
+     * @param gridSize Number of grid points along each axis (x, y, z), each at least 2.
+     * @param computeErrorEstimate If true, the function is also evaluated at
+     * the midpoint of every grid cell and the largest absolute difference to
+     * the interpolated value is recorded (see getSampledMaxError()). This
+     * roughly doubles the compilation time.
+     * @return The compiled table.
+     */
+    public static LookupTable3D compile(Sampler f, Tuple domainX, Tuple domainY, Tuple domainZ, int[] gridSize, boolean computeErrorEstimate)
+    {
+        LookupTable3D lut = new LookupTable3D(domainX, domainY, domainZ, gridSize[0], gridSize[1], gridSize[2]);
+        int index = 0;
+        for(int i=0;i<lut.nx;i++)
+            for(int j=0;j<lut.ny;j++)
+                for(int k=0;k<lut.nz;k++)
+                    lut.table[index++] = f.sample(lut.gridX(i), lut.gridY(j), lut.gridZ(k));
+        if(computeErrorEstimate)
+            lut.computeSampledMaxError(f);
+        return lut;
+    }
+
+    /**
+     * Tabulates a system over the domains of its three inputs: for every grid
+     * point the inputs are set and the system is evaluated. The input values
+     * are restored once the table has been compiled.
+     * @param inputs The three inputs (in the order used by getValue()).
+     * @param system Returns the output of the system for the current inputs.
+     * @param gridSize Number of grid points along each input domain.
+     * @param computeErrorEstimate Whether to sample the interpolation error
+     * against the system at the cell midpoints.
+     * @return The compiled table.
+     */
+    public static LookupTable3D compile(final Input[] inputs, final Evaluator system, int[] gridSize, boolean computeErrorEstimate)
+    {
+        if(inputs.length!=3)
+            throw new BadParameterException("A lookup table can only be compiled for exactly three inputs.");
+        double[] previousInputs = new double[]{inputs[0].getInput(), inputs[1].getInput(), inputs[2].getInput()};
+        Sampler sampler = new Sampler()
+        {
+            public double sample(double x, double y, double z)
+            {
+                inputs[0].setInput(x);
+                inputs[1].setInput(y);
+                inputs[2].setInput(z);
+                return system.evaluate();
+            }
+        };
+        try
+        {
+            return compile(sampler, inputs[0].getDomain(), inputs[1].getDomain(), inputs[2].getDomain(), gridSize, computeErrorEstimate);
+        }
+        finally
+        {
+            for(int i=0;i<3;i++)
+                inputs[i].setInput(previousInputs[i]);
+        }
+    }
+
+    private double gridX(int i) { return i==nx-1 ? maxX : minX+i*stepX; }
+    private double gridY(int j) { return j==ny-1 ? maxY : minY+j*stepY; }
+    private double gridZ(int k) { return k==nz-1 ? maxZ : minZ+k*stepZ; }
+
+    /**
+     * Compares the table against the function at the midpoint of every cell,
+     * where the interpolation error of a smooth function is largest. The result
+     * is the largest error among these samples; it is not a bound, the error
+     * may be larger elsewhere in a cell (e.g. at a kink of the function).
+     * @return The largest absolute error found (NaN results of the function are skipped).
+     */
+    public double computeSampledMaxError(Sampler f)
+    {
+        double max = 0.0, error, x, y, z;
+        for(int i=0;i<nx-1;i++)
+        {
+            x = minX+(i+0.5)*stepX;
+            for(int j=0;j<ny-1;j++)
+            {
+                y = minY+(j+0.5)*stepY;
+                for(int k=0;k<nz-1;k++)
+                {
+                    z = minZ+(k+0.5)*stepZ;
+                    error = Math.abs(f.sample(x, y, z)-getValue(x, y, z));
+                    if(error>max) max = error;
+                }
+            }
+        }
+        sampledMaxError = max;
+        return max;
+    }
+
+    /**
+     * Returns the interpolated output for the given inputs.
+     */
+    public double getValue(double x, double y, double z)
+    {
+        //clamp and locate the cell along each axis
+        double fx = (x<=minX ? 0.0 : (x>=maxX ? nx-1 : (x-minX)/stepX));
+        double fy = (y<=minY ? 0.0 : (y>=maxY ? ny-1 : (y-minY)/stepY));
+        double fz = (z<=minZ ? 0.0 : (z>=maxZ ? nz-1 : (z-minZ)/stepZ));
+        int i = Math.min((int)fx, nx-2);
+        int j = Math.min((int)fy, ny-2);
+        int k = Math.min((int)fz, nz-2);
+        double tx = fx-i, ty = fy-j, tz = fz-k;
+
+        int i000 = (i*ny+j)*nz+k;
+        int i010 = i000+nz;
+        int i100 = i000+ny*nz;
+        int i110 = i100+nz;
+
+        double c00 = table[i000]+(table[i000+1]-table[i000])*tz;
+        double c01 = table[i010]+(table[i010+1]-table[i010])*tz;
+        double c10 = table[i100]+(table[i100+1]-table[i100])*tz;
+        double c11 = table[i110]+(table[i110+1]-table[i110])*tz;
+        double c0 = c00+(c01-c00)*ty;
+        double c1 = c10+(c11-c10)*ty;
+        return c0+(c1-c0)*tx;
+    }
+
+    /**
+     * Returns the largest absolute interpolation error measured at the cell
+     * midpoints (a sample, not a bound), or NaN if it has not been computed.
+     */
+    public double getSampledMaxError()
+    {
+        return sampledMaxError;
+    }
+
+    public int[] getGridSize()
+    {
+        return new int[]{nx, ny, nz};
+    }
+
+    /**
+     * Returns the flat table of sampled values, indexed (i*ny+j)*nz+k.
+     */
+    public double[] getTable()
+    {
+        return table;
+    }
+
+    public String toString()
+    {
+        return "LookupTable3D: "+nx+"x"+ny+"x"+nz+" grid, max. error at cell midpoints: "+sampledMaxError;
+    }
+}
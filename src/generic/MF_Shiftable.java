@@ -0,0 +1,24 @@
+/*
+ * MF_Shiftable.java
+ *
+ * Created on 17 October 2026
+ */
+
+package generic;
+
+/**
+ * Membership functions which can be moved along the x axis in place. This is
+ * used by non-singleton inputs: instead of creating a new set around every new
+ * input value, the set owned by the Input is moved so its peak lies on the
+ * value, keeping its shape.
+ */
+public interface MF_Shiftable extends MF_Interface
+{
+    /**
+     * Moves the membership function so that its peak lies on x. The parameters
+     * are changed exactly as when the set is re-created around x, i.e. all
+     * points are offset by the distance between x and the current peak.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x);
+}
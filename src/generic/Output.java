@@ -18,7 +18,8 @@ public class Output implements Comparable
     private String name;
     private Tuple domain;
     private int discretisationLevel = 100;  //the number of discretisations this output will be evaluated over
-    private double[] discretisedDomain = null;
+    private volatile Discretisation discretisation = null;     //the buffered discretised domain
+    private int modificationCount = 0;     //incremented whenever the domain or discretisation changes
     
     public Output(String name, Tuple domain)
     {
@@ -47,6 +48,7 @@ public class Output implements Comparable
 
     public void setDiscretisationLevel(int discretisationLevel) {
         this.discretisationLevel = discretisationLevel;
+        modificationCount++;
     }
 
     public Tuple getDomain() {
@@ -55,6 +57,17 @@ public class Output implements Comparable
 
     public void setDomain(Tuple domain) {
         this.domain = domain;
+        modificationCount++;
+    }
+
+    /**
+     * Returns a counter which changes whenever the domain or the discretisation
+     * level of this output is changed. Objects which buffer values computed over
+     * the discretised domain (e.g. sampled consequent MFs) compare it against
+     * the count they were computed at to detect that they are stale.
+     */
+    public int getModificationCount() {
+        return modificationCount;
     }
     
     /**
@@ -62,14 +75,17 @@ public class Output implements Comparable
      * discrete array is buffered in the Output object, i.e. if the same discretisation 
      * is kept, it is efficient to use the array from the output object (e.g. in rule-based
      * inference).
+     * The array is filled before it is published, so threads sharing the output
+     * never see a partially computed array. The returned array must not be modified.
      * @param numberOFDiscretizations
      * @return 
      */
     public double[] getDiscretizations()
     {
-        if(discretisedDomain==null || discretisedDomain.length != discretisationLevel)
+        Discretisation d = discretisation;
+        if(d==null || d.modification != modificationCount)
         {
-            discretisedDomain = new double[discretisationLevel];
+            double[] discretisedDomain = new double[discretisationLevel];
             double stepsize = domain.getSize()/(discretisationLevel-1.0);
             discretisedDomain[0] = domain.getLeft();
             discretisedDomain[discretisationLevel-1] = domain.getRight();
@@ -77,10 +93,26 @@ public class Output implements Comparable
             {
                 discretisedDomain[i] = domain.getLeft()+i*stepsize;
             }
-            return discretisedDomain;
+            d = new Discretisation(discretisedDomain, modificationCount);
+            discretisation = d;
+        }
+        return d.values;
+    }
+
+    /**
+     * A discretised domain together with the modification count it was computed
+     * at. Both are final, so the pair is published as a whole.
+     */
+    private static final class Discretisation
+    {
+        final double[] values;
+        final int modification;
+
+        Discretisation(double[] values, int modification)
+        {
+            this.values = values;
+            this.modification = modification;
         }
-        else
-        return discretisedDomain;    
     }
 
     /**
@@ -0,0 +1,344 @@
+/*
+ * RuleActivationIndex.java
+ *
+ * Created on 17 October 2026
+ */
+package generic;
+
+import intervalType2.sets.IntervalT2MF_Gauangle;
+import intervalType2.sets.IntervalT2MF_Gaussian;
+import intervalType2.sets.IntervalT2MF_Interface;
+import intervalType2.sets.IntervalT2MF_Trapezoidal;
+import intervalType2.sets.IntervalT2MF_Triangular;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import type1.sets.T1MF_Discretized;
+import type1.sets.T1MF_Gauangle;
+import type1.sets.T1MF_Gaussian;
+import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_PiecewiseLinear;
+import type1.sets.T1MF_Singleton;
+import type1.sets.T1MF_Trapezoidal;
+import type1.sets.T1MF_Triangular;
+
+/**
+ * Finds the rules which can fire for a given crisp input vector without
+ * evaluating the others. Every antecedent is given the interval of its input
+ * outside of which its membership grade is 0 (the support of its MF, see
+ * getActivationInterval()). For each input the intervals are kept sorted by
+ * their left end together with the running maximum of their right ends, so
+ * the antecedents containing an input value are found by a binary search and
+ * a short backwards scan. The candidate rules are then enumerated from the
+ * rules of the input with the fewest active antecedents, keeping only rules
+ * whose antecedents are all active.
+ * <p>
+ * All other rules have a firing strength of exactly 0, so evaluating only the
+ * candidates gives bit-identical results. The index is immutable; the query
+ * writes into buffers supplied by the caller, so one index can be shared by
+ * several threads.
+ */
+public class RuleActivationIndex
+{
+    private static final Tuple UNBOUNDED = new Tuple(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private final int numberOfInputs;
+    private final int[] antecedentInput;
+    private final double[] antecedentLeft, antecedentRight;
+    private final int[][] ruleAntecedents;
+
+    //per input, the antecedents sorted by left end, the left ends and the running maximum of the right ends
+    private final int[][] sortedAntecedents;
+    private final double[][] sortedLeft, maxRight;
+
+    //per antecedent, the rules using it; per input, the rules without an antecedent on it (both ascending)
+    private final int[][] antecedentRules;
+    private final int[][] unconstrainedRules;
+    private final int candidateBufferSize;
+
+    /**
+     * @param numberOfInputs The number of inputs, i.e. the length of the input vectors.
+     * @param antecedentInput The position of the input of each antecedent.
+     * @param antecedentInterval The activation interval of each antecedent (see getActivationInterval()).
+     * @param ruleAntecedents Per rule, the positions of its antecedents.
+     */
+    public RuleActivationIndex(int numberOfInputs, int[] antecedentInput, Tuple[] antecedentInterval, int[][] ruleAntecedents)
+    {
+        if(antecedentInterval.length!=antecedentInput.length)
+            throw new BadParameterException("An activation interval is required for each antecedent.");
+        this.numberOfInputs = numberOfInputs;
+        this.antecedentInput = antecedentInput.clone();
+        this.ruleAntecedents = ruleAntecedents;
+        int numberOfAntecedents = antecedentInput.length;
+        antecedentLeft = new double[numberOfAntecedents];
+        antecedentRight = new double[numberOfAntecedents];
+        for(int a=0;a<numberOfAntecedents;a++)
+        {
+            if(antecedentInput[a]<0 || antecedentInput[a]>=numberOfInputs)
+                throw new BadParameterException("Antecedent "+a+" refers to input "+antecedentInput[a]+" but there are "+numberOfInputs+" inputs.");
+            antecedentLeft[a] = antecedentInterval[a].getLeft();
+            antecedentRight[a] = antecedentInterval[a].getRight();
+        }
+
+        //interval index per input
+        sortedAntecedents = new int[numberOfInputs][];
+        sortedLeft = new double[numberOfInputs][];
+        maxRight = new double[numberOfInputs][];
+        for(int i=0;i<numberOfInputs;i++)
+        {
+            int n = 0;
+            for(int a=0;a<numberOfAntecedents;a++)
+                if(antecedentInput[a]==i) n++;
+            Integer[] order = new Integer[n];
+            n = 0;
+            for(int a=0;a<numberOfAntecedents;a++)
+                if(antecedentInput[a]==i) order[n++] = a;
+            Arrays.sort(order, new Comparator<Integer>()
+            {
+                public int compare(Integer a, Integer b)
+                {
+                    return Double.compare(antecedentLeft[a], antecedentLeft[b]);
+                }
+            });
+            sortedAntecedents[i] = new int[n];
+            sortedLeft[i] = new double[n];
+            maxRight[i] = new double[n];
+            for(int k=0;k<n;k++)
+            {
+                sortedAntecedents[i][k] = order[k];
+                sortedLeft[i][k] = antecedentLeft[order[k]];
+                maxRight[i][k] = k==0 ? antecedentRight[order[k]] : Math.max(maxRight[i][k-1], antecedentRight[order[k]]);
+            }
+        }
+
+        //rules per antecedent and rules not constrained by an input
+        List<List<Integer>> rulesOfAntecedent = new ArrayList<List<Integer>>(numberOfAntecedents);
+        for(int a=0;a<numberOfAntecedents;a++)
+            rulesOfAntecedent.add(new ArrayList<Integer>());
+        List<List<Integer>> rulesWithoutInput = new ArrayList<List<Integer>>(numberOfInputs);
+        for(int i=0;i<numberOfInputs;i++)
+            rulesWithoutInput.add(new ArrayList<Integer>());
+        boolean[] constrained = new boolean[numberOfInputs];
+        for(int r=0;r<ruleAntecedents.length;r++)
+        {
+            Arrays.fill(constrained, false);
+            for(int k=0;k<ruleAntecedents[r].length;k++)
+            {
+                int a = ruleAntecedents[r][k];
+                List<Integer> rules = rulesOfAntecedent.get(a);
+                if(rules.isEmpty() || rules.get(rules.size()-1)!=r)
+                    rules.add(r);
+                constrained[antecedentInput[a]] = true;
+            }
+            for(int i=0;i<numberOfInputs;i++)
+                if(!constrained[i]) rulesWithoutInput.get(i).add(r);
+        }
+        antecedentRules = toArrays(rulesOfAntecedent);
+        unconstrainedRules = toArrays(rulesWithoutInput);
+
+        //a rule with several antecedents on one input is collected once for each
+        int size = ruleAntecedents.length;
+        for(int i=0;i<numberOfInputs;i++)
+        {
+            int entries = unconstrainedRules[i].length;
+            for(int k=0;k<sortedAntecedents[i].length;k++)
+                entries += antecedentRules[sortedAntecedents[i][k]].length;
+            size = Math.max(size, entries);
+        }
+        candidateBufferSize = size;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists)
+    {
+        int[][] arrays = new int[lists.size()][];
+        for(int i=0;i<arrays.length;i++)
+        {
+            arrays[i] = new int[lists.get(i).size()];
+            for(int k=0;k<arrays[i].length;k++)
+                arrays[i][k] = lists.get(i).get(k);
+        }
+        return arrays;
+    }
+
+    public int getNumberOfAntecedents()
+    {
+        return antecedentInput.length;
+    }
+
+    public int getNumberOfRules()
+    {
+        return ruleAntecedents.length;
+    }
+
+    /**
+     * Returns the length required for the candidates buffer of getCandidateRules().
+     */
+    public int getCandidateBufferSize()
+    {
+        return candidateBufferSize;
+    }
+
+    /**
+     * Finds the rules which can fire for the given input vector.
+     * @param inputValues The crisp value of each input; NaN marks an input
+     * whose value is not crisp (e.g. a non-singleton input), for which all
+     * antecedents are taken to be active.
+     * @param activeAntecedents Receives, per antecedent, whether the value of
+     * its input lies in its activation interval. Grades of inactive antecedents are 0.
+     * @param candidates Receives the candidate rules in ascending order; must
+     * have room for getCandidateBufferSize() entries.
+     * @return The number of candidate rules.
+     */
+    public int getCandidateRules(double[] inputValues, boolean[] activeAntecedents, int[] candidates)
+    {
+        Arrays.fill(activeAntecedents, 0, antecedentInput.length, false);
+        int pivot = -1, pivotRules = Integer.MAX_VALUE;
+        for(int i=0;i<numberOfInputs;i++)
+        {
+            int rules = markActive(i, inputValues[i], activeAntecedents);
+            if(rules<pivotRules)
+            {
+                pivot = i;
+                pivotRules = rules;
+            }
+        }
+        if(pivot<0)         //no inputs: every rule is a candidate
+        {
+            for(int r=0;r<ruleAntecedents.length;r++)
+                candidates[r] = r;
+            return ruleAntecedents.length;
+        }
+
+        //collect the rules of the active antecedents of the pivot input
+        int n = 0;
+        int[] sorted = sortedAntecedents[pivot];
+        for(int k=0;k<sorted.length;k++)
+        {
+            if(!activeAntecedents[sorted[k]]) continue;
+            int[] rules = antecedentRules[sorted[k]];
+            for(int j=0;j<rules.length;j++)
+                candidates[n++] = rules[j];
+        }
+        for(int j=0;j<unconstrainedRules[pivot].length;j++)
+            candidates[n++] = unconstrainedRules[pivot][j];
+        Arrays.sort(candidates, 0, n);
+
+        //keep each rule once and only if all of its antecedents are active
+        int m = 0;
+        for(int j=0;j<n;j++)
+        {
+            int r = candidates[j];
+            if(m>0 && candidates[m-1]==r) continue;
+            if(allActive(ruleAntecedents[r], activeAntecedents))
+                candidates[m++] = r;
+        }
+        return m;
+    }
+
+    /**
+     * Marks the antecedents of input i which are active for value x.
+     * @return The number of rule entries of the active antecedents and the
+     * rules not using input i, i.e. the cost of enumerating from input i.
+     */
+    private int markActive(int i, double x, boolean[] activeAntecedents)
+    {
+        int[] sorted = sortedAntecedents[i];
+        int rules = unconstrainedRules[i].length;
+        if(Double.isNaN(x))
+        {
+            for(int k=0;k<sorted.length;k++)
+            {
+                activeAntecedents[sorted[k]] = true;
+                rules += antecedentRules[sorted[k]].length;
+            }
+            return rules;
+        }
+        //antecedents with left end <= x are sortedLeft[0..p-1]
+        double[] left = sortedLeft[i];
+        int lo = 0, hi = left.length, mid;
+        while(lo<hi)
+        {
+            mid = (lo+hi)>>>1;
+            if(left[mid]<=x) lo = mid+1;
+            else hi = mid;
+        }
+        for(int k=lo-1;k>=0 && maxRight[i][k]>=x;k--)
+        {
+            if(antecedentRight[sorted[k]]>=x)
+            {
+                activeAntecedents[sorted[k]] = true;
+                rules += antecedentRules[sorted[k]].length;
+            }
+        }
+        return rules;
+    }
+
+    private static boolean allActive(int[] antecedents, boolean[] activeAntecedents)
+    {
+        for(int k=0;k<antecedents.length;k++)
+            if(!activeAntecedents[antecedents[k]]) return false;
+        return true;
+    }
+
+    /**
+     * Returns the interval outside of which mf.getFS() is 0: the support for
+     * the MF types known to vanish outside their support, extended to
+     * infinity on the side of a shoulder. For any other MF the whole real
+     * line is returned, so antecedents using it are always active.
+     */
+    public static Tuple getActivationInterval(T1MF_Interface mf)
+    {
+        if(!(mf instanceof T1MF_Triangular || mf instanceof T1MF_Trapezoidal || mf instanceof T1MF_Gaussian
+                || mf instanceof T1MF_Gauangle || mf instanceof T1MF_Singleton || mf instanceof T1MF_Discretized
+                || mf instanceof T1MF_PiecewiseLinear))
+            return UNBOUNDED;
+        Tuple support = mf.getSupport();
+        if(support==null || Double.isNaN(support.getLeft()) || Double.isNaN(support.getRight()))
+            return UNBOUNDED;
+        double left = support.getLeft(), right = support.getRight();
+        //a discretised shoulder set reports only one infinite end even if it has two shoulders
+        if(mf instanceof T1MF_Discretized && (Double.isInfinite(left) || Double.isInfinite(right)))
+            return UNBOUNDED;
+        //these MFs do not consult their support in getFS(), which setSupport() may have narrowed
+        Tuple span = null;
+        if(mf instanceof T1MF_Triangular)
+            span = new Tuple(((T1MF_Triangular)mf).getStart(), ((T1MF_Triangular)mf).getEnd());
+        else if(mf instanceof T1MF_Trapezoidal)
+            span = new Tuple(((T1MF_Trapezoidal)mf).getA(), ((T1MF_Trapezoidal)mf).getD());
+        else if(mf instanceof T1MF_Singleton)
+            span = new Tuple(((T1MF_Singleton)mf).getValue(), ((T1MF_Singleton)mf).getValue());
+        else if(mf instanceof T1MF_PiecewiseLinear)
+            span = mf.getAlphaCut(0.0);
+        if(span!=null)
+        {
+            if(Double.isNaN(span.getLeft()) || Double.isNaN(span.getRight()))
+                return UNBOUNDED;
+            left = Math.min(left, span.getLeft());
+            right = Math.max(right, span.getRight());
+        }
+        return new Tuple(mf.isLeftShoulder() ? Double.NEGATIVE_INFINITY : left,
+                mf.isRightShoulder() ? Double.POSITIVE_INFINITY : right);
+    }
+
+    /**
+     * Returns the interval outside of which both the lower and the upper
+     * membership grade of mf are 0: the union of the activation intervals of
+     * its lower and upper MF and its own support, for the interval type-2 MF
+     * types whose grades are taken from these MFs.
+     */
+    public static Tuple getActivationInterval(IntervalT2MF_Interface mf)
+    {
+        if(!(mf instanceof IntervalT2MF_Triangular || mf instanceof IntervalT2MF_Trapezoidal
+                || mf instanceof IntervalT2MF_Gaussian || mf instanceof IntervalT2MF_Gauangle)
+                || mf.isLeftShoulder() || mf.isRightShoulder())
+            return UNBOUNDED;
+        Tuple lower = getActivationInterval(mf.getLMF());
+        Tuple upper = getActivationInterval(mf.getUMF());
+        Tuple support = mf.getSupport();
+        if(support==null || Double.isNaN(support.getLeft()) || Double.isNaN(support.getRight()))
+            return UNBOUNDED;
+        return new Tuple(Math.min(support.getLeft(), Math.min(lower.getLeft(), upper.getLeft())),
+                Math.max(support.getRight(), Math.max(lower.getRight(), upper.getRight())));
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * RulebasePipeline.java
+ *
+ * Created on 17 October 2026
+ */
+package generic;
+
+import intervalType2.system.IT2_EvaluationContext;
+import intervalType2.system.IT2_Rulebase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import type1.system.T1_CompiledRulebase;
+import type1.system.T1_Rulebase;
+
+/**
+ * A hierarchical (cascaded) fuzzy system: several type-1 and interval type-2
+ * rulebases whose outputs feed inputs of other rulebases. Instead of one
+ * rulebase over all n inputs (with up to 3^n rules for three sets per input)
+ * the inputs are combined a few at a time, so the number of rules grows
+ * linearly with the number of inputs.
+ * <p>
+ * Rulebases are added as stages and wired with connect(). A wire takes the
+ * crisp output of a stage or, for interval type-2 stages, one end of the
+ * type-reduced interval, and feeds it to an Input used by another stage. The
+ * Inputs of the stages which are not fed by a wire are the inputs of the
+ * pipeline; the Outputs which do not feed a wire are its outputs.
+ * <p>
+ * compile() checks the wiring, orders the stages so that every stage runs after
+ * the stages it depends on and returns a Plan which evaluates the pipeline
+ * through the reentrant evaluate(double[],...) methods of the rulebases: values
+ * are passed between stages positionally, without setting the Input objects.
+ * The pipeline itself is only a description; each thread compiles its own Plan.
+ */
+public class RulebasePipeline
+{
+    /** The defuzzified (type-reduced and defuzzified) output. */
+    public static final byte CRISP = 0;
+    /** The left end of the type-reduced interval (interval type-2 stages only). */
+    public static final byte LOWER = 1;
+    /** The right end of the type-reduced interval (interval type-2 stages only). */
+    public static final byte UPPER = 2;
+
+    private static final String[] ENDPOINTS = {"crisp", "lower", "upper"};
+
+    private final List<Stage> stages = new ArrayList<Stage>();
+    private final IdentityHashMap<Input, Wire> wires = new IdentityHashMap<Input, Wire>();
+    private final List<Wire> wireOrder = new ArrayList<Wire>();
+
+    private static final class Stage
+    {
+        final T1_Rulebase t1Rulebase;
+        final IT2_Rulebase it2Rulebase;
+        final int defuzzificationType;     //or type reduction type
+        final Input[] inputs;
+        final Output[] outputs;
+
+        Stage(T1_Rulebase t1Rulebase, IT2_Rulebase it2Rulebase, int defuzzificationType, Input[] inputs, Output[] outputs)
+        {
+            this.t1Rulebase = t1Rulebase;
+            this.it2Rulebase = it2Rulebase;
+            this.defuzzificationType = defuzzificationType;
+            this.inputs = inputs;
+            this.outputs = outputs;
+        }
+    }
+
+    private static final class Wire
+    {
+        final Output output;
+        final byte endpoint;
+        final Input input;
+
+        Wire(Output output, byte endpoint, Input input)
+        {
+            this.output = output;
+            this.endpoint = endpoint;
+            this.input = input;
+        }
+    }
+
+    /**
+     * Adds a type-1 rulebase. Its inputs and outputs are taken from a compiled
+     * snapshot (see T1_Rulebase.compile()); later changes to the rulebase are
+     * reflected by plans compiled afterwards.
+     * @param defuzzificationType 0-Height Defuzzification, 1-Centroid Defuzzification.
+     */
+    public void addStage(T1_Rulebase rulebase, int defuzzificationType)
+    {
+        if(defuzzificationType!=0 && defuzzificationType!=1)
+            throw new BadParameterException("Pipeline stages only support height defuzzification (0) and centroid defuzzification (1).");
+        T1_CompiledRulebase compiled = rulebase.compile();
+        addStage(new Stage(rulebase, null, defuzzificationType, compiled.getInputs(), compiled.getOutputs()));
+    }
+
+    /**
+     * Adds an interval type-2 rulebase.
+     * @param typeReductionType 0-Center-Of-Sets, 1-Centroid.
+     */
+    public void addStage(IT2_Rulebase rulebase, int typeReductionType)
+    {
+        if(typeReductionType!=0 && typeReductionType!=1)
+            throw new BadParameterException("Pipeline stages only support center-of-sets (0) and centroid (1) type reduction.");
+        IT2_EvaluationContext context = rulebase.createEvaluationContext();
+        addStage(new Stage(null, rulebase, typeReductionType, context.getInputs(), context.getOutputs()));
+    }
+
+    private void addStage(Stage stage)
+    {
+        for(Stage s : stages)
+        {
+            if(s.t1Rulebase==stage.t1Rulebase && s.it2Rulebase==stage.it2Rulebase)
+                throw new BadParameterException("The rulebase has already been added to the pipeline.");
+            for(Output o : stage.outputs)
+                if(indexOf(s.outputs, o)>=0)
+                    throw new BadParameterException("Output "+o.getName()+" is already produced by another stage.");
+        }
+        stages.add(stage);
+    }
+
+    /**
+     * Feeds the crisp value of an output to an input of another stage.
+     */
+    public void connect(Output output, Input input)
+    {
+        connect(output, CRISP, input);
+    }
+
+    /**
+     * Feeds a value of an output to an input of another stage.
+     * @param endpoint CRISP, or LOWER/UPPER for one end of the type-reduced
+     * interval of an interval type-2 stage.
+     */
+    public void connect(Output output, byte endpoint, Input input)
+    {
+        if(endpoint!=CRISP && endpoint!=LOWER && endpoint!=UPPER)
+            throw new BadParameterException("Only crisp (0), lower (1) and upper (2) values can be connected.");
+        if(wires.containsKey(input))
+            throw new BadParameterException("Input "+input.getName()+" is already connected to output "+wires.get(input).output.getName()+".");
+        Wire wire = new Wire(output, endpoint, input);
+        wires.put(input, wire);
+        wireOrder.add(wire);
+    }
+
+    /**
+     * Checks the wiring and creates an evaluation plan.
+     * @return A new plan; it keeps its own scratch buffers and per-stage
+     * evaluation state and must only be used by one thread at a time.
+     */
+    public Plan compile()
+    {
+        if(stages.isEmpty())
+            throw new BadParameterException("Cannot compile a pipeline without stages.");
+
+        //resolve the wires to producing and consuming stages and check their types
+        int numberOfStages = stages.size();
+        int[] producer = new int[wireOrder.size()];
+        boolean[][] dependsOn = new boolean[numberOfStages][numberOfStages];
+        for(int w=0;w<wireOrder.size();w++)
+        {
+            Wire wire = wireOrder.get(w);
+            producer[w] = -1;
+            int consumers = 0;
+            for(int s=0;s<numberOfStages;s++)
+            {
+                if(indexOf(stages.get(s).outputs, wire.output)>=0) producer[w] = s;
+                if(indexOf(stages.get(s).inputs, wire.input)>=0) consumers++;
+            }
+            if(producer[w]<0)
+                throw new BadParameterException("Output "+wire.output.getName()+" is not produced by any stage.");
+            if(consumers==0)
+                throw new BadParameterException("Input "+wire.input.getName()+" is not used by any stage.");
+            if(wire.endpoint!=CRISP && stages.get(producer[w]).it2Rulebase==null)
+                throw new BadParameterException("The "+ENDPOINTS[wire.endpoint]+" value of output "+wire.output.getName()
+                        +" is only available from interval type-2 stages.");
+            Tuple from = wire.output.getDomain(), to = wire.input.getDomain();
+            if(!(to.contains(from.getLeft()) && to.contains(from.getRight())))
+                throw new BadParameterException("The domain of output "+wire.output.getName()+" "+from
+                        +" is not contained in the domain of input "+wire.input.getName()+" "+to+".");
+            for(int s=0;s<numberOfStages;s++)
+            {
+                if(indexOf(stages.get(s).inputs, wire.input)<0) continue;
+                if(s==producer[w])
+                    throw new BadParameterException("Output "+wire.output.getName()+" feeds an input of its own stage.");
+                dependsOn[s][producer[w]] = true;
+            }
+        }
+
+        //order the stages: each runs once all stages it depends on have run, otherwise in the order they were added
+        int[] order = new int[numberOfStages];
+        boolean[] done = new boolean[numberOfStages];
+        for(int k=0;k<numberOfStages;k++)
+        {
+            int next = -1;
+            for(int s=0;s<numberOfStages && next<0;s++)
+            {
+                if(done[s]) continue;
+                next = s;
+                for(int d=0;d<numberOfStages;d++)
+                    if(dependsOn[s][d] && !done[d]) next = -1;
+            }
+            if(next<0)
+                throw new BadParameterException("The stages of the pipeline are connected in a cycle.");
+            order[k] = next;
+            done[next] = true;
+        }
+
+        //value slots: the pipeline inputs first, then the results of each stage in evaluation order
+        List<Input> pipelineInputs = new ArrayList<Input>();
+        for(int k=0;k<numberOfStages;k++)
+            for(Input i : stages.get(order[k]).inputs)
+                if(!wires.containsKey(i) && !pipelineInputs.contains(i))
+                    pipelineInputs.add(i);
+        int slots = pipelineInputs.size();
+        int[] resultSlot = new int[numberOfStages];         //first slot of each stage (by position in stages)
+        for(int k=0;k<numberOfStages;k++)
+        {
+            Stage stage = stages.get(order[k]);
+            resultSlot[order[k]] = slots;
+            slots += stage.outputs.length*(stage.it2Rulebase==null ? 1 : 3);
+        }
+
+        Plan plan = new Plan(numberOfStages, slots, pipelineInputs.toArray(new Input[pipelineInputs.size()]));
+        for(int k=0;k<numberOfStages;k++)
+        {
+            Stage stage = stages.get(order[k]);
+            int[] inputSlot = new int[stage.inputs.length];
+            for(int i=0;i<inputSlot.length;i++)
+            {
+                Wire wire = wires.get(stage.inputs[i]);
+                if(wire==null)
+                {
+                    inputSlot[i] = pipelineInputs.indexOf(stage.inputs[i]);
+                    continue;
+                }
+                int w = wireOrder.indexOf(wire);
+                Stage from = stages.get(producer[w]);
+                int o = indexOf(from.outputs, wire.output);
+                inputSlot[i] = from.it2Rulebase==null ? resultSlot[producer[w]]+o : resultSlot[producer[w]]+3*o+wire.endpoint;
+            }
+            plan.setStage(k, stage, inputSlot, resultSlot[order[k]]);
+        }
+
+        //outputs which do not feed another stage, crisp
+        List<Output> pipelineOutputs = new ArrayList<Output>();
+        List<Integer> outputSlots = new ArrayList<Integer>();
+        for(int k=0;k<numberOfStages;k++)
+        {
+            Stage stage = stages.get(order[k]);
+            for(int o=0;o<stage.outputs.length;o++)
+            {
+                boolean connected = false;
+                for(Wire wire : wireOrder)
+                    if(wire.output==stage.outputs[o]) connected = true;
+                if(connected) continue;
+                pipelineOutputs.add(stage.outputs[o]);
+                outputSlots.add(stage.it2Rulebase==null ? resultSlot[order[k]]+o : resultSlot[order[k]]+3*o);
+            }
+        }
+        plan.setOutputs(pipelineOutputs.toArray(new Output[pipelineOutputs.size()]), outputSlots);
+        return plan;
+    }
+
+    private static int indexOf(Object[] array, Object o)
+    {
+        for(int i=0;i<array.length;i++)
+            if(array[i]==o) return i;
+        return -1;
+    }
+
+    /**
+     * A compiled pipeline. All values - pipeline inputs and every result of
+     * every stage - are kept in one array of slots; each stage copies its inputs
+     * from their slots, is evaluated (type-1 stages in their compiled form,
+     * interval type-2 stages through an evaluation context) and writes its
+     * results back, crisp values and, for interval type-2 stages, both ends
+     * of the type-reduced interval. The buffers are created with the plan,
+     * so type-1 stages and the type reduction of interval type-2 stages do not
+     * allocate, with two exceptions: the interval type-2 antecedent MFs return
+     * a new Tuple from each getFS() call, one per antecedent containing the
+     * input, and so does the consequent MF under centroid type reduction when
+     * only one rule of an output fires (see IT2_Rulebase.getCentroid()).
+     */
+    public static class Plan
+    {
+        private final Input[] inputs;
+        private Output[] outputs;
+        private int[] outputSlot;
+        private final double[] values;
+
+        //per stage, in evaluation order
+        private final T1_CompiledRulebase[] t1Stages;
+        private final IT2_Rulebase[] it2Rulebases;
+        private final IT2_EvaluationContext[] it2Contexts;
+        private final int[] defuzzificationType;
+        private final int[][] inputSlot;
+        private final int[] resultSlot;
+        private final double[][] stageInputs, stageResults, stageLower, stageUpper;
+
+        private Plan(int numberOfStages, int numberOfSlots, Input[] inputs)
+        {
+            this.inputs = inputs;
+            values = new double[numberOfSlots];
+            t1Stages = new T1_CompiledRulebase[numberOfStages];
+            it2Rulebases = new IT2_Rulebase[numberOfStages];
+            it2Contexts = new IT2_EvaluationContext[numberOfStages];
+            defuzzificationType = new int[numberOfStages];
+            inputSlot = new int[numberOfStages][];
+            resultSlot = new int[numberOfStages];
+            stageInputs = new double[numberOfStages][];
+            stageResults = new double[numberOfStages][];
+            stageLower = new double[numberOfStages][];
+            stageUpper = new double[numberOfStages][];
+        }
+
+        private void setStage(int k, Stage stage, int[] inputSlot, int resultSlot)
+        {
+            if(stage.t1Rulebase!=null)
+            {
+                t1Stages[k] = stage.t1Rulebase.compile();
+                checkSnapshot(stage, t1Stages[k].getInputs(), t1Stages[k].getOutputs());
+            }
+            else
+            {
+                it2Rulebases[k] = stage.it2Rulebase;
+                it2Contexts[k] = stage.it2Rulebase.createEvaluationContext();
+                checkSnapshot(stage, it2Contexts[k].getInputs(), it2Contexts[k].getOutputs());
+                stageLower[k] = new double[stage.outputs.length];
+                stageUpper[k] = new double[stage.outputs.length];
+            }
+            defuzzificationType[k] = stage.defuzzificationType;
+            this.inputSlot[k] = inputSlot;
+            this.resultSlot[k] = resultSlot;
+            stageInputs[k] = new double[inputSlot.length];
+            stageResults[k] = new double[stage.outputs.length];
+        }
+
+        private static void checkSnapshot(Stage stage, Input[] inputs, Output[] outputs)
+        {
+            if(!Arrays.equals(inputs, stage.inputs) || !Arrays.equals(outputs, stage.outputs))
+                throw new BadParameterException("The inputs or outputs of a rulebase have changed since it was added to the pipeline.");
+        }
+
+        private void setOutputs(Output[] outputs, List<Integer> outputSlots)
+        {
+            this.outputs = outputs;
+            outputSlot = new int[outputSlots.size()];
+            for(int o=0;o<outputSlot.length;o++)
+                outputSlot[o] = outputSlots.get(o);
+        }
+
+        /**
+         * Returns the inputs of the pipeline in the order expected by evaluate().
+         */
+        public Input[] getInputs()
+        {
+            return inputs.clone();
+        }
+
+        /**
+         * Returns the outputs of the pipeline in the order in which evaluate() returns their values.
+         */
+        public Output[] getOutputs()
+        {
+            return outputs.clone();
+        }
+
+        /**
+         * Evaluates all stages. An intermediate value outside the domain of the
+         * input it feeds (e.g. NaN from a type-1 stage of which no rule fired)
+         * raises a BadParameterException in the stage it is fed to.
+         * @param inputValues The crisp inputs, in the order of getInputs().
+         * @param results Receives the crisp value of each output, in the order of getOutputs().
+         */
+        public void evaluate(double[] inputValues, double[] results)
+        {
+            System.arraycopy(inputValues, 0, values, 0, inputs.length);
+            for(int k=0;k<inputSlot.length;k++)
+            {
+                double[] in = stageInputs[k], out = stageResults[k];
+                for(int i=0;i<in.length;i++)
+                    in[i] = values[inputSlot[k][i]];
+                if(t1Stages[k]!=null)
+                {
+                    t1Stages[k].evaluate(in, defuzzificationType[k], out);
+                    System.arraycopy(out, 0, values, resultSlot[k], out.length);
+                }
+                else
+                {
+                    it2Rulebases[k].evaluate(in, defuzzificationType[k], it2Contexts[k], out, stageLower[k], stageUpper[k]);
+                    for(int o=0;o<out.length;o++)
+                    {
+                        values[resultSlot[k]+3*o] = out[o];
+                        values[resultSlot[k]+3*o+1] = stageLower[k][o];
+                        values[resultSlot[k]+3*o+2] = stageUpper[k][o];
+                    }
+                }
+            }
+            for(int o=0;o<outputSlot.length;o++)
+                results[o] = values[outputSlot[o]];
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * VectorArrayKernels.java
+ *
+ * Created on 17 October 2026
+ */
+package generic;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The kernels of ArrayKernels written with the JDK Vector API, using the
+ * widest double vectors of the platform. Elements left over after the last
+ * full vector are processed by scalar loops. The reductions keep one vector
+ * of partial sums which is added across its lanes at the end.
+ * <p>
+ * Needs --add-modules jdk.incubator.vector at compile and run time; it is
+ * loaded by ArrayKernels only if the module is present.
+ */
+final class VectorArrayKernels implements ArrayKernels.Backend
+{
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    public void maxProduct(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length)
+    {
+        int i = 0, bound = SPECIES.loopBound(length);
+        for(;i<bound;i+=SPECIES.length())
+        {
+            DoubleVector b = DoubleVector.fromArray(SPECIES, buffer, offset+i);
+            DoubleVector g = DoubleVector.fromArray(SPECIES, grades, gradesOffset+i);
+            b.max(g.mul(f)).intoArray(buffer, offset+i);
+        }
+        for(;i<length;i++)
+            buffer[offset+i] = Math.max(buffer[offset+i], f*grades[gradesOffset+i]);
+    }
+
+    public void maxMin(double[] buffer, int offset, double[] grades, int gradesOffset, double f, int length)
+    {
+        int i = 0, bound = SPECIES.loopBound(length);
+        for(;i<bound;i+=SPECIES.length())
+        {
+            DoubleVector b = DoubleVector.fromArray(SPECIES, buffer, offset+i);
+            DoubleVector g = DoubleVector.fromArray(SPECIES, grades, gradesOffset+i);
+            b.max(g.min(f)).intoArray(buffer, offset+i);
+        }
+        for(;i<length;i++)
+            buffer[offset+i] = Math.max(buffer[offset+i], Math.min(f, grades[gradesOffset+i]));
+    }
+
+    public double dot(double[] x, double[] w, int offset, int length)
+    {
+        DoubleVector s = DoubleVector.zero(SPECIES);
+        int i = 0, bound = SPECIES.loopBound(length);
+        for(;i<bound;i+=SPECIES.length())
+            s = s.add(DoubleVector.fromArray(SPECIES, x, offset+i).mul(DoubleVector.fromArray(SPECIES, w, offset+i)));
+        double sum = s.reduceLanes(VectorOperators.ADD);
+        for(;i<length;i++)
+            sum += x[offset+i]*w[offset+i];
+        return sum;
+    }
+
+    public double sum(double[] w, int offset, int length)
+    {
+        DoubleVector s = DoubleVector.zero(SPECIES);
+        int i = 0, bound = SPECIES.loopBound(length);
+        for(;i<bound;i+=SPECIES.length())
+            s = s.add(DoubleVector.fromArray(SPECIES, w, offset+i));
+        double sum = s.reduceLanes(VectorOperators.ADD);
+        for(;i<length;i++)
+            sum += w[offset+i];
+        return sum;
+    }
+
+    public double sumOfMin(double[] a, double[] b)
+    {
+        DoubleVector s = DoubleVector.zero(SPECIES);
+        int i = 0, bound = SPECIES.loopBound(a.length);
+        for(;i<bound;i+=SPECIES.length())
+            s = s.add(DoubleVector.fromArray(SPECIES, a, i).min(DoubleVector.fromArray(SPECIES, b, i)));
+        double sum = s.reduceLanes(VectorOperators.ADD);
+        for(;i<a.length;i++)
+            sum += Math.min(a[i], b[i]);
+        return sum;
+    }
+
+    public double sumOfMax(double[] a, double[] b)
+    {
+        DoubleVector s = DoubleVector.zero(SPECIES);
+        int i = 0, bound = SPECIES.loopBound(a.length);
+        for(;i<bound;i+=SPECIES.length())
+            s = s.add(DoubleVector.fromArray(SPECIES, a, i).max(DoubleVector.fromArray(SPECIES, b, i)));
+        double sum = s.reduceLanes(VectorOperators.ADD);
+        for(;i<a.length;i++)
+            sum += Math.max(a[i], b[i]);
+        return sum;
+    }
+}
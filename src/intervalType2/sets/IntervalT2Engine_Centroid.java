@@ -9,10 +9,27 @@
 
 package intervalType2.sets;
 
+import generic.ArrayKernels;
+import generic.BadParameterException;
 import generic.Tuple;
 
 /**
- * Implements Centroid calculation using the Karnik Mendel and Enhanced Karnik Mendel Iterative Procedures.
+ * Implements Centroid calculation (type-reduction) for interval type-2 sets.
+ * The algorithm is selectable at runtime:
+ * KARNIKMENDEL (KM, default), ENHANCEDKARNIKMENDEL (EKM), EIASC (enhanced
+ * iterative algorithm with stop condition), NIETAN (closed form Nie-Tan
+ * method, returns a degenerate interval [y,y]) and WUMENDEL (closed form
+ * approximation based on the Wu-Mendel uncertainty bounds).
+ * Sets are sampled once over primaryDiscretizationLevel points; the sampled
+ * lower/upper membership can also be passed in directly as arrays.
+ * In warm-start mode KM and EKM start from the switch points found by the
+ * previous call, which converges in a single iteration when consecutive sets
+ * are similar - use one engine per output to benefit from it. The number of
+ * iterations performed is counted in any mode.
+ * <p>
+ * getCentroid(double[], double[], double[], double[]) writes the centroid into
+ * an array given by the caller and reuses the weight buffer of KM, so that
+ * repeated type reductions of sampled sets do not allocate.
  * @author Christian Wagner
  */
 public class IntervalT2Engine_Centroid
@@ -20,14 +37,23 @@ public class IntervalT2Engine_Centroid
     private Tuple centroid;
     private int primaryDiscretizationLevel = 100;
     
-    private final short KARNIKMENDEL = 0;
-    private final short ENHANCEDKARNIKMENDEL = 1;
+    public static final short KARNIKMENDEL = 0;
+    public static final short ENHANCEDKARNIKMENDEL = 1;
+    public static final short EIASC = 2;
+    public static final short NIETAN = 3;
+    public static final short WUMENDEL = 4;
         private final double ENHANCEDKARNIKMENDEL_L0 = 2.4;
         private final double ENHANCEDKARNIKMENDEL_R0 = 1.7;
             
-    private final short centroid_algorithm_selector = KARNIKMENDEL;
-    private final boolean log = false; //log for comparison
+    private short centroid_algorithm_selector = KARNIKMENDEL;
     private final boolean DEBUG = false;
+
+    //warm start: the switch points of the last centroid and the number of points they refer to
+    private boolean warmStart = false;
+    private int lastLeftSwitchPoint = -1, lastRightSwitchPoint = -1, lastNumberOfPoints = -1;
+    private int lastIterations;
+    private long totalIterations;
+    private double[] weights = new double[0];     //KM scratch buffer, one weight per point
     
     /** Creates a new instance of GenT2Engine_Centroid */
     public IntervalT2Engine_Centroid()
@@ -40,6 +66,16 @@ public class IntervalT2Engine_Centroid
         this.primaryDiscretizationLevel = primaryDiscretizationLevel;
     }    
     
+    /**
+     * @param primaryDiscretizationLevel The number of points the sets are sampled at.
+     * @param centroidAlgorithm One of KARNIKMENDEL, ENHANCEDKARNIKMENDEL, EIASC, NIETAN, WUMENDEL.
+     */
+    public IntervalT2Engine_Centroid(int primaryDiscretizationLevel, short centroidAlgorithm)
+    {
+        this.primaryDiscretizationLevel = primaryDiscretizationLevel;
+        setCentroidAlgorithm(centroidAlgorithm);
+    }    
+    
     public int getPrimaryDiscretizationLevel()
     {
         return primaryDiscretizationLevel;
@@ -50,381 +86,445 @@ public class IntervalT2Engine_Centroid
         this.primaryDiscretizationLevel = primaryDiscretizationLevel;
     }     
     
-    public Tuple getCentroid(IntervalT2MF_Interface mf)
+    public short getCentroidAlgorithm()
     {
-        //System.out.println("Change back to KM!!!!!!");
-        
-        switch(centroid_algorithm_selector)
+        return centroid_algorithm_selector;
+    }
+    
+    /**
+     * Selects the type-reduction algorithm.
+     * @param centroidAlgorithm One of KARNIKMENDEL, ENHANCEDKARNIKMENDEL, EIASC, NIETAN, WUMENDEL.
+     */
+    public void setCentroidAlgorithm(short centroidAlgorithm)
+    {
+        if(centroidAlgorithm<KARNIKMENDEL || centroidAlgorithm>WUMENDEL)
+            throw new BadParameterException("Unknown centroid algorithm: "+centroidAlgorithm+" - use KARNIKMENDEL (0), ENHANCEDKARNIKMENDEL (1), EIASC (2), NIETAN (3) or WUMENDEL (4).");
+        this.centroid_algorithm_selector = centroidAlgorithm;
+        lastNumberOfPoints = -1;
+    }
+
+    public boolean isWarmStart()
+    {
+        return warmStart;
+    }
+
+    /**
+     * Enables or disables warm starting KM and EKM from the switch points of
+     * the previous centroid. If the number of points changes or a remembered
+     * switch point yields an empty set, the algorithm starts as usual.
+     */
+    public void setWarmStart(boolean warmStart)
+    {
+        this.warmStart = warmStart;
+        lastNumberOfPoints = -1;
+    }
+
+    /**
+     * Returns the number of iterations (for both end points together) of the
+     * last centroid computed with KM or EKM, 0 for the other algorithms.
+     */
+    public int getLastIterations()
+    {
+        return lastIterations;
+    }
+
+    /**
+     * Returns the number of KM/EKM iterations since creation or the last
+     * resetIterationCount().
+     */
+    public long getTotalIterations()
+    {
+        return totalIterations;
+    }
+
+    public void resetIterationCount()
+    {
+        lastIterations = 0;
+        totalIterations = 0;
+    }
+    
+    /**
+     * Returns a readable name for the given algorithm constant.
+     */
+    public static String getCentroidAlgorithmName(short centroidAlgorithm)
+    {
+        switch(centroidAlgorithm)
         {
-            case KARNIKMENDEL:
-            {
-                centroid = getCentroidKM(mf);
-                break;
-            }
-            
-            case ENHANCEDKARNIKMENDEL:
-            {
-                centroid = getCentroid_enhanced(mf,ENHANCEDKARNIKMENDEL_L0,ENHANCEDKARNIKMENDEL_R0);
-                break;
-            }            
+            case KARNIKMENDEL: return "Karnik-Mendel";
+            case ENHANCEDKARNIKMENDEL: return "Enhanced Karnik-Mendel";
+            case EIASC: return "EIASC";
+            case NIETAN: return "Nie-Tan";
+            case WUMENDEL: return "Wu-Mendel uncertainty bounds";
+            default: return "Unknown";
         }
-        
-        return centroid;
     }
     
-    private Tuple getCentroidKM(IntervalT2MF_Interface mf)
+    public Tuple getCentroid(IntervalT2MF_Interface mf)
     {
         if(mf==null) return new Tuple(Double.NaN, Double.NaN);
 
         if(mf instanceof IntervalT2MF_Intersection && !((IntervalT2MF_Intersection)mf).intersectionExists())  return new Tuple(Double.NaN, Double.NaN);
-        Tuple[] w;
-        double[] x;
-        double[] weights;
-        //double[] weightsLeft;       //used to keep weights array intact for calculation of y_r
-        double y, yDash, y_l=0, y_r=0;
-        double domainSize;  //stores the size of the domain over which the function is evaluated
-        double temp;    //stores various bits for efficiency purposes (avoid recalculation
-        int k;          //switch point
-        boolean stopFlag = false;   //set to true if correct yDash is found.
-        boolean stopFlagRight = false;   //set to true if correct yDash is found for right.
-
-        int iterationCounterLeft = 0, iterationCounterRight=0;
-        
 
-        //get domain size
         if(DEBUG)System.out.println("MF name = "+mf.getName());
         if(mf instanceof IntervalT2MF_Union &&((IntervalT2MF_Union)mf).isNull())
             return null;
         if(DEBUG)System.out.println("domain left point is: "+mf.getSupport().getLeft()+"  and right point is: "+mf.getSupport().getRight() );
         if(mf.getSupport().getRight()==mf.getSupport().getLeft()) 
             return mf.getSupport().clone();  //domain is one point - return this point
-        
-        domainSize = mf.getSupport().getRight()-mf.getSupport().getLeft();
-//System.out.println("domain: "+mf.getSupport());
-        //setup arrays for primaryDiscretizationLevel
-        w = new Tuple[primaryDiscretizationLevel];
-        x = new double[primaryDiscretizationLevel];
-        weights = new double[primaryDiscretizationLevel];
-        //weightsLeft = new double[primaryDiscretizationLevel+1];
-//System.out.println("prim disc in KM= "+primaryDiscretizationLevel);
-        //compute lower and upper membership value w at x over primaryDiscretizationLevel (discretize domain primaryDiscretizationLevel times)
-        temp = domainSize/(primaryDiscretizationLevel-1);
-        if(DEBUG)System.out.println("Domainsize = "+domainSize+",  discLevel = "+primaryDiscretizationLevel+",  stepSize = "+temp);
+
+        //compute lower and upper membership value at x over primaryDiscretizationLevel (discretize domain primaryDiscretizationLevel times)
+        double[] x = new double[primaryDiscretizationLevel];
+        double[] lower = new double[primaryDiscretizationLevel];
+        double[] upper = new double[primaryDiscretizationLevel];
+        double stepSize = (mf.getSupport().getRight()-mf.getSupport().getLeft())/(primaryDiscretizationLevel-1);
+        Tuple w;
         for (int i=0; i<primaryDiscretizationLevel;i++)
         {
-            x[i] = i*temp+mf.getSupport().getLeft(); //discretize and shift - starting from domain starting point
-            w[i] = mf.getFS(x[i]);
-            //if(i==primaryDiscretizationLevel)System.out.println("x = "+x[i]+" and y = "+w[i]);
-            weights[i] = (w[i].getLeft()+w[i].getRight()) / 2;      //(8)
-            
-            if(DEBUG)System.out.println("KM x disc. number: "+i+"  = "+x[i]+ "  y(w[i]) = "+w[i]+"   weights[i] = "+weights[i]);
-        }        
+            x[i] = i*stepSize+mf.getSupport().getLeft(); //discretize and shift - starting from domain starting point
+            w = mf.getFS(x[i]);
+            lower[i] = w.getLeft();
+            upper[i] = w.getRight();
+        }
+        centroid = getCentroid(x, lower, upper);
+        return centroid;
+    }
+    
+    /**
+     * Computes the centroid of an interval type-2 set given as sampled lower
+     * and upper membership grades, using the selected algorithm.
+     * @param x The sample points, in ascending order.
+     * @param lower The lower membership grade at each sample point.
+     * @param upper The upper membership grade at each sample point.
+     * @return The centroid [y_l, y_r] - NaN if the set is empty.
+     */
+    public Tuple getCentroid(double[] x, double[] lower, double[] upper)
+    {
+        double[] result = new double[2];
+        getCentroid(x, lower, upper, result);
+        return new Tuple(result[0], result[1]);
+    }
+
+    /**
+     * As getCentroid(double[], double[], double[]), writing the centroid into
+     * the given array instead of returning a Tuple.
+     * @param result Receives y_l in result[0] and y_r in result[1] - NaN if the set is empty.
+     */
+    public void getCentroid(double[] x, double[] lower, double[] upper, double[] result)
+    {
+        lastIterations = 0;
+        if(x.length!=lastNumberOfPoints)
+        {
+            lastLeftSwitchPoint = -1;
+            lastRightSwitchPoint = -1;
+            lastNumberOfPoints = x.length;
+        }
+        switch(centroid_algorithm_selector)
+        {
+            case ENHANCEDKARNIKMENDEL:
+                getCentroidEKM(x, lower, upper, ENHANCEDKARNIKMENDEL_L0, ENHANCEDKARNIKMENDEL_R0, result);
+                break;
+            case EIASC:
+                getCentroidEIASC(x, lower, upper, result);
+                break;
+            case NIETAN:
+                getCentroidNieTan(x, lower, upper, result);
+                break;
+            case WUMENDEL:
+                getCentroidWuMendel(x, lower, upper, result);
+                break;
+            default:
+                getCentroidKM(x, lower, upper, result);
+        }
+    }
+    
+    /**
+     * Returns the switch point k for which x[k] <= y <= x[k+1] (the smallest
+     * such k) using a binary search, or -1 if y lies outside [x[0],x[n-1]].
+     */
+    private int findSwitchPoint(double[] x, double y)
+    {
+        int n = x.length;
+        if(!(y>=x[0] && y<=x[n-1])) return -1;
+        int lo = 0, hi = n-2, mid;
+        while(lo<hi)        //smallest k with x[k+1] >= y
+        {
+            mid = (lo+hi)>>>1;
+            if(x[mid+1]>=y) hi = mid;
+            else lo = mid+1;
+        }
+        return lo;
+    }
+    
+    private void getCentroidKM(double[] x, double[] lower, double[] upper, double[] result)
+    {
+        int n = x.length;
+        if(weights.length!=n)
+            weights = new double[n];
+        double y, yDash, y_l=0, y_r=0;
+        int k;          //switch point
+        boolean stopFlag;   //set to true if correct yDash is found.
 
         for(byte runs=0;runs<2;runs++) //run once for left, once for right
-        {//System.out.println("runs = "+runs);
+        {
             stopFlag = false;
 
-        for (int i=0; i<primaryDiscretizationLevel;i++)
-        {
-            //x[i] = i*temp+mf.getSupport().getLeft(); //discretize and shift - starting from domain starting point
-            w[i] = mf.getFS(x[i]); 
-            weights[i] = (w[i].getLeft()+w[i].getRight()) / 2;      //(8)
-        
-        }            
+            y = Double.NaN;
+            k = runs==0 ? lastLeftSwitchPoint : lastRightSwitchPoint;
+            if(warmStart && k>=0 && k<n)
+            {
+                setSwitchWeights(weights, lower, upper, k, runs==0);
+                y = getWeightedSum(x,weights);                              //y of the last switch point
+            }
+            if(Double.isNaN(y))
+            {
+                for (int i=0; i<n;i++)
+                    weights[i] = (lower[i]+upper[i]) / 2;      //(8)
             
-            y = getWeightedSum(x,weights);                                  //(9)
+                y = getWeightedSum(x,weights);                              //(9)
+            }
             if(DEBUG)System.out.println("y = "+y);
 
             while(!stopFlag)
             {
-                if(log)
+                lastIterations++;
+                k = findSwitchPoint(x, y);                                  //10
+                if(k<0)
                 {
-                    if(runs==0)iterationCounterLeft++;
-                    else iterationCounterRight++;
-                }
-                for(k=0;k<primaryDiscretizationLevel-1;k++)
-                //for(k=1;k<primaryDiscretizationLevel;k++)
-                {if(DEBUG)System.out.println("k = "+k+"  y = "+y+"  x[k] = "+x[k]+"  x[k+1] = " +x[k+1]);
-                    if(x[k]<=y && y<=x[k+1])                                //10
-                        break;
-                 if(k==(primaryDiscretizationLevel-2))
-                     System.out.println("###################################  NO k WAS  FOUND! ###################### for: "+mf.getName()+"\n"+mf);
+                    if(DEBUG)System.out.println("NO k WAS FOUND for y = "+y);
+                    k = n-1;
                 }
 
                 //reset weights according to k                              //11
-                if(runs==0)
-                {
-                    if(DEBUG)System.out.println("Doing left   k = "+k+"   and primaryDiscretizationLevel = "+primaryDiscretizationLevel);
-                    for(int i=0;i<=k;i++)
-                        //weightsLeft[i] = w[i].getRight();
-                        weights[i] = w[i].getRight();
-                    for(int i=k+1;i<primaryDiscretizationLevel;i++)
-                        //weightsLeft[i] = w[i].getLeft();
-                        weights[i] = w[i].getLeft();
-                }
-                else
-                {
-                    if(DEBUG)System.out.println("Doing right   k = "+k+"   and primaryDiscretizationLevel = "+primaryDiscretizationLevel);
-                    for(int i=0;i<=k;i++)
-                        weights[i] = w[i].getLeft();
-                    for(int i=k+1;i<primaryDiscretizationLevel;i++)
-                        weights[i] = w[i].getRight();                    
-                }
+                setSwitchWeights(weights, lower, upper, k, runs==0);
 
                 yDash = getWeightedSum(x, weights);
                 if(DEBUG)System.out.println("yDash = "+yDash+"   and y = "+y+ "   y_l="+y_l+"  y_r="+y_r);
-                //if(yDash == y)
                 if(Double.isNaN(yDash))
-                {
-                    if(DEBUG)System.out.println("Is using NAN in KM the right thing to avoid divide by zero? "+mf);
-                    double step = mf.getSupport().getSize()/9;
-                    double value;
-                    for (int i=0;i<10;i++)
-                    {
-                        value = i*step+mf.getSupport().getLeft();
-                        if(DEBUG)System.out.println("FS for set at "+value+" is: "+mf.getFS(value));
-                    }
                     yDash = y;
-                }
 
                 if(Math.abs(yDash-y)<0.001)
-                {if(DEBUG)System.out.println("SUCCESS! - y = "+y);
+                {
                     stopFlag = true;
                     if(runs==0)
                     {
                         y_l = yDash;
+                        lastLeftSwitchPoint = k;
                     }
                     else
                     {
                         y_r = yDash;
+                        lastRightSwitchPoint = k;
                     }
                 }
                 else
-                {
-                    //if(yDash ==0)System.out.println("yDash is 0");
                     y = yDash;
-                }
-
             }       
         }
-        //if(log)System.out.println("Iterations for y_l: "+iterationCounterLeft+"   iterations for y_r: "+iterationCounterRight);
-        //return new Range(y_l,y_r);	
-                    //test
-
-        return new Tuple(y_l,y_r);
-        //return new Tuple[]{new Tuple(y_l,y_r),new Tuple(iterationCounterLeft,iterationCounterRight)};
-        
-     
+        totalIterations += lastIterations;
+        result[0] = y_l;
+        result[1] = y_r;
     }    
 
-    private Tuple getCentroid_enhanced(IntervalT2MF_Interface mf, double divisor_left, double divisor_right)    //parameter to divide primaryDiscretizationLevel, usually 2.4
+    /**
+     * Sets the weights for switch point k: for the left end point the upper
+     * grades up to k and the lower grades after k, for the right end point
+     * the opposite.
+     */
+    private void setSwitchWeights(double[] weights, double[] lower, double[] upper, int k, boolean left)
     {
-        Tuple[] w;
-        double[] x;
-        double[] weights;
-        //double[] weightsLeft;       //used to keep weights array intact for calculation of y_r
-        double y=0, yDash=0, y_l=0, y_r=0;
-        double domainSize;  //stores the size of the domain over which the function is evaluated
-        double temp;    //stores various bits for efficiency purposes (avoid recalculation
-        int k, kDash;          //switch points
-        double a=0,b=0,aDash=0, bDash=0, s=0;
-        boolean stopFlag = false;   //set to true if correct yDash is found.
-        boolean stopFlagRight = false;   //set to true if correct yDash is found for right.
-
-        int iterationCounterLeft = 0, iterationCounterRight=0;
-        boolean log = true; //log for comparison
-
-        //get domain size
-        domainSize = mf.getSupport().getRight()-mf.getSupport().getLeft();
-
-        //setup arrays for primaryDiscretizationLevel
-        w = new Tuple[primaryDiscretizationLevel+1];
-        x = new double[primaryDiscretizationLevel+1];
-        weights = new double[primaryDiscretizationLevel+1];
-        //weightsLeft = new double[primaryDiscretizationLevel+1];
-
-        //compute lower and upper membership value w at x over primaryDiscretizationLevel (discretize domain primaryDiscretizationLevel times)
-        temp = domainSize/primaryDiscretizationLevel;
-
-        //set x and calculate weights (membership values for left/right (bottom/top)
-        for (int i=0; i<=primaryDiscretizationLevel;i++)
+        int n = weights.length;
+        if(left)
         {
-                x[i] = i*temp+mf.getSupport().getLeft(); //discretize and shift - starting from domain starting point
-                //x[i] = i*temp;    //use silly discretization
-                //x[i] = i/100.0;    //use very silly discretization
-                //System.out.println(x[i]);
-
-                w[i] = mf.getFS(x[i]);                
+            for(int i=0;i<=k;i++)
+                weights[i] = upper[i];
+            for(int i=k+1;i<n;i++)
+                weights[i] = lower[i];
+        }
+        else
+        {
+            for(int i=0;i<=k;i++)
+                weights[i] = lower[i];
+            for(int i=k+1;i<n;i++)
+                weights[i] = upper[i];                    
         }
+    }
 
+    /**
+     * Enhanced Karnik-Mendel algorithm (Wu and Mendel, 2009).
+     * @param divisor_left Initial switch point as n/divisor_left, usually 2.4.
+     * @param divisor_right Initial switch point as n/divisor_right, usually 1.7.
+     */
+    private void getCentroidEKM(double[] x, double[] lower, double[] upper, double divisor_left, double divisor_right, double[] result)
+    {
+        int n = x.length;
+        int k_l = Math.min(Math.max((int)Math.round(n/divisor_left)-1, 0), n-2);
+        int k_r = Math.min(Math.max((int)Math.round(n/divisor_right)-1, 0), n-2);
+        if(warmStart && lastLeftSwitchPoint>=0 && lastLeftSwitchPoint<=n-2) k_l = lastLeftSwitchPoint;
+        if(warmStart && lastRightSwitchPoint>=0 && lastRightSwitchPoint<=n-2) k_r = lastRightSwitchPoint;
+        result[0] = ekm(x, lower, upper, true, k_l);
+        result[1] = ekm(x, lower, upper, false, k_r);
+        totalIterations += lastIterations;
+    }
 
-        //left
+    private double ekm(double[] x, double[] lower, double[] upper, boolean left, int k)
+    {
+        int n = x.length, kDash;
+        double a = 0, b = 0, aDash, bDash, y;
+        //left: upper grades up to k, lower grades after k; right: the opposite
+        double[] first = left ? upper : lower;
+        double[] second = left ? lower : upper;
+        for (int i=0; i<=k;i++)
         {
-            stopFlag = false;           
-
-            //calculate k;
-            k = (int)Math.round(primaryDiscretizationLevel/divisor_left);
+            a += x[i]*first[i];
+            b += first[i];
+        }
+        for (int i=k+1; i<n;i++)
+        {
+            a += x[i]*second[i];
+            b += second[i];
+        }            
+        if(b==0) return Double.NaN;
+        y = a/b;                                  //(23)
 
-            //System.out.println("k = "+k);
-            a=0;b=0;
-            //System.out.println("Domainsize = "+domainSize+"   domain left = "+domain.getLeft()+"    domain right = "+domain.getRight());
-            for (int i=0; i<=k;i++)
+        for(int iterations=0;iterations<n;iterations++)
+        {
+            lastIterations++;
+            kDash = findSwitchPoint(x, y);
+            if(kDash<0 || kDash == k)
             {
-
-
-                a += x[i]*w[i].getRight();
-                b += w[i].getRight();
+                if(left) lastLeftSwitchPoint = k;
+                else lastRightSwitchPoint = k;
+                return y;
             }
-            for (int i=k+1; i<=primaryDiscretizationLevel;i++)
-            {
-                a += x[i]*w[i].getLeft();
-                b += w[i].getLeft();
-            }            
-
-                y = a/b;                                  //(23)
-
-
-
-
-
-            //step 3
-            while(!stopFlag)
-            {
-                //System.out.println("y = "+y);
-                if(log)iterationCounterLeft++;
-
-                for(kDash=0;kDash<primaryDiscretizationLevel;kDash++)
-                {//System.out.println("y = "+y+"     and x[kDash]= "+x[kDash]);
-                    if(x[kDash]<=y && y<=x[kDash+1])                                //10
-                    //if((x[kDash]-y<0.0005) && (y-x[kDash+1]<0.0005))                                //10
-                        break;
-                }
-                System.out.println("kDash = "+kDash+"   k = "+k);
-                if(kDash == k)
-                {
-                    stopFlag = true;
-
-                    y_l = y;
-
-                }
-                else
-                {
-                    s = kDash-k;
-                    if (s<0) s=-1; else s=1;
-
-                    //System.out.println("s = "+s);
-
-                    for(int i=(Math.min(k,kDash)+1);i<=Math.max(k,kDash);i++)
-                    {
-                        aDash += x[i]*(w[i].getRight()-w[i].getLeft());
-                        bDash += (w[i].getRight()-w[i].getLeft());
-                    }
-                    aDash = a + s * aDash;
-                    bDash = b + s * bDash;
-
-                    yDash = aDash/bDash;
-
-                    y = yDash;
-                    a = aDash;
-                    b = bDash;
-                    k = kDash;
-
-                    aDash=0; bDash=0;
-                }
-
-            }       
-        }//left complete
-
-        //right
-        {
-            stopFlag = false;           
-
-            //calculate k;
-            k = (int)Math.round(primaryDiscretizationLevel/divisor_right);
-
-            //System.out.println("k = "+k);
-            a=0;b=0;
-            //System.out.println("Domainsize = "+domainSize+"   domain left = "+domain.getLeft()+"    domain right = "+domain.getRight());
-            for (int i=0; i<=k;i++)
+            aDash=0; bDash=0;
+            for(int i=(Math.min(k,kDash)+1);i<=Math.max(k,kDash);i++)
             {
-                a += x[i]*w[i].getLeft();
-                b += w[i].getLeft();
+                aDash += x[i]*(upper[i]-lower[i]);
+                bDash += (upper[i]-lower[i]);
             }
-            for (int i=k+1; i<=primaryDiscretizationLevel;i++)
+            //moving the switch point right adds upper grades on the left, removes them on the right
+            if((kDash>k) == left)
             {
-                a += x[i]*w[i].getRight();
-                b += w[i].getRight();
-            }            
-
-                y = a/b;                                  //(23)
-
-
-
-
-
-            //step 3
-            while(!stopFlag)
+                a += aDash;
+                b += bDash;
+            }
+            else
             {
-                //System.out.println("y = "+y);
-                if(log)iterationCounterRight++;
-
-
-                for(kDash=0;kDash<primaryDiscretizationLevel;kDash++)
-                {//System.out.println("y = "+y+"     and x[kDash]= "+x[kDash]);
-                    if(x[kDash]<=y && y<=x[kDash+1])                                //10
-                    //if((x[kDash]-y<0.0005) && (y-x[kDash+1]<0.0005))                                //10
-                        break;
-                }
-                //System.out.println("kDash = "+kDash);
-                if(kDash == k)
-                {
-                    stopFlag = true;
+                a -= aDash;
+                b -= bDash;
+            }
+            if(b==0) return y;
+            y = a/b;
+            k = kDash;
+        }
+        return y;
+    }
 
-                    y_r = y;
+    /**
+     * Enhanced iterative algorithm with stop condition (Wu and Nie, 2011).
+     */
+    private void getCentroidEIASC(double[] x, double[] lower, double[] upper, double[] result)
+    {
+        int n = x.length;
+        double a0 = 0, b0 = 0;
+        for(int i=0;i<n;i++)
+        {
+            a0 += x[i]*lower[i];
+            b0 += lower[i];
+        }
 
-                }
-                else
-                {
-                    s = kDash-k;
-                    if (s<0) s=-1; else s=1;
+        //left: switch grades from lower to upper from the left until y <= x[i+1]
+        double a = a0, b = b0, y_l = Double.NaN;
+        for(int i=0;i<n;i++)
+        {
+            a += x[i]*(upper[i]-lower[i]);
+            b += upper[i]-lower[i];
+            if(b>0) y_l = a/b;
+            if(i==n-1 || (b>0 && y_l<=x[i+1]))
+                break;
+        }
 
-                    //System.out.println("s = "+s);
+        //right: switch grades from lower to upper from the right until y >= x[i-1]
+        a = a0; b = b0;
+        double y_r = Double.NaN;
+        for(int i=n-1;i>=0;i--)
+        {
+            a += x[i]*(upper[i]-lower[i]);
+            b += upper[i]-lower[i];
+            if(b>0) y_r = a/b;
+            if(i==0 || (b>0 && y_r>=x[i-1]))
+                break;
+        }
+        result[0] = y_l;
+        result[1] = y_r;
+    }
 
-                    for(int i=(Math.min(k,kDash)+1);i<=Math.max(k,kDash);i++)
-                    {
-                        aDash += x[i]*(w[i].getRight()-w[i].getLeft());
-                        bDash += (w[i].getRight()-w[i].getLeft());
-                    }
-                    aDash = a - s * aDash;
-                    bDash = b - s * bDash;
+    /**
+     * Nie-Tan closed form: the centroid of the average of lower and upper
+     * membership. Returns the crisp value as the degenerate interval [y,y].
+     */
+    private void getCentroidNieTan(double[] x, double[] lower, double[] upper, double[] result)
+    {
+        int n = x.length;
+        double a = 0, b = 0;
+        for(int i=0;i<n;i++)
+        {
+            a += x[i]*(lower[i]+upper[i]);
+            b += lower[i]+upper[i];
+        }
+        double y = (b==0) ? Double.NaN : a/b;
+        result[0] = y;
+        result[1] = y;
+    }
 
-                    yDash = aDash/bDash;
+    /**
+     * Wu-Mendel uncertainty bounds: computes inner and outer bounds of y_l
+     * and y_r in closed form and returns the midpoints of the bounds. Falls
+     * back to KM when the lower membership is zero everywhere (the bounds
+     * are undefined).
+     */
+    private void getCentroidWuMendel(double[] x, double[] lower, double[] upper, double[] result)
+    {
+        int n = x.length;
+        double sumL = 0, sumU = 0, xL = 0, xU = 0;
+        double lFromLeft = 0, uFromLeft = 0, lFromRight = 0, uFromRight = 0;
+        for(int i=0;i<n;i++)
+        {
+            sumL += lower[i];
+            sumU += upper[i];
+            xL += x[i]*lower[i];
+            xU += x[i]*upper[i];
+            lFromLeft += lower[i]*(x[i]-x[0]);
+            uFromLeft += upper[i]*(x[i]-x[0]);
+            lFromRight += lower[i]*(x[n-1]-x[i]);
+            uFromRight += upper[i]*(x[n-1]-x[i]);
+        }
+        if(sumL==0 || sumU==0)
+        {
+            getCentroidKM(x, lower, upper, result);
+            return;
+        }
 
-                    y = yDash;
-                    a = aDash;
-                    b = bDash;
-                    k = kDash;
+        double yUpper0 = xU/sumU;   //centroid of the upper MF
+        double yLower0 = xL/sumL;   //centroid of the lower MF
+        double factor = (sumU-sumL)/(sumU*sumL);
 
-                    aDash=0; bDash=0;
-                }
+        double yLUpperBound = Math.min(yUpper0, yLower0);
+        double yLLowerBound = yLUpperBound - factor*(lFromLeft*uFromRight)/(lFromLeft+uFromRight);
+        double yRLowerBound = Math.max(yUpper0, yLower0);
+        double yRUpperBound = yRLowerBound + factor*(uFromLeft*lFromRight)/(uFromLeft+lFromRight);
+        if(lFromLeft+uFromRight==0) yLLowerBound = yLUpperBound;
+        if(uFromLeft+lFromRight==0) yRUpperBound = yRLowerBound;
 
-            }                       
-        }
-        //if(log)System.out.println("Iterations for y_l: "+iterationCounterLeft+"   iterations for y_r: "+iterationCounterRight);
-        
-//        return new Tuple[]{new Tuple(y_l,y_r),new Tuple(iterationCounterLeft,iterationCounterRight)};
-        return new Tuple(y_l,y_r);
-    }      
+        result[0] = (yLUpperBound+yLLowerBound)/2.0;
+        result[1] = (yRLowerBound+yRUpperBound)/2.0;
+    }
     
     private double getWeightedSum(double x[], double w[])
     {
-        double temp=0.0, temp2=0.0;
-
-        for (int i=0;i<x.length;i++)
-        {//System.out.println("x = "+x[i]+ "  w = "+w[i]);
-            temp += x[i]*w[i];
-            temp2 += w[i];
-        }//System.out.println("temp = "+temp+"   temp2 = "+temp2);
+        double temp = ArrayKernels.dot(x, w, 0, x.length);
+        double temp2 = ArrayKernels.sum(w, 0, x.length);
+        //System.out.println("temp = "+temp+"   temp2 = "+temp2);
         if(temp2!=0)
             return temp/temp2;
         else
@@ -8,6 +8,7 @@
 package intervalType2.sets;
 
 import generic.BadParameterException;
+import generic.MF_Shiftable;
 import generic.Tuple;
 import type1.sets.T1MF_Gauangle;
 
@@ -16,7 +17,7 @@ import type1.sets.T1MF_Gauangle;
  *
  * @author Christian Wagner
  */
-public class IntervalT2MF_Gauangle extends IntervalT2MF_Prototype
+public class IntervalT2MF_Gauangle extends IntervalT2MF_Prototype implements MF_Shiftable
 {
     private boolean leftShoulder=false, rightShoulder=false;
 
@@ -34,6 +35,15 @@ public class IntervalT2MF_Gauangle extends IntervalT2MF_Prototype
         support = new Tuple(Math.min(uMF.getSupport().getLeft(), lMF.getSupport().getLeft()), Math.max(uMF.getSupport().getRight(), lMF.getSupport().getRight()));
     }
 
+    /**
+     * Moves the lower and upper MF so that their peaks lie on x.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        shiftMembersTo(x);
+    }
+
     @Override
     public String toString()
     {
@@ -7,6 +7,7 @@
 package intervalType2.sets;
 
 import generic.BadParameterException;
+import generic.MF_Shiftable;
 import generic.Tuple;
 import type1.sets.T1MF_Gaussian;
 
@@ -15,7 +16,7 @@ import type1.sets.T1MF_Gaussian;
  * Class for Gaussian Interval Type-2 Fuzzy Sets
  * @author Christian
  */
-public class IntervalT2MF_Gaussian extends IntervalT2MF_Prototype
+public class IntervalT2MF_Gaussian extends IntervalT2MF_Prototype implements MF_Shiftable
 {
     private final boolean DEBUG = false;
 
@@ -42,6 +43,15 @@ public class IntervalT2MF_Gaussian extends IntervalT2MF_Prototype
         support = uMF.getSupport();
     }
     
+    /**
+     * Moves the lower and upper MF so that their peaks lie on x.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        shiftMembersTo(x);
+    }
+
     @Override
     public T1MF_Gaussian getUMF()
     {
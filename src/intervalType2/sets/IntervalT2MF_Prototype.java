@@ -6,6 +6,7 @@
 
 package intervalType2.sets;
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 import java.io.Serializable;
 import type1.sets.T1MF_Interface;
@@ -70,6 +71,31 @@ public abstract class IntervalT2MF_Prototype implements IntervalT2MF_Interface,
         this.support = d;
     }
 
+    /**
+     * Moves the lower and upper MF so that their peaks lie on x and updates
+     * the supports in place the way the constructors set them up: the support
+     * of this set, and the support shared by the lower and upper MF if any,
+     * become the union of the moved MFs' supports. Both MFs need to implement
+     * MF_Shiftable.
+     * @param x The new peak of the lower and upper MF.
+     */
+    protected void shiftMembersTo(double x)
+    {
+        ((MF_Shiftable)lMF).shiftTo(x);
+        double left = lMF.getSupport().getLeft();
+        double right = lMF.getSupport().getRight();
+        ((MF_Shiftable)uMF).shiftTo(x);
+        left = Math.min(uMF.getSupport().getLeft(), left);
+        right = Math.max(uMF.getSupport().getRight(), right);
+        if(lMF.getSupport()==uMF.getSupport())
+        {
+            lMF.getSupport().setLeft(left);
+            lMF.getSupport().setRight(right);
+        }
+        support.setLeft(left);
+        support.setRight(right);
+    }
+
     public Tuple getSupport()
     {
         return support;
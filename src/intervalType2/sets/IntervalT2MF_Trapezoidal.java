@@ -9,13 +9,14 @@
 package intervalType2.sets;
 
 import generic.BadParameterException;
+import generic.MF_Shiftable;
 import type1.sets.T1MF_Trapezoidal;
 
 /**
  * Class for Trapezoidal Interval Type-2 Fuzzy Sets
  * @author Christian Wagner
  */
-public class IntervalT2MF_Trapezoidal extends IntervalT2MF_Prototype
+public class IntervalT2MF_Trapezoidal extends IntervalT2MF_Prototype implements MF_Shiftable
 {
     private final boolean DEBUG = false;
     
@@ -32,6 +33,15 @@ public class IntervalT2MF_Trapezoidal extends IntervalT2MF_Prototype
         this.support = upper.getSupport();
     }
     
+    /**
+     * Moves the lower and upper MF so that their peaks lie on x.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        shiftMembersTo(x);
+    }
+
     @Override
     public String toString()
     {
@@ -9,6 +9,7 @@
 package intervalType2.sets;
 
 import generic.BadParameterException;
+import generic.MF_Shiftable;
 import generic.Tuple;
 import type1.sets.T1MF_Triangular;
 
@@ -17,7 +18,7 @@ import type1.sets.T1MF_Triangular;
  * Class for Triangular Interval Type-2 Fuzzy Sets
  * @author Christian Wagner
  */
-public class IntervalT2MF_Triangular extends IntervalT2MF_Prototype
+public class IntervalT2MF_Triangular extends IntervalT2MF_Prototype implements MF_Shiftable
 {
     public IntervalT2MF_Triangular(String name)
     {
@@ -31,6 +32,15 @@ public class IntervalT2MF_Triangular extends IntervalT2MF_Prototype
             throw new BadParameterException("The upper membership function needs to be higher than the lower membership function.");
     }
 
+    /**
+     * Moves the lower and upper MF so that their peaks lie on x.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        shiftMembersTo(x);
+    }
+
     //Override for casting...
     @Override
     public T1MF_Triangular getLMF() {
@@ -6,8 +6,10 @@
 
 package intervalType2.system;
 
+import type1.sets.T1Engine_SupStar;
 import type1.sets.T1MF_Gaussian;
 import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_Singleton;
 import generic.Input;
 import generic.Tuple;
 import intervalType2.sets.IntervalT2MF_Gauangle;
@@ -24,6 +26,13 @@ public class IT2_Antecedent
     private IntervalT2MF_Interface mF;
     private Input input;
     private final boolean debug = false;
+    
+    private static final T1Engine_SupStar SUPSTAR = new T1Engine_SupStar();
+    //cache of the last non-singleton maximisation, see getMax()
+    private Object cachedInputMF;
+    private IntervalT2MF_Interface cachedMF;
+    private double cachedInputValue, cachedXmaxLower, cachedXmaxUpper;
+    private int cachedTNorm;
 
     public IT2_Antecedent(IntervalT2MF_Interface m, Input i)
     {
@@ -51,6 +60,35 @@ public class IT2_Antecedent
         return mF.getFS(input.getInput());
     }
 
+    /**
+     * Returns the degree to which the current input satisfies the antecedent:
+     * the membership interval of the input for singleton inputs, the sup of the
+     * t-norm between the lower (upper) MFs of input and antecedent for
+     * non-singleton inputs.
+     * @param tNorm Either product (0) or minimum (1).
+     * @return The (lower, upper) membership grade
+     */
+    public Tuple getFS(byte tNorm)
+    {
+        if (input.getInputMF() instanceof T1MF_Singleton)
+            return getFS();
+        T1MF_Interface inputLMF, inputUMF;
+        if (input.getInputMF() instanceof T1MF_Interface) {
+            inputLMF = (T1MF_Interface) input.getInputMF();
+            inputUMF = inputLMF;
+        } else {//IntervalT2MF
+            inputLMF = ((IntervalT2MF_Interface) input.getInputMF()).getLMF();
+            inputUMF = ((IntervalT2MF_Interface) input.getInputMF()).getUMF();
+        }
+        Tuple xmax = getMax(tNorm);
+        if (tNorm==0)
+            return new Tuple(mF.getLMF().getFS(xmax.getLeft())*inputLMF.getFS(xmax.getLeft()),
+                    mF.getUMF().getFS(xmax.getRight())*inputUMF.getFS(xmax.getRight()));
+        else
+            return new Tuple(Math.min(mF.getLMF().getFS(xmax.getLeft()),inputLMF.getFS(xmax.getLeft())),
+                    Math.min(mF.getUMF().getFS(xmax.getRight()),inputUMF.getFS(xmax.getRight())));
+    }
+
     public void setInput(Input input)
     {
         this.input = input;
@@ -82,55 +120,27 @@ public class IT2_Antecedent
      * @return the arg sups
      */
     public Tuple getMax(int tNorm) {
-    	Tuple xmax = new Tuple(0.0,0.0);
-		double valxmaxl = 0;
-		double valxmaxu = 0;
-		double domain = this.input.getDomain().getRight() - this.input.getDomain().getLeft();
-		double incr = 1.0/50.0;
-		double x = 0;
-		double templ = 0;
-		double tempu = 0;
-    	//Maximisation with discretisation
+        T1MF_Interface inputLMF, inputUMF;
     	if (this.input.getInputMF() instanceof T1MF_Interface) {
-    		for (int i=0;i<=domain*50;i++) {
-    			if (tNorm ==0) {//PRODUCT
-    				templ = ((T1MF_Interface) this.input.getInputMF()).getFS(x)*this.getMF().getLMF().getFS(x);
-    				tempu = ((T1MF_Interface) this.input.getInputMF()).getFS(x)*this.getMF().getUMF().getFS(x);
-    			} else { //MINIMUM
-    				templ = Math.min(((T1MF_Interface) this.input.getInputMF()).getFS(x),this.getMF().getLMF().getFS(x));
-    				tempu = Math.min(((T1MF_Interface) this.input.getInputMF()).getFS(x),this.getMF().getUMF().getFS(x));      			
-    			}
-    			if (templ >= valxmaxl){
-    				valxmaxl = templ;
-    				xmax.setLeft(x);
-    			}
-    			if (tempu >= valxmaxu){
-    				valxmaxu = tempu;
-    				xmax.setRight(x);
-    			}
-    			x = x + incr;		
-    		}
+    		inputLMF = (T1MF_Interface) this.input.getInputMF();
+    		inputUMF = inputLMF;
     	} else if (this.input.getInputMF() instanceof IntervalT2MF_Interface){//IT2 input
-    			for (int i=0;i<=domain*50;i++) {
-        			if (tNorm ==0) {//PRODUCT
-        				templ = ((IntervalT2MF_Interface) this.input.getInputMF()).getFS(x).getLeft()*this.getMF().getFS(x).getLeft();
-        				tempu = ((IntervalT2MF_Interface) this.input.getInputMF()).getFS(x).getRight()*this.getMF().getFS(x).getRight();
-        			} else { //MINIMUM
-        				templ = Math.min(((IntervalT2MF_Interface) this.input.getInputMF()).getFS(x).getLeft(),this.getMF().getFS(x).getLeft());
-        				tempu = Math.min(((IntervalT2MF_Interface) this.input.getInputMF()).getFS(x).getRight(),this.getMF().getFS(x).getRight());      			
-        			}
-        			if (templ >= valxmaxl){
-        				valxmaxl = templ;
-        				xmax.setLeft(x);
-        			}
-        			if (tempu >= valxmaxu){
-        				valxmaxu = tempu;
-        				xmax.setRight(x);
-        			}
-        			x = x + incr;
-    		}   		
-    	}   	
-    	return xmax;
+    		inputLMF = ((IntervalT2MF_Interface) this.input.getInputMF()).getLMF();
+    		inputUMF = ((IntervalT2MF_Interface) this.input.getInputMF()).getUMF();
+    	} else {
+    		return new Tuple(0.0,0.0);
+    	}
+    	//the maxima only change with the input (set and value), the antecedent MF and the t-norm,
+    	//so rules sharing this antecedent reuse them
+    	if (this.input.getInputMF() != cachedInputMF || this.input.getInput() != cachedInputValue || this.mF != cachedMF || tNorm != cachedTNorm) {
+    		cachedXmaxLower = SUPSTAR.getArgSup(inputLMF, this.getMF().getLMF(), tNorm, this.input.getDomain());
+    		cachedXmaxUpper = SUPSTAR.getArgSup(inputUMF, this.getMF().getUMF(), tNorm, this.input.getDomain());
+    		cachedInputMF = this.input.getInputMF();
+    		cachedInputValue = this.input.getInput();
+    		cachedMF = this.mF;
+    		cachedTNorm = tNorm;
+    	}
+    	return new Tuple(cachedXmaxLower, cachedXmaxUpper);
     }
     
     @Override
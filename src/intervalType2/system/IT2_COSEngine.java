@@ -0,0 +1,248 @@
+/*
+ * IT2_COSEngine.java
+ *
+ * Created on 17 October 2026
+ */
+package intervalType2.system;
+
+import generic.Output;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Center-Of-Sets type reduction (Karnik-Mendel on the consequent centroids)
+ * for a fixed set of IT2 rules. The consequent centroid endpoints do not change
+ * between evaluations, so for each output the rules are sorted once by the left
+ * and by the right endpoint of their consequent centroid. An evaluation only
+ * collects the fired rules in that order into primitive scratch arrays and
+ * locates the switch points by binary search - there is no sorting or
+ * allocation per call.
+ * <p>
+ * The engine is a snapshot of the rules it was built from; IT2_Rulebase
+ * rebuilds it after rules have been added or removed. It keeps scratch buffers
+ * and is therefore not thread safe.
+ */
+public class IT2_COSEngine
+{
+    private final Output[] outputs;
+    private final int numberOfRules;
+
+    //per output: rule indices and centroid endpoints in ascending order of the endpoint
+    private final int[][] leftRule, rightRule;
+    private final double[][] leftEndpoint, rightEndpoint;
+
+    //scratch buffers for the fired rules of one output
+    private final double[] c, lo, up, f;
+
+    private final boolean DEBUG = false;
+
+    /**
+     * @param rules The rules, firing strengths passed to typeReduce() are indexed in this order.
+     * @param outputs The outputs, indexed in this order by typeReduce().
+     */
+    public IT2_COSEngine(List<IT2_Rule> rules, List<Output> outputs)
+    {
+        this.outputs = outputs.toArray(new Output[outputs.size()]);
+        this.numberOfRules = rules.size();
+        leftRule = new int[this.outputs.length][];
+        rightRule = new int[this.outputs.length][];
+        leftEndpoint = new double[this.outputs.length][];
+        rightEndpoint = new double[this.outputs.length][];
+
+        int maxEntries = 0;
+        for(int o=0;o<this.outputs.length;o++)
+        {
+            //rules with a consequent for this output, in rule order
+            int n = 0;
+            Integer[] ruleIndices = new Integer[numberOfRules];
+            final double[] left = new double[numberOfRules];
+            final double[] right = new double[numberOfRules];
+            for(int r=0;r<numberOfRules;r++)
+            {
+                Iterator<IT2_Consequent> it = rules.get(r).getConsequentsIterator();
+                while(it.hasNext())
+                {
+                    if(it.next().getOutput()==this.outputs[o])
+                    {
+                        left[r] = rules.get(r).getConsequentCentroid(this.outputs[o]).getLeft();
+                        right[r] = rules.get(r).getConsequentCentroid(this.outputs[o]).getRight();
+                        ruleIndices[n++] = r;
+                        break;
+                    }
+                }
+            }
+            ruleIndices = Arrays.copyOf(ruleIndices, n);
+            Integer[] byRight = ruleIndices.clone();
+            //stable sorts, so rules with equal endpoints stay in rule order
+            Arrays.sort(ruleIndices, new Comparator<Integer>()
+            {
+                public int compare(Integer a, Integer b) { return Double.compare(left[a], left[b]); }
+            });
+            Arrays.sort(byRight, new Comparator<Integer>()
+            {
+                public int compare(Integer a, Integer b) { return Double.compare(right[a], right[b]); }
+            });
+            leftRule[o] = new int[n]; leftEndpoint[o] = new double[n];
+            rightRule[o] = new int[n]; rightEndpoint[o] = new double[n];
+            for(int i=0;i<n;i++)
+            {
+                leftRule[o][i] = ruleIndices[i];
+                leftEndpoint[o][i] = left[ruleIndices[i]];
+                rightRule[o][i] = byRight[i];
+                rightEndpoint[o][i] = right[byRight[i]];
+            }
+            maxEntries = Math.max(maxEntries, n);
+        }
+        c = new double[maxEntries];
+        lo = new double[maxEntries];
+        up = new double[maxEntries];
+        f = new double[maxEntries];
+    }
+
+    public int getNumberOfRules()
+    {
+        return numberOfRules;
+    }
+
+    /**
+     * Returns the outputs in the order used by typeReduce().
+     */
+    public Output[] getOutputs()
+    {
+        return outputs.clone();
+    }
+
+    /**
+     * Type-reduces one output.
+     * @param output Index of the output (see getOutputs()).
+     * @param lowerFStrength Lower firing strength of each rule.
+     * @param upperFStrength Upper firing strength of each rule.
+     * @param result Receives y_l in result[0] and y_r in result[1].
+     * @return false if no rule with a consequent for this output fired; result is then unchanged.
+     */
+    public boolean typeReduce(int output, double[] lowerFStrength, double[] upperFStrength, double[] result)
+    {
+        int n = collect(rightRule[output], rightEndpoint[output], lowerFStrength, upperFStrength);
+        if(n==0) return false;
+        result[1] = getRightEndpoint(n);
+        collect(leftRule[output], leftEndpoint[output], lowerFStrength, upperFStrength);
+        result[0] = getLeftEndpoint(n);
+        if(DEBUG)System.out.println("returning yl = "+result[0]+" and yr= "+result[1]);
+        return true;
+    }
+
+    /**
+     * Copies the fired rules (upper firing strength > 0), in endpoint order, into the scratch arrays.
+     */
+    private int collect(int[] rule, double[] endpoint, double[] lowerFStrength, double[] upperFStrength)
+    {
+        int n = 0;
+        for(int i=0;i<rule.length;i++)
+        {
+            if(upperFStrength[rule[i]]>0.0)
+            {
+                c[n] = endpoint[i];
+                lo[n] = lowerFStrength[rule[i]];
+                up[n] = upperFStrength[rule[i]];
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private double getRightEndpoint(int n)
+    {
+        int R = 0;
+        for(int i=0;i<n;i++)
+            f[i] = (lo[i]+up[i])/2.0;
+        double yDash = weightedSigma(n), yr = yDash;
+
+        for(int iteration=0;iteration<=n;iteration++)
+        {
+            //Step2
+            int k = findSwitchPoint(n, yDash);
+            if(k>=0) R = k;
+
+            //Step3
+            for(int i=0;i<=R;i++)
+                f[i] = lo[i];
+            for(int i=R+1;i<n;i++)
+                f[i] = up[i];
+
+            //fix problem when only one rule fires and f_lower =0
+            if(n == 1 && f[0]==0) f[0] = 0.00001;
+
+            yr = weightedSigma(n);
+
+            //Step4 if smaller than 1 billionth
+            if(Math.abs(yDash-yr)<0.000000001)
+                break;
+            yDash = yr;
+        }
+        return yr;
+    }
+
+    private double getLeftEndpoint(int n)
+    {
+        int L = 0;
+        for(int i=0;i<n;i++)
+            f[i] = (lo[i]+up[i])/2.0;
+        double yDash = weightedSigma(n), yl = yDash;
+
+        for(int iteration=0;iteration<=n;iteration++)
+        {
+            //Step2
+            int k = findSwitchPoint(n, yDash);
+            if(k>=0) L = k;
+
+            //Step3
+            for(int i=0;i<=L;i++)
+                f[i] = up[i];
+            for(int i=L+1;i<n;i++)
+                f[i] = lo[i];
+
+            yl = weightedSigma(n);
+            if(Double.isNaN(yl))
+                return 0;
+
+            //Step4 difference smaller than 1 in a billion
+            if(Math.abs(yDash-yl)<0.000000001)
+                break;
+            yDash = yl;
+        }
+        return yl;
+    }
+
+    /**
+     * Returns the smallest i with c[i] <= y <= c[i+1], or -1 if y lies outside [c[0],c[n-1]].
+     */
+    private int findSwitchPoint(int n, double y)
+    {
+        if(n<2 || !(y>=c[0] && y<=c[n-1])) return -1;
+        int low = 0, high = n-2, mid;
+        while(low<high)
+        {
+            mid = (low+high)>>>1;
+            if(c[mid+1]>=y) high = mid;
+            else low = mid+1;
+        }
+        return low;
+    }
+
+    /**
+     * Weighted average of the centroid endpoints, 0 if all weights are 0.
+     */
+    private double weightedSigma(int n)
+    {
+        double numerator = 0.0, denominator = 0.0;
+        for (int i=0;i<n;i++) numerator+=(f[i]*c[i]);
+        for (int i=0;i<n;i++) denominator+=f[i];
+
+        if(denominator==0.0)
+            return 0.0;
+        else
+            return (numerator / denominator);
+    }
+}
@@ -12,6 +12,7 @@ public class IT2_Consequent
     private Tuple centroid;
     private Output output;
     private IntervalT2Engine_Centroid IEC;
+    private volatile SampledMF sampledMF;    //buffered lower/upper membership over the discretised output domain
 
     private final boolean DEBUG = false;        
 
@@ -66,6 +67,7 @@ public class IT2_Consequent
 
     public void setOutput(Output output) {
         this.output = output;
+        this.sampledMF = null;
     }
     
     public void setName(String name) 
@@ -82,10 +84,75 @@ public class IT2_Consequent
     {
             return centroid;
     }
+
+    /**
+        * Returns the lower membership grades of the consequent MF at each point of
+        * output.getDiscretizations(). The values are computed once (together with
+        * the upper grades) and buffered until the output or its domain/discretisation
+        * level change. The returned array must not be modified.
+        * The arrays are only published once they are filled, so they can be read
+        * by several threads.
+        * @return The sampled lower MF or null if the consequent was defined as a centroid only.
+        */
+    public double[] getSampledLowerMF()
+    {
+        if(mF==null) return null;
+        return sample().lower;
+    }
+
+    /**
+        * Returns the upper membership grades of the consequent MF at each point of
+        * output.getDiscretizations(); see getSampledLowerMF().
+        * @return The sampled upper MF or null if the consequent was defined as a centroid only.
+        */
+    public double[] getSampledUpperMF()
+    {
+        if(mF==null) return null;
+        return sample().upper;
+    }
+
+    private SampledMF sample()
+    {
+        SampledMF s = sampledMF;
+        int modification = output.getModificationCount();
+        if(s==null || s.modification!=modification)
+        {
+            double[] xs = output.getDiscretizations();
+            double[] lower = new double[xs.length];
+            double[] upper = new double[xs.length];
+            Tuple fs;
+            for(int i=0;i<xs.length;i++)
+            {
+                fs = mF.getFS(xs[i]);
+                lower[i] = fs.getLeft();
+                upper[i] = fs.getRight();
+            }
+            s = new SampledMF(lower, upper, modification);
+            sampledMF = s;
+        }
+        return s;
+    }
     @Override
     public String toString()
     {
         return "Consequent with MF: "+ mF.toString();
     }
 
+    /**
+     * The sampled lower and upper MF with the modification count of the output
+     * they were computed at; all final, so they are published as a whole.
+     */
+    private static final class SampledMF
+    {
+        final double[] lower, upper;
+        final int modification;
+
+        SampledMF(double[] lower, double[] upper, int modification)
+        {
+            this.lower = lower;
+            this.upper = upper;
+            this.modification = modification;
+        }
+    }
+
 }
@@ -0,0 +1,243 @@
+/*
+ * IT2_EvaluationContext.java
+ *
+ * Created on 17 October 2026
+ */
+package intervalType2.system;
+
+import generic.BadParameterException;
+import generic.Input;
+import generic.Output;
+import generic.RuleActivationIndex;
+import generic.Tuple;
+import intervalType2.sets.IntervalT2Engine_Centroid;
+import intervalType2.sets.IntervalT2MF_Interface;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import type1.sets.T1MF_Singleton;
+
+/**
+ * Per-thread state for IT2_Rulebase.evaluate(double[], int, IT2_EvaluationContext, double[]).
+ * A context is created by IT2_Rulebase.createEvaluationContext() and holds a
+ * snapshot of the rules, the implication method and centroid algorithm, its
+ * own COS and (per output) centroid type-reduction engines and all scratch buffers needed
+ * for one evaluation. The evaluations only read the rules; the antecedent and
+ * consequent MFs keep no state between getFS() calls. Any number of threads can therefore evaluate the same rulebase
+ * concurrently as long as each uses its own context.
+ * <p>
+ * Changes made to the rulebase after the context has been created are not
+ * reflected - create a new context. Only singleton (crisp) inputs are supported.
+ */
+public class IT2_EvaluationContext
+{
+    private final byte PRODUCT = 0;
+    private final byte CENTEROFSETS = 0;
+    private final byte CENTROID = 1;
+
+    final IT2_Rulebase rulebase;
+    private final byte implicationMethod;
+    private final List<IT2_Rule> rules;
+    private final List<Output> outputs;
+
+    private final Input[] inputs;
+    private final double[] inputMin, inputMax;
+
+    //distinct antecedents and, per rule, their positions
+    private final IntervalT2MF_Interface[] antecedentMF;
+    private final int[] antecedentInput;
+    private final int[][] ruleAntecedentIds;
+    private final RuleActivationIndex activationIndex;
+
+    //type reducers and scratch buffers
+    private final IT2_COSEngine cosEngine;
+    private final IntervalT2Engine_Centroid[] centroidEngines;      //one per output
+    private final double[] interval = new double[2];        //the type-reduced interval of one output
+    private final double[] lowerGrades, upperGrades;
+    private final boolean[] activeAntecedents;
+    private final int[] candidateRules;
+    private final double[] lowerFStrengths, upperFStrengths;
+    private final double[][] samplePoints, aggregatedLower, aggregatedUpper;     //per output, over the support of its aggregated set
+    private final IT2_Consequent[][] outputConsequents;     //per output, in rule order
+    private final int[][] consequentRules;                  //the rule of each of these consequents
+
+    IT2_EvaluationContext(IT2_Rulebase rulebase, IT2_Rule[] rules, IT2_Antecedent[] uniqueAntecedents, int[][] ruleAntecedentIds,
+            List<Output> outputs, byte implicationMethod, short centroidAlgorithm, boolean centroidWarmStart)
+    {
+        if(rules.length==0)
+            throw new BadParameterException("Cannot create an evaluation context for a rulebase without rules.");
+        this.rulebase = rulebase;
+        this.implicationMethod = implicationMethod;
+        this.rules = Arrays.asList(rules);
+        this.outputs = new ArrayList<Output>(outputs);
+        this.ruleAntecedentIds = ruleAntecedentIds;
+
+        //inputs, in the order of the antecedents of the first rule
+        inputs = rules[0].getInputs();
+        inputMin = new double[inputs.length];
+        inputMax = new double[inputs.length];
+        for(int i=0;i<inputs.length;i++)
+        {
+            if(!(inputs[i].getInputMF() instanceof T1MF_Singleton))
+                throw new BadParameterException("Evaluation contexts only support singleton inputs, input "+inputs[i].getName()+" is non-singleton.");
+            inputMin[i] = inputs[i].getDomain().getLeft();
+            inputMax[i] = inputs[i].getDomain().getRight();
+        }
+
+        antecedentMF = new IntervalT2MF_Interface[uniqueAntecedents.length];
+        antecedentInput = new int[uniqueAntecedents.length];
+        Tuple[] activationIntervals = new Tuple[uniqueAntecedents.length];
+        for(int a=0;a<uniqueAntecedents.length;a++)
+        {
+            antecedentMF[a] = uniqueAntecedents[a].getMF();
+            antecedentInput[a] = -1;
+            for(int i=0;i<inputs.length;i++)
+                if(inputs[i]==uniqueAntecedents[a].getInput()) antecedentInput[a] = i;
+            if(antecedentInput[a]<0)
+                throw new BadParameterException("All rules must use the inputs of the first rule.");
+            activationIntervals[a] = RuleActivationIndex.getActivationInterval(antecedentMF[a]);
+        }
+        activationIndex = new RuleActivationIndex(inputs.length, antecedentInput, activationIntervals, ruleAntecedentIds);
+
+        cosEngine = new IT2_COSEngine(this.rules, this.outputs);
+        centroidEngines = IT2_Rulebase.createCentroidEngines(outputs.size(), centroidAlgorithm, centroidWarmStart);
+        lowerGrades = new double[uniqueAntecedents.length];
+        upperGrades = new double[uniqueAntecedents.length];
+        activeAntecedents = new boolean[uniqueAntecedents.length];
+        candidateRules = new int[activationIndex.getCandidateBufferSize()];
+        lowerFStrengths = new double[rules.length];
+        upperFStrengths = new double[rules.length];
+        samplePoints = new double[outputs.size()][];
+        aggregatedLower = new double[outputs.size()][];
+        aggregatedUpper = new double[outputs.size()][];
+        outputConsequents = new IT2_Consequent[outputs.size()][];
+        consequentRules = new int[outputs.size()][];
+        List<IT2_Consequent> consequents = new ArrayList<IT2_Consequent>();
+        for(int o=0;o<outputs.size();o++)
+        {
+            samplePoints[o] = new double[outputs.get(o).getDiscretisationLevel()];
+            aggregatedLower[o] = new double[samplePoints[o].length];
+            aggregatedUpper[o] = new double[samplePoints[o].length];
+            consequents.clear();
+            consequentRules[o] = IT2_Rulebase.getConsequents(this.rules, outputs.get(o), consequents);
+            outputConsequents[o] = consequents.toArray(new IT2_Consequent[consequents.size()]);
+        }
+    }
+
+    /**
+     * Returns the inputs in the order expected by evaluate().
+     */
+    public Input[] getInputs()
+    {
+        return inputs.clone();
+    }
+
+    /**
+     * Returns the outputs in the order in which evaluate() returns their values.
+     */
+    public Output[] getOutputs()
+    {
+        return outputs.toArray(new Output[outputs.size()]);
+    }
+
+    /**
+     * Returns the number of Karnik-Mendel iterations performed by the last
+     * centroid type reduction of this context, summed over all outputs.
+     */
+    public int getCentroidIterations()
+    {
+        return IT2_Rulebase.getCentroidIterations(centroidEngines);
+    }
+
+    void evaluate(double[] inputValues, int typeReductionType, double[] results)
+    {
+        evaluate(inputValues, typeReductionType, results, null, null);
+    }
+
+    /**
+     * @param lowerResults If not null, receives the left end of the type-reduced interval of each output.
+     * @param upperResults If not null, receives the right end of the type-reduced interval of each output.
+     */
+    void evaluate(double[] inputValues, int typeReductionType, double[] results, double[] lowerResults, double[] upperResults)
+    {
+        if(typeReductionType!=CENTEROFSETS && typeReductionType!=CENTROID)
+            throw new BadParameterException("The IT2 evaluate() method only supports center-of-sets (0) and centroid (1) type reduction.");
+        for(int i=0;i<inputs.length;i++)
+            if(!(inputValues[i]>=inputMin[i] && inputValues[i]<=inputMax[i]))
+                throw new BadParameterException("The input for "+inputs[i].getName()+" ("+inputValues[i]+") is outside its domain.");
+
+        //only the rules whose antecedents all contain the input can fire, the others keep [0,0]
+        int numberOfCandidates = activationIndex.getCandidateRules(inputValues, activeAntecedents, candidateRules);
+        Tuple grade;
+        for(int a=0;a<antecedentMF.length;a++)
+        {
+            if(!activeAntecedents[a])
+            {
+                lowerGrades[a] = 0.0;
+                upperGrades[a] = 0.0;
+                continue;
+            }
+            grade = antecedentMF[a].getFS(inputValues[antecedentInput[a]]);
+            lowerGrades[a] = grade.getLeft();
+            upperGrades[a] = grade.getRight();
+        }
+        Arrays.fill(lowerFStrengths, 0.0);
+        Arrays.fill(upperFStrengths, 0.0);
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            int[] ids = ruleAntecedentIds[r];
+            double lower = 1.0, upper = 1.0;
+            for(int i=0;i<ids.length;i++)
+            {
+                if(implicationMethod==PRODUCT)
+                {
+                    lower *= lowerGrades[ids[i]];
+                    upper *= upperGrades[ids[i]];
+                }
+                else
+                {
+                    lower = Math.min(lower, lowerGrades[ids[i]]);
+                    upper = Math.min(upper, upperGrades[ids[i]]);
+                }
+            }
+            lowerFStrengths[r] = lower;
+            upperFStrengths[r] = upper;
+        }
+
+        //by convention, 0 is returned for outputs for which no rule fired
+        if(typeReductionType==CENTEROFSETS)
+        {
+            for(int o=0;o<outputs.size();o++)
+            {
+                if(!cosEngine.typeReduce(o, lowerFStrengths, upperFStrengths, interval))
+                {
+                    interval[0] = 0.0;
+                    interval[1] = 0.0;
+                }
+                results[o] = (interval[0]+interval[1])/2.0;
+                if(lowerResults!=null) lowerResults[o] = interval[0];
+                if(upperResults!=null) upperResults[o] = interval[1];
+            }
+        }
+        else
+        {
+            Output output;
+            for(int o=0;o<outputs.size();o++)
+            {
+                output = outputs.get(o);
+                if(samplePoints[o].length!=output.getDiscretisationLevel())
+                {
+                    samplePoints[o] = new double[output.getDiscretisationLevel()];
+                    aggregatedLower[o] = new double[output.getDiscretisationLevel()];
+                    aggregatedUpper[o] = new double[output.getDiscretisationLevel()];
+                }
+                IT2_Rulebase.getCentroid(consequentRules[o], outputConsequents[o], output, lowerFStrengths, upperFStrengths,
+                        centroidEngines[o], samplePoints[o], aggregatedLower[o], aggregatedUpper[o], interval);
+                results[o] = (interval[0]+interval[1])/2.0;
+                if(lowerResults!=null) lowerResults[o] = interval[0];
+                if(upperResults!=null) upperResults[o] = interval[1];
+            }
+        }
+    }
+}
@@ -6,16 +6,12 @@
 package intervalType2.system;
 
 import generic.Input;
-import generic.MF_Interface;
 import generic.Output;
 import generic.Tuple;
-import intervalType2.sets.IntervalT2MF_Interface;
 
 import java.util.HashMap;
 import java.util.Iterator;
 
-import type1.sets.T1MF_Interface;
-import type1.sets.T1MF_Singleton;
 
 /**
  * Rule class for Interval Type-2 FLSs. Note that currently only a single
@@ -95,41 +91,24 @@ public class IT2_Rule
     {
         Tuple fStrength = new Tuple(1.0,1.0);	//initialize for multiplication
         
+        Tuple grade;
         if(tNorm==PRODUCT)
         {
             //mutliply antecedents (left and right)
             for(int i = 0;i<antecedents.length;i++)
             {
-            	if (antecedents[i].getInput().getInputMF() instanceof T1MF_Singleton) {
-                    fStrength.setLeft(fStrength.getLeft()*antecedents[i].getFS().getLeft());
-                    fStrength.setRight(fStrength.getRight()*antecedents[i].getFS().getRight());
-            	} else if (antecedents[i].getInput().getInputMF() instanceof T1MF_Interface) {
-            		Tuple xmax = antecedents[i].getMax(PRODUCT);
-            		fStrength.setLeft(fStrength.getLeft()*antecedents[i].getMF().getLMF().getFS(xmax.getLeft())*((T1MF_Interface) antecedents[i].getInput().getInputMF()).getFS(xmax.getLeft()));
-                    fStrength.setRight(fStrength.getRight()*antecedents[i].getMF().getUMF().getFS(xmax.getRight())*((T1MF_Interface) antecedents[i].getInput().getInputMF()).getFS(xmax.getRight()));
-            	} else {//IntervalT2MF
-            		Tuple xmax = antecedents[i].getMax(PRODUCT);
-            		fStrength.setLeft(fStrength.getLeft()*antecedents[i].getMF().getLMF().getFS(xmax.getLeft())*((IntervalT2MF_Interface) antecedents[i].getInput().getInputMF()).getLMF().getFS(xmax.getLeft()));
-                    fStrength.setRight(fStrength.getRight()*antecedents[i].getMF().getUMF().getFS(xmax.getRight())*((IntervalT2MF_Interface) antecedents[i].getInput().getInputMF()).getUMF().getFS(xmax.getRight()));           	
-            	}
+                grade = antecedents[i].getFS(tNorm);
+                fStrength.setLeft(fStrength.getLeft()*grade.getLeft());
+                fStrength.setRight(fStrength.getRight()*grade.getRight());
             }
         }
         else    //use minimum
         {
-        	for(int i = 0;i<antecedents.length;i++)
+            for(int i = 0;i<antecedents.length;i++)
             {
-            	if (antecedents[i].getInput().getInputMF() instanceof T1MF_Singleton) {
-                    fStrength.setLeft(Math.min(fStrength.getLeft(),antecedents[i].getFS().getLeft()));
-                    fStrength.setRight(Math.min(fStrength.getRight(),antecedents[i].getFS().getRight()));
-            	} else if (antecedents[i].getInput().getInputMF() instanceof T1MF_Interface) {
-            		Tuple xmax = antecedents[i].getMax(MINIMUM);
-            		fStrength.setLeft(Math.min(fStrength.getLeft(),Math.min(antecedents[i].getMF().getLMF().getFS(xmax.getLeft()),((T1MF_Interface) antecedents[i].getInput().getInputMF()).getFS(xmax.getLeft()))));
-                    fStrength.setRight(Math.min(fStrength.getRight(),Math.min(antecedents[i].getMF().getUMF().getFS(xmax.getRight()),((T1MF_Interface) antecedents[i].getInput().getInputMF()).getFS(xmax.getRight()))));
-            	} else {//IntervalT2MF
-            		Tuple xmax = antecedents[i].getMax(MINIMUM);
-            		fStrength.setLeft(Math.min(fStrength.getLeft(),Math.min(antecedents[i].getMF().getLMF().getFS(xmax.getLeft()),((IntervalT2MF_Interface) antecedents[i].getInput().getInputMF()).getLMF().getFS(xmax.getLeft()))));
-                    fStrength.setRight(Math.min(fStrength.getRight(),Math.min(antecedents[i].getMF().getUMF().getFS(xmax.getRight()),((IntervalT2MF_Interface) antecedents[i].getInput().getInputMF()).getUMF().getFS(xmax.getRight()))));           	
-            	}
+                grade = antecedents[i].getFS(tNorm);
+                fStrength.setLeft(Math.min(fStrength.getLeft(),grade.getLeft()));
+                fStrength.setRight(Math.min(fStrength.getRight(),grade.getRight()));
             }
         }
         
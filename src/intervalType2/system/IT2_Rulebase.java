@@ -5,12 +5,17 @@
  */
 package intervalType2.system;
 
+import generic.ArrayKernels;
 import generic.BadParameterException;
 import generic.Input;
+import generic.LookupTable3D;
 import generic.Output;
+import generic.RuleActivationIndex;
 import generic.Tuple;
 import intervalType2.sets.*;
 import java.util.*;
+import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_Singleton;
 
 public class IT2_Rulebase
 {
@@ -18,13 +23,29 @@ public class IT2_Rulebase
     private ArrayList<Output> outputs;  //keeps track of all outputs - in any rules
     private final boolean DEBUG = false;
     private final boolean showContext =  false;
-    private IT2_Rule temp;
+    private IT2_COSEngine cosEngine;    //pre-sorted centroid endpoints for COS type reduction, null until needed
+    //antecedents shared between rules are evaluated once per input vector, see updateFStrengths()
+    private IT2_Antecedent[] uniqueAntecedents;     //null until (re)built
+    private int[][] ruleAntecedentIds;              //per rule, the positions of its antecedents in uniqueAntecedents
+    private double[] lowerGrades, upperGrades;
+    private double[] lowerFStrengths, upperFStrengths;
+    //only the rules whose antecedents all contain the current input are evaluated, see RuleActivationIndex
+    private RuleActivationIndex activationIndex;
+    private Input[] indexInputs;
+    private Input[] indexedAntecedentInputs;        //the input of each antecedent when the index was built
+    private double[] indexInputValues;
+    private boolean[] activeAntecedents;
+    private int[] candidateRules;
+    private final double[] cosResult = new double[2];
 
     private final double nan = Double.NaN;
     private final byte CENTEROFSETS = 0;
     private final byte CENTROID = 1;
 //    private byte inferenceMethod = 0;  //not used ATM
     private byte implicationMethod = 1;
+    private short centroidAlgorithm = IntervalT2Engine_Centroid.KARNIKMENDEL;   //type-reduction algorithm used by the centroid type reducer
+    private boolean centroidWarmStart = false;
+    private IntervalT2Engine_Centroid[] centroidEngines;    //one per output, null until (re)built
     
     private final byte PRODUCT = 0;
     private final byte MINIMUM = 1;        
@@ -61,6 +82,8 @@ public class IT2_Rulebase
     public void addRule(IT2_Rule r)
     {
         rules.addElement(r);
+        cosEngine = null;
+        uniqueAntecedents = null;
         
         //check if any new outputs occur
         Iterator<IT2_Consequent> it = r.getConsequentsIterator();
@@ -77,6 +100,8 @@ public class IT2_Rulebase
         for(int i=0;i<r.length;i++)
         {
             rules.add(r[i]);
+            cosEngine = null;
+            uniqueAntecedents = null;
             //check if any new outputs occur
             Iterator<IT2_Consequent> it = r[i].getConsequentsIterator();
             Output o;
@@ -166,295 +191,309 @@ public class IT2_Rulebase
         }  
         return returnValue;      
     }
+
+    /**
+     * Creates the per-thread state for evaluate(double[], int, IT2_EvaluationContext, double[]).
+     * The context is a snapshot of the current rules; create a new one after
+     * changing the rulebase.
+     * @return A new evaluation context for this rulebase.
+     */
+    public synchronized IT2_EvaluationContext createEvaluationContext()
+    {
+        if(uniqueAntecedents==null || ruleAntecedentIds.length!=rules.size())
+            buildAntecedentIndex();
+        return new IT2_EvaluationContext(this, rules.toArray(new IT2_Rule[rules.size()]), uniqueAntecedents, ruleAntecedentIds,
+                outputs, implicationMethod, centroidAlgorithm, centroidWarmStart);
+    }
+
+    /**
+     * Reentrant evaluation: the crisp inputs are passed positionally and all
+     * intermediate results are kept in the given context, so neither the Input
+     * objects nor any other shared state are modified. Several threads can
+     * evaluate one rulebase at the same time, each with its own context.
+     * @param inputValues The crisp inputs, in the order of context.getInputs() (the inputs of the first rule).
+     * @param typeReductionType 0-Center-Of-Sets, 1-Centroid.
+     * @param context A context created by createEvaluationContext() of this rulebase.
+     * @param results Receives one type-reduced and defuzzified value per output
+     * (0 if no rule fired), in the order of context.getOutputs().
+     */
+    public void evaluate(double[] inputValues, int typeReductionType, IT2_EvaluationContext context, double[] results)
+    {
+        if(context.rulebase!=this)
+            throw new BadParameterException("The evaluation context was created for a different rulebase.");
+        context.evaluate(inputValues, typeReductionType, results);
+    }
+
+    /**
+     * As evaluate(double[], int, IT2_EvaluationContext, double[]), additionally
+     * returning the type-reduced interval of each output ([0,0] if no rule fired
+     * under center-of-sets type reduction).
+     * @param lowerResults Receives the left end of the interval of each output, in the order of context.getOutputs().
+     * @param upperResults Receives the right end of the interval of each output, in the order of context.getOutputs().
+     */
+    public void evaluate(double[] inputValues, int typeReductionType, IT2_EvaluationContext context, double[] results,
+            double[] lowerResults, double[] upperResults)
+    {
+        if(context.rulebase!=this)
+            throw new BadParameterException("The evaluation context was created for a different rulebase.");
+        context.evaluate(inputValues, typeReductionType, results, lowerResults, upperResults);
+    }
+
+    /**
+     * Compiles this rulebase into a three-dimensional lookup table by sampling
+     * its output over a regular grid spanning the domains of the given inputs
+     * (see LookupTable3D.compile(Input[], Evaluator, int[], boolean)).
+     * @param inputs The three inputs (in the order used by LookupTable3D.getValue()).
+     * @param output The output to be tabulated.
+     * @param typeReductionType The type reducer to be used (see evaluate()).
+     * @param gridSize Number of grid points along each input domain.
+     * @param computeErrorEstimate Whether to sample the interpolation error
+     * against exact inference at the cell midpoints.
+     * @return The compiled lookup table.
+     */
+    public LookupTable3D compileLookupTable(Input[] inputs, final Output output, final int typeReductionType, int[] gridSize, boolean computeErrorEstimate)
+    {
+        return LookupTable3D.compile(inputs, new LookupTable3D.Evaluator()
+        {
+            public double evaluate()
+            {
+                return IT2_Rulebase.this.evaluate(typeReductionType).get(output);
+            }
+        }, gridSize, computeErrorEstimate);
+    }
         
     
+    /**
+     * Center-Of-Sets type reduction, computed by the IT2_COSEngine of the
+     * current rules (rebuilt after rules have been added or removed).
+     * @return TreeMap with one Tuple [y_l,y_r] for each output for which at
+     * least one rule fired.
+     */
     public TreeMap<Output, Tuple> doCOSTypeReduction()
     {
-        //get rule firing strengths
         TreeMap<Output, Tuple> returnValue = new TreeMap();
-        Iterator<IT2_Rule> ruleIterator;
-        
-        TreeMap<Output, Object[]> data = getFiringIntervalsForCOS_TR();
-        
-        //for each output
-        Iterator<Output> oIt = data.keySet().iterator();
-        Object[] currentOutputData;
-        Output o;
-
-        if(data.firstEntry()==null || ((Vector<IT2_COSInferenceData>)data.firstEntry().getValue()[0]).size()==0)
-        {    //no rules fired
-            while(oIt.hasNext())
-                returnValue.put(oIt.next(), null);
-            return returnValue;
-        }
-        else
-        while(oIt.hasNext())
-        {            
-            o = oIt.next();
-            currentOutputData = data.get(o);
-
-            IT2_COSInferenceData[] leftData = new IT2_COSInferenceData[((Vector)currentOutputData[0]).size()];
-            ((Vector<IT2_COSInferenceData>)currentOutputData[0]).toArray(leftData);
-            IT2_COSInferenceData[] rightData = new IT2_COSInferenceData[((Vector)currentOutputData[1]).size()];
-            ((Vector<IT2_COSInferenceData>)currentOutputData[1]).toArray(rightData);
-            ruleIterator = rules.iterator();
-
-            
-            {
-                Arrays.sort(leftData);
-                Arrays.sort(rightData);
-
-                double[] fir = new double[leftData.length];
-                double yr = 0.0, yl = 0.0;
-                double yDash = 0.0;
-                double yDashDash = 0.0;
-                boolean stopFlag = false;
-                int R = 0;
-                int L = 0;            
-
-                //DO RIGHT
-                for(int i = 0; i<fir.length;i++) 
-                {
-                    fir[i] = rightData[i].getFStrength().getAverage();
-                }
-
-                yr = weightedSigma(fir, rightData);
-                yDash = yr;
-
-                compute_yr:
-                while(!stopFlag)
-                {
-                    //Step2
-                    for(int i=0; i<fir.length-1;i++)     //set to rulesFired-2
-                    {
-                        //System.out.println("yDash = "+yDash+" and rCCRight[i] = "+ rCCRight[i]);
-                        if(rightData[i].getSelectedCentroidEndpoint()<=yDash && yDash<=rightData[i+1].getSelectedCentroidEndpoint())
-                        {
-                            R = i;
-                            break;
-                        }
-                    }
-
-                    //Step3
-                    for(int i=0;i<=R;i++)
-                    {
-                        fir[i] = rightData[i].getFStrength().getLeft();
-                    }
-                    for(int i=R+1;i<fir.length;i++)
-                    {
-                        fir[i] = rightData[i].getFStrength().getRight();
-                    }
-
-                    //fix problem when only one rule fires and f_lower =0
-                    if(fir.length == 1 & fir[0]==0) fir[0] = 0.00001; 
+        if(cosEngine==null)
+            cosEngine = new IT2_COSEngine(rules, outputs);
 
-                    yr = weightedSigma(fir, rightData);
-
-                    yDashDash = yr;
-
-                    //Step4 if smaller than 1 billionth
-                    if(Math.abs(yDash-yDashDash)<0.000000001)//watch out for problem with doubles  use difference of absolute value < 0.003...
-                    {
-                        stopFlag = true;
-                        yDashDash = yr;
-                    }
-                    else
-                    {
-                        yDash = yDashDash;
-                    }
-                }
-
-                //DO LEFT
-                //reset stopFlag!
-                stopFlag = false;
-                for(int i = 0; i<fir.length;i++) 
-                {
-                    fir[i] = leftData[i].getFStrength().getAverage();
-                }
-
-                yl = weightedSigma(fir, leftData);
-                yDash = yl;
-                if(DEBUG)System.out.println("Intitial yDash for left = "+yDash);
+        //get rule firing strengths
+        updateFStrengths();
 
-                compute_yl:
-                while(!stopFlag)
-                {
-                    //Step2
-                    for(int i=0; i<=fir.length-2;i++)  //set to rulesFired-2
-                    {
-                        if(leftData[i].getSelectedCentroidEndpoint()<=yDash && yDash<=leftData[i+1].getSelectedCentroidEndpoint())
-                        {
-                            L = i;
-                            break;
-                        }
-                    }
+        //for each output
+        for(int o=0;o<outputs.size();o++)
+        {
+            if(cosEngine.typeReduce(o, lowerFStrengths, upperFStrengths, cosResult))
+                returnValue.put(outputs.get(o), new Tuple(cosResult[0], cosResult[1]));
+        }
+        return returnValue;
+    }
 
-                    //Step3
-                    for(int i=0;i<=L;i++)
-                    {
-                        fir[i] = leftData[i].getFStrength().getRight();
-                    }
-                    for(int i=L+1;i<fir.length;i++)
-                    {
-                        fir[i] = leftData[i].getFStrength().getLeft();
-                    }
+    public TreeMap<Output, Tuple> doReductionCentroid()
+    {
+        updateFStrengths();
+        if(centroidEngines==null || centroidEngines.length!=outputs.size())
+            centroidEngines = createCentroidEngines(outputs.size(), centroidAlgorithm, centroidWarmStart);
+        return doReductionCentroid(rules, outputs, lowerFStrengths, upperFStrengths, centroidEngines);
+    }
 
-                    yl = weightedSigma(fir, leftData);
-                    if(new Double(yl).equals(nan))
-                    {
-                        yl = 0;
-                        break compute_yl;
-                    }           
+    /**
+     * Creates one centroid engine per output so that warm-started engines
+     * only see consecutive sets of the same output.
+     */
+    static IntervalT2Engine_Centroid[] createCentroidEngines(int numberOfOutputs, short centroidAlgorithm, boolean warmStart)
+    {
+        IntervalT2Engine_Centroid[] engines = new IntervalT2Engine_Centroid[numberOfOutputs];
+        for(int i=0;i<numberOfOutputs;i++)
+        {
+            engines[i] = new IntervalT2Engine_Centroid();
+            engines[i].setCentroidAlgorithm(centroidAlgorithm);
+            engines[i].setWarmStart(warmStart);
+        }
+        return engines;
+    }
 
-                    yDashDash = yl;
+    /**
+     * Returns the number of Karnik-Mendel iterations performed by the last
+     * centroid type reduction, summed over all outputs (0 if another
+     * algorithm is selected).
+     */
+    public int getCentroidIterations()
+    {
+        return getCentroidIterations(centroidEngines);
+    }
 
-                    //Step4
-                    if(DEBUG)System.out.println("yDash = "+yDash+" and yDashDash = "+yDashDash);
+    static int getCentroidIterations(IntervalT2Engine_Centroid[] engines)
+    {
+        int iterations = 0;
+        if(engines!=null)
+            for(int i=0;i<engines.length;i++)
+                iterations += engines[i].getLastIterations();
+        return iterations;
+    }
 
-                    //difference smaller than 1 in a billion
-                    if(Math.abs(yDash)-Math.abs(yDashDash)<0.000000001)//watch out for problem with doubles  use difference of absolute value < 0.003...
-                    {
-                        stopFlag = true;
-                        yDashDash = yl;
-                    }
-                    else
-                    {
-                        yDash = yDashDash;
-                    }
-                }
-                if(DEBUG)System.out.println("returning yl = "+yl+" and yr= "+yr);
-                returnValue.put(o, new Tuple(yl, yr));             
-            }
-        }//output loop end
+    /**
+     * Centroid type reduction for the given rules and firing intervals. Only
+     * local state and the given engines (one per output) are modified.
+     */
+    static TreeMap<Output, Tuple> doReductionCentroid(List<IT2_Rule> rules, List<Output> outputs,
+            double[] lowerFStrengths, double[] upperFStrengths, IntervalT2Engine_Centroid[] engines)
+    {
+        TreeMap<Output, Tuple> returnValue = new TreeMap();
+        Output o;
+        int n;
+        for(int i=0;i<outputs.size();i++)
+        {
+            o = outputs.get(i);
+            n = o.getDiscretisationLevel();
+            returnValue.put(o, getCentroid(rules, o, lowerFStrengths, upperFStrengths, engines[i], new double[n], new double[n], new double[n]));
+        }
         return returnValue;
     }
-    
+
     /**
-     * 
-     * @return 
+     * Computes the centroid of the aggregated output set of one output (see
+     * getCentroid(int[], IT2_Consequent[], Output, double[], double[], IntervalT2Engine_Centroid, double[], double[], double[], double[])).
+     * @param x Receives the sample points, length output.getDiscretisationLevel().
+     * @param lower Receives the aggregated lower MF, same length.
+     * @param upper Receives the aggregated upper MF, same length.
+     * @return The centroid - NaN if no rule with this output fired.
      */
-    private synchronized TreeMap<Output, Object[]> getFiringIntervalsForCOS_TR()
+    static Tuple getCentroid(List<IT2_Rule> rules, Output output, double[] lowerFStrengths, double[] upperFStrengths,
+            IntervalT2Engine_Centroid iT2EC, double[] x, double[] lower, double[] upper)
     {
-        TreeMap<Output, Object[]> returnValue = new TreeMap();
-        if(DEBUG)System.out.println("Number of rules in rulebase: "+rules.size());
-        //create temp variables - optimize
-        Tuple firingIntervals[] = new Tuple[rules.size()];
-        Tuple ruleCentroids[] = new Tuple[rules.size()];
-        int rulesFired=0;
-        int i=0;
-        //Tuple firingStrength;
-        Object[] fIntervals = new Object[2];
-
-        int ruleCounter=0;
-        Iterator it = rules.iterator();
-        IT2_Consequent cons;
-        while(it.hasNext())
-        {            
-            temp = (IT2_Rule)it.next();
-            Iterator<IT2_Consequent> ruleCons = temp.getConsequentsIterator();
-            Tuple firingStrength = temp.getFStrength(implicationMethod);
-            if(firingStrength.getRight()>0.0)    //check if rule fired
+        List<IT2_Consequent> consequents = new ArrayList();
+        int[] ruleIndices = getConsequents(rules, output, consequents);
+        double[] centroid = new double[2];
+        getCentroid(ruleIndices, consequents.toArray(new IT2_Consequent[consequents.size()]), output,
+                lowerFStrengths, upperFStrengths, iT2EC, x, lower, upper, centroid);
+        return new Tuple(centroid[0], centroid[1]);
+    }
+
+    /**
+     * Collects the consequents of the given output, in rule order.
+     * @param consequents Receives the consequents.
+     * @return The index of the rule of each consequent.
+     */
+    static int[] getConsequents(List<IT2_Rule> rules, Output output, List<IT2_Consequent> consequents)
+    {
+        int[] ruleIndices = new int[rules.size()];
+        Iterator<IT2_Consequent> itC;
+        IT2_Consequent c;
+        for(int r=0;r<rules.size();r++)
+        {
+            itC = rules.get(r).getConsequentsIterator();
+            while(itC.hasNext())
             {
-                while(ruleCons.hasNext())
-                {
-                    cons = ruleCons.next();
-                    if(!returnValue.containsKey(cons.getOutput()))
-                    {
-                        returnValue.put(cons.getOutput(), new Object[]{new Vector<IT2_COSInferenceData>(), new Vector<IT2_COSInferenceData>()});    //for left and right consequentData object - needed for separate sorting
-                    }
-                    ((Vector)returnValue.get(cons.getOutput())[0]).add(new IT2_COSInferenceData(firingStrength, temp.getConsequentCentroid(cons.getOutput()).getLeft()));
-                    ((Vector)returnValue.get(cons.getOutput())[1]).add(new IT2_COSInferenceData(firingStrength, temp.getConsequentCentroid(cons.getOutput()).getRight()));
-                }
+                c = itC.next();
+                if(c.getOutput()!=output) continue;
+                ruleIndices[consequents.size()] = r;
+                consequents.add(c);
             }
-            ruleCounter++;
-        }       
-        return returnValue;
-
-
+        }
+        return Arrays.copyOf(ruleIndices, consequents.size());
     }
 
-    public TreeMap<Output, Tuple> doReductionCentroid()
+    /**
+     * Computes the centroid of the aggregated output set of one output. The
+     * aggregated set is the union (maximum) of the consequent MFs of the fired
+     * rules, each intersected (minimum) with the firing interval of its rule.
+     * It is sampled at output.getDiscretisationLevel() equally spaced points
+     * over its support, the union of the supports of the fired consequents,
+     * and the samples are passed to the centroid algorithm directly. As with
+     * the IntervalT2MF_Union of IntervalT2MF_Intersections this replaces,
+     * several fired consequents are sampled through the lower and upper MFs
+     * of their sets, a single one through the getFS() of its set, which may
+     * differ from them (e.g. IntervalT2MF_Gaussian is cut off outside its
+     * support). Only that getFS() allocates, one Tuple per point.
+     * @param ruleIndices The rule of each consequent (see getConsequents()).
+     * @param consequents The consequents of the output.
+     * @param x Receives the sample points, length output.getDiscretisationLevel().
+     * @param lower Receives the aggregated lower MF, same length.
+     * @param upper Receives the aggregated upper MF, same length.
+     * @param centroid Receives the centroid [y_l, y_r] - NaN if no rule with this output fired.
+     */
+    static void getCentroid(int[] ruleIndices, IT2_Consequent[] consequents, Output output, double[] lowerFStrengths, double[] upperFStrengths,
+            IntervalT2Engine_Centroid iT2EC, double[] x, double[] lower, double[] upper, double[] centroid)
     {
-        Tuple fStrength;
-        boolean firstFiredSet = true;
-        TreeMap<Output, IntervalT2MF_Interface> overallOutputSet = new TreeMap();
-        TreeMap<Output, Boolean> firstFiredForOutput = new TreeMap();
-        Iterator<Output> iO = outputs.iterator();
-        while(iO.hasNext())
+        //the support of the aggregated set
+        double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+        int fired = 0, firedConsequent = -1;
+        IT2_Consequent c;
+        Tuple support;
+        for(int i=0;i<consequents.length;i++)
         {
-            firstFiredForOutput.put(iO.next(), true);
+            if(upperFStrengths[ruleIndices[i]]>0.0)
+            {
+                c = consequents[i];
+                if(c.getMembershipFunction()==null)
+                    throw new BadParameterException("Centroid type reduction requires consequent MFs, consequent "+c.getName()+" only has a centroid.");
+                support = c.getMembershipFunction().getSupport();
+                left = Math.min(left, support.getLeft());
+                right = Math.max(right, support.getRight());
+                fired++;
+                firedConsequent = i;
+            }
+        }
+        if(fired==0)
+        {
+            centroid[0] = Double.NaN;
+            centroid[1] = Double.NaN;
+            return;
+        }
+        if(left==right)     //the support is one point - return this point
+        {
+            centroid[0] = left;
+            centroid[1] = right;
+            return;
         }
 
-        Iterator<IT2_Rule> itR = rules.iterator();
-        Iterator<IT2_Consequent> itC;
-        IT2_Consequent c;
-        Output o;
-        while(itR.hasNext())
+        int n = x.length;
+        double stepSize = (right-left)/(n-1);
+        for(int i=0;i<n;i++)
+            x[i] = i*stepSize+left;
+        double lowerFStrength, upperFStrength;
+        if(fired==1)
+        {
+            lowerFStrength = lowerFStrengths[ruleIndices[firedConsequent]];
+            upperFStrength = upperFStrengths[ruleIndices[firedConsequent]];
+            IntervalT2MF_Interface mf = consequents[firedConsequent].getMembershipFunction();
+            Tuple fs;
+            for(int k=0;k<n;k++)
+            {
+                fs = mf.getFS(x[k]);
+                lower[k] = Math.min(lowerFStrength, fs.getLeft());
+                upper[k] = Math.min(upperFStrength, fs.getRight());
+            }
+        }
+        else
         {
-            temp = (IT2_Rule)itR.next();
-            fStrength = temp.getFStrength(implicationMethod);
-            
-            if(fStrength.getRight()>0.0)
+            Arrays.fill(lower, 0.0);
+            Arrays.fill(upper, 0.0);
+            T1MF_Interface lowerMF, upperMF;
+            for(int i=0;i<consequents.length;i++)
             {
-                //for each consequent of the rule
-                itC = temp.getConsequentsIterator();
-                while(itC.hasNext())
+                upperFStrength = upperFStrengths[ruleIndices[i]];
+                if(upperFStrength>0.0)
                 {
-                    c = itC.next();
-                    o = c.getOutput();
-
-                    if(firstFiredForOutput.get(o))
-                    {
-                        overallOutputSet.put(o, new IntervalT2MF_Intersection(
-                                new IntervalT2MF_Cylinder("FiringInterval",fStrength),
-                                c.getMembershipFunction()));
-                        if(!((IntervalT2MF_Intersection)overallOutputSet.get(o)).intersectionExists()) 
-                        {
-                            System.out.println("PUTTING NULL");
-                            overallOutputSet.put(o,null);
-                        }
-                        firstFiredForOutput.put(o, false);                   
-                    }
-                    else
+                    lowerFStrength = lowerFStrengths[ruleIndices[i]];
+                    lowerMF = consequents[i].getMembershipFunction().getLMF();
+                    upperMF = consequents[i].getMembershipFunction().getUMF();
+                    for(int k=0;k<n;k++)
                     {
-                        if(overallOutputSet.get(o)==null)
-                        {
-                            overallOutputSet.put(o, new IntervalT2MF_Intersection(
-                                new IntervalT2MF_Cylinder("FiringInterval",fStrength),
-                                c.getMembershipFunction()));
-                            if(!((IntervalT2MF_Intersection)overallOutputSet.get(o)).intersectionExists()) 
-                            {
-                                System.out.println("PUTTING NULL");
-                                overallOutputSet.put(o,null);
-                            }
-                        }
-                        else
-                        {
-                            overallOutputSet.put(o, new IntervalT2MF_Union(
-                            new IntervalT2MF_Intersection(
-                            new IntervalT2MF_Cylinder("FiringInterval",fStrength),
-                            c.getMembershipFunction()),
-                            overallOutputSet.get(o)));                            
-                        }
+                        lower[k] = Math.max(lower[k], Math.min(lowerFStrength, lowerMF.getFS(x[k])));
+                        upper[k] = Math.max(upper[k], Math.min(upperFStrength, upperMF.getFS(x[k])));
                     }
                 }
             }
         }
-        
-        
-        //Create Centroid Engine and get centroid of overall set for each output:
-        IntervalT2Engine_Centroid iT2EC = new IntervalT2Engine_Centroid();
-        TreeMap<Output, Tuple> returnValue = new TreeMap();
-        iO = outputs.iterator();
-        while(iO.hasNext())
+        if(ArrayKernels.sum(upper, 0, n)==0.0)
         {
-            o = iO.next();
-            iT2EC.setPrimaryDiscretizationLevel(o.getDiscretisationLevel());
-            returnValue.put(o, iT2EC.getCentroid(overallOutputSet.get(o)));
+            centroid[0] = Double.NaN;
+            centroid[1] = Double.NaN;
+            return;
         }
-        return returnValue;
-    }    
-    
+        iT2EC.getCentroid(x, lower, upper, centroid);
+    }
+
 //    public Tuple doReductionCentroid(int discLevel)
 //    {
 //        Tuple firingIntervals[] = new Tuple[rules.size()];
@@ -523,27 +562,140 @@ public class IT2_Rulebase
     }
     
     /**
-     * Facilitates weighted average calculation in COS type reduction
-     * @param w
-     * @param y
-     * @return 
+     * Computes the firing interval of every rule into lowerFStrengths and
+     * upperFStrengths. Each distinct antecedent (rules typically share
+     * antecedents such as "high" on one input) is evaluated once and the rules
+     * combine the grades by index. Only the rules found by the activation index
+     * are evaluated, all others have a firing interval of [0,0].
      */
-    private double weightedSigma(double[]w, IT2_COSInferenceData[] y)
+    private void updateFStrengths()
     {
-        double numerator = 0.0, denominator = 0.0;
-        for (int i=0;i<w.length;i++) numerator+=(w[i]*y[i].getSelectedCentroidEndpoint());
-        for (int i=0;i<w.length;i++) denominator+=w[i];
+        if(uniqueAntecedents==null || ruleAntecedentIds.length!=rules.size() || !isActivationIndexCurrent())
+            buildAntecedentIndex();
+        for(int i=0;i<indexInputs.length;i++)
+            indexInputValues[i] = indexInputs[i].getInputMF() instanceof T1MF_Singleton ? indexInputs[i].getInput() : Double.NaN;
+        int numberOfCandidates = activationIndex.getCandidateRules(indexInputValues, activeAntecedents, candidateRules);
+        Tuple grade;
+        for(int a=0;a<uniqueAntecedents.length;a++)
+        {
+            if(!activeAntecedents[a])
+            {
+                lowerGrades[a] = 0.0;
+                upperGrades[a] = 0.0;
+                continue;
+            }
+            grade = uniqueAntecedents[a].getFS(implicationMethod);
+            lowerGrades[a] = grade.getLeft();
+            upperGrades[a] = grade.getRight();
+        }
+        Arrays.fill(lowerFStrengths, 0.0);
+        Arrays.fill(upperFStrengths, 0.0);
+        int[] ids;
+        double lower, upper;
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            ids = ruleAntecedentIds[r];
+            lower = 1.0; upper = 1.0;
+            if(implicationMethod==PRODUCT)
+            {
+                for(int i=0;i<ids.length;i++)
+                {
+                    lower *= lowerGrades[ids[i]];
+                    upper *= upperGrades[ids[i]];
+                }
+            }
+            else
+            {
+                for(int i=0;i<ids.length;i++)
+                {
+                    lower = Math.min(lower, lowerGrades[ids[i]]);
+                    upper = Math.min(upper, upperGrades[ids[i]]);
+                }
+            }
+            lowerFStrengths[r] = lower;
+            upperFStrengths[r] = upper;
+        }
+    }
 
-        if(denominator==0.0) 
-            return 0.0;
-        else
-            return (numerator / denominator);
+    /**
+     * Whether the antecedents still refer to the inputs the activation index
+     * was built for (IT2_Antecedent.setInput() may have replaced them).
+     */
+    private boolean isActivationIndexCurrent()
+    {
+        for(int a=0;a<uniqueAntecedents.length;a++)
+            if(uniqueAntecedents[a].getInput()!=indexedAntecedentInputs[a]) return false;
+        return true;
+    }
+
+    private void buildAntecedentIndex()
+    {
+        IdentityHashMap<IT2_Antecedent, Integer> ids = new IdentityHashMap();
+        ruleAntecedentIds = new int[rules.size()][];
+        for(int r=0;r<rules.size();r++)
+        {
+            IT2_Antecedent[] antecedents = rules.get(r).getAntecedents();
+            ruleAntecedentIds[r] = new int[antecedents.length];
+            for(int i=0;i<antecedents.length;i++)
+            {
+                Integer id = ids.get(antecedents[i]);
+                if(id==null)
+                {
+                    id = ids.size();
+                    ids.put(antecedents[i], id);
+                }
+                ruleAntecedentIds[r][i] = id;
+            }
+        }
+        uniqueAntecedents = new IT2_Antecedent[ids.size()];
+        for(IT2_Antecedent a : ids.keySet())
+            uniqueAntecedents[ids.get(a)] = a;
+        lowerGrades = new double[uniqueAntecedents.length];
+        upperGrades = new double[uniqueAntecedents.length];
+        lowerFStrengths = new double[rules.size()];
+        upperFStrengths = new double[rules.size()];
+
+        IdentityHashMap<Input, Integer> inputIds = new IdentityHashMap();
+        int[] antecedentInput = new int[uniqueAntecedents.length];
+        Tuple[] activationIntervals = new Tuple[uniqueAntecedents.length];
+        indexedAntecedentInputs = new Input[uniqueAntecedents.length];
+        for(int a=0;a<uniqueAntecedents.length;a++)
+        {
+            indexedAntecedentInputs[a] = uniqueAntecedents[a].getInput();
+            Integer id = inputIds.get(indexedAntecedentInputs[a]);
+            if(id==null)
+            {
+                id = inputIds.size();
+                inputIds.put(indexedAntecedentInputs[a], id);
+            }
+            antecedentInput[a] = id;
+            activationIntervals[a] = RuleActivationIndex.getActivationInterval(uniqueAntecedents[a].getMF());
+        }
+        indexInputs = new Input[inputIds.size()];
+        for(Input i : inputIds.keySet())
+            indexInputs[inputIds.get(i)] = i;
+        activationIndex = new RuleActivationIndex(indexInputs.length, antecedentInput, activationIntervals, ruleAntecedentIds);
+        indexInputValues = new double[indexInputs.length];
+        activeAntecedents = new boolean[uniqueAntecedents.length];
+        candidateRules = new int[activationIndex.getCandidateBufferSize()];
     }
 
+    /**
+     * Returns the number of distinct antecedent objects used by the rules.
+     */
+    public int getNumberOfUniqueAntecedents()
+    {
+        if(uniqueAntecedents==null || ruleAntecedentIds.length!=rules.size())
+            buildAntecedentIndex();
+        return uniqueAntecedents.length;
+    }
 
     public void removeRule(int ruleNumber) 
     {
         rules.remove(ruleNumber);
+        cosEngine = null;
+        uniqueAntecedents = null;
     }
 
 
@@ -575,6 +727,52 @@ public class IT2_Rulebase
 //            throw new BadParameterException("Only product (0) and minimum (1) inference is currentlyt supported.");
 //    }
 
+    /**
+     * Returns the algorithm used to compute the centroid of the aggregated
+     * output set in centroid type reduction.
+     * @return One of the algorithm constants of IntervalT2Engine_Centroid.
+     */
+    public short getCentroidAlgorithm()
+    {
+        return centroidAlgorithm;
+    }
+
+    /**
+     * Selects the algorithm used to compute the centroid of the aggregated
+     * output set in centroid type reduction (typeReductionType 1).
+     * @param centroidAlgorithm IntervalT2Engine_Centroid.KARNIKMENDEL (default),
+     * ENHANCEDKARNIKMENDEL, EIASC, NIETAN or WUMENDEL.
+     */
+    public void setCentroidAlgorithm(short centroidAlgorithm)
+    {
+        if(centroidAlgorithm<IntervalT2Engine_Centroid.KARNIKMENDEL || centroidAlgorithm>IntervalT2Engine_Centroid.WUMENDEL)
+            throw new BadParameterException("Unknown centroid algorithm: "+centroidAlgorithm+" - see the constants of IntervalT2Engine_Centroid.");
+        this.centroidAlgorithm = centroidAlgorithm;
+        centroidEngines = null;
+    }
+
+    public boolean isCentroidWarmStart()
+    {
+        return centroidWarmStart;
+    }
+
+    /**
+     * Enables or disables warm starting the Karnik-Mendel (and EKM) centroid
+     * computation from the switch points found for the same output in the
+     * previous evaluation. As consecutive evaluations usually have similar
+     * firing intervals this saves most of the iterations; the results may
+     * differ from a cold start within the KM stopping tolerance. A result then
+     * depends on the evaluations made before it (per thread, with contexts),
+     * so it is off by default and should only be enabled where results need
+     * not be repeatable.
+     * Evaluation contexts take the setting at the time they are created.
+     */
+    public void setCentroidWarmStart(boolean centroidWarmStart)
+    {
+        this.centroidWarmStart = centroidWarmStart;
+        centroidEngines = null;
+    }
+
     /**
      * Returns the current Implication Method as used for all rules.
      * @return 0 (product) or 1 (minimum)
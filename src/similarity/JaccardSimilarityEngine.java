@@ -5,6 +5,7 @@
 package similarity;
 
 import generalType2zSlices.sets.GenT2zMF_Interface;
+import generic.ArrayKernels;
 import generic.Tuple;
 import intervalType2.sets.IntervalT2MF_Interface;
 import type1.sets.T1MF_Interface;
@@ -20,56 +21,52 @@ public class JaccardSimilarityEngine
     public double getSimilarity(T1MF_Interface setA, T1MF_Interface setB, int numberOfDiscretisations)
     {
         double[] discValues = getDiscretisationValues(setA.getSupport(), setB.getSupport(), numberOfDiscretisations);
-        numerator = 0.0; denominator = 0.0;
-        for(int i=0;i<discValues.length;i++)
-        {
-            numerator += Math.min(setA.getFS(discValues[i]), setB.getFS(discValues[i]));
-            denominator += Math.max(setA.getFS(discValues[i]), setB.getFS(discValues[i]));
-        }
+        double[] a = sample(setA, discValues);
+        double[] b = sample(setB, discValues);
+        numerator = ArrayKernels.sumOfMin(a, b);
+        denominator = ArrayKernels.sumOfMax(a, b);
         return numerator/denominator;
     }
     
     public double getSimilarity(IntervalT2MF_Interface setA, IntervalT2MF_Interface setB,int numberOfDiscretisations)
     {
         double[] discValues = getDiscretisationValues(setA.getSupport(), setB.getSupport(), numberOfDiscretisations);
-        numerator = 0.0; denominator = 0.0;
-        for(int i=0;i<discValues.length;i++)
-        {
-            numerator += Math.min(setA.getUMF().getFS(discValues[i]), setB.getUMF().getFS(discValues[i])) + 
-                    Math.min(setA.getLMF().getFS(discValues[i]), setB.getLMF().getFS(discValues[i]));
-            denominator += Math.max(setA.getUMF().getFS(discValues[i]), setB.getUMF().getFS(discValues[i])) + 
-                    Math.max(setA.getLMF().getFS(discValues[i]), setB.getLMF().getFS(discValues[i]));
-        }
+        double[] upperA = sample(setA.getUMF(), discValues), lowerA = sample(setA.getLMF(), discValues);
+        double[] upperB = sample(setB.getUMF(), discValues), lowerB = sample(setB.getLMF(), discValues);
+        numerator = ArrayKernels.sumOfMin(upperA, upperB) + ArrayKernels.sumOfMin(lowerA, lowerB);
+        denominator = ArrayKernels.sumOfMax(upperA, upperB) + ArrayKernels.sumOfMax(lowerA, lowerB);
         return numerator/denominator;
     }
     
     public double getSimilarity(GenT2zMF_Interface setA, GenT2zMF_Interface setB, int numberOfDiscretisations)
     {
         double[] discValues = getDiscretisationValues(setA.getSupport(), setB.getSupport(), numberOfDiscretisations);
-        numerator = 0.0; denominator = 0.0;
-        double numeratorArray[] = new double[setA.getNumberOfSlices()];
-        double denominatorArray[] = new double[setA.getNumberOfSlices()];
-        
-        for(int i=0;i<discValues.length;i++)
-        {
-            for(int z=0; z<setA.getNumberOfSlices(); z++)
-            {
-                numeratorArray[z] += Math.min(setA.getZSlice(z).getUMF().getFS(discValues[i]), setB.getZSlice(z).getUMF().getFS(discValues[i])) + 
-                        Math.min(setA.getZSlice(z).getLMF().getFS(discValues[i]), setB.getZSlice(z).getLMF().getFS(discValues[i]));
-                denominatorArray[z] += Math.max(setA.getZSlice(z).getUMF().getFS(discValues[i]), setB.getZSlice(z).getUMF().getFS(discValues[i])) + 
-                        Math.max(setA.getZSlice(z).getLMF().getFS(discValues[i]), setB.getZSlice(z).getLMF().getFS(discValues[i]));                
-            }
-        }
+        double[] upperA, lowerA, upperB, lowerB;
         numerator = 0.0;
         denominator = 0.0;
         for(int z=0; z<setA.getNumberOfSlices(); z++)
         {
-            numerator += numeratorArray[z] * setA.getZValue(z);
-            denominator += denominatorArray[z] * setA.getZValue(z);
+            upperA = sample(setA.getZSlice(z).getUMF(), discValues);
+            lowerA = sample(setA.getZSlice(z).getLMF(), discValues);
+            upperB = sample(setB.getZSlice(z).getUMF(), discValues);
+            lowerB = sample(setB.getZSlice(z).getLMF(), discValues);
+            numerator += (ArrayKernels.sumOfMin(upperA, upperB) + ArrayKernels.sumOfMin(lowerA, lowerB)) * setA.getZValue(z);
+            denominator += (ArrayKernels.sumOfMax(upperA, upperB) + ArrayKernels.sumOfMax(lowerA, lowerB)) * setA.getZValue(z);
         }
         return numerator/denominator;
     }    
     
+    /**
+     * Evaluates the set once at each discretisation point.
+     */
+    private double[] sample(T1MF_Interface set, double[] discValues)
+    {
+        double[] fs = new double[discValues.length];
+        for(int i=0;i<discValues.length;i++)
+            fs[i] = set.getFS(discValues[i]);
+        return fs;
+    }
+
     private double[] getDiscretisationValues(Tuple domainSetA, Tuple domainSetB, int numberOfDiscretisations)
     {
         Tuple domain = new Tuple(Math.min(domainSetA.getLeft(), domainSetB.getLeft()), Math.max(domainSetA.getRight(), domainSetB.getRight()));
@@ -0,0 +1,192 @@
+/*
+ * T1Engine_SupStar.java
+ *
+ * Created on 17 October 2026
+ */
+package type1.sets;
+
+import generic.Tuple;
+import java.util.Arrays;
+
+/**
+ * Finds the point of the sup-star composition of two type-1 MFs, i.e. the x
+ * at which t(inputMF(x), antecedentMF(x)) is maximal, as required for the
+ * firing strength of non-singleton inputs.
+ * <p>
+ * The domain is split at the breakpoints of both MFs (support bounds, peaks,
+ * corners). Between two breakpoints triangular, trapezoidal, singleton and
+ * piecewise-linear MFs are linear, so for such pairs the maximum is found in
+ * closed form: for the minimum t-norm at the intersection of the two lines,
+ * for the product at the vertex of the resulting parabola. Segments involving Gaussian or Gauangle
+ * MFs are searched by golden-section search (the composition is unimodal
+ * on each segment). For any other MF the domain is scanned coarsely and the
+ * best sample is refined by golden-section search.
+ * The engine has no state and can be shared.
+ */
+public class T1Engine_SupStar
+{
+    private final byte PRODUCT = 0;
+
+    private static final int COARSE_SAMPLES = 200;
+    private static final int GOLDEN_ITERATIONS = 60;
+    private static final double INVERSE_PHI = (Math.sqrt(5.0)-1.0)/2.0;
+
+    /**
+     * Returns the x in the domain which maximises the t-norm of the two MFs.
+     * @param inputMF The (non-singleton) input MF.
+     * @param antecedentMF The MF of the antecedent.
+     * @param tNorm 0: product, 1: minimum.
+     * @param domain The domain of the input.
+     * @return The arg sup.
+     */
+    public double getArgSup(T1MF_Interface inputMF, T1MF_Interface antecedentMF, int tNorm, Tuple domain)
+    {
+        double left = domain.getLeft(), right = domain.getRight();
+        double[] bpInput = getBreakpoints(inputMF);
+        double[] bpAntecedent = getBreakpoints(antecedentMF);
+
+        if(bpInput==null || bpAntecedent==null)
+            return scan(inputMF, antecedentMF, tNorm, left, right);
+
+        //merge the breakpoints which lie inside the domain
+        double[] points = new double[bpInput.length+bpAntecedent.length+2];
+        int n = 0;
+        points[n++] = left;
+        points[n++] = right;
+        for(int i=0;i<bpInput.length;i++)
+            if(bpInput[i]>left && bpInput[i]<right) points[n++] = bpInput[i];
+        for(int i=0;i<bpAntecedent.length;i++)
+            if(bpAntecedent[i]>left && bpAntecedent[i]<right) points[n++] = bpAntecedent[i];
+        Arrays.sort(points, 0, n);
+
+        boolean linear = isPiecewiseLinear(inputMF) && isPiecewiseLinear(antecedentMF);
+        double xmax = left, valxmax = -1.0, x, value;
+        for(int i=0;i<n;i++)
+        {
+            //the breakpoint itself
+            value = tNorm(inputMF, antecedentMF, tNorm, points[i]);
+            if(value>=valxmax) { valxmax = value; xmax = points[i]; }
+            //the interior of the segment to the next breakpoint
+            if(i+1<n && points[i+1]>points[i])
+            {
+                if(linear)
+                    x = getLinearSegmentMax(inputMF, antecedentMF, tNorm, points[i], points[i+1]);
+                else
+                    x = goldenSection(inputMF, antecedentMF, tNorm, points[i], points[i+1]);
+                if(!Double.isNaN(x))
+                {
+                    value = tNorm(inputMF, antecedentMF, tNorm, x);
+                    if(value>valxmax) { valxmax = value; xmax = x; }
+                }
+            }
+        }
+        return xmax;
+    }
+
+    private double tNorm(T1MF_Interface a, T1MF_Interface b, int tNorm, double x)
+    {
+        if(tNorm==PRODUCT)
+            return a.getFS(x)*b.getFS(x);
+        else
+            return Math.min(a.getFS(x), b.getFS(x));
+    }
+
+    /**
+     * Returns the points at which the MF may change its shape, null if unknown.
+     */
+    private double[] getBreakpoints(T1MF_Interface mf)
+    {
+        if(mf instanceof T1MF_Triangular)
+        {
+            T1MF_Triangular t = (T1MF_Triangular)mf;
+            return new double[]{t.getStart(), t.getPeak(), t.getEnd()};
+        }
+        else if(mf instanceof T1MF_Trapezoidal)
+        {
+            T1MF_Trapezoidal t = (T1MF_Trapezoidal)mf;
+            return new double[]{t.getA(), t.getB(), t.getC(), t.getD()};
+        }
+        else if(mf instanceof T1MF_Singleton)
+            return new double[]{((T1MF_Singleton)mf).getValue()};
+        else if(mf instanceof T1MF_PiecewiseLinear)
+            return ((T1MF_PiecewiseLinear)mf).xs;
+        else if(mf instanceof T1MF_Gaussian || mf instanceof T1MF_Gauangle)
+            return new double[]{mf.getSupport().getLeft(), mf.getPeak(), mf.getSupport().getRight()};
+        return null;
+    }
+
+    private boolean isPiecewiseLinear(T1MF_Interface mf)
+    {
+        return mf instanceof T1MF_Triangular || mf instanceof T1MF_Trapezoidal || mf instanceof T1MF_Singleton
+                || mf instanceof T1MF_PiecewiseLinear;
+    }
+
+    /**
+     * Both MFs are linear on (u,v): the maximum of the minimum lies where the
+     * lines intersect, the maximum of the product at the vertex of the parabola.
+     * @return The candidate point or NaN if the maximum is at u or v.
+     */
+    private double getLinearSegmentMax(T1MF_Interface a, T1MF_Interface b, int tNorm, double u, double v)
+    {
+        //the lines are determined from two interior points (the end points may be discontinuous)
+        double p = u+(v-u)/3.0, q = u+2.0*(v-u)/3.0;
+        double slopeA = (a.getFS(q)-a.getFS(p))/(q-p), interceptA = a.getFS(p)-slopeA*p;
+        double slopeB = (b.getFS(q)-b.getFS(p))/(q-p), interceptB = b.getFS(p)-slopeB*p;
+        double x = Double.NaN;
+        if(tNorm==PRODUCT)
+        {
+            if(slopeA*slopeB<0)
+                x = -(slopeA*interceptB+slopeB*interceptA)/(2.0*slopeA*slopeB);
+        }
+        else if(slopeA!=slopeB)
+            x = (interceptB-interceptA)/(slopeA-slopeB);
+        if(x>u && x<v)
+            return x;
+        return Double.NaN;
+    }
+
+    /**
+     * Golden-section search for the maximum of a unimodal composition on [u,v].
+     */
+    private double goldenSection(T1MF_Interface a, T1MF_Interface b, int tNorm, double u, double v)
+    {
+        double x1 = v-INVERSE_PHI*(v-u), x2 = u+INVERSE_PHI*(v-u);
+        double f1 = tNorm(a, b, tNorm, x1), f2 = tNorm(a, b, tNorm, x2);
+        for(int i=0;i<GOLDEN_ITERATIONS && (v-u)>1e-12;i++)
+        {
+            if(f1<f2)
+            {
+                u = x1; x1 = x2; f1 = f2;
+                x2 = u+INVERSE_PHI*(v-u);
+                f2 = tNorm(a, b, tNorm, x2);
+            }
+            else
+            {
+                v = x2; x2 = x1; f2 = f1;
+                x1 = v-INVERSE_PHI*(v-u);
+                f1 = tNorm(a, b, tNorm, x1);
+            }
+        }
+        return (u+v)/2.0;
+    }
+
+    /**
+     * Fallback for MFs of unknown shape: coarse scan, then golden-section
+     * search around the best sample.
+     */
+    private double scan(T1MF_Interface a, T1MF_Interface b, int tNorm, double left, double right)
+    {
+        double step = (right-left)/(COARSE_SAMPLES-1);
+        double xmax = left, valxmax = -1.0, x, value;
+        for(int i=0;i<COARSE_SAMPLES;i++)
+        {
+            x = (i==COARSE_SAMPLES-1) ? right : left+i*step;
+            value = tNorm(a, b, tNorm, x);
+            if(value>=valxmax) { valxmax = value; xmax = x; }
+        }
+        x = goldenSection(a, b, tNorm, Math.max(left, xmax-step), Math.min(right, xmax+step));
+        if(tNorm(a, b, tNorm, x)>valxmax)
+            return x;
+        return xmax;
+    }
+}
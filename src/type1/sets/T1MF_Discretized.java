@@ -15,51 +15,45 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
 
 /**
  * The class allows the specification of a type-1 MF based on single points alone, 
  * i.e. in a discretised fashion. The points are specified using y-x coordinates.
- * All points are held in an ArrayList which requires resorting as points are 
- * added.
+ * All points are held in two primitive arrays (x and y) which are sorted by x
+ * once after points have been added; membership grades are then found by
+ * binary search and linear interpolation between the neighbouring points.
  * @author Christian Wagner
  */
 public class T1MF_Discretized extends T1MF_Prototype
 {
-    protected ArrayList<Tuple> set;
+    protected double[] xs, ys;      //the points, sorted by x when sorted==true
+    protected int size;
     protected double peak;
-    protected boolean sorted = false;
+    protected boolean sorted = true;
     protected int discretizationLevel;
     private boolean leftShoulder = false, rightShoulder = false;
     private double leftShoulderStart = 0.0, rightShoulderStart = 0.0;
-    private double a;
-    private double temp,temp2,left, right,min;
-    private double temp3;
 
     private final boolean DEBUG = false;
     private int alphaCutDiscLevel = 60;
-    private final double alphaCutPrcsisionLimit = 0.01;
 
     
     /** Creates a new instance of T1MF_Discretized */
     public T1MF_Discretized(String name, int initialSize) 
     {
         super(name);
-        set = new ArrayList(initialSize);
+        xs = new double[Math.max(initialSize, 1)];
+        ys = new double[xs.length];
         this.support = new Tuple();
     }
     public T1MF_Discretized(String name) 
     {
-        super(name);
-        set = new ArrayList();
-        this.support = new Tuple();
+        this(name, 10);
     }    
     public T1MF_Discretized(String name, Tuple[] points)
     {
-        super(name);
-        this.support = new Tuple();
-        set = new ArrayList(points.length);
+        this(name, points.length);
         this.addPoints(points);
         sort();
     }
@@ -71,8 +65,27 @@ public class T1MF_Discretized extends T1MF_Prototype
      */
     public void addPoint(Tuple p)
     {
-        set.add(p);
-        sorted = false;
+        addPoint(p.getRight(), p.getLeft());
+    }
+
+    /**
+     * Adds a point to the discretized set - forces resorting unless the point
+     * lies to the right of all points added so far.
+     * @param x The x coordinate of the point.
+     * @param y The degree of membership at x.
+     */
+    public void addPoint(double x, double y)
+    {
+        if(size==xs.length)
+        {
+            xs = Arrays.copyOf(xs, 2*size);
+            ys = Arrays.copyOf(ys, 2*size);
+        }
+        if(size>0 && !(x>xs[size-1]))
+            sorted = false;
+        xs[size] = x;
+        ys[size] = y;
+        size++;
     }
 
     /**
@@ -81,10 +94,14 @@ public class T1MF_Discretized extends T1MF_Prototype
      */    
     public void addPoints(Tuple[] p)
     {
-        set.addAll(Arrays.asList(p));
-        sorted = false;
+        for(int i=0;i<p.length;i++)
+            addPoint(p[i].getRight(), p[i].getLeft());
     } 
     
+    /**
+     * The alpha-cuts are computed exactly on the points of the set, the level
+     * is kept for compatibility only.
+     */
     public int getAlphaCutDisretizationLevel()
     {
         return alphaCutDiscLevel;
@@ -97,108 +114,108 @@ public class T1MF_Discretized extends T1MF_Prototype
     
     public int getNumberOfPoints()
     {
-        return set.size();
+        sort();
+        return size;
     }
 
     public double getFS(double x) 
     {
-        if(set==null)
-            return -1;    
         if (leftShoulder)
             if(x<leftShoulderStart)
                 return 1.0;        
         if(rightShoulder)
             if(x>rightShoulderStart)
                 return 1.0;
-        if(x<this.getSupport().getLeft()||x>this.getSupport().getRight())
-            return 0.0;
-            
-        //make sure set is sorted
         sort();
+        if(size==0 || x<xs[0] || x>xs[size-1])
+            return 0.0;
+        return getFS(x, firstNotBelow(x, 0));
+    }
 
-        //traverse set from left to right
-        for(int i=0;i<set.size();i++)
+    /**
+     * Computes the degrees of membership at several points at once. Ascending
+     * points are evaluated in a single pass over the set, others by binary search.
+     * @param x The points.
+     * @param out Receives the degree of membership at each point.
+     */
+    public void getFS(double[] x, double[] out)
+    {
+        sort();
+        int j = 0;
+        for(int i=0;i<x.length;i++)
         {
-            if(set.get(i).getRight()>x)
-            {
-                if(DEBUG){
-                    System.out.println("Element at "+x+" was not contained in discretized set - INTERPOLATING!");
-                    System.out.println("Set[i-1].getRight = "+set.get(i-1).getRight() +"           Set[i].getRight = "+set.get(i).getRight() + "   i = "+i);
-                }
-                return interpolate(i-1, x, i);
-            }
-            else if(set.get(i).getRight()==x)
+            if ((leftShoulder && x[i]<leftShoulderStart) || (rightShoulder && x[i]>rightShoulderStart))
+                out[i] = 1.0;
+            else if(size==0 || x[i]<xs[0] || x[i]>xs[size-1])
+                out[i] = 0.0;
+            else
             {
-                return set.get(i).getLeft();
+                if(i>0 && x[i]>=x[i-1])
+                    while(xs[j]<x[i]) j++;      //x[i]<=xs[size-1], so j stays in range
+                else
+                    j = firstNotBelow(x[i], 0);
+                out[i] = getFS(x[i], j);
             }
         }
-        return Double.NaN;  //we never get here...
     }
 
+    /**
+     * Returns the degree of membership at x, where j is the first point with xs[j]>=x.
+     */
+    private double getFS(double x, int j)
+    {
+        if(xs[j]==x)
+            return ys[j];
+        if(DEBUG)
+        {
+            System.out.println("Element at "+x+" was not contained in discretized set - INTERPOLATING!");
+            System.out.println("Set[i-1].getRight = "+xs[j-1] +"           Set[i].getRight = "+xs[j] + "   i = "+j);
+        }
+        return interpolate(j-1, x, j);
+    }
+
+    /**
+     * Returns the first index from which on xs[index]>=x, size if there is none.
+     */
+    private int firstNotBelow(double x, int from)
+    {
+        int lo = from, hi = size, mid;
+        while(lo<hi)
+        {
+            mid = (lo+hi)>>>1;
+            if(xs[mid]<x) lo = mid+1;
+            else hi = mid;
+        }
+        return lo;
+    }
     
   /**
      *Returns the x values where the alpha cut using the alpha (y) value provided "cuts" the function curve
+     *(interpolating linearly between the points of the set). Shoulders extend the cut to infinity.
+     *@return The alpha-cut, the degenerate cut [0,0] if no point of the set reaches alpha.
      */
     public Tuple getAlphaCut(double alpha)
     {
-        double left=0, right=0;
-        
         if(alpha == 0.0)
         {
             return this.getSupport();
         }
-        
-        if(alpha == 1.0)
-        {
-            //rely on convexity and search from the outside inwards
-            for(int i =0;i<set.size();i++)
-            {
-                if(set.get(i).getLeft()==1.0)
-                    left = set.get(i).getRight();
-            }
-            for(int i=set.size()-1;i>=0;i--)
-            {
-                if(set.get(i).getLeft()==1.0)
-                    right = set.get(i).getRight();
-            }            
-            return new Tuple(left, right);
-        }
-        
-        //for other alphas between 0 and 1;
-        double stepSize = (this.getSupport().getSize())/(alphaCutDiscLevel-1);
-        double currentStep = this.getSupport().getLeft();
-        Tuple alphaCut = null;        
-        findLeft:
-            for(int i=0;i<alphaCutDiscLevel;i++)
-            {
-                temp = this.getFS(currentStep)-alpha;
-                if (temp>=0.0)
-                {
-                    left = currentStep;
-                    break findLeft;
-                }                
-                currentStep+= stepSize;
-            }        
-        
-        currentStep = this.getSupport().getRight();    
-        findRight:
-            for(int i=0;i<alphaCutDiscLevel;i++)
-            {
-                temp = this.getFS(currentStep)-alpha;
-                if (temp>0.0)
-                {
-                    right = currentStep;
-                    break findRight;
-                }
-                currentStep-= stepSize;
-            }                 
+        sort();
 
-        alphaCut = new Tuple(left,right);
-        
-        //in some cases there might only be 1 single point (if set has 1 slope, say from lower left to top right)
-        //account for this and fix problem where due to lack of precision the right would be < than the left.
-        if(Math.abs(left-right)<alphaCutPrcsisionLimit) alphaCut.setRight(left);     
-        return alphaCut;
+        int first = 0, last = size-1;
+        while(first<size && ys[first]<alpha) first++;
+        while(last>=0 && ys[last]<alpha) last--;
+        if(first==size)
+            return new Tuple(0.0,0.0);      //as the sampled cut has always done (e.g. for GenT2zMF_CylExtension)
+
+        double left = xs[first], right = xs[last];
+        if(first>0)
+            left = xs[first-1]+(alpha-ys[first-1])*(xs[first]-xs[first-1])/(ys[first]-ys[first-1]);
+        if(last<size-1)
+            right = xs[last]+(ys[last]-alpha)*(xs[last+1]-xs[last])/(ys[last]-ys[last+1]);
+        if(leftShoulder) left = Double.NEGATIVE_INFINITY;
+        if(rightShoulder) right = Double.POSITIVE_INFINITY;
+        return new Tuple(left,right);
     }       
     
     /**
@@ -209,17 +226,20 @@ public class T1MF_Discretized extends T1MF_Prototype
      */
     private double interpolate(int x_0, double x_1, int x_2)
     {
-        a = (set.get(x_2).getRight() - set.get(x_0).getRight()) / (x_1 - set.get(x_0).getRight());
-        return set.get(x_0).getLeft()-((set.get(x_0).getLeft()-set.get(x_2).getLeft())/a);
+        double a = (xs[x_2] - xs[x_0]) / (x_1 - xs[x_0]);
+        return ys[x_0]-((ys[x_0]-ys[x_2])/a);
     }
     
     /**
-     *Returns all points in the set
+     *Returns all points in the set (a copy, as Tuples in the order y,x)
      */
     public ArrayList getPoints()
     {
         sort();
-        return set;
+        ArrayList<Tuple> points = new ArrayList(size);
+        for(int i=0;i<size;i++)
+            points.add(new Tuple(ys[i], xs[i]));
+        return points;
     }
     
     /**
@@ -228,7 +248,9 @@ public class T1MF_Discretized extends T1MF_Prototype
     public Tuple getPointAt(int i)
     {
         sort();
-        return set.get(i);
+        if(i>=size)
+            throw new IndexOutOfBoundsException("Index: "+i+", Size: "+size);
+        return new Tuple(ys[i], xs[i]);
     }    
 
     /**
@@ -242,48 +264,27 @@ public class T1MF_Discretized extends T1MF_Prototype
     public double getPeak() 
     {
         sort();
-        double xCoordinateofPeak, yValueAtCurrentPeak, secondX=0.0; //two x's if the set has a flat top
-        yValueAtCurrentPeak = this.getPointAt(0).getLeft();
-        xCoordinateofPeak = this.getPointAt(0).getRight();
-        loop:
-        for(int i=1;i<this.getNumberOfPoints();i++)
-        {
-            if(this.getPointAt(i).getLeft()>yValueAtCurrentPeak)
-            {System.out.println("in the loop... currentPeak = "+yValueAtCurrentPeak+"   new point: "+this.getPointAt(i).getLeft());
-                yValueAtCurrentPeak = this.getPointAt(i).getLeft();
-                xCoordinateofPeak = this.getPointAt(i).getRight();
-            }
-            else
-            {
-                if(this.getPointAt(i).getLeft()==yValueAtCurrentPeak)
-                {
-                    while(this.getPointAt(i).getLeft()==yValueAtCurrentPeak)
-                    {
-                        secondX = this.getPointAt(i).getRight();
-                        i++;
-                    }
-                    return (xCoordinateofPeak+secondX)/2.0;
-                }
-                //otherwise stop the loop as the degree of mem. is decreasing
-                break loop;
-            }
-        }
-        return xCoordinateofPeak;
+        int first = 0;
+        for(int i=1;i<size;i++)
+            if(ys[i]>ys[first]) first = i;
+        int last = first;
+        while(last+1<size && ys[last+1]==ys[first]) last++;
+        return (xs[first]+xs[last])/2.0;
     }
 
 
     @Override
     public Tuple getSupport()
     {
-        if(set==null)
-            return null;
         sort();       
+        if(size==0)
+            return support;
         if(leftShoulder)
-            support = new Tuple(Double.NEGATIVE_INFINITY,set.get(set.size()-1).getRight());
+            support = new Tuple(Double.NEGATIVE_INFINITY,xs[size-1]);
             else if (rightShoulder)
-                support = new Tuple(set.get(0).getRight(),Double.POSITIVE_INFINITY);
+                support = new Tuple(xs[0],Double.POSITIVE_INFINITY);
                 else
-                    support = new Tuple(set.get(0).getRight(),set.get(set.size()-1).getRight());
+                    support = new Tuple(xs[0],xs[size-1]);
         return support;
     }
     
@@ -291,44 +292,60 @@ public class T1MF_Discretized extends T1MF_Prototype
     {
         sort(); 
         
-        String s="";
-        for(int i = 0;i<set.size();i++)
+        StringBuilder s = new StringBuilder();
+        for(int i = 0;i<size;i++)
         {
-            s+=set.get(i).getLeft()+" / "+set.get(i).getRight()+"\n";
+            s.append(ys[i]).append(" / ").append(xs[i]).append("\n");
         }
-        return s;
+        return s.toString();
     }
     
     /**
-     * Sorts the ArrayList holding all points defining the set.
+     * Sorts the points defining the set by x (ties by y).
      * No sort is performed if the set is already sorted.
      */
     private void sort()
     {
         //sort and prune (i.e. remove points with more than one degree of
         //membership) if necessary.
-        if(!sorted && set!=null)
+        if(!sorted)
         {
             //sort
-            Collections.sort(set);
-            support.setLeft(set.get(0).getRight());
-            support.setRight(set.get(set.size()-1).getRight());
-            sorted = true;
-            
-            //prune
-            if(set.size()>1);
-            double lastX = set.get(0).getRight();
-            for(int i=1;i<set.size();i++)
+            Integer[] order = new Integer[size];
+            for(int i=0;i<size;i++)
+                order[i] = i;
+            final double[] x = xs, y = ys;
+            Arrays.sort(order, new Comparator<Integer>()
             {
-                if(set.get(i).getRight()==lastX)
+                public int compare(Integer a, Integer b)
                 {
-                    set.get(i-1).setLeft(Math.max(set.get(i-1).getLeft(), set.get(i).getLeft()));
-                    set.remove(i);
-                    i--;
+                    if(x[a]!=x[b]) return x[a]<x[b] ? -1 : 1;
+                    return Double.compare(y[a], y[b]);
                 }
+            });
+            double[] sortedX = new double[xs.length], sortedY = new double[xs.length];
+            int n = 0;
+            for(int i=0;i<size;i++)
+            {
+                //prune
+                if(n>0 && x[order[i]]==sortedX[n-1])
+                    sortedY[n-1] = Math.max(sortedY[n-1], y[order[i]]);
                 else
-                    lastX = set.get(i).getRight();
+                {
+                    sortedX[n] = x[order[i]];
+                    sortedY[n] = y[order[i]];
+                    n++;
+                }
             }
+            xs = sortedX;
+            ys = sortedY;
+            size = n;
+            sorted = true;
+        }
+        if(size>0 && !leftShoulder && !rightShoulder)
+        {
+            support.setLeft(xs[0]);
+            support.setRight(xs[size-1]);
         }
     }
     
@@ -340,9 +357,9 @@ public class T1MF_Discretized extends T1MF_Prototype
             //BufferedWriter out = new BufferedWriter(new FileWriter("C:\\GeneralType2_VisualisationTestData.txt"));
             BufferedWriter out = new BufferedWriter(new FileWriter(filename));
 
-            for(int i=0; i<set.size();i++)
+            for(int i=0; i<size;i++)
             {
-                out.write(set.get(i).getRight()+","+set.get(i).getLeft());// x y (where y =  third dimension(actual z))
+                out.write(xs[i]+","+ys[i]);// x y (where y =  third dimension(actual z))
                 out.newLine();
             }
 
@@ -398,6 +415,22 @@ public class T1MF_Discretized extends T1MF_Prototype
         support.setRight(Double.POSITIVE_INFINITY);
     }
 
+    /**
+     * Returns the x below which the set is a left shoulder, NaN if it is not.
+     */
+    double getLeftShoulderStart()
+    {
+        return leftShoulder ? leftShoulderStart : Double.NaN;
+    }
+
+    /**
+     * Returns the x above which the set is a right shoulder, NaN if it is not.
+     */
+    double getRightShoulderStart()
+    {
+        return rightShoulder ? rightShoulderStart : Double.NaN;
+    }
+
 
     /**
      * Returns the defuzzified value of this set computed using the centroid algorithm.
@@ -408,20 +441,14 @@ public class T1MF_Discretized extends T1MF_Prototype
     @Override
     public double getDefuzzifiedCentroid(int numberOfDiscretizations)
     {
-        double stepSize=
-                this.getSupport().getAverage()/(numberOfDiscretizations-1);
-        double currentStep = this.getSupport().getLeft();
-
-        double numerator = 0.0, denominator = 0.0, fs = 0.0;
-        if(DEBUG)System.out.println("number of points: "+this.getPoints().size());
+        sort();
+        if(DEBUG)System.out.println("number of points: "+size);
 
-        Iterator<Tuple> i = this.getPoints().iterator();
-        Tuple point;
-        while(i.hasNext())
+        double numerator = 0.0, denominator = 0.0;
+        for(int i=0;i<size;i++)
         {
-            point = i.next();
-            numerator += point.getRight() * point.getLeft();
-            denominator += point.getLeft();
+            numerator += xs[i] * ys[i];
+            denominator += ys[i];
         }
         if(denominator==0.0) return 0.0;
         else
@@ -8,6 +8,7 @@
 
 package type1.sets;
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 
 
@@ -17,7 +18,7 @@ import generic.Tuple;
  * decreasing "sides" of triangular MFs.
  * @author Christian Wagner
  */
-public class T1MF_Gauangle extends T1MF_Prototype
+public class T1MF_Gauangle extends T1MF_Prototype implements MF_Shiftable
 {
     private double spreadForLeft, spreadForRight;
     private double start, center, end;
@@ -49,31 +50,52 @@ public class T1MF_Gauangle extends T1MF_Prototype
             this.isLeftShoulder=true;
         if(center==end) 
             this.isRightShoulder=true;
-        
 
+        support = new Tuple(start,end);                
+        setUpShape();
+    }
+
+    /**
+     * Computes the spreads, transition points and calculation points from
+     * start, center and end.
+     */
+    private void setUpShape()
+    {
         this.spreadForLeft = (center-start)*(1.0-similarToGaussian);
         this.spreadForRight = (end-center)*(1.0-similarToGaussian);
 
-
-        support = new Tuple(start,end);                
-
         //set up the transition points between gaussian and triangular MFs...
         transitionPointLeft = center-((center-start)*similarToGaussian);
-        double[] ab = getLineEquationParameters(new Tuple(start,0.0),
-                new Tuple(transitionPointLeft, Math.exp(-0.5*Math.pow(
-                ((transitionPointLeft-center)/spreadForLeft),2))));
-        leftCalculationPoint = getXForYOnLine(1.0, ab);
+        leftCalculationPoint = getXForYOnLine(1.0, start, 0.0,
+                transitionPointLeft, Math.exp(-0.5*Math.pow(
+                ((transitionPointLeft-center)/spreadForLeft),2)));
 
         transitionPointRight = center+((end-center)*similarToGaussian);
         
-        ab = getLineEquationParameters(new Tuple(transitionPointRight, 
-                Math.exp(-0.5*Math.pow(((transitionPointRight-center)/spreadForRight),2))),
-                new Tuple(end,0.0));
-        rightCalculationPoint = getXForYOnLine(1.0, ab);
+        rightCalculationPoint = getXForYOnLine(1.0, transitionPointRight, 
+                Math.exp(-0.5*Math.pow(((transitionPointRight-center)/spreadForRight),2)),
+                end, 0.0);
 
         if(DEBUG)System.out.println("Transition points between triangular and gaussian functions are "+transitionPointLeft+" and "+ transitionPointRight+".");
 
     }
+
+    /**
+     * Moves the center to x, offsetting start and end by the same distance.
+     * The support is updated in place.
+     * @param x The new center.
+     */
+    public void shiftTo(double x)
+    {
+        start = start+(x-center);
+        end = end+(x-center);
+        center = x;
+        isLeftShoulder = start==center;
+        isRightShoulder = center==end;
+        support.setLeft(start);
+        support.setRight(end);
+        setUpShape();
+    }
     
     
     @Override
@@ -139,26 +161,14 @@ public class T1MF_Gauangle extends T1MF_Prototype
     }
     
     /**
-     *Returns the line equation parameters a and be (line equation = ax*b) for a line passing through the points defined by the tuples x and y.
-     *@params x The first point, the Tuple consists of the x and y coordinates of the point in this order.
-     *@params y The second point, the Tuple consists of the x and y coordinates of the point in this order.
-     */ 
-    private double[] getLineEquationParameters(Tuple x, Tuple y)
-    {
-        double[] ab = new double[2];
-        if(DEBUG)System.out.println("x = "+x+"   y = "+y);
-        ab[0] = (y.getRight()-x.getRight()) / (y.getLeft()-x.getLeft());
-        ab[1] = x.getRight()-ab[0]*x.getLeft();
-        if(DEBUG)System.out.println("Line equation: "+ab[0]+" * x + "+ab[1]);
-        return ab;
-    }
-    
-    /**
-     *Returns the x coordinate for a specified y coordinate when considering the given line equation.
+     *Returns the x coordinate for a specified y coordinate on the line (line equation = ax+b) passing through the points (x1,y1) and (x2,y2).
      */
-    private double getXForYOnLine(double y, double[] ab)
+    private double getXForYOnLine(double y, double x1, double y1, double x2, double y2)
     {
-        return (y-ab[1])/ab[0];
+        double a = (y2-y1) / (x2-x1);
+        double b = y1-a*x1;
+        if(DEBUG)System.out.println("Line equation: "+a+" * x + "+b);
+        return (y-b)/a;
     }
 
 
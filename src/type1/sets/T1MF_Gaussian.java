@@ -7,13 +7,14 @@
 
 package type1.sets;
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 
 /**
  * Class for Gaussian Type-1 Fuzzy Membership Functions.
  * @author Christian Wagner
  */
-public class T1MF_Gaussian extends T1MF_Prototype implements T1MF_Interface
+public class T1MF_Gaussian extends T1MF_Prototype implements T1MF_Interface, MF_Shiftable
 {
     private double mean;
     private double spread;
@@ -60,6 +61,17 @@ public class T1MF_Gaussian extends T1MF_Prototype implements T1MF_Interface
     public double getMean() {
         return mean;
     }
+
+    /**
+     * Moves the mean to x, keeping the spread. The support is updated in place.
+     * @param x The new mean.
+     */
+    public void shiftTo(double x)
+    {
+        this.mean = x;
+        support.setLeft(mean- 4*spread);
+        support.setRight(mean+4*spread);
+    }
     
     @Override
     public String toString()
@@ -0,0 +1,456 @@
+/*
+ * T1MF_PiecewiseLinear.java
+ *
+ * Created on 17 October 2026
+ */
+package type1.sets;
+
+import generic.BadParameterException;
+import generic.Tuple;
+import java.util.Arrays;
+
+/**
+ * Type-1 MF given by a list of breakpoints (x,y) joined by straight lines, with
+ * a membership of 0 outside the first and last breakpoint. Consecutive
+ * breakpoints may share their x, which describes a vertical jump (the edge of a
+ * shoulder, a singleton); the membership at such an x is the largest y given
+ * for it.
+ * <p>
+ * Triangular, trapezoidal, singleton, cylinder, discretized and piecewise-linear
+ * MFs are compiled into this representation with compile(). The minimum and
+ * maximum of two sets as well as clipping and scaling by a firing strength are
+ * computed exactly on the breakpoints (adding the points where segments cross)
+ * and the centroid is computed in closed form, so defuzzifying costs
+ * O(breakpoints) and carries no discretisation error.
+ * Instances are immutable; shoulders are part of the breakpoints.
+ */
+public class T1MF_PiecewiseLinear extends T1MF_Prototype
+{
+    final double[] xs, ys;      //the breakpoints, xs in ascending order
+
+    /**
+     * Creates a new instance.
+     * @param name
+     * @param xs The x values of the breakpoints, in ascending order (equal successive values for a jump).
+     * @param ys The degree of membership at each breakpoint.
+     */
+    public T1MF_PiecewiseLinear(String name, double[] xs, double[] ys)
+    {
+        super(name);
+        if(xs.length!=ys.length || xs.length==0)
+            throw new BadParameterException("A piecewise-linear MF needs at least one breakpoint and the same number of x and y values.");
+        for(int i=0;i<xs.length;i++)
+        {
+            if(i>0 && !(xs[i]>=xs[i-1]))
+                throw new BadParameterException("The breakpoints of a piecewise-linear MF must be given in ascending order of x.");
+            if(!(ys[i]>=0.0 && ys[i]<=1.0))
+                throw new BadParameterException("The degree of membership of each breakpoint should be between 0 and 1.");
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+        this.support = new Tuple(this.xs[0], this.xs[this.xs.length-1]);
+    }
+
+    private T1MF_PiecewiseLinear(String name, Points points)
+    {
+        super(name);
+        points.trim();
+        this.xs = Arrays.copyOf(points.x, points.n);
+        this.ys = Arrays.copyOf(points.y, points.n);
+        this.support = new Tuple(xs[0], xs[xs.length-1]);
+    }
+
+    /**
+     * Compiles a type-1 MF into its piecewise-linear representation over the
+     * given domain (the membership outside the domain is 0). Shoulders are
+     * extended up to the respective end of the domain. Unions and intersections
+     * are compiled as the exact max/min of their compiled sets.
+     * @param mf A triangular, trapezoidal, singleton, cylinder, discretized or
+     * piecewise-linear MF, or a union/intersection of such MFs.
+     * @param domain The domain the MF is used on, e.g. that of its output.
+     * @return The equivalent piecewise-linear MF.
+     */
+    public static T1MF_PiecewiseLinear compile(T1MF_Interface mf, Tuple domain)
+    {
+        double l = domain.getLeft(), r = domain.getRight();
+        T1MF_PiecewiseLinear pl;
+        if(mf instanceof T1MF_PiecewiseLinear)
+            pl = (T1MF_PiecewiseLinear)mf;
+        else if(mf instanceof T1MF_Triangular)
+        {
+            T1MF_Triangular t = (T1MF_Triangular)mf;
+            if(t.isLeftShoulder() && t.isRightShoulder())
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{Math.min(l, t.getPeak()), Math.max(r, t.getPeak())}, new double[]{1.0, 1.0});
+            else if(t.isLeftShoulder())
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{Math.min(l, t.getPeak()), t.getPeak(), t.getEnd()}, new double[]{1.0, 1.0, 0.0});
+            else if(t.isRightShoulder())
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{t.getStart(), t.getPeak(), Math.max(r, t.getPeak())}, new double[]{0.0, 1.0, 1.0});
+            else
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{t.getStart(), t.getPeak(), t.getEnd()}, new double[]{0.0, 1.0, 0.0});
+        }
+        else if(mf instanceof T1MF_Trapezoidal)
+        {
+            T1MF_Trapezoidal t = (T1MF_Trapezoidal)mf;
+            double[] yLevels = t.getyLevels();
+            if(t.isLeftShoulder() && t.isRightShoulder())
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{Math.min(l, t.getB()), Math.max(r, t.getC())}, new double[]{1.0, 1.0});
+            else if(t.isLeftShoulder())
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{Math.min(l, t.getC()), t.getC(), t.getC(), t.getD()},
+                        new double[]{1.0, 1.0, yLevels[1], 0.0});
+            else if(t.isRightShoulder())
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{t.getA(), t.getB(), t.getB(), Math.max(r, t.getB())},
+                        new double[]{0.0, yLevels[0], 1.0, 1.0});
+            else
+                pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{t.getA(), t.getB(), t.getC(), t.getD()},
+                        new double[]{0.0, yLevels[0], yLevels[1], 0.0});
+        }
+        else if(mf instanceof T1MF_Singleton)
+        {
+            double v = ((T1MF_Singleton)mf).getValue();
+            pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{v, v, v}, new double[]{0.0, 1.0, 0.0});
+        }
+        else if(mf instanceof T1MF_Cylinder)
+            pl = new T1MF_PiecewiseLinear(mf.getName(), new double[]{l, r}, new double[]{mf.getFS(l), mf.getFS(l)});
+        else if(mf instanceof T1MF_Discretized)
+        {
+            T1MF_Discretized d = (T1MF_Discretized)mf;
+            double[] x = new double[d.getNumberOfPoints()], y = new double[d.getNumberOfPoints()];
+            for(int i=0;i<x.length;i++)
+            {
+                x[i] = d.getPointAt(i).getRight();
+                y[i] = d.getPointAt(i).getLeft();
+            }
+            pl = new T1MF_PiecewiseLinear(mf.getName(), x, y);
+            double s = d.getLeftShoulderStart();
+            if(!Double.isNaN(s))
+                pl = pl.max(new T1MF_PiecewiseLinear(mf.getName(), new double[]{Math.min(l, s), s}, new double[]{1.0, 1.0}));
+            s = d.getRightShoulderStart();
+            if(!Double.isNaN(s))
+                pl = pl.max(new T1MF_PiecewiseLinear(mf.getName(), new double[]{s, Math.max(r, s)}, new double[]{1.0, 1.0}));
+        }
+        else if(mf instanceof T1MF_Union)
+            pl = compile(((T1MF_Union)mf).getSetA(), domain).max(compile(((T1MF_Union)mf).getSetB(), domain));
+        else if(mf instanceof T1MF_Intersection)
+            pl = compile(((T1MF_Intersection)mf).getSetA(), domain).min(compile(((T1MF_Intersection)mf).getSetB(), domain));
+        else
+            throw new BadParameterException("Only triangular, trapezoidal, singleton, cylinder, discretized and piecewise-linear MFs "
+                    + "(and their unions and intersections) can be compiled into a piecewise-linear MF, "
+                    + mf.getName()+" is a "+mf.getClass().getSimpleName()+".");
+        return pl.restrict(l, r);
+    }
+
+    public int getNumberOfBreakpoints()
+    {
+        return xs.length;
+    }
+
+    @Override
+    public double getFS(double x)
+    {
+        int j = firstNotBelow(x);
+        if(j<xs.length && xs[j]==x)
+        {
+            double max = ys[j];
+            for(int k=j+1;k<xs.length && xs[k]==x;k++)
+                max = Math.max(max, ys[k]);
+            return max;
+        }
+        if(j==0 || j==xs.length)
+            return 0.0;
+        return interpolate(j-1, j, x);
+    }
+
+    /**
+     * Returns the limit of the membership approaching x from the left.
+     */
+    private double getLeftLimit(double x)
+    {
+        int j = firstNotBelow(x);
+        if(j==0 || j==xs.length) return 0.0;
+        if(xs[j]==x) return ys[j];
+        return interpolate(j-1, j, x);
+    }
+
+    /**
+     * Returns the limit of the membership approaching x from the right.
+     */
+    private double getRightLimit(double x)
+    {
+        int i = firstNotBelow(Math.nextUp(x))-1;      //last index with xs[i]<=x
+        if(i<0 || i==xs.length-1) return 0.0;
+        if(xs[i]==x) return ys[i];
+        return interpolate(i, i+1, x);
+    }
+
+    /**
+     * Returns the smallest index with xs[index]>=x, xs.length if there is none.
+     */
+    private int firstNotBelow(double x)
+    {
+        int lo = 0, hi = xs.length, mid;
+        while(lo<hi)
+        {
+            mid = (lo+hi)>>>1;
+            if(xs[mid]<x) lo = mid+1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private double interpolate(int i, int j, double x)
+    {
+        return ys[i]+(ys[j]-ys[i])*(x-xs[i])/(xs[j]-xs[i]);
+    }
+
+    /**
+     * Returns the pointwise minimum of this set and the given set.
+     */
+    public T1MF_PiecewiseLinear min(T1MF_PiecewiseLinear other)
+    {
+        return combine(other, false);
+    }
+
+    /**
+     * Returns the pointwise maximum of this set and the given set.
+     */
+    public T1MF_PiecewiseLinear max(T1MF_PiecewiseLinear other)
+    {
+        return combine(other, true);
+    }
+
+    /**
+     * Returns this set clipped at the given firing strength, i.e. min(mf(x), fStrength).
+     */
+    public T1MF_PiecewiseLinear clip(double fStrength)
+    {
+        return min(new T1MF_PiecewiseLinear("Cylinder", new double[]{xs[0], xs[xs.length-1]}, new double[]{fStrength, fStrength}));
+    }
+
+    /**
+     * Returns this set scaled by the given firing strength, i.e. mf(x)*fStrength.
+     */
+    public T1MF_PiecewiseLinear scale(double fStrength)
+    {
+        if(!(fStrength>=0.0 && fStrength<=1.0))
+            throw new BadParameterException("The firing strength should be between 0 and 1.");
+        Points points = new Points(xs.length);
+        for(int i=0;i<xs.length;i++)
+            points.add(xs[i], ys[i]*fStrength);
+        return new T1MF_PiecewiseLinear(name, points);
+    }
+
+    /**
+     * Returns this set restricted to [left, right] (the membership outside is 0).
+     */
+    public T1MF_PiecewiseLinear restrict(double left, double right)
+    {
+        if(!(left<=right))
+            throw new BadParameterException("The left end of the interval must not lie to the right of its right end.");
+        Points points = new Points(xs.length+4);
+        points.add(left, getFS(left));
+        points.add(left, getRightLimit(left));
+        for(int i=0;i<xs.length;i++)
+            if(xs[i]>left && xs[i]<right) points.add(xs[i], ys[i]);
+        points.add(right, getLeftLimit(right));
+        points.add(right, getFS(right));
+        return new T1MF_PiecewiseLinear(name, points);
+    }
+
+    private T1MF_PiecewiseLinear combine(T1MF_PiecewiseLinear other, boolean maximum)
+    {
+        //all breakpoints of both sets, in ascending order
+        double[] candidates = new double[xs.length+other.xs.length];
+        System.arraycopy(xs, 0, candidates, 0, xs.length);
+        System.arraycopy(other.xs, 0, candidates, xs.length, other.xs.length);
+        Arrays.sort(candidates);
+
+        Points points = new Points(2*candidates.length);
+        double x, next, a0, b0, a1, b1, d0, d1, t;
+        for(int i=0;i<candidates.length;i++)
+        {
+            x = candidates[i];
+            if(i>0 && x==candidates[i-1]) continue;
+            points.add(x, op(getLeftLimit(x), other.getLeftLimit(x), maximum));
+            points.add(x, op(getFS(x), other.getFS(x), maximum));
+            a0 = getRightLimit(x);
+            b0 = other.getRightLimit(x);
+            points.add(x, op(a0, b0, maximum));
+
+            //both sets are linear up to the next breakpoint - add the point where they cross
+            int k = i+1;
+            while(k<candidates.length && candidates[k]==x) k++;
+            if(k<candidates.length)
+            {
+                next = candidates[k];
+                a1 = getLeftLimit(next);
+                b1 = other.getLeftLimit(next);
+                d0 = a0-b0;
+                d1 = a1-b1;
+                if((d0<0 && d1>0) || (d0>0 && d1<0))
+                {
+                    t = d0/(d0-d1);
+                    points.add(x+t*(next-x), a0+t*(a1-a0));
+                }
+            }
+        }
+        return new T1MF_PiecewiseLinear(name, points);
+    }
+
+    private static double op(double a, double b, boolean maximum)
+    {
+        return maximum ? Math.max(a, b) : Math.min(a, b);
+    }
+
+    /**
+     * Returns the centroid of this set, computed in closed form over the
+     * linear segments. For a set without area (singletons) the membership
+     * weighted average of the spikes is returned.
+     * @return The centroid or NaN if the set is empty.
+     */
+    public double getCentroid()
+    {
+        double area = 0.0, moment = 0.0, dx;
+        for(int i=0;i<xs.length-1;i++)
+        {
+            dx = xs[i+1]-xs[i];
+            if(dx>0.0)
+            {
+                area += dx*(ys[i]+ys[i+1])/2.0;
+                moment += dx*(xs[i]*(2.0*ys[i]+ys[i+1])+xs[i+1]*(ys[i]+2.0*ys[i+1]))/6.0;
+            }
+        }
+        if(area>0.0)
+            return moment/area;
+
+        double numerator = 0.0, denominator = 0.0, fs;
+        for(int i=0;i<xs.length;i++)
+        {
+            if(i>0 && xs[i]==xs[i-1]) continue;
+            fs = getFS(xs[i]);
+            numerator += xs[i]*fs;
+            denominator += fs;
+        }
+        return denominator>0.0 ? numerator/denominator : Double.NaN;
+    }
+
+    /**
+     * Returns the exact centroid (see getCentroid()) - the number of
+     * discretizations is not used.
+     */
+    @Override
+    public double getDefuzzifiedCentroid(int numberOfDiscretizations)
+    {
+        double centroid = getCentroid();
+        if(Double.isNaN(centroid)) return 0.0;
+        return centroid;
+    }
+
+    /**
+     * Returns the center of the points of highest membership.
+     */
+    @Override
+    public double getPeak()
+    {
+        int first = 0, last = 0;
+        for(int i=1;i<ys.length;i++)
+        {
+            if(ys[i]>ys[first]) { first = i; last = i; }
+            else if(ys[i]==ys[first]) last = i;
+        }
+        return (xs[first]+xs[last])/2.0;
+    }
+
+    /**
+     * Returns the interval where the membership is at least alpha, the
+     * degenerate cut [0,0] if no point of the set reaches alpha (as
+     * T1MF_Discretized).
+     */
+    @Override
+    public Tuple getAlphaCut(double alpha)
+    {
+        int first = -1, last = -1;
+        for(int i=0;i<ys.length;i++)
+        {
+            if(ys[i]>=alpha)
+            {
+                if(first<0) first = i;
+                last = i;
+            }
+        }
+        if(first<0)
+            return new Tuple(0.0, 0.0);
+        double left = xs[first], right = xs[last];
+        if(first>0 && xs[first]>xs[first-1])
+            left = xs[first-1]+(alpha-ys[first-1])*(xs[first]-xs[first-1])/(ys[first]-ys[first-1]);
+        if(last<xs.length-1 && xs[last+1]>xs[last])
+            right = xs[last]+(ys[last]-alpha)*(xs[last+1]-xs[last])/(ys[last]-ys[last+1]);
+        return new Tuple(left, right);
+    }
+
+    @Override
+    public String toString()
+    {
+        String s = name+"  -  ";
+        for(int i=0;i<xs.length;i++)
+            s += "("+xs[i]+", "+ys[i]+") ";
+        return s;
+    }
+
+    @Override
+    public int compareTo(Object o)
+    {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    /**
+     * Growable list of breakpoints which drops repeated points and interior
+     * points of flat segments.
+     */
+    private static class Points
+    {
+        double[] x, y;
+        int n;
+
+        Points(int capacity)
+        {
+            x = new double[Math.max(capacity, 2)];
+            y = new double[x.length];
+        }
+
+        void add(double px, double py)
+        {
+            if(n>0 && x[n-1]==px && y[n-1]==py)
+                return;
+            if(n>1 && y[n-1]==py && y[n-2]==py && x[n-2]<x[n-1] && x[n-1]<px)
+            {
+                x[n-1] = px;    //extends a flat segment
+                return;
+            }
+            if(n==x.length)
+            {
+                x = Arrays.copyOf(x, 2*n);
+                y = Arrays.copyOf(y, 2*n);
+            }
+            x[n] = px;
+            y[n] = py;
+            n++;
+        }
+
+        /**
+         * Drops leading and trailing breakpoints with a membership of 0 which
+         * do not start or end a segment.
+         */
+        void trim()
+        {
+            int start = 0, end = n;
+            while(end-start>1 && y[start]==0.0 && y[start+1]==0.0) start++;
+            while(end-start>1 && y[end-1]==0.0 && y[end-2]==0.0) end--;
+            if(start>0)
+            {
+                System.arraycopy(x, start, x, 0, end-start);
+                System.arraycopy(y, start, y, 0, end-start);
+            }
+            n = end-start;
+        }
+    }
+}
@@ -9,13 +9,14 @@
 
 package type1.sets;
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 
 /**
  * Membership Function represented by a single double value - for example heavily used in TSK/Anfis for consequents.
  * @author Christian Wagner
  */
-public class T1MF_Singleton extends T1MF_Prototype
+public class T1MF_Singleton extends T1MF_Prototype implements MF_Shiftable
 {
     private double value;
     
@@ -46,6 +47,20 @@ public class T1MF_Singleton extends T1MF_Prototype
         return value;
     }
 
+    /**
+     * Moves the singleton to the given value.
+     * @param x The new value.
+     */
+    public void shiftTo(double x)
+    {
+        this.value = x;
+        if(support!=null)
+        {
+            support.setLeft(x);
+            support.setRight(x);
+        }
+    }
+
     public double getFS(double x) 
     {
         if (x==value) return 1.0;
@@ -8,6 +8,7 @@
 
 package type1.sets;
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 
 /**
@@ -17,12 +18,11 @@ import generic.Tuple;
  * as well as non-normal MFs where this membership can be specified freely.
  * @author Christian Wagner
  */
-public class T1MF_Trapezoidal extends T1MF_Prototype
+public class T1MF_Trapezoidal extends T1MF_Prototype implements MF_Shiftable
 {
     private double a, b, c, d;
     private double lS = Double.NaN, rS = Double.NaN;    //left and right "leg" slope
     private double lI = Double.NaN, rI = Double.NaN;    //left and right "leg" intercept    
-    private double output;
     private double peak = Double.NaN;    //peak is generally defined as the avg of b and c,
     //however as part of some applications this may be changed using the setPeak() method.
 
@@ -71,6 +71,7 @@ public class T1MF_Trapezoidal extends T1MF_Prototype
         if(isLeftShoulder && x<=c) return 1.0;
         if(isRightShoulder && x>=b) return 1.0;
         
+        double output;
         if(x<b && x>a)
         {
             output = yLevels[0]*(x-a)/(b-a);
@@ -143,6 +144,28 @@ public class T1MF_Trapezoidal extends T1MF_Prototype
         this.peak = peak;
     }
 
+    /**
+     * Moves the MF so that the average of b and c lies on x, offsetting all
+     * four parameters by the same distance. The support is updated in place
+     * and a peak set using setPeak() is reset.
+     * @param x The new average of b and c.
+     */
+    public void shiftTo(double x)
+    {
+        double offset = x-(b+c)/2;
+        a = a + offset;
+        b = b + offset;
+        c = c + offset;
+        d = d + offset;
+        support.setLeft(a);
+        support.setRight(d);
+        peak = Double.NaN;
+        lS = Double.NaN;    //the legs are recomputed when needed
+        rS = Double.NaN;
+        lI = Double.NaN;
+        rI = Double.NaN;
+    }
+
     /**
      * Retrieves the yLevels of the second and third parameters (points B and C)
      * This is useful for non-normal MFs.
@@ -10,14 +10,14 @@
 package type1.sets;
 
 
+import generic.MF_Shiftable;
 import generic.Tuple;
 
-public class T1MF_Triangular extends T1MF_Prototype
+public class T1MF_Triangular extends T1MF_Prototype implements MF_Shiftable
 {
     private double start, peak, end;
     private double lS = Double.NaN, rS = Double.NaN;    //left and right "leg" slope
     private double lI = Double.NaN, rI = Double.NaN;    //left and right "leg" intercept
-    private double output;
 
     public T1MF_Triangular(String n, double start, double peak, double end)
     {
@@ -35,6 +35,7 @@ public class T1MF_Triangular extends T1MF_Prototype
         if(isLeftShoulder && x<=peak) return 1.0;
         if(isRightShoulder && x>=peak) return 1.0;
         
+        double output;
         if(x<peak && x>start)
         { output=(x-start)/(peak-start); }
         else if(x==peak)
@@ -60,6 +61,24 @@ public class T1MF_Triangular extends T1MF_Prototype
     {
             return end;
     } 
+
+    /**
+     * Moves the peak to x, offsetting start and end by the same distance.
+     * The support is updated in place.
+     * @param x The new peak.
+     */
+    public void shiftTo(double x)
+    {
+        start = start+(x-peak);
+        end = end+(x-peak);
+        peak = x;
+        support.setLeft(start);
+        support.setRight(end);
+        lS = Double.NaN;    //the legs are recomputed when needed
+        rS = Double.NaN;
+        lI = Double.NaN;
+        rI = Double.NaN;
+    }
     
     @Override
     public String toString()
@@ -6,6 +6,7 @@
  */
 package type1.sets;
 
+import generic.BadParameterException;
 import generic.Tuple;
 
 /**
@@ -30,15 +31,69 @@ public class T1MF_Union extends T1MF_Prototype
         return Math.max(setA.getFS(x), setB.getFS(x));
     }
 
+    public T1MF_Interface getSetA()
+    {
+        return setA;
+    }
+
+    public T1MF_Interface getSetB()
+    {
+        return setB;
+    }
+
+    /**
+     * Returns this set as the exact max of its compiled sets over its support,
+     * or null if one of the sets is not piecewise-linear (e.g. Gaussian).
+     */
+    private T1MF_PiecewiseLinear compile()
+    {
+        if(support.getLeft()>support.getRight())
+            return null;
+        try
+        {
+            return T1MF_PiecewiseLinear.compile(this, support);
+        }
+        catch(BadParameterException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the centroid computed in closed form if both sets are
+     * piecewise-linear (see T1MF_PiecewiseLinear.getCentroid()); otherwise the
+     * set is sampled at the given number of discretizations.
+     */
+    @Override
+    public double getDefuzzifiedCentroid(int numberOfDiscretizations)
+    {
+        T1MF_PiecewiseLinear pl = compile();
+        if(pl==null)
+            return super.getDefuzzifiedCentroid(numberOfDiscretizations);
+        return pl.getDefuzzifiedCentroid(numberOfDiscretizations);
+    }
+
+    /**
+     * Only supported if both sets are piecewise-linear.
+     */
     @Override
     public Tuple getAlphaCut(double alpha) 
     {
-        throw new UnsupportedOperationException("Not supported yet.");        
+        T1MF_PiecewiseLinear pl = compile();
+        if(pl==null)
+            throw new UnsupportedOperationException("Not supported yet.");        
+        return pl.getAlphaCut(alpha);
     }
 
+    /**
+     * Only supported if both sets are piecewise-linear.
+     */
     @Override
     public double getPeak() {
-        throw new UnsupportedOperationException("Not supported yet.");
+        T1MF_PiecewiseLinear pl = compile();
+        if(pl==null)
+            throw new UnsupportedOperationException("Not supported yet.");
+        return pl.getPeak();
     }
 
     @Override
@@ -12,6 +12,7 @@ import generic.Input;
 
 import java.io.Serializable;
 
+import type1.sets.T1Engine_SupStar;
 import type1.sets.T1MF_Gauangle;
 import type1.sets.T1MF_Gaussian;
 import type1.sets.T1MF_Interface;
@@ -28,6 +29,12 @@ public class T1_Antecedent implements Comparable, Serializable
     private Input input;
     private T1MF_Interface mF;  //the membership function consituting this antecedent
     
+    private static final T1Engine_SupStar SUPSTAR = new T1Engine_SupStar();
+    //cache of the last non-singleton maximisation, see getMax()
+    private transient T1MF_Interface cachedInputMF, cachedMF;
+    private transient double cachedInputValue, cachedXmax;
+    private transient int cachedTNorm;
+    
     /**
      * Creates a new instance of Antecedent 
      * @param mF The actual membership function to associated with this antecedent.
@@ -91,6 +98,24 @@ public class T1_Antecedent implements Comparable, Serializable
     {
         return mF.getFS(input.getInput());
     }
+
+    /**
+     * Returns the degree to which the current input satisfies the antecedent:
+     * the membership grade of the input for singleton inputs, the sup of the
+     * t-norm between input MF and antecedent MF for non-singleton inputs.
+     * @param tNorm Either product (0) or minimum (1).
+     * @return The membership grade
+     */
+    public double getFS(byte tNorm)
+    {
+        if (input.getInputMF() instanceof T1MF_Singleton)
+            return getFS();
+        double xmax = getMax(tNorm);
+        if (tNorm==0)
+            return ((T1MF_Interface) input.getInputMF()).getFS(xmax)*mF.getFS(xmax);
+        else
+            return Math.min(((T1MF_Interface) input.getInputMF()).getFS(xmax),mF.getFS(xmax));
+    }
     
     /**
      * Returns the arg sup of the t-norm between the membership function of the antecedent and the 
@@ -116,26 +141,19 @@ public class T1_Antecedent implements Comparable, Serializable
     				xmax = (sigmaX*meanF + sigmaF*meanX)/(sigmaX + sigmaF);
     			}
     			
-    	} else { //Maximisation with discretisation
-    	
-    		double valxmax = 0;
-    		double domain = this.input.getDomain().getRight() - this.input.getDomain().getLeft();
-    		double incr = domain/(domain*50);
-    		double x = 0;
-    		double temp = 0;
-    		for (int i=0;i<=domain*50;i++) {
-    			if (tNorm ==0) {//PRODUCT
-    				temp = ((T1MF_Interface) this.input.getInputMF()).getFS(x)*this.getMF().getFS(x);
-    			} else { //MINIMUM
-    				temp = Math.min(((T1MF_Interface) this.input.getInputMF()).getFS(x),this.getMF().getFS(x));
-    			}
-    			if (temp >= valxmax){
-    				valxmax = temp;
-    				xmax = x;
-    			}
-    			x = x + incr;
-
+    	} else { //exact/golden-section maximisation (see T1Engine_SupStar)
+    		T1MF_Interface inputMF = (T1MF_Interface) this.input.getInputMF();
+    		//the maximum only changes with the input (set and value), the antecedent MF and the t-norm,
+    		//so rules sharing this antecedent reuse it
+    		if (inputMF == cachedInputMF && this.input.getInput() == cachedInputValue && this.mF == cachedMF && tNorm == cachedTNorm) {
+    			return cachedXmax;
     		}
+    		xmax = SUPSTAR.getArgSup(inputMF, this.getMF(), tNorm, this.input.getDomain());
+    		cachedInputMF = inputMF;
+    		cachedInputValue = this.input.getInput();
+    		cachedMF = this.mF;
+    		cachedTNorm = tNorm;
+    		cachedXmax = xmax;
     	}
     	
     	
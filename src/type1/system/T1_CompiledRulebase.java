@@ -0,0 +1,399 @@
+/*
+ * T1_CompiledRulebase.java
+ *
+ * Created on 17 October 2026
+ */
+package type1.system;
+
+import generic.ArrayKernels;
+import generic.BadParameterException;
+import generic.Input;
+import generic.Output;
+import generic.RuleActivationIndex;
+import generic.Tuple;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_Singleton;
+import type1.sets.T1MF_Trapezoidal;
+import type1.sets.T1MF_Triangular;
+
+/**
+ * A compiled, allocation-free evaluation mode for a T1_Rulebase.
+ * The rules are flattened into primitive arrays: antecedent MF parameters (for
+ * trapezoidal and triangular MFs, other MFs are called directly; an antecedent
+ * shared by several rules is stored and evaluated once), the input
+ * each antecedent refers to, and the consequent MFs sampled over the
+ * discretised domain of their output. Evaluation takes the crisp inputs as a
+ * positional array (in the order of getInputs()) and writes one value per
+ * output (in the order of getOutputs()) into a caller supplied array. Only
+ * the rules whose antecedents all contain the input are evaluated (see
+ * RuleActivationIndex).
+ * <p>
+ * The compiled form is a snapshot: changes made to the rulebase, its MFs or the
+ * discretisation of its outputs afterwards are not reflected. Only singleton
+ * (crisp) inputs are supported. An instance keeps its own scratch buffers and
+ * is therefore not thread safe.
+ * The results are identical to those of T1_Rulebase.evaluate().
+ */
+public class T1_CompiledRulebase
+{
+    private static final byte MF_OTHER = 0;
+    private static final byte MF_TRAPEZOIDAL = 1;
+    private static final byte MF_TRIANGULAR = 2;
+    private static final int MF_PARAMS = 8;     //a,b,c,d,yLevel0,yLevel1,leftShoulder,rightShoulder
+
+    private final byte PRODUCT = 0;
+    private final byte MINIMUM = 1;
+
+    private final byte inferenceMethod;
+    private final byte implicationMethod;
+
+    private final Input[] inputs;
+    private final double[] inputMin, inputMax;
+    private final Output[] outputs;
+
+    //rules -> antecedents; antecedents shared between rules are stored (and evaluated) once
+    private final int numberOfRules;
+    private final int[] ruleAntecedentStart;    //antecedents of rule r: ruleAntecedents[ruleAntecedentStart[r]..ruleAntecedentStart[r+1]-1]
+    private final int[] ruleAntecedents;        //index of each antecedent of each rule into the per-antecedent arrays
+    private final int[] antecedentInput;        //position of the input of each antecedent
+    private final byte[] antecedentKind;
+    private final double[] antecedentParams;    //MF_PARAMS per antecedent
+    private final T1MF_Interface[] antecedentMF; //only used for MF_OTHER
+    private final RuleActivationIndex activationIndex;
+
+    //rules -> consequents
+    private final int[] ruleConsequentStart;
+    private final int[] consequentOutput;       //index into outputs
+    private final int[] consequentGradeStart;   //offset of the sampled MF in consequentGrades
+    private final double[] consequentGrades;
+    private final double[] consequentPeaks;
+
+    //outputs
+    private final int[] outputGridStart;        //offset of each output in outputGrid/aggregatedSets
+    private final int[] outputDiscretisation;
+    private final double[] outputGrid;
+
+    //scratch buffers
+    private final double[] antecedentGrades;
+    private final boolean[] activeAntecedents;
+    private final int[] candidateRules;
+    private int numberOfCandidates;
+    private final double[] fStrengths;
+    private final double[] aggregatedSets;
+
+    /**
+     * Flattens the given rules.
+     * @param rules The rules of the rulebase.
+     * @param ruleOutputs The outputs of the rulebase, in the order the results are to be returned.
+     * @param inferenceMethod 0 (product) or 1 (minimum).
+     * @param implicationMethod 0 (product) or 1 (minimum).
+     */
+    T1_CompiledRulebase(T1_Rule[] rules, Set<Output> ruleOutputs, byte inferenceMethod, byte implicationMethod)
+    {
+        if(rules.length==0)
+            throw new BadParameterException("Cannot compile a rulebase without rules.");
+        this.inferenceMethod = inferenceMethod;
+        this.implicationMethod = implicationMethod;
+        this.numberOfRules = rules.length;
+
+        //inputs, in the order of the antecedents of the first rule
+        this.inputs = rules[0].getInputs();
+        inputMin = new double[inputs.length];
+        inputMax = new double[inputs.length];
+        for(int i=0;i<inputs.length;i++)
+        {
+            if(!(inputs[i].getInputMF() instanceof T1MF_Singleton))
+                throw new BadParameterException("The compiled rulebase only supports singleton inputs, input "+inputs[i].getName()+" is non-singleton.");
+            inputMin[i] = inputs[i].getDomain().getLeft();
+            inputMax[i] = inputs[i].getDomain().getRight();
+        }
+
+        //outputs and their discretised domains
+        outputs = new Output[ruleOutputs.size()];
+        ruleOutputs.toArray(outputs);
+        outputGridStart = new int[outputs.length+1];
+        outputDiscretisation = new int[outputs.length];
+        for(int o=0;o<outputs.length;o++)
+        {
+            outputDiscretisation[o] = outputs[o].getDiscretisationLevel();
+            outputGridStart[o+1] = outputGridStart[o]+outputDiscretisation[o];
+        }
+        outputGrid = new double[outputGridStart[outputs.length]];
+        for(int o=0;o<outputs.length;o++)
+            System.arraycopy(outputs[o].getDiscretizations(), 0, outputGrid, outputGridStart[o], outputDiscretisation[o]);
+        aggregatedSets = new double[Math.max(outputGrid.length, 2*outputs.length)];
+
+        //antecedents
+        IdentityHashMap<T1_Antecedent, Integer> antecedentIds = new IdentityHashMap();
+        int numberOfRuleAntecedents = 0, numberOfConsequents = 0, numberOfGrades = 0;
+        for(int r=0;r<numberOfRules;r++)
+        {
+            T1_Antecedent[] ants = rules[r].getAntecedents();
+            numberOfRuleAntecedents += ants.length;
+            for(int i=0;i<ants.length;i++)
+                if(!antecedentIds.containsKey(ants[i]))
+                    antecedentIds.put(ants[i], antecedentIds.size());
+            T1_Consequent[] cons = rules[r].getConsequents();
+            numberOfConsequents += cons.length;
+            for(int c=0;c<cons.length;c++)
+                numberOfGrades += cons[c].getOutput().getDiscretisationLevel();
+        }
+        int numberOfAntecedents = antecedentIds.size();
+        antecedentInput = new int[numberOfAntecedents];
+        antecedentKind = new byte[numberOfAntecedents];
+        antecedentParams = new double[numberOfAntecedents*MF_PARAMS];
+        antecedentMF = new T1MF_Interface[numberOfAntecedents];
+        Tuple[] activationIntervals = new Tuple[numberOfAntecedents];
+        for(T1_Antecedent ant : antecedentIds.keySet())
+        {
+            int a = antecedentIds.get(ant);
+            antecedentInput[a] = indexOf(inputs, ant.getInput());
+            if(antecedentInput[a]<0)
+                throw new BadParameterException("All rules of a compiled rulebase must use the inputs of the first rule.");
+            compileMF(a, ant.getMF());
+            activationIntervals[a] = RuleActivationIndex.getActivationInterval(ant.getMF());
+        }
+        ruleAntecedentStart = new int[numberOfRules+1];
+        ruleAntecedents = new int[numberOfRuleAntecedents];
+        int[][] antecedentsOfRule = new int[numberOfRules][];
+        int ra = 0;
+        for(int r=0;r<numberOfRules;r++)
+        {
+            ruleAntecedentStart[r] = ra;
+            T1_Antecedent[] ants = rules[r].getAntecedents();
+            antecedentsOfRule[r] = new int[ants.length];
+            for(int i=0;i<ants.length;i++)
+            {
+                antecedentsOfRule[r][i] = antecedentIds.get(ants[i]);
+                ruleAntecedents[ra++] = antecedentsOfRule[r][i];
+            }
+        }
+        ruleAntecedentStart[numberOfRules] = ra;
+        activationIndex = new RuleActivationIndex(inputs.length, antecedentInput, activationIntervals, antecedentsOfRule);
+
+        //consequents, sampled over the discretised domain of their output
+        ruleConsequentStart = new int[numberOfRules+1];
+        consequentOutput = new int[numberOfConsequents];
+        consequentGradeStart = new int[numberOfConsequents];
+        consequentGrades = new double[numberOfGrades];
+        consequentPeaks = new double[numberOfConsequents];
+        int c = 0, g = 0;
+        for(int r=0;r<numberOfRules;r++)
+        {
+            ruleConsequentStart[r] = c;
+            Iterator<T1_Consequent> it = rules[r].getConsequentsIterator();
+            while(it.hasNext())
+            {
+                T1_Consequent con = it.next();
+                consequentOutput[c] = indexOf(outputs, con.getOutput());
+                consequentGradeStart[c] = g;
+                consequentPeaks[c] = con.getMF().getPeak();
+                double[] sampledMF = con.getSampledMF();
+                System.arraycopy(sampledMF, 0, consequentGrades, g, sampledMF.length);
+                g += sampledMF.length;
+                c++;
+            }
+        }
+        ruleConsequentStart[numberOfRules] = c;
+
+        antecedentGrades = new double[numberOfAntecedents];
+        activeAntecedents = new boolean[numberOfAntecedents];
+        candidateRules = new int[activationIndex.getCandidateBufferSize()];
+        fStrengths = new double[numberOfRules];
+    }
+
+    private static int indexOf(Object[] array, Object o)
+    {
+        for(int i=0;i<array.length;i++)
+            if(array[i]==o) return i;
+        return -1;
+    }
+
+    private void compileMF(int a, T1MF_Interface mf)
+    {
+        int p = a*MF_PARAMS;
+        if(mf instanceof T1MF_Trapezoidal)
+        {
+            T1MF_Trapezoidal t = (T1MF_Trapezoidal)mf;
+            antecedentKind[a] = MF_TRAPEZOIDAL;
+            antecedentParams[p] = t.getA();
+            antecedentParams[p+1] = t.getB();
+            antecedentParams[p+2] = t.getC();
+            antecedentParams[p+3] = t.getD();
+            antecedentParams[p+4] = t.getyLevels()[0];
+            antecedentParams[p+5] = t.getyLevels()[1];
+        }
+        else if(mf instanceof T1MF_Triangular)
+        {
+            T1MF_Triangular t = (T1MF_Triangular)mf;
+            antecedentKind[a] = MF_TRIANGULAR;
+            antecedentParams[p] = t.getStart();
+            antecedentParams[p+1] = t.getPeak();
+            antecedentParams[p+2] = t.getEnd();
+        }
+        else
+        {
+            antecedentKind[a] = MF_OTHER;
+            antecedentMF[a] = mf;
+        }
+        antecedentParams[p+6] = mf.isLeftShoulder() ? 1.0 : 0.0;
+        antecedentParams[p+7] = mf.isRightShoulder() ? 1.0 : 0.0;
+    }
+
+    /**
+     * Degree of membership of x in antecedent a; mirrors T1MF_Trapezoidal.getFS()
+     * and T1MF_Triangular.getFS().
+     */
+    private double getAntecedentFS(int a, double x)
+    {
+        int p = a*MF_PARAMS;
+        double[] mp = antecedentParams;
+        double output;
+        switch(antecedentKind[a])
+        {
+            case MF_TRAPEZOIDAL:
+                if(mp[p+6]!=0.0 && x<=mp[p+2]) return 1.0;
+                if(mp[p+7]!=0.0 && x>=mp[p+1]) return 1.0;
+                double ta = mp[p], tb = mp[p+1], tc = mp[p+2], td = mp[p+3], y0 = mp[p+4], y1 = mp[p+5];
+                if(x<tb && x>ta)
+                    output = y0*(x-ta)/(tb-ta);
+                else if(x>=tb && x<=tc)
+                {
+                    if(y0==y1)
+                        output = y0;
+                    else
+                        output = (y1*x-y0*x-y1*tb+y0*tb)/(tc-tb)+y0;
+                    if(output<0) output=0;
+                }
+                else if(x>tc && x<td)
+                    output = y1*(td-x)/(td-tc);
+                else
+                    output = 0.0;
+                if(Math.abs(1-output)<0.000001) output = 1.0;
+                if(Math.abs(output)<0.000001) output = 0.0;
+                return output;
+            case MF_TRIANGULAR:
+                double start = mp[p], peak = mp[p+1], end = mp[p+2];
+                if(mp[p+6]!=0.0 && x<=peak) return 1.0;
+                if(mp[p+7]!=0.0 && x>=peak) return 1.0;
+                if(x<peak && x>start)
+                    return (x-start)/(peak-start);
+                else if(x==peak)
+                    return 1.0;
+                else if(x>peak && x<end)
+                    return (end-x)/(end-peak);
+                return 0.0;
+            default:
+                return antecedentMF[a].getFS(x);
+        }
+    }
+
+    /**
+     * Evaluates the rulebase.
+     * @param inputValues The crisp inputs, in the order of getInputs().
+     * @param defuzzificationType 0-Height Defuzzification, 1-Centroid Defuzzification.
+     * @param results Receives one defuzzified value per output, in the order of getOutputs().
+     */
+    public void evaluate(double[] inputValues, int defuzzificationType, double[] results)
+    {
+        for(int i=0;i<inputs.length;i++)
+            if(!(inputValues[i]>=inputMin[i] && inputValues[i]<=inputMax[i]))
+                throw new BadParameterException("The input for "+inputs[i].getName()+" ("+inputValues[i]+") is outside its domain.");
+
+        //rules which can fire, i.e. whose antecedents all contain the input
+        numberOfCandidates = activationIndex.getCandidateRules(inputValues, activeAntecedents, candidateRules);
+
+        //membership grades, once per distinct antecedent
+        for(int a=0;a<antecedentGrades.length;a++)
+            antecedentGrades[a] = activeAntecedents[a] ? getAntecedentFS(a, inputValues[antecedentInput[a]]) : 0.0;
+
+        //firing strengths
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            double fStrength = 1.0;
+            for(int i=ruleAntecedentStart[r];i<ruleAntecedentStart[r+1];i++)
+            {
+                if(implicationMethod==PRODUCT)
+                    fStrength *= antecedentGrades[ruleAntecedents[i]];
+                else
+                    fStrength = Math.min(fStrength, antecedentGrades[ruleAntecedents[i]]);
+            }
+            fStrengths[r] = fStrength;
+        }
+
+        if(defuzzificationType==0)
+            heightDefuzzification(results);
+        else if(defuzzificationType==1)
+            centroidDefuzzification(results);
+        else
+            throw new BadParameterException("The T1 evaluate() method only supports height defuzzification (0) and centroid defuzzification (1).");
+    }
+
+    private void centroidDefuzzification(double[] results)
+    {
+        Arrays.fill(aggregatedSets, 0.0);
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            double fStrength = fStrengths[r];
+            for(int c=ruleConsequentStart[r];c<ruleConsequentStart[r+1];c++)
+            {
+                int o = consequentOutput[c];
+                if(inferenceMethod==PRODUCT)
+                    ArrayKernels.maxProduct(aggregatedSets, outputGridStart[o], consequentGrades, consequentGradeStart[c], fStrength, outputDiscretisation[o]);
+                else
+                    ArrayKernels.maxMin(aggregatedSets, outputGridStart[o], consequentGrades, consequentGradeStart[c], fStrength, outputDiscretisation[o]);
+            }
+        }
+
+        for(int o=0;o<outputs.length;o++)
+        {
+            results[o] = ArrayKernels.dot(outputGrid, aggregatedSets, outputGridStart[o], outputDiscretisation[o])
+                    / ArrayKernels.sum(aggregatedSets, outputGridStart[o], outputDiscretisation[o]);
+        }
+    }
+
+    private void heightDefuzzification(double[] results)
+    {
+        //aggregatedSets[2*o] holds the numerator, [2*o+1] the denominator of output o
+        Arrays.fill(aggregatedSets, 0, 2*outputs.length, 0.0);
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            for(int c=ruleConsequentStart[r];c<ruleConsequentStart[r+1];c++)
+            {
+                int o = consequentOutput[c];
+                aggregatedSets[2*o] = aggregatedSets[2*o] + fStrengths[r]*consequentPeaks[c];
+                aggregatedSets[2*o+1] = aggregatedSets[2*o+1] + fStrengths[r];
+            }
+        }
+        for(int o=0;o<outputs.length;o++)
+            results[o] = aggregatedSets[2*o]/aggregatedSets[2*o+1];
+    }
+
+    /**
+     * Returns the inputs in the order expected by evaluate().
+     */
+    public Input[] getInputs()
+    {
+        return inputs.clone();
+    }
+
+    /**
+     * Returns the outputs in the order in which evaluate() returns their values.
+     */
+    public Output[] getOutputs()
+    {
+        return outputs.clone();
+    }
+
+    public int getNumberOfRules()
+    {
+        return numberOfRules;
+    }
+}
@@ -11,6 +11,7 @@ package type1.system;
 import generic.Output;
 import java.io.Serializable;
 import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_PiecewiseLinear;
 
 /**
  * Consequent for a fuzzy rule of a Type-1 Fuzzy System.
@@ -21,6 +22,8 @@ public class T1_Consequent implements Serializable
     private String name;
     private T1MF_Interface mF;
     private Output output;
+    private transient volatile Buffered<double[]> sampledMF;   //buffered degrees of membership over the discretised output domain
+    private transient volatile Buffered<T1MF_PiecewiseLinear> piecewiseLinearMF;   //buffered piecewise-linear form over the output domain
     
     public T1_Consequent(T1MF_Interface mF, Output output)
     {
@@ -41,6 +44,8 @@ public class T1_Consequent implements Serializable
     public void setMF(T1MF_Interface mF)
     {
         this.mF = mF;
+        this.sampledMF = null;
+        this.piecewiseLinearMF = null;
     }
     
     /**
@@ -57,6 +62,52 @@ public class T1_Consequent implements Serializable
 
     public void setOutput(Output output) {
         this.output = output;
+        this.sampledMF = null;
+        this.piecewiseLinearMF = null;
+    }
+
+    /**
+     * Returns the degrees of membership of the consequent MF at each point of
+     * output.getDiscretizations(). The values are computed once and buffered
+     * until the MF, the output or the output's domain/discretisation level
+     * change. The returned array must not be modified.
+     * Note that changes made to the parameters of the MF object itself are not
+     * detected - use setMF() after modifying an MF.
+     * The array is only published once it is filled, so it can be read by
+     * several threads.
+     */
+    public double[] getSampledMF()
+    {
+        Buffered<double[]> b = sampledMF;
+        int modification = output.getModificationCount();
+        if(b==null || b.modification!=modification)
+        {
+            double[] xs = output.getDiscretizations();
+            double[] samples = new double[xs.length];
+            for(int i=0;i<xs.length;i++)
+                samples[i] = mF.getFS(xs[i]);
+            b = new Buffered<double[]>(samples, modification);
+            sampledMF = b;
+        }
+        return b.value;
+    }
+
+    /**
+     * Returns the consequent MF compiled into a piecewise-linear MF over the
+     * domain of the output (see T1MF_PiecewiseLinear.compile()). The set is
+     * compiled once and buffered like the sampled MF.
+     * A BadParameterException is thrown if the MF is not piecewise-linear (e.g. Gaussian).
+     */
+    public T1MF_PiecewiseLinear getPiecewiseLinearMF()
+    {
+        Buffered<T1MF_PiecewiseLinear> b = piecewiseLinearMF;
+        int modification = output.getModificationCount();
+        if(b==null || b.modification!=modification)
+        {
+            b = new Buffered<T1MF_PiecewiseLinear>(T1MF_PiecewiseLinear.compile(mF, output.getDomain()), modification);
+            piecewiseLinearMF = b;
+        }
+        return b.value;
     }
     
     public String getName()
@@ -73,4 +124,20 @@ public class T1_Consequent implements Serializable
     {
         return "Consequent with MF: "+ mF.toString();
     }    
+
+    /**
+     * A buffered value together with the modification count of the output it
+     * was computed at; both are final, so the pair is published as a whole.
+     */
+    private static final class Buffered<T>
+    {
+        final T value;
+        final int modification;
+
+        Buffered(T value, int modification)
+        {
+            this.value = value;
+            this.modification = modification;
+        }
+    }
 }
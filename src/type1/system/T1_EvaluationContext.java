@@ -0,0 +1,233 @@
+/*
+ * T1_EvaluationContext.java
+ *
+ * Created on 17 October 2026
+ */
+package type1.system;
+
+import generic.ArrayKernels;
+import generic.BadParameterException;
+import generic.Input;
+import generic.Output;
+import generic.RuleActivationIndex;
+import generic.Tuple;
+import java.util.Arrays;
+import java.util.Iterator;
+import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_Singleton;
+
+/**
+ * Per-thread state for T1_Rulebase.evaluate(double[], int, T1_EvaluationContext, double[]).
+ * A context is created by T1_Rulebase.createEvaluationContext() and holds a
+ * snapshot of the rules (antecedent MFs, the consequent MFs sampled over their
+ * output, the inference and implication methods) together with all scratch
+ * buffers needed for one evaluation. The output grids and sampled consequents
+ * are computed when the context is created; evaluating through the context then
+ * only calls getFS() on the antecedent MFs, which keep no state between calls,
+ * and writes to the buffers of the context. Any number of threads can therefore
+ * evaluate the same rulebase concurrently as long as each uses its own context.
+ * <p>
+ * Changes made to the rulebase after the context has been created are not
+ * reflected - create a new context. Only singleton (crisp) inputs are supported.
+ */
+public class T1_EvaluationContext
+{
+    private final byte PRODUCT = 0;
+
+    final T1_Rulebase rulebase;
+    private final byte inferenceMethod;
+    private final byte implicationMethod;
+
+    private final Input[] inputs;
+    private final double[] inputMin, inputMax;
+    private final Output[] outputs;
+    private final double[][] outputGrid;
+
+    //distinct antecedents and, per rule, their positions
+    private final T1MF_Interface[] antecedentMF;
+    private final int[] antecedentInput;
+    private final int[][] ruleAntecedentIds;
+    private final RuleActivationIndex activationIndex;
+
+    //per rule and consequent
+    private final int[][] consequentOutput;
+    private final double[][][] consequentMF;    //sampled over the discretised domain of the output
+    private final double[][] consequentPeak;
+
+    //scratch buffers
+    private final double[] antecedentGrades;
+    private final boolean[] activeAntecedents;
+    private final int[] candidateRules;
+    private int numberOfCandidates;
+    private final double[] fStrengths;
+    private final double[][] aggregatedSets;
+    private final double[] numerators, denominators;
+
+    T1_EvaluationContext(T1_Rulebase rulebase, T1_Rule[] rules, T1_Antecedent[] uniqueAntecedents, int[][] ruleAntecedentIds,
+            Output[] outputs, byte inferenceMethod, byte implicationMethod)
+    {
+        if(rules.length==0)
+            throw new BadParameterException("Cannot create an evaluation context for a rulebase without rules.");
+        this.rulebase = rulebase;
+        this.inferenceMethod = inferenceMethod;
+        this.implicationMethod = implicationMethod;
+        this.ruleAntecedentIds = ruleAntecedentIds;
+        this.outputs = outputs;
+
+        //inputs, in the order of the antecedents of the first rule
+        inputs = rules[0].getInputs();
+        inputMin = new double[inputs.length];
+        inputMax = new double[inputs.length];
+        for(int i=0;i<inputs.length;i++)
+        {
+            if(!(inputs[i].getInputMF() instanceof T1MF_Singleton))
+                throw new BadParameterException("Evaluation contexts only support singleton inputs, input "+inputs[i].getName()+" is non-singleton.");
+            inputMin[i] = inputs[i].getDomain().getLeft();
+            inputMax[i] = inputs[i].getDomain().getRight();
+        }
+
+        antecedentMF = new T1MF_Interface[uniqueAntecedents.length];
+        antecedentInput = new int[uniqueAntecedents.length];
+        Tuple[] activationIntervals = new Tuple[uniqueAntecedents.length];
+        for(int a=0;a<uniqueAntecedents.length;a++)
+        {
+            antecedentMF[a] = uniqueAntecedents[a].getMF();
+            antecedentInput[a] = indexOf(inputs, uniqueAntecedents[a].getInput());
+            if(antecedentInput[a]<0)
+                throw new BadParameterException("All rules must use the inputs of the first rule.");
+            activationIntervals[a] = RuleActivationIndex.getActivationInterval(antecedentMF[a]);
+        }
+        activationIndex = new RuleActivationIndex(inputs.length, antecedentInput, activationIntervals, ruleAntecedentIds);
+
+        outputGrid = new double[outputs.length][];
+        aggregatedSets = new double[outputs.length][];
+        for(int o=0;o<outputs.length;o++)
+        {
+            outputGrid[o] = outputs[o].getDiscretizations();
+            aggregatedSets[o] = new double[outputGrid[o].length];
+        }
+        numerators = new double[outputs.length];
+        denominators = new double[outputs.length];
+
+        consequentOutput = new int[rules.length][];
+        consequentMF = new double[rules.length][][];
+        consequentPeak = new double[rules.length][];
+        for(int r=0;r<rules.length;r++)
+        {
+            int n = rules[r].getNumberOfConsequents();
+            consequentOutput[r] = new int[n];
+            consequentMF[r] = new double[n][];
+            consequentPeak[r] = new double[n];
+            Iterator<T1_Consequent> it = rules[r].getConsequentsIterator();
+            for(int c=0;c<n;c++)
+            {
+                T1_Consequent con = it.next();
+                consequentOutput[r][c] = indexOf(outputs, con.getOutput());
+                consequentMF[r][c] = con.getSampledMF();
+                consequentPeak[r][c] = con.getMF().getPeak();
+            }
+        }
+
+        antecedentGrades = new double[uniqueAntecedents.length];
+        activeAntecedents = new boolean[uniqueAntecedents.length];
+        candidateRules = new int[activationIndex.getCandidateBufferSize()];
+        fStrengths = new double[rules.length];
+    }
+
+    private static int indexOf(Object[] array, Object o)
+    {
+        for(int i=0;i<array.length;i++)
+            if(array[i]==o) return i;
+        return -1;
+    }
+
+    /**
+     * Returns the inputs in the order expected by evaluate().
+     */
+    public Input[] getInputs()
+    {
+        return inputs.clone();
+    }
+
+    /**
+     * Returns the outputs in the order in which evaluate() returns their values.
+     */
+    public Output[] getOutputs()
+    {
+        return outputs.clone();
+    }
+
+    void evaluate(double[] inputValues, int defuzzificationType, double[] results)
+    {
+        if(defuzzificationType!=0 && defuzzificationType!=1)
+            throw new BadParameterException("The T1 evaluate() method only supports height defuzzification (0) and centroid defuzzification (1).");
+        for(int i=0;i<inputs.length;i++)
+            if(!(inputValues[i]>=inputMin[i] && inputValues[i]<=inputMax[i]))
+                throw new BadParameterException("The input for "+inputs[i].getName()+" ("+inputValues[i]+") is outside its domain.");
+
+        //only the rules whose antecedents all contain the input can fire
+        numberOfCandidates = activationIndex.getCandidateRules(inputValues, activeAntecedents, candidateRules);
+        for(int a=0;a<antecedentMF.length;a++)
+            antecedentGrades[a] = activeAntecedents[a] ? antecedentMF[a].getFS(inputValues[antecedentInput[a]]) : 0.0;
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            double fStrength = 1.0;
+            int[] ids = ruleAntecedentIds[r];
+            for(int i=0;i<ids.length;i++)
+            {
+                if(implicationMethod==PRODUCT)
+                    fStrength *= antecedentGrades[ids[i]];
+                else
+                    fStrength = Math.min(fStrength, antecedentGrades[ids[i]]);
+            }
+            fStrengths[r] = fStrength;
+        }
+
+        if(defuzzificationType==0)
+            heightDefuzzification(results);
+        else
+            centroidDefuzzification(results);
+    }
+
+    private void centroidDefuzzification(double[] results)
+    {
+        for(int o=0;o<outputs.length;o++)
+            Arrays.fill(aggregatedSets[o], 0.0);
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            for(int c=0;c<consequentOutput[r].length;c++)
+            {
+                double[] buffer = aggregatedSets[consequentOutput[r][c]];
+                if(inferenceMethod==PRODUCT)
+                    ArrayKernels.maxProduct(buffer, 0, consequentMF[r][c], 0, fStrengths[r], buffer.length);
+                else
+                    ArrayKernels.maxMin(buffer, 0, consequentMF[r][c], 0, fStrengths[r], buffer.length);
+            }
+        }
+        for(int o=0;o<outputs.length;o++)
+        {
+            results[o] = ArrayKernels.dot(outputGrid[o], aggregatedSets[o], 0, outputGrid[o].length)
+                    / ArrayKernels.sum(aggregatedSets[o], 0, outputGrid[o].length);
+        }
+    }
+
+    private void heightDefuzzification(double[] results)
+    {
+        Arrays.fill(numerators, 0.0);
+        Arrays.fill(denominators, 0.0);
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            for(int c=0;c<consequentOutput[r].length;c++)
+            {
+                int o = consequentOutput[r][c];
+                numerators[o] = numerators[o] + fStrengths[r]*consequentPeak[r][c];
+                denominators[o] = denominators[o] + fStrengths[r];
+            }
+        }
+        for(int o=0;o<outputs.length;o++)
+            results[o] = numerators[o]/denominators[o];
+    }
+}
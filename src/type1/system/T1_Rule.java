@@ -15,9 +15,6 @@ import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
 
-import type1.sets.T1MF_Gaussian;
-import type1.sets.T1MF_Interface;
-import type1.sets.T1MF_Singleton;
 
 /**
  * Rule for a Type-1 Fuzzy System.
@@ -132,35 +129,47 @@ public class T1_Rule implements Serializable
 
         if(tNorm==PRODUCT)
         {
-
             for(int i = 0;i<antecedents.length;i++)
             {
-            	if (antecedents[i].getInput().getInputMF() instanceof T1MF_Singleton) {
-            		if(DEBUG)System.out.println("Antecedent "+i+" gives a FS of: "+antecedents[i].getFS()+" with an input of: "+antecedents[i].getInput().getInput());
-            		fStrength*=antecedents[i].getFS();
-            	} else {
-            		double xmax = antecedents[i].getMax(0);
-            		fStrength *= ((T1MF_Interface) antecedents[i].getInput().getInputMF()).getFS(xmax)*antecedents[i].getMF().getFS(xmax);          
-            	}
+                if(DEBUG)System.out.println("Antecedent "+i+" gives a FS of: "+antecedents[i].getFS(tNorm)+" with an input of: "+antecedents[i].getInput().getInput());
+                fStrength*=antecedents[i].getFS(tNorm);
             }
         }
         else    //use minimum
         {
             for(int i = 0;i<antecedents.length;i++)
             {
-            	if (antecedents[i].getInput().getInputMF() instanceof T1MF_Singleton) {
-            		if(DEBUG)System.out.println("Antecedent "+i+" gives a FS of: "+antecedents[i].getFS()+" with an input of: "+antecedents[i].getInput().getInput());
-            		fStrength=Math.min(fStrength,antecedents[i].getFS());
-            	} else {
-            		double xmax = antecedents[i].getMax(1);
-            		fStrength = Math.min(fStrength,Math.min(((T1MF_Interface) antecedents[i].getInput().getInputMF()).getFS(xmax),antecedents[i].getMF().getFS(xmax)));
-            	}
+                if(DEBUG)System.out.println("Antecedent "+i+" gives a FS of: "+antecedents[i].getFS(tNorm)+" with an input of: "+antecedents[i].getInput().getInput());
+                fStrength=Math.min(fStrength,antecedents[i].getFS(tNorm));
             }
         } 
         
         return fStrength;
     }
 
+    /**
+     * Returns the rule's firing strength from precomputed antecedent grades.
+     * @param tNorm Either product (0) or minimum (1) is currently supported.
+     * @param grades The membership grades of the antecedents, see T1_Antecedent.getFS(byte).
+     * @param antecedentIds Position in grades of each antecedent of this rule.
+     * @return The firing strength.
+     */
+    public double getFStrength(byte tNorm, double[] grades, int[] antecedentIds)
+    {
+        double fStrength = 1.0;
+        if(tNorm==PRODUCT)
+        {
+            for(int i = 0;i<antecedentIds.length;i++)
+                fStrength*=grades[antecedentIds[i]];
+        }
+        else
+        {
+            for(int i = 0;i<antecedentIds.length;i++)
+                fStrength=Math.min(fStrength,grades[antecedentIds[i]]);
+        }
+        return fStrength;
+    }
+
 
     @Override
     public String toString()
@@ -8,16 +8,24 @@
 
 package type1.system;
 
+import generic.ArrayKernels;
 import generic.BadParameterException;
 import generic.Input;
+import generic.LookupTable3D;
 import generic.Output;
+import generic.RuleActivationIndex;
+import generic.Tuple;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.Vector;
+import type1.sets.T1MF_Interface;
+import type1.sets.T1MF_PiecewiseLinear;
+import type1.sets.T1MF_Singleton;
 
 
  /**
@@ -33,6 +41,18 @@ public class T1_Rulebase implements Serializable
     private byte implicationMethod = 1;
     private HashMap<Output, double[]> outputSetBuffers; //a buffer for the discretised output sets (yLevels) of each output
     private TreeMap<Output, Double> outputBuffers;  //buffers the actual outputs of the rulebase (one per output)
+    //antecedents shared between rules are evaluated once per input vector, see updateFStrengths()
+    private transient T1_Antecedent[] uniqueAntecedents;  //null until (re)built
+    private transient int[][] ruleAntecedentIds;          //per rule, the positions of its antecedents in uniqueAntecedents
+    private transient double[] antecedentGrades;
+    //only the rules whose antecedents all contain the current input are evaluated, see RuleActivationIndex
+    private transient RuleActivationIndex activationIndex;
+    private transient Input[] indexInputs;
+    private transient T1MF_Interface[] indexedMFs;      //the antecedent MFs the index was built for
+    private transient double[] indexInputValues;
+    private transient boolean[] activeAntecedents;
+    private transient int[] candidateRules;
+    private transient int numberOfCandidates;
     
     private final byte PRODUCT = 0;
     private final byte MINIMUM = 1;    
@@ -59,6 +79,7 @@ public class T1_Rulebase implements Serializable
     public void addRule(T1_Rule r)
     {
         rules.addElement(r);
+        uniqueAntecedents = null;
         Iterator<T1_Consequent> it = r.getConsequentsIterator();
         T1_Consequent c;
         while(it.hasNext())
@@ -166,7 +187,8 @@ public class T1_Rulebase implements Serializable
     /**
      * Returns defuzzified result of evaluating all rules in the rulebase.
      * @param defuzzificationType The type of defuzzifier to be used: 0-Height 
-     * Defuzzification, 1-Centroid Defuzzification.
+     * Defuzzification, 1-Centroid Defuzzification, 2-Exact Centroid Defuzzification
+     * (piecewise-linear consequent MFs only, see exactCentroidDefuzzification()).
      * @param discretizationLevel The discretization level to be employed (only
      * applies to centroid defuzzification)
      */
@@ -176,8 +198,74 @@ public class T1_Rulebase implements Serializable
             return heightDefuzzification();
         else if (defuzzificationType==1)
             return centroidDefuzzification(); 
+        else if (defuzzificationType==2)
+            return exactCentroidDefuzzification();
         else
-            throw new BadParameterException("The T1 evaluate() method only supports height defuzzification (0) and centroid defuzzification (1).");
+            throw new BadParameterException("The T1 evaluate() method only supports height defuzzification (0), centroid defuzzification (1) and exact centroid defuzzification (2).");
+    }
+
+    /**
+     * Creates the per-thread state for evaluate(double[], int, T1_EvaluationContext, double[]).
+     * The context is a snapshot of the current rules; create a new one after
+     * changing the rulebase.
+     * @return A new evaluation context for this rulebase.
+     */
+    public synchronized T1_EvaluationContext createEvaluationContext()
+    {
+        if(uniqueAntecedents==null || ruleAntecedentIds.length!=rules.size())
+            buildAntecedentIndex();
+        return new T1_EvaluationContext(this, rules.toArray(new T1_Rule[rules.size()]), uniqueAntecedents, ruleAntecedentIds,
+                outputBuffers.keySet().toArray(new Output[outputBuffers.size()]), inferenceMethod, implicationMethod);
+    }
+
+    /**
+     * Reentrant evaluation: the crisp inputs are passed positionally and all
+     * intermediate results are kept in the given context, so neither the Input
+     * objects nor any other shared state are modified. Several threads can
+     * evaluate one rulebase at the same time, each with its own context.
+     * @param inputValues The crisp inputs, in the order of context.getInputs() (the inputs of the first rule).
+     * @param defuzzificationType 0-Height Defuzzification, 1-Centroid Defuzzification.
+     * @param context A context created by createEvaluationContext() of this rulebase.
+     * @param results Receives one defuzzified value per output, in the order of context.getOutputs().
+     */
+    public void evaluate(double[] inputValues, int defuzzificationType, T1_EvaluationContext context, double[] results)
+    {
+        if(context.rulebase!=this)
+            throw new BadParameterException("The evaluation context was created for a different rulebase.");
+        context.evaluate(inputValues, defuzzificationType, results);
+    }
+
+    /**
+     * Flattens the current rules into an allocation-free evaluator; see
+     * T1_CompiledRulebase. Later changes to this rulebase require recompiling.
+     * @return The compiled rulebase.
+     */
+    public T1_CompiledRulebase compile()
+    {
+        return new T1_CompiledRulebase(rules.toArray(new T1_Rule[rules.size()]), outputBuffers.keySet(), inferenceMethod, implicationMethod);
+    }
+
+    /**
+     * Compiles this rulebase into a three-dimensional lookup table by sampling
+     * its output over a regular grid spanning the domains of the given inputs
+     * (see LookupTable3D.compile(Input[], Evaluator, int[], boolean)).
+     * @param inputs The three inputs (in the order used by LookupTable3D.getValue()).
+     * @param output The output to be tabulated.
+     * @param defuzzificationType The defuzzifier to be used (see evaluate()).
+     * @param gridSize Number of grid points along each input domain.
+     * @param computeErrorEstimate Whether to sample the interpolation error
+     * against exact inference at the cell midpoints.
+     * @return The compiled lookup table.
+     */
+    public LookupTable3D compileLookupTable(Input[] inputs, final Output output, final int defuzzificationType, int[] gridSize, boolean computeErrorEstimate)
+    {
+        return LookupTable3D.compile(inputs, new LookupTable3D.Evaluator()
+        {
+            public double evaluate()
+            {
+                return T1_Rulebase.this.evaluate(defuzzificationType).get(output);
+            }
+        }, gridSize, computeErrorEstimate);
     }
 
     /**
@@ -198,18 +286,15 @@ public class T1_Rulebase implements Serializable
                 outputSetBuffers.put(o,new double[o.getDiscretisationLevel()]);
         }
         
-        fStrengths = new double[rules.size()];
-        for (int i=0;i<rules.size();i++)
-        {
-                fStrengths[i] = ((T1_Rule)rules.elementAt(i)).getFStrength(implicationMethod);
-                if(DEBUG)System.out.println("fStrength of rule "+i+" is: "+fStrengths[i]);
-        }
+        updateFStrengths();
         
         Iterator<T1_Consequent> consequentIterator;
         T1_Consequent c;
-        //for each rule
-        for(int r=0;r<rules.size();r++)
+        double[] buffer, sampledMF;
+        //for each rule that can fire
+        for(int k=0;k<numberOfCandidates;k++)
         {
+            int r = candidateRules[k];
             if(DEBUG)System.out.println("Rule: "+r+"\n"+rules.get(r));
             //for each output (i.e. consequent) in this rule...
             consequentIterator = rules.get(r).getConsequentsIterator();
@@ -217,38 +302,75 @@ public class T1_Rulebase implements Serializable
             {
                 c = consequentIterator.next();
                 o = c.getOutput();
-                for(int i=0; i<o.getDiscretisationLevel();i++)
-                {
-                    if(inferenceMethod==PRODUCT)
-                    {
-                        if(DEBUG)System.out.println("output = "+o.getName() + "  outputSetBuffers.get(o)[i]= "+outputSetBuffers.get(o)[i]+"  fStrengths[r]="+fStrengths[r]+"   c.getMF().getFS(o.getDisc[i])="+c.getMF().getFS(o.getDiscretizations()[i])+"  o.getDisc[i]="+o.getDiscretizations()[i]+"     result: "+fStrengths[r] * c.getMF().getFS(o.getDiscretizations()[i]));
-                        outputSetBuffers.get(o)[i] = Math.max(outputSetBuffers.get(o)[i], fStrengths[r] * c.getMF().getFS(o.getDiscretizations()[i]));
-                    }
-                    else
-                    {
-                        outputSetBuffers.get(o)[i] = Math.max(outputSetBuffers.get(o)[i], Math.min(fStrengths[r], c.getMF().getFS(o.getDiscretizations()[i])));
-                    }
-                }
+                buffer = outputSetBuffers.get(o);
+                sampledMF = c.getSampledMF();   //the consequent MF at o.getDiscretizations()
+                if(inferenceMethod==PRODUCT)
+                    ArrayKernels.maxProduct(buffer, 0, sampledMF, 0, fStrengths[r], o.getDiscretisationLevel());
+                else
+                    ArrayKernels.maxMin(buffer, 0, sampledMF, 0, fStrengths[r], o.getDiscretisationLevel());
             }
         }
         
         //calculate center of gravity for each output
+        double[] discretizations;
         numerator = 0.0; denominator = 0.0;
         Iterator<Output> outputs = outputBuffers.keySet().iterator();
         while(outputs.hasNext())
         {
             o = outputs.next();
-            numerator = 0.0; denominator = 0.0;
-            for(int i=0 ; i<o.getDiscretisationLevel();i++)
-            {
-                numerator += o.getDiscretizations()[i] * outputSetBuffers.get(o)[i];
-                denominator += outputSetBuffers.get(o)[i];
-            }
+            buffer = outputSetBuffers.get(o);
+            discretizations = o.getDiscretizations();
+            numerator = ArrayKernels.dot(discretizations, buffer, 0, o.getDiscretisationLevel());
+            denominator = ArrayKernels.sum(buffer, 0, o.getDiscretisationLevel());
             outputBuffers.put(o, numerator/denominator);
         }
         return outputBuffers;
     }
     
+    /**
+     * Inference and Centroid Defuzzification without discretisation: the
+     * consequent MFs are taken in their piecewise-linear form (see
+     * T1_Consequent.getPiecewiseLinearMF()), clipped or scaled by the firing
+     * strength, combined by maximum on their breakpoints and the centroid of
+     * the result is computed in closed form.
+     * @return TreeMap with outputs as keys, holding one Double per output based on the exact centroid
+     * (NaN if no rule fired)
+     */
+    public TreeMap<Output, Double> exactCentroidDefuzzification()
+    {
+        updateFStrengths();
+
+        HashMap<Output, T1MF_PiecewiseLinear> aggregated = new HashMap();
+        Iterator<T1_Consequent> consequentIterator;
+        T1_Consequent c;
+        T1MF_PiecewiseLinear fired, previous;
+        for(int k=0;k<numberOfCandidates;k++)
+        {
+            int r = candidateRules[k];
+            if(fStrengths[r]==0.0) continue;
+            consequentIterator = rules.get(r).getConsequentsIterator();
+            while(consequentIterator.hasNext())
+            {
+                c = consequentIterator.next();
+                if(inferenceMethod==PRODUCT)
+                    fired = c.getPiecewiseLinearMF().scale(fStrengths[r]);
+                else
+                    fired = c.getPiecewiseLinearMF().clip(fStrengths[r]);
+                previous = aggregated.get(c.getOutput());
+                aggregated.put(c.getOutput(), previous==null ? fired : previous.max(fired));
+            }
+        }
+
+        Iterator<Output> outputs = outputBuffers.keySet().iterator();
+        Output o;
+        while(outputs.hasNext())
+        {
+            o = outputs.next();
+            outputBuffers.put(o, aggregated.get(o)==null ? Double.NaN : aggregated.get(o).getCentroid());
+        }
+        return outputBuffers;
+    }
+
     /**
      * Inference and Height  Defuzzification
      * @return TreeMap with outputs as keys, holding one Double per output based on height defuzzifier
@@ -267,18 +389,14 @@ public class T1_Rulebase implements Serializable
                 outputSetBuffers.put(o,new double[2]);
         }        
 
-        fStrengths = new double[rules.size()];
-        for (int i=0;i<rules.size();i++)
-        {
-                fStrengths[i] = ((T1_Rule)rules.elementAt(i)).getFStrength(implicationMethod);
-                if(DEBUG)System.out.println("fStrength of rule "+i+" is: "+fStrengths[i]);
-        }
+        updateFStrengths();
 
         //for each rule
         T1_Consequent c;
         Iterator<T1_Consequent> consequentIterator;
-        for(int r=0;r<rules.size();r++)
+        for(int k=0;k<numberOfCandidates;k++)
         {
+            int r = candidateRules[k];
             //for each output (i.e. consequent) in this rule...
             consequentIterator = rules.get(r).getConsequentsIterator();
             while(consequentIterator.hasNext())
@@ -300,16 +418,116 @@ public class T1_Rulebase implements Serializable
         return outputBuffers;
     }
 
+    /**
+     * Computes the firing strength of every rule into fStrengths. Each distinct
+     * antecedent (rules typically share antecedents such as "high" on one input)
+     * is evaluated once and the rules combine the grades by index. Only the
+     * rules found by the activation index (candidateRules) are evaluated, all
+     * others have a firing strength of 0.
+     */
+    private void updateFStrengths()
+    {
+        if(uniqueAntecedents==null || ruleAntecedentIds.length!=rules.size() || !isActivationIndexCurrent())
+            buildAntecedentIndex();
+        for (int i=0;i<indexInputs.length;i++)
+            indexInputValues[i] = indexInputs[i].getInputMF() instanceof T1MF_Singleton ? indexInputs[i].getInput() : Double.NaN;
+        numberOfCandidates = activationIndex.getCandidateRules(indexInputValues, activeAntecedents, candidateRules);
+        for (int a=0;a<uniqueAntecedents.length;a++)
+            antecedentGrades[a] = activeAntecedents[a] ? uniqueAntecedents[a].getFS(implicationMethod) : 0.0;
+        if(fStrengths==null || fStrengths.length!=rules.size())
+            fStrengths = new double[rules.size()];
+        else
+            Arrays.fill(fStrengths, 0.0);
+        for (int k=0;k<numberOfCandidates;k++)
+        {
+                int i = candidateRules[k];
+                fStrengths[i] = rules.elementAt(i).getFStrength(implicationMethod, antecedentGrades, ruleAntecedentIds[i]);
+                if(DEBUG)System.out.println("fStrength of rule "+i+" is: "+fStrengths[i]);
+        }
+    }
+
+    /**
+     * Whether the antecedents still use the MFs the activation index was built
+     * for (T1_Antecedent.setMF() may have replaced them).
+     */
+    private boolean isActivationIndexCurrent()
+    {
+        for (int a=0;a<uniqueAntecedents.length;a++)
+            if(uniqueAntecedents[a].getMF()!=indexedMFs[a]) return false;
+        return true;
+    }
+
+    private void buildAntecedentIndex()
+    {
+        IdentityHashMap<T1_Antecedent, Integer> ids = new IdentityHashMap();
+        ruleAntecedentIds = new int[rules.size()][];
+        for (int r=0;r<rules.size();r++)
+        {
+            T1_Antecedent[] antecedents = rules.elementAt(r).getAntecedents();
+            ruleAntecedentIds[r] = new int[antecedents.length];
+            for (int i=0;i<antecedents.length;i++)
+            {
+                Integer id = ids.get(antecedents[i]);
+                if(id==null)
+                {
+                    id = ids.size();
+                    ids.put(antecedents[i], id);
+                }
+                ruleAntecedentIds[r][i] = id;
+            }
+        }
+        uniqueAntecedents = new T1_Antecedent[ids.size()];
+        for (T1_Antecedent a : ids.keySet())
+            uniqueAntecedents[ids.get(a)] = a;
+        antecedentGrades = new double[uniqueAntecedents.length];
+
+        IdentityHashMap<Input, Integer> inputIds = new IdentityHashMap();
+        int[] antecedentInput = new int[uniqueAntecedents.length];
+        Tuple[] activationIntervals = new Tuple[uniqueAntecedents.length];
+        indexedMFs = new T1MF_Interface[uniqueAntecedents.length];
+        for (int a=0;a<uniqueAntecedents.length;a++)
+        {
+            Integer id = inputIds.get(uniqueAntecedents[a].getInput());
+            if(id==null)
+            {
+                id = inputIds.size();
+                inputIds.put(uniqueAntecedents[a].getInput(), id);
+            }
+            antecedentInput[a] = id;
+            indexedMFs[a] = uniqueAntecedents[a].getMF();
+            activationIntervals[a] = RuleActivationIndex.getActivationInterval(indexedMFs[a]);
+        }
+        indexInputs = new Input[inputIds.size()];
+        for (Input i : inputIds.keySet())
+            indexInputs[inputIds.get(i)] = i;
+        activationIndex = new RuleActivationIndex(indexInputs.length, antecedentInput, activationIntervals, ruleAntecedentIds);
+        indexInputValues = new double[indexInputs.length];
+        activeAntecedents = new boolean[uniqueAntecedents.length];
+        candidateRules = new int[activationIndex.getCandidateBufferSize()];
+    }
+
+    /**
+     * Returns the number of distinct antecedent objects used by the rules.
+     */
+    public int getNumberOfUniqueAntecedents()
+    {
+        if(uniqueAntecedents==null || ruleAntecedentIds.length!=rules.size())
+            buildAntecedentIndex();
+        return uniqueAntecedents.length;
+    }
+
     public Vector<T1_Rule> getRules() {
         return rules;
     }
 
     public void changeRule(int ruleToBeChanged, T1_Rule newRule) {
         rules.setElementAt(newRule, ruleToBeChanged);
+        uniqueAntecedents = null;
     }
 
     public void removeRule(int ruleNumber) {
         rules.remove(ruleNumber);
+        uniqueAntecedents = null;
     }
 
     
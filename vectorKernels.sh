@@ -0,0 +1,2 @@
+javac --add-modules jdk.incubator.vector -classpath src src/generic/VectorArrayKernels.java src/generic/ArrayKernelsParityCheck.java
+java --add-modules jdk.incubator.vector -classpath src generic.ArrayKernelsParityCheck